@@ -5,6 +5,9 @@ import android.content.pm.ApplicationInfo;
 import android.os.Build;
 import android.os.StrictMode;
 import android.util.Log;
+import com.fp.foodorderingsystem.services.NetworkStack;
+import com.fp.foodorderingsystem.services.OrderRepository;
+import com.fp.foodorderingsystem.services.SupabaseRealtimeClient;
 
 public class MyApp extends Application {
 	private static final String TAG = "AppDebug";
@@ -48,6 +51,13 @@ public class MyApp extends Application {
 			StrictMode.setVmPolicy(vmPolicy);
 		}
 
+		// Build the shared HTTP stack and open the Supabase connection before the first screen needs it
+		NetworkStack.init(this);
+		// Restore the order index so order lookups start warm
+		OrderRepository.init(this);
+		// Lets realtime catch up on rows missed during a reconnect
+		SupabaseRealtimeClient.init(this);
+
 		Thread.setDefaultUncaughtExceptionHandler((t, e) -> {
 			Log.e(TAG, "Uncaught exception in thread: " + t.getName(), e);
 		});
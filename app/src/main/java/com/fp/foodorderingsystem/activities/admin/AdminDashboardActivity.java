@@ -1,6 +1,8 @@
 package com.fp.foodorderingsystem.activities.admin;
 
 import android.content.Intent;
+import android.content.res.ColorStateList;
+import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -21,12 +23,15 @@ import com.fp.foodorderingsystem.models.Order;
 import com.fp.foodorderingsystem.models.CartItem;
 import com.fp.foodorderingsystem.services.AuthService;
 import com.fp.foodorderingsystem.services.OrderService;
+import com.fp.foodorderingsystem.services.OrderTimeSeries;
+import com.fp.foodorderingsystem.services.RealtimeBatcher;
+import com.fp.foodorderingsystem.services.RealtimeHealth;
 import com.fp.foodorderingsystem.services.SupabaseRealtimeClient;
-import com.fp.foodorderingsystem.services.SupabaseRealtimeClient.RealtimeListener;
 import com.fp.foodorderingsystem.utils.PreferenceUtil;
 import com.fp.foodorderingsystem.utils.ToastUtil;
 import com.fp.foodorderingsystem.utils.ChartStyleUtils;
 import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.chip.Chip;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.gson.JsonObject;
 import com.github.mikephil.charting.charts.LineChart;
@@ -50,7 +55,6 @@ import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -59,9 +63,14 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class AdminDashboardActivity extends AppCompatActivity {
+    private static final long DASHBOARD_BATCH_WINDOW_MS = 750;
+    private static final int DASHBOARD_MAX_BATCH = 100;
+    private static final long REALTIME_HEALTH_REFRESH_MS = 5000;
     private TextView tvTotalOrders, tvTotalRevenue, tvPendingOrders, tvCompletedOrders;
     private TextView tvNavHeaderName, tvNavHeaderEmail, tvNavHeaderLevel;
     private TextView tvNotificationBadge;
+    private TextView tvSyncTime;
+    private Chip chipStatusLive;
     private ShapeableImageView imgSidebarAvatar;
     private OrderService orderService;
     private PreferenceUtil preferenceUtil;
@@ -74,9 +83,12 @@ public class AdminDashboardActivity extends AppCompatActivity {
     private ExecutorService executorService;
     private Handler mainHandler;
     private View sidebarHeaderView;
-    private SupabaseRealtimeClient ordersRealtimeClient;
-    private SupabaseRealtimeClient menuRealtimeClient;
-    private SupabaseRealtimeClient notificationRealtimeClient;
+    // One client; orders, menu and notifications are channels on the shared realtime socket
+    private SupabaseRealtimeClient realtimeClient;
+    private RealtimeBatcher dashboardBatcher;
+    private RealtimeBatcher notificationBatcher;
+    // Hourly/daily buckets behind the revenue, throughput and traffic charts
+    private final OrderTimeSeries orderTimeSeries = new OrderTimeSeries();
     
     // Chart views
     private LineChart chartRevenue;
@@ -154,6 +166,8 @@ public class AdminDashboardActivity extends AppCompatActivity {
             tvPendingOrders = findViewById(R.id.tvPendingOrders);
             tvCompletedOrders = findViewById(R.id.tvCompletedOrders);
             tvNotificationBadge = findViewById(R.id.tvNotificationBadge);
+            tvSyncTime = findViewById(R.id.tvSyncTime);
+            chipStatusLive = findViewById(R.id.chipStatusLive);
             
             // Initialize charts
             chartRevenue = findViewById(R.id.chartRevenue);
@@ -320,6 +334,23 @@ public class AdminDashboardActivity extends AppCompatActivity {
         setupSidebarInteractions();
     }
     
+    private void showTotals(OrderTimeSeries.Totals totals) {
+        if (tvTotalOrders != null) {
+            tvTotalOrders.setText(String.valueOf(totals.orders));
+        }
+        if (tvPendingOrders != null) {
+            tvPendingOrders.setText(String.valueOf(totals.pendingOrders));
+        }
+        if (tvCompletedOrders != null) {
+            tvCompletedOrders.setText(String.valueOf(totals.completedOrders));
+        }
+        if (tvTotalRevenue != null) {
+            NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "PH"));
+            currencyFormat.setCurrency(java.util.Currency.getInstance("PHP"));
+            tvTotalRevenue.setText(currencyFormat.format(totals.completedRevenue));
+        }
+    }
+    
     private void navigateToActivity(Class<?> activityClass) {
         Intent intent = new Intent(this, activityClass);
         startActivity(intent);
@@ -370,48 +401,14 @@ public class AdminDashboardActivity extends AppCompatActivity {
                             return;
                         }
                         
-                        // Process data in background
-                        int totalOrders = orders.size();
-                        int pendingCount = 0;
-                        int completedCount = 0;
-                        double totalRevenue = 0.0;
-                        
-                        for (Order order : orders) {
-                            if (order == null) continue;
-                            
-                            String status = order.getStatus();
-                            if (status != null) {
-                                if ("pending".equalsIgnoreCase(status)) {
-                                    pendingCount++;
-                                } else if ("completed".equalsIgnoreCase(status)) {
-                                    completedCount++;
-                                    totalRevenue += order.getTotalAmount();
-                                }
-                            }
-                        }
-                        
-                        final int finalTotalOrders = totalOrders;
-                        final int finalPendingCount = pendingCount;
-                        final int finalCompletedCount = completedCount;
-                        final double finalTotalRevenue = totalRevenue;
+                        // Bucket each order once; the time charts and the cards read the series
+                        orderTimeSeries.replaceAll(orders);
+                        final OrderTimeSeries.Totals totals = orderTimeSeries.totals();
                         
                         // Update UI on main thread
                         if (mainHandler != null) {
                             mainHandler.post(() -> {
-                                if (tvTotalOrders != null) {
-                                    tvTotalOrders.setText(String.valueOf(finalTotalOrders));
-                                }
-                                if (tvPendingOrders != null) {
-                                    tvPendingOrders.setText(String.valueOf(finalPendingCount));
-                                }
-                                if (tvCompletedOrders != null) {
-                                    tvCompletedOrders.setText(String.valueOf(finalCompletedCount));
-                                }
-                                if (tvTotalRevenue != null) {
-                                    NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "PH"));
-                                    currencyFormat.setCurrency(java.util.Currency.getInstance("PHP"));
-                                    tvTotalRevenue.setText(currencyFormat.format(finalTotalRevenue));
-                                }
+                                showTotals(totals);
                                 
                                 // Update charts with real-time data
                                 updateCharts(orders);
@@ -603,6 +600,10 @@ public class AdminDashboardActivity extends AppCompatActivity {
     protected void onResume() {
         super.onResume();
         // Refresh data when returning to dashboard - delay to avoid ANR
+        if (mainHandler != null) {
+            mainHandler.removeCallbacks(realtimeHealthTicker);
+            mainHandler.post(realtimeHealthTicker);
+        }
         if (preferenceUtil != null && preferenceUtil.isLoggedIn() && mainHandler != null) {
             loadNotifications(); // Load notifications immediately
             mainHandler.postDelayed(() -> {
@@ -653,58 +654,37 @@ public class AdminDashboardActivity extends AppCompatActivity {
     }
     
     private void updateCharts(List<Order> orders) {
+        updateTimeSeriesCharts();
         if (orders == null || orders.isEmpty()) {
-            updateRevenueChart(new ArrayList<>());
             updateOrdersChart(new ArrayList<>());
             updatePopularItemsChart(new ArrayList<>());
-            updateThroughputChart(new ArrayList<>());
-            updateTrafficChart(new ArrayList<>());
             updateSatisfactionChart(new ArrayList<>());
             return;
         }
         
-        updateRevenueChart(orders);
         updateOrdersChart(orders);
         updatePopularItemsChart(orders);
-        updateThroughputChart(orders);
-        updateTrafficChart(orders);
         updateSatisfactionChart(orders);
     }
+
+    /**
+     * Redraw the charts that read {@link #orderTimeSeries}
+     */
+    private void updateTimeSeriesCharts() {
+        updateRevenueChart();
+        updateThroughputChart();
+        updateTrafficChart();
+    }
     
-    private void updateRevenueChart(List<Order> orders) {
+    private void updateRevenueChart() {
         if (chartRevenue == null) return;
         
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        calendar.add(Calendar.DAY_OF_YEAR, -6);
-        
         List<Entry> entries = new ArrayList<>();
         SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd", Locale.getDefault());
         
-        for (int i = 0; i < 7; i++) {
-            Date dayStart = calendar.getTime();
-            calendar.add(Calendar.DAY_OF_YEAR, 1);
-            Date dayEnd = calendar.getTime();
-            
-            double dayRevenue = 0.0;
-            for (Order order : orders) {
-                if (order == null || !"completed".equalsIgnoreCase(order.getStatus())) continue;
-                
-                try {
-                    SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.getDefault());
-                    Date orderDate = sdf.parse(order.getCreatedAt());
-                    if (orderDate != null && orderDate.after(dayStart) && orderDate.before(dayEnd)) {
-                        dayRevenue += order.getTotalAmount();
-                    }
-                } catch (Exception e) {
-                    // Skip invalid dates
-                }
-            }
-            
-            entries.add(new Entry(i, (float) dayRevenue));
+        double[] revenue = orderTimeSeries.dailyRevenue(7, System.currentTimeMillis());
+        for (int i = 0; i < revenue.length; i++) {
+            entries.add(new Entry(i, (float) revenue[i]));
         }
         
         LineDataSet dataSet = new LineDataSet(entries, "Revenue");
@@ -717,7 +697,7 @@ public class AdminDashboardActivity extends AppCompatActivity {
         
         // Set X-axis labels
         List<String> labels = new ArrayList<>();
-        calendar = Calendar.getInstance();
+        Calendar calendar = Calendar.getInstance();
         calendar.add(Calendar.DAY_OF_YEAR, -6);
         for (int i = 0; i < 7; i++) {
             labels.add(dateFormat.format(calendar.getTime()));
@@ -853,7 +833,7 @@ public class AdminDashboardActivity extends AppCompatActivity {
         chartThroughput.getLegend().setEnabled(false);
     }
 
-    private void updateThroughputChart(List<Order> orders) {
+    private void updateThroughputChart() {
         if (chartThroughput == null) return;
         List<BarEntry> entries = new ArrayList<>();
         List<String> labels = new ArrayList<>();
@@ -865,24 +845,13 @@ public class AdminDashboardActivity extends AppCompatActivity {
         cal.set(Calendar.MILLISECOND, 0);
 
         SimpleDateFormat hourFmt = new SimpleDateFormat("ha", Locale.getDefault());
+        int[] counts = orderTimeSeries.hourlyOrders(12, cal.getTimeInMillis());
         for (int i = 11; i >= 0; i--) {
             Calendar slotStart = (Calendar) cal.clone();
             slotStart.add(Calendar.HOUR_OF_DAY, -i);
-            Calendar slotEnd = (Calendar) slotStart.clone();
-            slotEnd.add(Calendar.HOUR_OF_DAY, 1);
 
-            int count = 0;
-            for (Order o : orders) {
-                if (o == null || o.getCreatedAt() == null) continue;
-                try {
-                    Date created = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.getDefault()).parse(o.getCreatedAt());
-                    if (created != null && !created.before(slotStart.getTime()) && created.before(slotEnd.getTime())) {
-                        count++;
-                    }
-                } catch (Exception ignored) { }
-            }
             int index = 11 - i;
-            entries.add(new BarEntry(index, count));
+            entries.add(new BarEntry(index, counts[index]));
             labels.add(hourFmt.format(slotStart.getTime()));
         }
 
@@ -915,7 +884,7 @@ public class AdminDashboardActivity extends AppCompatActivity {
         chartTraffic.getLegend().setEnabled(false);
     }
 
-    private void updateTrafficChart(List<Order> orders) {
+    private void updateTrafficChart() {
         if (chartTraffic == null) return;
         Calendar cal = Calendar.getInstance();
         cal.set(Calendar.HOUR_OF_DAY, 0);
@@ -928,23 +897,11 @@ public class AdminDashboardActivity extends AppCompatActivity {
         List<String> labels = new ArrayList<>();
         SimpleDateFormat df = new SimpleDateFormat("MMM dd", Locale.getDefault());
 
+        int[] counts = orderTimeSeries.dailyOrders(7, System.currentTimeMillis());
         for (int i = 0; i < 7; i++) {
-            Date start = cal.getTime();
+            entries.add(new Entry(i, counts[i]));
+            labels.add(df.format(cal.getTime()));
             cal.add(Calendar.DAY_OF_YEAR, 1);
-            Date end = cal.getTime();
-
-            int count = 0;
-            for (Order o : orders) {
-                if (o == null || o.getCreatedAt() == null) continue;
-                try {
-                    Date created = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.getDefault()).parse(o.getCreatedAt());
-                    if (created != null && created.after(start) && created.before(end)) {
-                        count++;
-                    }
-                } catch (Exception ignored) { }
-            }
-            entries.add(new Entry(i, count));
-            labels.add(df.format(start));
         }
 
         LineDataSet dataSet = new LineDataSet(entries, "Orders (7d)");
@@ -1015,6 +972,38 @@ public class AdminDashboardActivity extends AppCompatActivity {
         chartSatisfaction.invalidate();
     }
     
+    private final Runnable realtimeHealthTicker = new Runnable() {
+        @Override
+        public void run() {
+            updateRealtimeHealth();
+            mainHandler.postDelayed(this, REALTIME_HEALTH_REFRESH_MS);
+        }
+    };
+
+    private void updateRealtimeHealth() {
+        RealtimeHealth health = SupabaseRealtimeClient.getHealth();
+        if (chipStatusLive != null) {
+            chipStatusLive.setText(health.connected ? "● Live" : "● Reconnecting");
+            chipStatusLive.setChipBackgroundColor(ColorStateList.valueOf(
+                Color.parseColor(health.connected ? "#4CAF50" : "#FF9800")));
+        }
+        if (tvSyncTime != null) {
+            String rtt = health.rttSamples > 0
+                ? "RTT " + health.rttP50Ms + " ms (p95 " + health.rttP95Ms + " ms)"
+                : "RTT pending";
+            tvSyncTime.setText(String.format(Locale.US, "Realtime %s • %s • %.1f events/s • %d reconnects",
+                health.connected ? "active" : "offline", rtt, health.eventsPerSecond, health.reconnects));
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (mainHandler != null) {
+            mainHandler.removeCallbacks(realtimeHealthTicker);
+        }
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
@@ -1025,64 +1014,62 @@ public class AdminDashboardActivity extends AppCompatActivity {
     }
 
     private void subscribeToRealtimeStreams() {
-        ordersRealtimeClient = new SupabaseRealtimeClient();
-        menuRealtimeClient = new SupabaseRealtimeClient();
-        notificationRealtimeClient = new SupabaseRealtimeClient();
+        realtimeClient = new SupabaseRealtimeClient();
 
-        RealtimeListener orderListener = new RealtimeListener() {
-            @Override
-            public void onOpen() { }
+        // Orders and menu changes both rebuild the dashboard; a burst becomes one reload per window
+        dashboardBatcher = new RealtimeBatcher(DASHBOARD_BATCH_WINDOW_MS, DASHBOARD_MAX_BATCH, mainHandler::post,
+            new RealtimeBatcher.BatchListener() {
+                @Override
+                public void onOpen() { }
 
-            @Override
-            public void onChange(JsonObject payload) {
-                if (mainHandler != null) {
-                    mainHandler.post(AdminDashboardActivity.this::loadDashboardData);
+                @Override
+                public void onBatch(List<JsonObject> changes) {
+                    // Menu changes, or deltas with nothing loaded to apply them to, need the full refetch
+                    boolean ordersOnly = orderTimeSeries.isLoaded();
+                    for (JsonObject change : changes) {
+                        ordersOnly &= change.has("table") && "orders".equals(change.get("table").getAsString());
+                    }
+                    if (!ordersOnly) {
+                        loadDashboardData();
+                        return;
+                    }
+                    // Order changes move only their own contribution; the status and popular-item
+                    // charts catch up on the next full load
+                    boolean seriesChanged = false;
+                    for (JsonObject change : changes) {
+                        seriesChanged |= orderTimeSeries.apply(change);
+                    }
+                    if (seriesChanged) {
+                        showTotals(orderTimeSeries.totals());
+                        updateTimeSeriesCharts();
+                    }
                 }
-            }
 
-            @Override
-            public void onError(String error) {
-                android.util.Log.e("AdminDashboard", "Order realtime error: " + error);
-            }
-        };
-
-        RealtimeListener menuListener = new RealtimeListener() {
-            @Override
-            public void onOpen() { }
-
-            @Override
-            public void onChange(JsonObject payload) {
-                if (mainHandler != null) {
-                    mainHandler.post(AdminDashboardActivity.this::loadDashboardData);
+                @Override
+                public void onError(String error) {
+                    android.util.Log.e("AdminDashboard", "Dashboard realtime error: " + error);
                 }
-            }
-
-            @Override
-            public void onError(String error) {
-                android.util.Log.e("AdminDashboard", "Menu realtime error: " + error);
-            }
-        };
+            });
 
-        RealtimeListener notificationListener = new RealtimeListener() {
-            @Override
-            public void onOpen() { }
+        notificationBatcher = new RealtimeBatcher(DASHBOARD_BATCH_WINDOW_MS, DASHBOARD_MAX_BATCH, mainHandler::post,
+            new RealtimeBatcher.BatchListener() {
+                @Override
+                public void onOpen() { }
 
-            @Override
-            public void onChange(JsonObject payload) {
-                if (mainHandler != null) {
-                    mainHandler.post(AdminDashboardActivity.this::loadNotifications);
+                @Override
+                public void onBatch(List<JsonObject> changes) {
+                    loadNotifications();
                 }
-            }
 
-            @Override
-            public void onError(String error) {
-                android.util.Log.e("AdminDashboard", "Notification realtime error: " + error);
-            }
-        };
+                @Override
+                public void onError(String error) {
+                    android.util.Log.e("AdminDashboard", "Notification realtime error: " + error);
+                }
+            });
 
-        ordersRealtimeClient.subscribeToTable("public", "orders", orderListener);
-        menuRealtimeClient.subscribeToTable("public", "menu_items", menuListener);
-        notificationRealtimeClient.subscribeToTable("public", "notifications", notificationListener);
+        realtimeClient.subscribeToTable("public", "orders", dashboardBatcher);
+        realtimeClient.subscribeToTable("public", "menu_items", dashboardBatcher);
+        realtimeClient.subscribeToTable("public", "notifications", notificationBatcher);
     }
 
     private void loadNotifications() {
@@ -1129,14 +1116,14 @@ public class AdminDashboardActivity extends AppCompatActivity {
     }
 
     private void disconnectRealtime() {
-        if (ordersRealtimeClient != null) {
-            ordersRealtimeClient.disconnect();
+        if (realtimeClient != null) {
+            realtimeClient.disconnect();
         }
-        if (menuRealtimeClient != null) {
-            menuRealtimeClient.disconnect();
+        if (dashboardBatcher != null) {
+            dashboardBatcher.close();
         }
-        if (notificationRealtimeClient != null) {
-            notificationRealtimeClient.disconnect();
+        if (notificationBatcher != null) {
+            notificationBatcher.close();
         }
     }
 }
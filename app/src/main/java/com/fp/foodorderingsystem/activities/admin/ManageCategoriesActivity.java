@@ -22,6 +22,7 @@ import com.fp.foodorderingsystem.services.CategoryService.CategoryListCallback;
 import com.fp.foodorderingsystem.services.CategoryService.SimpleCallback;
 import com.fp.foodorderingsystem.services.SupabaseRealtimeClient;
 import com.fp.foodorderingsystem.services.SupabaseRealtimeClient.RealtimeListener;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
@@ -50,7 +51,7 @@ public class ManageCategoriesActivity extends AppCompatActivity implements Swipe
     private SupabaseRealtimeClient realtimeClient;
     private final List<Category> categories = new ArrayList<>();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
-    private final Gson gson = new Gson();
+    private final Gson gson = GsonProvider.get();
 
     private Category editingCategory = null;
 
@@ -32,6 +32,7 @@ import com.fp.foodorderingsystem.services.SupabaseService;
 import com.fp.foodorderingsystem.utils.ImageUtil;
 import com.fp.foodorderingsystem.utils.PreferenceUtil;
 import com.fp.foodorderingsystem.utils.ToastUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.switchmaterial.SwitchMaterial;
 import com.google.android.material.textfield.MaterialAutoCompleteTextView;
@@ -75,7 +76,7 @@ public class ManageItemsActivity extends AppCompatActivity implements SwipeRefre
     private final List<Category> categories = new ArrayList<>();
     private final Map<Integer, String> categoryLookup = new HashMap<>();
     private final List<FoodItem> menuItems = new ArrayList<>();
-    private final Gson gson = new Gson();
+    private final Gson gson = GsonProvider.get();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     
     private MenuItemService menuItemService;
@@ -23,6 +23,7 @@ import com.fp.foodorderingsystem.services.AuthService;
 import com.fp.foodorderingsystem.services.OrderService;
 import com.fp.foodorderingsystem.services.SupabaseRealtimeClient;
 import com.fp.foodorderingsystem.services.SupabaseRealtimeClient.RealtimeListener;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.textfield.TextInputEditText;
@@ -51,7 +52,7 @@ public class ManageOrdersActivity extends AppCompatActivity implements SwipeRefr
     private List<Order> allOrders = new ArrayList<>();
     private List<Order> filteredOrders = new ArrayList<>();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
-    private final Gson gson = new Gson();
+    private final Gson gson = GsonProvider.get();
     
     private String currentSearchQuery = "";
     private String currentFilterStatus = "all";
@@ -194,7 +195,7 @@ public class ManageOrdersActivity extends AppCompatActivity implements SwipeRefr
         
         // Create a more visually appealing dialog
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
-        builder.setTitle("Order #" + order.getId());
+        builder.setTitle("Order #" + order.getDisplayNumber());
         
         // Build formatted order details
         StringBuilder message = new StringBuilder();
@@ -219,6 +220,7 @@ public class ManageOrdersActivity extends AppCompatActivity implements SwipeRefr
             Intent intent = new Intent(ManageOrdersActivity.this, 
                 com.fp.foodorderingsystem.activities.customer.OrderDetailActivity.class);
             intent.putExtra("order_id", order.getId());
+            intent.putExtra("order_id_string", order.getIdString());
             startActivity(intent);
         });
         
@@ -407,20 +409,10 @@ public class ManageOrdersActivity extends AppCompatActivity implements SwipeRefr
     }
     
     private void sortOrders() {
-        Collections.sort(filteredOrders, (a, b) -> {
-            String dateA = a != null ? a.getCreatedAt() : null;
-            String dateB = b != null ? b.getCreatedAt() : null;
-            if (dateA == null && dateB == null) {
-                return 0;
-            }
-            if (dateA == null) {
-                return 1;
-            }
-            if (dateB == null) {
-                return -1;
-            }
-            return dateB.compareTo(dateA); // Most recent first
-        });
+        // Parsed epochs order mixed offsets correctly; missing dates (0) sort last
+        Collections.sort(filteredOrders, (a, b) -> Long.compare(
+            b != null ? b.getCreatedAtEpoch() : 0L,
+            a != null ? a.getCreatedAtEpoch() : 0L));
     }
     
     private void subscribeToRealtimeUpdates() {
@@ -506,7 +498,7 @@ public class ManageOrdersActivity extends AppCompatActivity implements SwipeRefr
             case "DELETE":
                 if (oldRecord != null && oldRecord.has("id")) {
                     try {
-                        int orderId = oldRecord.get("id").getAsInt();
+                        String orderId = oldRecord.get("id").getAsString();
                         mainHandler.post(() -> {
                             removeLocalOrder(orderId);
                             android.util.Log.d("ManageOrdersActivity", "Realtime delete: order " + orderId);
@@ -526,9 +518,11 @@ public class ManageOrdersActivity extends AppCompatActivity implements SwipeRefr
         if (order == null) {
             return;
         }
+        // Match on the UUID; the compact numeric id is for display only
+        String orderId = order.getIdString();
         boolean found = false;
         for (int i = 0; i < allOrders.size(); i++) {
-            if (allOrders.get(i).getId() == order.getId()) {
+            if (orderId != null && orderId.equals(allOrders.get(i).getIdString())) {
                 allOrders.set(i, order);
                 found = true;
                 break;
@@ -540,9 +534,9 @@ public class ManageOrdersActivity extends AppCompatActivity implements SwipeRefr
         applyFilters();
     }
     
-    private void removeLocalOrder(int orderId) {
+    private void removeLocalOrder(String orderId) {
         for (int i = 0; i < allOrders.size(); i++) {
-            if (allOrders.get(i).getId() == orderId) {
+            if (orderId.equals(allOrders.get(i).getIdString())) {
                 allOrders.remove(i);
                 break;
             }
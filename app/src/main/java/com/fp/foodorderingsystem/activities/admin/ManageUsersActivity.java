@@ -25,6 +25,7 @@ import com.fp.foodorderingsystem.services.SupabaseRealtimeClient.RealtimeListene
 import com.fp.foodorderingsystem.services.UserService;
 import com.fp.foodorderingsystem.services.UserService.UserCallback;
 import com.fp.foodorderingsystem.services.UserService.UserListCallback;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
@@ -54,7 +55,7 @@ public class ManageUsersActivity extends AppCompatActivity implements SwipeRefre
     private SupabaseRealtimeClient realtimeClient;
     private final List<User> users = new ArrayList<>();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
-    private final Gson gson = new Gson();
+    private final Gson gson = GsonProvider.get();
     private String currentQuery = "";
 
     @Override
@@ -14,6 +14,7 @@ import com.fp.foodorderingsystem.services.SupabaseRealtimeClient;
 import com.fp.foodorderingsystem.services.SupabaseRealtimeClient.RealtimeListener;
 import com.fp.foodorderingsystem.utils.NetworkUtil;
 import com.fp.foodorderingsystem.utils.PreferenceUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
@@ -78,7 +79,7 @@ public class NotificationActivity extends AppCompatActivity {
             String cachedNotification = preferenceUtil.getLastNotification();
             if (!cachedNotification.isEmpty()) {
                 try {
-                    Notification notification = new Gson().fromJson(cachedNotification, Notification.class);
+                    Notification notification = GsonProvider.get().fromJson(cachedNotification, Notification.class);
                     notifications.clear();
                     notifications.add(notification);
                     updateUI();
@@ -108,7 +109,7 @@ public class NotificationActivity extends AppCompatActivity {
                     String cachedNotification = preferenceUtil.getLastNotification();
                     if (!cachedNotification.isEmpty()) {
                         try {
-                            Notification notification = new Gson().fromJson(cachedNotification, Notification.class);
+                            Notification notification = GsonProvider.get().fromJson(cachedNotification, Notification.class);
                             notifications.clear();
                             notifications.add(notification);
                             updateUI();
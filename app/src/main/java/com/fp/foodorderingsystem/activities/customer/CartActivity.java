@@ -25,6 +25,7 @@ import com.fp.foodorderingsystem.ui.FoodLoaderView;
 import com.fp.foodorderingsystem.utils.PreferenceUtil;
 import com.fp.foodorderingsystem.utils.ToastUtil;
 import com.fp.foodorderingsystem.utils.RealtimePayloadUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.button.MaterialButton;
 import com.google.gson.Gson;
@@ -57,6 +58,8 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnIte
     private Handler mainHandler;
     private String userId;
     private SupabaseRealtimeClient cartRealtimeClient;
+    // Set on a realtime outage; the next onOpen reloads to pick up missed deletes
+    private volatile boolean cartRealtimeInterrupted;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -103,7 +106,7 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnIte
                 return;
             }
             Intent intent = new Intent(this, CheckoutActivity.class);
-            intent.putExtra("cart_items", new Gson().toJson(cartItems));
+            intent.putExtra("cart_items", GsonProvider.get().toJson(cartItems));
             startActivity(intent);
         });
 
@@ -191,25 +194,43 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnIte
 
     private void subscribeToRealtimeCart() {
         cartRealtimeClient = new SupabaseRealtimeClient();
-        cartRealtimeClient.subscribeToTable("public", "cart_items", new RealtimeListener() {
+        // Deletes (checkout's place_order, another device) arrive unfiltered; see isPayloadForCurrentUser
+        cartRealtimeClient.subscribeToRows("public", "cart_items", "user_id", userId, new RealtimeListener() {
             @Override
-            public void onOpen() { }
+            public void onOpen() {
+                // Deletes made while disconnected are not caught up
+                if (cartRealtimeInterrupted) {
+                    cartRealtimeInterrupted = false;
+                    mainHandler.post(() -> loadCart(false));
+                }
+            }
 
             @Override
             public void onChange(JsonObject payload) {
-                if (isPayloadForCurrentUser(payload)) {
-                    mainHandler.post(() -> loadCart(false));
-                }
+                mainHandler.post(() -> {
+                    if (isPayloadForCurrentUser(payload)) {
+                        loadCart(false);
+                    }
+                });
             }
 
             @Override
             public void onError(String error) {
+                cartRealtimeInterrupted = true;
                 android.util.Log.e("CartActivity", "Realtime cart error: " + error);
             }
         });
     }
 
+    /**
+     * Main thread only: a DELETE carries just the row id, so match it against the cart we show.
+     */
     private boolean isPayloadForCurrentUser(JsonObject payload) {
+        if ("DELETE".equalsIgnoreCase(RealtimePayloadUtil.getEventType(payload))) {
+            JsonObject oldRecord = RealtimePayloadUtil.getOldRecord(payload);
+            return oldRecord != null && oldRecord.has("id")
+                && findLocalItemById(oldRecord.get("id").getAsString()) != null;
+        }
         JsonObject record = RealtimePayloadUtil.getRelevantRecord(payload);
         if (record != null && record.has("user_id")) {
             return userId != null && userId.equals(record.get("user_id").getAsString());
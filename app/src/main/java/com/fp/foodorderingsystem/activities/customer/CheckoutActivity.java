@@ -28,12 +28,12 @@ import com.fp.foodorderingsystem.config.PayMongoConfig;
 import com.fp.foodorderingsystem.models.CartItem;
 import com.fp.foodorderingsystem.models.Order;
 import com.fp.foodorderingsystem.services.AuthService;
-import com.fp.foodorderingsystem.services.CartService;
 import com.fp.foodorderingsystem.services.NotificationService;
 import com.fp.foodorderingsystem.services.OrderService;
 import com.fp.foodorderingsystem.services.PayMongoService;
 import com.fp.foodorderingsystem.utils.NotificationHelper;
 import com.fp.foodorderingsystem.utils.PreferenceUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.Priority;
 import com.google.android.gms.location.LocationServices;
@@ -74,7 +74,6 @@ public class CheckoutActivity extends AppCompatActivity {
     private double subtotal;
     private List<CartItem> cartItems;
     private OrderService orderService;
-    private CartService cartService;
     private AuthService authService;
     private NotificationService notificationService;
     private NotificationHelper notificationHelper;
@@ -103,7 +102,6 @@ public class CheckoutActivity extends AppCompatActivity {
         setContentView(R.layout.activity_checkout);
         
         orderService = new OrderService(this);
-        cartService = new CartService(this);
         authService = new AuthService(this);
         notificationService = new NotificationService(this);
         notificationHelper = new NotificationHelper(this);
@@ -141,7 +139,7 @@ public class CheckoutActivity extends AppCompatActivity {
         String cartJson = getIntent().getStringExtra("cart_items");
         if (cartJson != null) {
             Type type = new TypeToken<List<CartItem>>(){}.getType();
-            cartItems = new Gson().fromJson(cartJson, type);
+            cartItems = GsonProvider.get().fromJson(cartJson, type);
         }
         
         calculateTotal();
@@ -917,13 +915,13 @@ public class CheckoutActivity extends AppCompatActivity {
         
         // Pass cart items to save with order
         android.util.Log.d("CheckoutActivity", "Creating order with " + cartItems.size() + " items");
-        orderService.createOrder(order, cartItems, accessToken, new OrderService.SingleOrderCallback() {
+        // Order, items and the server-side cart clear commit together in one round trip
+        orderService.placeOrder(order, cartItems, accessToken, new OrderService.SingleOrderCallback() {
             @Override
             public void onSuccess(Order order) {
                 runOnUiThread(() -> {
-                    // Clear cart
+                    // Clear local cart; the server cart was cleared in the same transaction
                     getSharedPreferences("CartPrefs", MODE_PRIVATE).edit().clear().apply();
-                    clearServerCart(customerId);
                     
                     // Send database notification
                     String orderIdDisplay = order.getIdString() != null ? order.getIdString() : String.valueOf(order.getId());
@@ -932,11 +930,11 @@ public class CheckoutActivity extends AppCompatActivity {
                         "Order Placed",
                         "Your order has been placed successfully! Order ID: " + orderIdDisplay,
                         "order",
-                        order.getId()
+                        order.getDisplayNumber()
                     );
                     
                     // Show system notification
-                    notificationHelper.showOrderPlacedNotification(orderIdDisplay, order.getId());
+                    notificationHelper.showOrderPlacedNotification(orderIdDisplay, order.getDisplayNumber());
                     
                     Toast.makeText(CheckoutActivity.this, "Order placed successfully!", Toast.LENGTH_SHORT).show();
                     
@@ -948,63 +946,9 @@ public class CheckoutActivity extends AppCompatActivity {
             @Override
             public void onError(String error) {
                 runOnUiThread(() -> {
+                    // Expired tokens are refreshed and replayed by the HTTP client
                     android.util.Log.e("CheckoutActivity", "Order creation error: " + error);
-                    
-                    // If JWT expired, try to refresh token and retry
-                    if (error != null && (error.contains("JWT expired") || error.contains("jwt expired") || error.contains("token expired"))) {
-                        android.util.Log.d("CheckoutActivity", "JWT expired, attempting to refresh token...");
-                        authService.refreshAccessToken(new AuthService.TokenCallback() {
-                            @Override
-                            public void onSuccess(String newAccessToken) {
-                                android.util.Log.d("CheckoutActivity", "Token refreshed successfully, retrying order creation...");
-                                // Retry order creation with new token
-                                orderService.createOrder(order, cartItems, newAccessToken, new OrderService.SingleOrderCallback() {
-                                    @Override
-                                    public void onSuccess(Order retryOrder) {
-                                        runOnUiThread(() -> {
-                                            // Clear cart
-                                            getSharedPreferences("CartPrefs", MODE_PRIVATE).edit().clear().apply();
-                                            clearServerCart(customerId);
-                                            
-                                            // Send database notification
-                                            String retryOrderIdDisplay = retryOrder.getIdString() != null ? retryOrder.getIdString() : String.valueOf(retryOrder.getId());
-                                            notificationService.createNotification(
-                                                customerId,
-                                                "Order Placed",
-                                                "Your order has been placed successfully! Order ID: " + retryOrderIdDisplay,
-                                                "order",
-                                                retryOrder.getId()
-                                            );
-                                            
-                                            // Show system notification
-                                            notificationHelper.showOrderPlacedNotification(retryOrderIdDisplay, retryOrder.getId());
-                                            
-                                            Toast.makeText(CheckoutActivity.this, "Order placed successfully!", Toast.LENGTH_SHORT).show();
-                                            finish();
-                                        });
-                                    }
-                                    
-                                    @Override
-                                    public void onError(String retryError) {
-                                        runOnUiThread(() -> {
-                                            android.util.Log.e("CheckoutActivity", "Order creation error after token refresh: " + retryError);
-                                            Toast.makeText(CheckoutActivity.this, "Failed to place order: " + retryError, Toast.LENGTH_SHORT).show();
-                                        });
-                                    }
-                                });
-                            }
-                            
-                            @Override
-                            public void onError(String refreshError) {
-                                runOnUiThread(() -> {
-                                    android.util.Log.e("CheckoutActivity", "Token refresh failed: " + refreshError);
-                                    Toast.makeText(CheckoutActivity.this, "Session expired. Please login again.", Toast.LENGTH_SHORT).show();
-                                });
-                            }
-                        });
-                    } else {
-                        Toast.makeText(CheckoutActivity.this, "Failed to place order: " + error, Toast.LENGTH_SHORT).show();
-                    }
+                    Toast.makeText(CheckoutActivity.this, "Failed to place order: " + error, Toast.LENGTH_SHORT).show();
                 });
             }
         });
@@ -1162,23 +1106,6 @@ public class CheckoutActivity extends AppCompatActivity {
         paymentSuccessDialog = null;
     }
 
-    private void clearServerCart(String customerId) {
-        if (cartService == null || customerId == null || customerId.isEmpty()) {
-            return;
-        }
-        cartService.clearCart(customerId, new CartService.SimpleCallback() {
-            @Override
-            public void onSuccess() {
-                android.util.Log.d("CheckoutActivity", "Remote cart cleared for user " + customerId);
-            }
-
-            @Override
-            public void onError(String error) {
-                android.util.Log.e("CheckoutActivity", "Failed to clear remote cart: " + error);
-            }
-        });
-    }
-    
     @Override
     public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
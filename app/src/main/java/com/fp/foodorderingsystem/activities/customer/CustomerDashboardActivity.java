@@ -21,18 +21,23 @@ import com.fp.foodorderingsystem.models.FoodItem;
 import com.fp.foodorderingsystem.services.CartService;
 import com.fp.foodorderingsystem.services.CartService.CartItemCallback;
 import com.fp.foodorderingsystem.services.CartService.CartItemsCallback;
+import com.fp.foodorderingsystem.services.CatalogDeltaEngine;
 import com.fp.foodorderingsystem.services.SupabaseRealtimeClient;
 import com.fp.foodorderingsystem.services.SupabaseRealtimeClient.RealtimeListener;
 import com.fp.foodorderingsystem.services.SupabaseService;
 import com.fp.foodorderingsystem.utils.ImageUtil;
 import com.fp.foodorderingsystem.utils.NetworkUtil;
 import com.fp.foodorderingsystem.utils.PreferenceUtil;
+import com.fp.foodorderingsystem.utils.RealtimePayloadUtil;
 import com.fp.foodorderingsystem.utils.ToastUtil;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import com.google.gson.JsonObject;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -46,7 +51,6 @@ public class CustomerDashboardActivity extends AppCompatActivity {
     private CategoryAdapter categoryAdapter;
     private FoodItemAdapter foodItemAdapter;
     private final List<Category> categories = new ArrayList<>();
-    private final List<FoodItem> foodItems = new ArrayList<>();
     private final List<FoodItem> filteredFoodItems = new ArrayList<>();
     private final List<CartItem> cartItems = new ArrayList<>();
     private SupabaseService supabaseService;
@@ -56,9 +60,17 @@ public class CustomerDashboardActivity extends AppCompatActivity {
     private Handler mainHandler;
     private String userId;
     private String selectedCategoryId = null;
-    private SupabaseRealtimeClient categoryRealtimeClient;
-    private SupabaseRealtimeClient menuRealtimeClient;
-    private SupabaseRealtimeClient notificationRealtimeClient;
+    private SupabaseRealtimeClient realtimeClient;
+    // Ids behind the badge, to match unfiltered DELETE events; main thread only
+    private final Set<Integer> notificationIds = new HashSet<>();
+    // Set on a realtime outage; the next onOpen reloads to pick up missed deletes
+    private volatile boolean notificationRealtimeInterrupted;
+    // Realtime changes are applied to these in place; the tables are refetched only on a gap
+    private final CatalogDeltaEngine<FoodItem> foodCatalog = new CatalogDeltaEngine<>(
+        FoodItem.class, FoodItem::getId, (a, b) -> 0, this::isFoodItemVisible);
+    private final CatalogDeltaEngine<Category> categoryCatalog = new CatalogDeltaEngine<>(
+        Category.class, Category::getId,
+        Comparator.comparing(Category::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)), null);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -157,25 +169,47 @@ public class CustomerDashboardActivity extends AppCompatActivity {
     }
     
     private void filterFoodItems() {
+        foodCatalog.refilter();
         filteredFoodItems.clear();
+        filteredFoodItems.addAll(foodCatalog.snapshot());
+        foodItemAdapter.updateList(new ArrayList<>(filteredFoodItems));
+    }
+
+    private boolean isFoodItemVisible(FoodItem item) {
+        if (!"available".equalsIgnoreCase(item.getStatus())) {
+            return false;
+        }
         if (selectedCategoryId == null || selectedCategoryId.isEmpty()) {
-            // Show all items
-            filteredFoodItems.addAll(foodItems);
-        } else {
-            // Filter by category
-            try {
-                int selectedId = Integer.parseInt(selectedCategoryId);
-                for (FoodItem item : foodItems) {
-                    if (item != null && item.getCategoryId() == selectedId) {
-                        filteredFoodItems.add(item);
-                    }
-                }
-            } catch (NumberFormatException e) {
-                // If parsing fails, show all items
-                filteredFoodItems.addAll(foodItems);
-            }
+            return true;
         }
-        foodItemAdapter.updateList(new ArrayList<>(filteredFoodItems));
+        try {
+            return item.getCategoryId() == Integer.parseInt(selectedCategoryId);
+        } catch (NumberFormatException e) {
+            // If parsing fails, show all items
+            return true;
+        }
+    }
+
+    private void applyFoodItemChange(JsonObject payload) {
+        CatalogDeltaEngine.Change change = foodCatalog.apply(payload);
+        if (change.type == CatalogDeltaEngine.Change.Type.GAP) {
+            loadFoodItems();
+            return;
+        }
+        filteredFoodItems.clear();
+        filteredFoodItems.addAll(foodCatalog.snapshot());
+        foodItemAdapter.applyChange(new ArrayList<>(filteredFoodItems), change);
+    }
+
+    private void applyCategoryChange(JsonObject payload) {
+        CatalogDeltaEngine.Change change = categoryCatalog.apply(payload);
+        if (change.type == CatalogDeltaEngine.Change.Type.GAP) {
+            loadCategories();
+            return;
+        }
+        categories.clear();
+        categories.addAll(categoryCatalog.snapshot());
+        categoryAdapter.applyChange(new ArrayList<>(categories), change);
     }
 
     private void setupClickListeners() {
@@ -250,17 +284,18 @@ public class CustomerDashboardActivity extends AppCompatActivity {
                     .get().build();
                 Response response = supabaseService.executeRequest(request);
                 if (response.isSuccessful()) {
-                    String json = response.body().string();
-                    android.util.Log.d("CustomerDashboard", "Categories JSON: " + json);
-                    Category[] cats = supabaseService.getGson().fromJson(json, Category[].class);
-                    categories.clear();
-                    if (cats != null) {
-                        for (Category cat : cats) {
-                            android.util.Log.d("CustomerDashboard", "Category: " + cat.getName() + ", imageUrl: " + cat.getImageUrl());
-                            categories.add(cat);
-                        }
+                    if (supabaseService.isNotModified(response) && !categories.isEmpty()) {
+                        response.close();
+                        mainHandler.post(categoryCatalog::markCurrent);
+                        return; // Catalog unchanged since the last load
                     }
-                    mainHandler.post(() -> categoryAdapter.updateList(new ArrayList<>(categories)));
+                    List<Category> cats = supabaseService.decodeCatalog(response, Category.class);
+                    mainHandler.post(() -> {
+                        categoryCatalog.replaceAll(cats);
+                        categories.clear();
+                        categories.addAll(categoryCatalog.snapshot());
+                        categoryAdapter.updateList(new ArrayList<>(categories));
+                    });
                 } else {
                     android.util.Log.e("CustomerDashboard", "Failed to load categories: " + response.code());
                 }
@@ -276,20 +311,20 @@ public class CustomerDashboardActivity extends AppCompatActivity {
             try {
                 Request request = supabaseService.createRequest("menu_items?status=eq.available")
                     .get().build();
-                Response response = supabaseService.executeRequest(request);
-                if (response.isSuccessful()) {
-                    String json = response.body().string();
-                    FoodItem[] items = supabaseService.getGson().fromJson(json, FoodItem[].class);
-                    foodItems.clear();
-                    if (items != null) {
-                        for (FoodItem item : items) {
-                            foodItems.add(item);
-                        }
+                supabaseService.fetchListShared(request, FoodItem.class, null, new SupabaseService.SharedListCallback<FoodItem>() {
+                    @Override
+                    public void onSuccess(List<FoodItem> items) {
+                        mainHandler.post(() -> {
+                            foodCatalog.replaceAll(items);
+                            filterFoodItems(); // Apply current filter
+                        });
                     }
-                    mainHandler.post(() -> {
-                        filterFoodItems(); // Apply current filter
-                    });
-                }
+
+                    @Override
+                    public void onError(int statusCode, Exception error) {
+                        android.util.Log.e("CustomerDashboard", "Failed to load food items: " + statusCode, error);
+                    }
+                });
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -394,8 +429,12 @@ public class CustomerDashboardActivity extends AppCompatActivity {
             public void onSuccess(List<com.fp.foodorderingsystem.models.Notification> notifications) {
                 mainHandler.post(() -> {
                     int unreadCount = 0;
+                    notificationIds.clear();
                     if (notifications != null) {
                         for (com.fp.foodorderingsystem.models.Notification notification : notifications) {
+                            if (notification != null) {
+                                notificationIds.add(notification.getId());
+                            }
                             if (notification != null && !notification.isRead()) {
                                 unreadCount++;
                             }
@@ -428,71 +467,102 @@ public class CustomerDashboardActivity extends AppCompatActivity {
     }
 
     private void subscribeToRealtimeStreams() {
-        categoryRealtimeClient = new SupabaseRealtimeClient();
-        menuRealtimeClient = new SupabaseRealtimeClient();
-        notificationRealtimeClient = new SupabaseRealtimeClient();
+        realtimeClient = new SupabaseRealtimeClient();
 
-        RealtimeListener reloadCategoriesListener = new RealtimeListener() {
+        RealtimeListener categoryListener = new RealtimeListener() {
             @Override
-            public void onOpen() { }
+            public void onOpen() {
+                // Reconnected after an outage: deletes in between were not replayed
+                mainHandler.post(() -> {
+                    if (categoryCatalog.isStale()) {
+                        loadCategories();
+                    }
+                });
+            }
 
             @Override
             public void onChange(JsonObject payload) {
-                mainHandler.post(CustomerDashboardActivity.this::loadCategories);
+                mainHandler.post(() -> applyCategoryChange(payload));
             }
 
             @Override
             public void onError(String error) {
                 android.util.Log.e("CustomerDashboard", "Category realtime error: " + error);
+                mainHandler.post(categoryCatalog::invalidate);
             }
         };
 
-        RealtimeListener reloadMenuListener = new RealtimeListener() {
+        RealtimeListener menuListener = new RealtimeListener() {
             @Override
-            public void onOpen() { }
+            public void onOpen() {
+                mainHandler.post(() -> {
+                    if (foodCatalog.isStale()) {
+                        loadFoodItems();
+                    }
+                });
+            }
 
             @Override
             public void onChange(JsonObject payload) {
-                mainHandler.post(CustomerDashboardActivity.this::loadFoodItems);
+                mainHandler.post(() -> applyFoodItemChange(payload));
             }
 
             @Override
             public void onError(String error) {
                 android.util.Log.e("CustomerDashboard", "Menu realtime error: " + error);
+                mainHandler.post(foodCatalog::invalidate);
             }
         };
 
         RealtimeListener notificationListener = new RealtimeListener() {
             @Override
-            public void onOpen() { }
+            public void onOpen() {
+                // Deletes made while disconnected are not caught up
+                if (notificationRealtimeInterrupted) {
+                    notificationRealtimeInterrupted = false;
+                    mainHandler.post(CustomerDashboardActivity.this::loadNotifications);
+                }
+            }
 
             @Override
             public void onChange(JsonObject payload) {
-                mainHandler.post(CustomerDashboardActivity.this::loadNotifications);
+                mainHandler.post(() -> {
+                    if (isOwnNotificationChange(payload)) {
+                        loadNotifications();
+                    }
+                });
             }
 
             @Override
             public void onError(String error) {
+                notificationRealtimeInterrupted = true;
                 android.util.Log.e("CustomerDashboard", "Notification realtime error: " + error);
             }
         };
 
-        categoryRealtimeClient.subscribeToTable("public", "categories", reloadCategoriesListener);
-        menuRealtimeClient.subscribeToTable("public", "menu_items", reloadMenuListener);
-        notificationRealtimeClient.subscribeToTable("public", "notifications", notificationListener);
+        // All three tables are channels on the one shared realtime socket
+        realtimeClient.subscribeToTable("public", "categories", categoryListener);
+        realtimeClient.subscribeToTable("public", "menu_items", menuListener);
+        realtimeClient.subscribeToRows("public", "notifications", "user_id", userId, notificationListener);
+    }
+
+    /**
+     * Inserts/updates are already filtered to this user; a DELETE carries only the id, so it
+     * counts when it's one of the notifications behind the badge. Main thread only.
+     */
+    private boolean isOwnNotificationChange(JsonObject payload) {
+        if (!"DELETE".equalsIgnoreCase(RealtimePayloadUtil.getEventType(payload))) {
+            return true;
+        }
+        JsonObject oldRecord = RealtimePayloadUtil.getOldRecord(payload);
+        return oldRecord != null && oldRecord.has("id") && notificationIds.contains(oldRecord.get("id").getAsInt());
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (categoryRealtimeClient != null) {
-            categoryRealtimeClient.disconnect();
-        }
-        if (menuRealtimeClient != null) {
-            menuRealtimeClient.disconnect();
-        }
-        if (notificationRealtimeClient != null) {
-            notificationRealtimeClient.disconnect();
+        if (realtimeClient != null) {
+            realtimeClient.disconnect();
         }
     }
 
@@ -20,6 +20,7 @@ import com.fp.foodorderingsystem.models.FoodItem;
 import com.fp.foodorderingsystem.services.CartService;
 import com.fp.foodorderingsystem.services.CartService.CartItemCallback;
 import com.fp.foodorderingsystem.services.CartService.CartItemsCallback;
+import com.fp.foodorderingsystem.services.CatalogDeltaEngine;
 import com.fp.foodorderingsystem.services.SupabaseRealtimeClient;
 import com.fp.foodorderingsystem.services.SupabaseRealtimeClient.RealtimeListener;
 import com.fp.foodorderingsystem.services.SupabaseService;
@@ -29,6 +30,7 @@ import com.fp.foodorderingsystem.utils.ToastUtil;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.gson.JsonObject;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -46,8 +48,13 @@ public class MenuActivity extends AppCompatActivity {
     private String selectedCategoryId = null;
     private String userId;
     private final List<CartItem> cartItems = new ArrayList<>();
-    private SupabaseRealtimeClient menuRealtimeClient;
-    private SupabaseRealtimeClient categoryRealtimeClient;
+    private SupabaseRealtimeClient realtimeClient;
+    // Realtime changes are applied to these in place; the tables are refetched only on a gap
+    private final CatalogDeltaEngine<FoodItem> menuCatalog = new CatalogDeltaEngine<>(
+        FoodItem.class, FoodItem::getId, (a, b) -> 0, this::isMenuItemVisible);
+    private final CatalogDeltaEngine<Category> categoryCatalog = new CatalogDeltaEngine<>(
+        Category.class, Category::getId,
+        Comparator.comparing(Category::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)), null);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -178,17 +185,18 @@ public class MenuActivity extends AppCompatActivity {
                 Response response = supabaseService.executeRequest(request);
 
                 if (response.isSuccessful()) {
-                    String json = response.body().string();
-                    android.util.Log.d("MenuActivity", "Categories JSON: " + json);
-                    Category[] cats = supabaseService.getGson().fromJson(json, Category[].class);
-                    categories.clear();
-                    if (cats != null) {
-                        for (Category cat : cats) {
-                            android.util.Log.d("MenuActivity", "Category: " + cat.getName() + ", imageUrl: " + cat.getImageUrl());
-                            categories.add(cat);
-                        }
+                    if (supabaseService.isNotModified(response) && !categories.isEmpty()) {
+                        response.close();
+                        runOnUiThread(categoryCatalog::markCurrent);
+                        return; // Catalog unchanged since the last load
                     }
-                    runOnUiThread(() -> categoryAdapter.updateList(new ArrayList<>(categories)));
+                    List<Category> cats = supabaseService.decodeCatalog(response, Category.class);
+                    runOnUiThread(() -> {
+                        categoryCatalog.replaceAll(cats);
+                        categories.clear();
+                        categories.addAll(categoryCatalog.snapshot());
+                        categoryAdapter.updateList(new ArrayList<>(categories));
+                    });
                 } else {
                     android.util.Log.e("MenuActivity", "Failed to load categories: " + response.code());
                 }
@@ -208,22 +216,24 @@ public class MenuActivity extends AppCompatActivity {
 
                 Request request = supabaseService.createRequest(url)
                     .get().build();
-                Response response = supabaseService.executeRequest(request);
+                // Realtime bursts post several reloads; identical in-flight requests share one call
+                supabaseService.fetchListShared(request, FoodItem.class, null, new SupabaseService.SharedListCallback<FoodItem>() {
+                    @Override
+                    public void onSuccess(List<FoodItem> items) {
+                        runOnUiThread(() -> {
+                            menuCatalog.replaceAll(items);
+                            foodItems.clear();
+                            foodItems.addAll(menuCatalog.snapshot());
+                            foodItemAdapter.updateList(new ArrayList<>(foodItems));
+                            updateEmptyState();
+                        });
+                    }
 
-                if (response.isSuccessful()) {
-                    String json = response.body().string();
-                    FoodItem[] items = supabaseService.getGson().fromJson(json, FoodItem[].class);
-                    foodItems.clear();
-                    if (items != null) {
-                        for (FoodItem item : items) {
-                            foodItems.add(item);
-                        }
+                    @Override
+                    public void onError(int statusCode, Exception error) {
+                        android.util.Log.e("MenuActivity", "Failed to load menu items: " + statusCode, error);
                     }
-                    runOnUiThread(() -> {
-                        foodItemAdapter.updateList(new ArrayList<>(foodItems));
-                        updateEmptyState();
-                    });
-                }
+                });
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -234,6 +244,34 @@ public class MenuActivity extends AppCompatActivity {
         loadMenuItems();
     }
 
+    private boolean isMenuItemVisible(FoodItem item) {
+        return "available".equalsIgnoreCase(item.getStatus())
+            && (selectedCategoryId == null || selectedCategoryId.equals(String.valueOf(item.getCategoryId())));
+    }
+
+    private void applyMenuChange(JsonObject payload) {
+        CatalogDeltaEngine.Change change = menuCatalog.apply(payload);
+        if (change.type == CatalogDeltaEngine.Change.Type.GAP) {
+            loadMenuItems();
+            return;
+        }
+        foodItems.clear();
+        foodItems.addAll(menuCatalog.snapshot());
+        foodItemAdapter.applyChange(new ArrayList<>(foodItems), change);
+        updateEmptyState();
+    }
+
+    private void applyCategoryChange(JsonObject payload) {
+        CatalogDeltaEngine.Change change = categoryCatalog.apply(payload);
+        if (change.type == CatalogDeltaEngine.Change.Type.GAP) {
+            loadCategories();
+            return;
+        }
+        categories.clear();
+        categories.addAll(categoryCatalog.snapshot());
+        categoryAdapter.applyChange(new ArrayList<>(categories), change);
+    }
+
     private void updateEmptyState() {
         TextView tvEmpty = findViewById(R.id.tvEmpty);
         if (tvEmpty != null) {
@@ -261,51 +299,63 @@ public class MenuActivity extends AppCompatActivity {
     }
 
     private void subscribeToRealtimeStreams() {
-        menuRealtimeClient = new SupabaseRealtimeClient();
-        categoryRealtimeClient = new SupabaseRealtimeClient();
+        realtimeClient = new SupabaseRealtimeClient();
 
         RealtimeListener menuListener = new RealtimeListener() {
             @Override
-            public void onOpen() { }
+            public void onOpen() {
+                // Reconnected after an outage: deletes in between were not replayed
+                mainHandler.post(() -> {
+                    if (menuCatalog.isStale()) {
+                        loadMenuItems();
+                    }
+                });
+            }
 
             @Override
             public void onChange(JsonObject payload) {
-                mainHandler.post(MenuActivity.this::loadMenuItems);
+                mainHandler.post(() -> applyMenuChange(payload));
             }
 
             @Override
             public void onError(String error) {
                 android.util.Log.e("MenuActivity", "Menu realtime error: " + error);
+                mainHandler.post(menuCatalog::invalidate);
             }
         };
 
         RealtimeListener categoryListener = new RealtimeListener() {
             @Override
-            public void onOpen() { }
+            public void onOpen() {
+                mainHandler.post(() -> {
+                    if (categoryCatalog.isStale()) {
+                        loadCategories();
+                    }
+                });
+            }
 
             @Override
             public void onChange(JsonObject payload) {
-                mainHandler.post(MenuActivity.this::loadCategories);
+                mainHandler.post(() -> applyCategoryChange(payload));
             }
 
             @Override
             public void onError(String error) {
                 android.util.Log.e("MenuActivity", "Category realtime error: " + error);
+                mainHandler.post(categoryCatalog::invalidate);
             }
         };
 
-        menuRealtimeClient.subscribeToTable("public", "menu_items", menuListener);
-        categoryRealtimeClient.subscribeToTable("public", "categories", categoryListener);
+        // Both tables are channels on the one shared realtime socket
+        realtimeClient.subscribeToTable("public", "menu_items", menuListener);
+        realtimeClient.subscribeToTable("public", "categories", categoryListener);
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (menuRealtimeClient != null) {
-            menuRealtimeClient.disconnect();
-        }
-        if (categoryRealtimeClient != null) {
-            categoryRealtimeClient.disconnect();
+        if (realtimeClient != null) {
+            realtimeClient.disconnect();
         }
     }
 
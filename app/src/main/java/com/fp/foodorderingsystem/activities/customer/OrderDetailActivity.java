@@ -62,8 +62,7 @@ public class OrderDetailActivity extends AppCompatActivity {
     private String userId;
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private NumberFormat currencyFormat;
-    private SupabaseRealtimeClient orderRealtimeClient;
-    private SupabaseRealtimeClient orderItemsRealtimeClient;
+    private SupabaseRealtimeClient realtimeClient;
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -151,8 +150,10 @@ public class OrderDetailActivity extends AppCompatActivity {
         
         // Use UUID string if available (preferred), otherwise fall back to numeric ID
         if (orderIdString != null && !orderIdString.isEmpty()) {
-            android.util.Log.d("OrderDetailActivity", "Using getOrderByIdString with: " + orderIdString);
-            orderService.getOrderByIdString(orderIdString, userId, new OrderService.SingleOrderCallback() {
+            android.util.Log.d("OrderDetailActivity", "Using getOrderDetail with: " + orderIdString);
+            // Admins open any customer's order; customers are limited to their own
+            String ownerFilter = "admin".equalsIgnoreCase(preferenceUtil.getUserType()) ? null : userId;
+            orderService.getOrderDetail(orderIdString, ownerFilter, new OrderService.SingleOrderCallback() {
                 @Override
                 public void onSuccess(Order order) {
                     android.util.Log.d("OrderDetailActivity", "Order loaded successfully. Items count: " + (order.getItems() != null ? order.getItems().size() : "null"));
@@ -210,7 +211,7 @@ public class OrderDetailActivity extends AppCompatActivity {
         }
         
         // Order ID
-        tvOrderId.setText("#" + order.getId());
+        tvOrderId.setText("#" + order.getDisplayNumber());
         
         // Status
         tvStatus.setText(capitalizeFirst(order.getStatus()));
@@ -237,17 +238,12 @@ public class OrderDetailActivity extends AppCompatActivity {
         // Order Date
         String createdAt = order.getCreatedAt();
         if (createdAt != null && !createdAt.isEmpty()) {
-            try {
-                // Parse ISO 8601 format
-                String dateStr = createdAt.replace("T", " ").replace("Z", "");
-                if (dateStr.contains("+")) {
-                    dateStr = dateStr.substring(0, dateStr.indexOf("+"));
-                }
-                SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-                Date date = inputFormat.parse(dateStr);
+            // Epoch honours the timestamp's offset; shown in the device's time zone
+            long createdAtEpoch = order.getCreatedAtEpoch();
+            if (createdAtEpoch != 0L) {
                 SimpleDateFormat outputFormat = new SimpleDateFormat("MMM dd, yyyy 'at' hh:mm a", Locale.getDefault());
-                tvOrderDate.setText(outputFormat.format(date));
-            } catch (Exception e) {
+                tvOrderDate.setText(outputFormat.format(new Date(createdAtEpoch)));
+            } else {
                 tvOrderDate.setText(createdAt);
             }
         } else {
@@ -565,6 +561,7 @@ public class OrderDetailActivity extends AppCompatActivity {
     
     private void downloadReceiptFile(String receiptUrl) {
         showLoading(true);
+        int orderNumber = currentOrder.getDisplayNumber();
         
         new Thread(() -> {
             try {
@@ -577,7 +574,7 @@ public class OrderDetailActivity extends AppCompatActivity {
                 
                 if (response.isSuccessful() && response.body() != null) {
                     // Get file name from URL or use default
-                    String fileName = "receipt_order_" + orderId + ".pdf";
+                    String fileName = "receipt_order_" + orderNumber + ".pdf";
                     if (receiptUrl.contains("/")) {
                         String urlFileName = receiptUrl.substring(receiptUrl.lastIndexOf("/") + 1);
                         if (!urlFileName.isEmpty() && urlFileName.contains(".")) {
@@ -633,56 +630,60 @@ public class OrderDetailActivity extends AppCompatActivity {
             return;
         }
         
-        if (orderRealtimeClient == null) {
-            orderRealtimeClient = new SupabaseRealtimeClient();
-            orderRealtimeClient.subscribeToTable("public", "orders", new RealtimeListener() {
-                @Override
-                public void onOpen() { }
-                
-                @Override
-                public void onChange(JsonObject payload) {
-                    JsonObject record = RealtimePayloadUtil.getRelevantRecord(payload);
-                    if (isTargetOrderRecord(record)) {
-                        mainHandler.post(() -> loadOrderDetails(false));
-                    }
-                }
-                
-                @Override
-                public void onError(String error) {
-                    android.util.Log.e("OrderDetailActivity", "Realtime orders error: " + error);
-                }
-            });
+        if (realtimeClient != null) {
+            return;
         }
-        
-        if (orderItemsRealtimeClient == null) {
-            orderItemsRealtimeClient = new SupabaseRealtimeClient();
-            orderItemsRealtimeClient.subscribeToTable("public", "order_items", new RealtimeListener() {
-                @Override
-                public void onOpen() {
-                    android.util.Log.d("OrderDetailActivity", "Realtime order_items connection opened");
-                }
-                
-                @Override
-                public void onChange(JsonObject payload) {
-                    android.util.Log.d("OrderDetailActivity", "Realtime order_items change detected: " + payload);
-                    JsonObject record = RealtimePayloadUtil.getRelevantRecord(payload);
-                    if (isTargetOrderItemRecord(record)) {
-                        android.util.Log.d("OrderDetailActivity", "Order item change matches current order. Reloading order details...");
-                        mainHandler.post(() -> {
-                            android.util.Log.d("OrderDetailActivity", "Reloading order details due to realtime update");
-                            loadOrderDetails(false);
-                        });
-                    } else {
-                        android.util.Log.d("OrderDetailActivity", "Order item change does not match current order. Ignoring.");
-                    }
+        // orders and order_items are channels on the one shared realtime socket
+        realtimeClient = new SupabaseRealtimeClient();
+        // Filter server-side to this order when its UUID is known; status changes are updates
+        boolean hasUuid = !TextUtils.isEmpty(orderIdString);
+        realtimeClient.subscribeToTable("public", "orders",
+                hasUuid ? SupabaseRealtimeClient.EVENT_UPDATE : SupabaseRealtimeClient.EVENT_ALL,
+                hasUuid ? SupabaseRealtimeClient.eq("id", orderIdString) : null, new RealtimeListener() {
+            @Override
+            public void onOpen() { }
+            
+            @Override
+            public void onChange(JsonObject payload) {
+                JsonObject record = RealtimePayloadUtil.getRelevantRecord(payload);
+                if (isTargetOrderRecord(record)) {
+                    mainHandler.post(() -> loadOrderDetails(false));
                 }
-                
-                @Override
-                public void onError(String error) {
-                    android.util.Log.e("OrderDetailActivity", "Realtime order_items error: " + error);
+            }
+            
+            @Override
+            public void onError(String error) {
+                android.util.Log.e("OrderDetailActivity", "Realtime orders error: " + error);
+            }
+        });
+        
+        realtimeClient.subscribeToTable("public", "order_items", SupabaseRealtimeClient.EVENT_ALL,
+                hasUuid ? SupabaseRealtimeClient.eq("order_id", orderIdString) : null, new RealtimeListener() {
+            @Override
+            public void onOpen() {
+                android.util.Log.d("OrderDetailActivity", "Realtime order_items connection opened");
+            }
+            
+            @Override
+            public void onChange(JsonObject payload) {
+                android.util.Log.d("OrderDetailActivity", "Realtime order_items change detected: " + payload);
+                JsonObject record = RealtimePayloadUtil.getRelevantRecord(payload);
+                if (isTargetOrderItemRecord(record)) {
+                    android.util.Log.d("OrderDetailActivity", "Order item change matches current order. Reloading order details...");
+                    mainHandler.post(() -> {
+                        android.util.Log.d("OrderDetailActivity", "Reloading order details due to realtime update");
+                        loadOrderDetails(false);
+                    });
+                } else {
+                    android.util.Log.d("OrderDetailActivity", "Order item change does not match current order. Ignoring.");
                 }
-            });
-        }
+            }
+            
+            @Override
+            public void onError(String error) {
+                android.util.Log.e("OrderDetailActivity", "Realtime order_items error: " + error);
+            }
+        });
     }
     
     private boolean isTargetOrderRecord(JsonObject record) {
@@ -708,11 +709,8 @@ public class OrderDetailActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (orderRealtimeClient != null) {
-            orderRealtimeClient.disconnect();
-        }
-        if (orderItemsRealtimeClient != null) {
-            orderItemsRealtimeClient.disconnect();
+        if (realtimeClient != null) {
+            realtimeClient.disconnect();
         }
     }
     
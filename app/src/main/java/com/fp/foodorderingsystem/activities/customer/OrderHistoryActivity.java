@@ -42,6 +42,8 @@ public class OrderHistoryActivity extends AppCompatActivity {
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private String userId;
     private SupabaseRealtimeClient orderRealtimeClient;
+    // Set on a realtime outage; the next onOpen reloads to pick up missed deletes
+    private volatile boolean orderRealtimeInterrupted;
     private String currentStatusFilter = "all";
 
     @Override
@@ -202,25 +204,51 @@ public class OrderHistoryActivity extends AppCompatActivity {
 
     private void subscribeToRealtimeOrders() {
         orderRealtimeClient = new SupabaseRealtimeClient();
-        orderRealtimeClient.subscribeToTable("public", "orders", new RealtimeListener() {
+        // Only this customer's inserts/updates; deletes arrive unfiltered, see belongsToCurrentUser
+        orderRealtimeClient.subscribeToRows("public", "orders", "customer_id", userId, new RealtimeListener() {
             @Override
-            public void onOpen() { }
+            public void onOpen() {
+                // Deletes made while disconnected are not caught up
+                if (orderRealtimeInterrupted) {
+                    orderRealtimeInterrupted = false;
+                    mainHandler.post(() -> loadOrders(false));
+                }
+            }
 
             @Override
             public void onChange(JsonObject payload) {
-                if (belongsToCurrentUser(payload)) {
-                    mainHandler.post(() -> loadOrders(false));
-                }
+                mainHandler.post(() -> {
+                    if (belongsToCurrentUser(payload)) {
+                        loadOrders(false);
+                    }
+                });
             }
 
             @Override
             public void onError(String error) {
+                orderRealtimeInterrupted = true;
                 android.util.Log.e("OrderHistory", "Realtime order error: " + error);
             }
         });
     }
 
+    /**
+     * Main thread only: a DELETE carries just the order id, so match it against the list we show.
+     */
     private boolean belongsToCurrentUser(JsonObject payload) {
+        if ("DELETE".equalsIgnoreCase(RealtimePayloadUtil.getEventType(payload))) {
+            JsonObject oldRecord = RealtimePayloadUtil.getOldRecord(payload);
+            if (oldRecord == null || !oldRecord.has("id")) {
+                return false;
+            }
+            String orderId = oldRecord.get("id").getAsString();
+            for (Order order : orders) {
+                if (order != null && orderId.equals(order.getIdString())) {
+                    return true;
+                }
+            }
+            return false;
+        }
         JsonObject record = RealtimePayloadUtil.getRelevantRecord(payload);
         if (record != null && record.has("customer_id")) {
             return userId != null && userId.equals(record.get("customer_id").getAsString());
@@ -229,20 +257,10 @@ public class OrderHistoryActivity extends AppCompatActivity {
     }
 
     private void sortOrders() {
-        Collections.sort(orders, (a, b) -> {
-            String dateA = a != null ? a.getCreatedAt() : null;
-            String dateB = b != null ? b.getCreatedAt() : null;
-            if (dateA == null && dateB == null) {
-                return 0;
-            }
-            if (dateA == null) {
-                return 1;
-            }
-            if (dateB == null) {
-                return -1;
-            }
-            return dateB.compareTo(dateA);
-        });
+        // Parsed epochs order mixed offsets correctly; missing dates (0) sort last
+        Collections.sort(orders, (a, b) -> Long.compare(
+            b != null ? b.getCreatedAtEpoch() : 0L,
+            a != null ? a.getCreatedAtEpoch() : 0L));
     }
 
     private void updateSummary() {
@@ -510,37 +510,19 @@ public class ProfileActivity extends AppCompatActivity {
                     // Update user record with profile picture path
                     updateProfilePictureWithToken(finalUserId, fileName, finalAccessToken);
                 } else {
-                    // Check if it's a 401 error
-                    if (response.code() == 401) {
-                        android.util.Log.d("ProfileActivity", "401 error on upload, refreshing token...");
-                        authService.refreshAccessToken(new AuthService.TokenCallback() {
-                        @Override
-                            public void onSuccess(String newAccessToken) {
-                                android.util.Log.d("ProfileActivity", "Token refreshed, retrying upload...");
-                                // Retry upload with new token
-                                uploadImageWithToken(bitmap, newAccessToken);
-                        }
-                        
-                        @Override
-                            public void onError(String refreshError) {
-                            mainHandler.post(() -> {
-                                if (loaderView != null) {
-                                    loaderView.hideLoader();
-                                }
-                                    ToastUtil.show(ProfileActivity.this, "Authentication failed. Please login again.");
-                            });
-                        }
-                    });
-                } else {
+                    // A 401 here means the refresh itself failed; SupabaseService already retried
                     String errorBody = response.body() != null ? response.body().string() : "";
                     mainHandler.post(() -> {
                         if (loaderView != null) {
                             loaderView.hideLoader();
                         }
                         android.util.Log.e("ProfileActivity", "Upload failed: " + response.code() + " - " + errorBody);
-                        ToastUtil.show(ProfileActivity.this, "Failed to upload image: " + response.code());
+                        if (response.code() == 401) {
+                            ToastUtil.show(ProfileActivity.this, "Authentication failed. Please login again.");
+                        } else {
+                            ToastUtil.show(ProfileActivity.this, "Failed to upload image: " + response.code());
+                        }
                     });
-                    }
                 }
             } catch (Exception e) {
                 mainHandler.post(() -> {
@@ -585,35 +567,12 @@ public class ProfileActivity extends AppCompatActivity {
             
             @Override
             public void onError(String error) {
-                // Check if it's a 401 error
-                if (error != null && error.contains("401")) {
-                    android.util.Log.d("ProfileActivity", "401 error on update profile picture, refreshing token...");
-                    authService.refreshAccessToken(new AuthService.TokenCallback() {
-                        @Override
-                        public void onSuccess(String newAccessToken) {
-                            android.util.Log.d("ProfileActivity", "Token refreshed, retrying update profile picture...");
-                            // Retry with new token
-                            updateProfilePictureWithToken(userId, fileName, newAccessToken);
-                        }
-                        
-                        @Override
-                        public void onError(String refreshError) {
-                            mainHandler.post(() -> {
-                                if (loaderView != null) {
-                                    loaderView.hideLoader();
-                                }
-                                ToastUtil.show(ProfileActivity.this, "Authentication failed. Please login again.");
-                            });
-                        }
-                    });
-                } else {
-                    mainHandler.post(() -> {
-                        if (loaderView != null) {
-                            loaderView.hideLoader();
-                        }
-                        ToastUtil.show(ProfileActivity.this, "Failed to update profile picture: " + error);
-                    });
-                }
+                mainHandler.post(() -> {
+                    if (loaderView != null) {
+                        loaderView.hideLoader();
+                    }
+                    ToastUtil.show(ProfileActivity.this, "Failed to update profile picture: " + error);
+                });
             }
         });
     }
@@ -625,7 +584,8 @@ public class ProfileActivity extends AppCompatActivity {
         }
         
         realtimeClient = new SupabaseRealtimeClient();
-        realtimeClient.subscribeToTable("public", "users", new SupabaseRealtimeClient.RealtimeListener() {
+        realtimeClient.subscribeToTable("public", "users", SupabaseRealtimeClient.EVENT_ALL,
+                SupabaseRealtimeClient.eq("id", userId), new SupabaseRealtimeClient.RealtimeListener() {
             @Override
             public void onOpen() {
                 android.util.Log.d("ProfileActivity", "Realtime connection established");
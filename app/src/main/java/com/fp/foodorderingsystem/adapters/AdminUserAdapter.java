@@ -11,6 +11,7 @@ import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 import com.fp.foodorderingsystem.R;
 import com.fp.foodorderingsystem.models.User;
+import com.fp.foodorderingsystem.utils.DateUtil;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import java.util.ArrayList;
@@ -132,7 +133,8 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.View
             }
             tvAvatar.setText(avatarText);
 
-            String createdAt = user.getCreatedAt() != null ? user.getCreatedAt().replace("T", " ").replace("Z", "") : "Unknown date";
+            long joined = user.getCreatedAtEpoch();
+            String createdAt = joined != 0L ? DateUtil.formatDate(joined) : "Unknown date";
             tvMeta.setText("Joined " + createdAt + " • " + user.getCancellationCount() + " cancellations");
 
             String role = user.getUserType() != null ? user.getUserType() : "customer";
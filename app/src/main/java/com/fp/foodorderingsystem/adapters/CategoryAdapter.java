@@ -11,6 +11,7 @@ import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
 import com.fp.foodorderingsystem.R;
 import com.fp.foodorderingsystem.models.Category;
+import com.fp.foodorderingsystem.services.CatalogDeltaEngine;
 import com.fp.foodorderingsystem.utils.ImageUtil;
 import java.util.List;
 
@@ -56,6 +57,33 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.ViewHo
         this.categories = newCategories;
         notifyDataSetChanged();
     }
+
+    /**
+     * Show {@code newCategories} after a single-row catalog change, animating only that row.
+     */
+    public void applyChange(List<Category> newCategories, CatalogDeltaEngine.Change change) {
+        this.categories = newCategories;
+        switch (change.type) {
+            case INSERTED:
+                notifyItemInserted(change.toPosition);
+                break;
+            case REMOVED:
+                notifyItemRemoved(change.fromPosition);
+                break;
+            case CHANGED:
+                notifyItemChanged(change.toPosition);
+                break;
+            case MOVED:
+                notifyItemMoved(change.fromPosition, change.toPosition);
+                notifyItemChanged(change.toPosition);
+                break;
+            case NONE:
+                break;
+            default:
+                notifyDataSetChanged();
+                break;
+        }
+    }
     
     /**
      * ViewHolder for category items
@@ -65,7 +65,7 @@ public class CustomerOrderAdapter extends RecyclerView.Adapter<CustomerOrderAdap
         }
         
         void bind(Order order) {
-            tvOrderId.setText("Order #" + order.getId());
+            tvOrderId.setText("Order #" + order.getDisplayNumber());
             tvStatus.setText(capitalize(order.getStatus()));
             tvPaymentMethod.setText(order.getPaymentMethod() != null ? capitalize(order.getPaymentMethod()) : "N/A");
             
@@ -10,6 +10,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.fp.foodorderingsystem.R;
 import com.fp.foodorderingsystem.models.FoodItem;
+import com.fp.foodorderingsystem.services.CatalogDeltaEngine;
 import com.fp.foodorderingsystem.utils.ImageUtil;
 import java.text.NumberFormat;
 import java.util.List;
@@ -55,6 +56,33 @@ public class FoodItemAdapter extends RecyclerView.Adapter<FoodItemAdapter.ViewHo
         this.foodItems = newItems;
         notifyDataSetChanged();
     }
+
+    /**
+     * Show {@code newItems} after a single-row catalog change, animating only that row.
+     */
+    public void applyChange(List<FoodItem> newItems, CatalogDeltaEngine.Change change) {
+        this.foodItems = newItems;
+        switch (change.type) {
+            case INSERTED:
+                notifyItemInserted(change.toPosition);
+                break;
+            case REMOVED:
+                notifyItemRemoved(change.fromPosition);
+                break;
+            case CHANGED:
+                notifyItemChanged(change.toPosition);
+                break;
+            case MOVED:
+                notifyItemMoved(change.fromPosition, change.toPosition);
+                notifyItemChanged(change.toPosition);
+                break;
+            case NONE:
+                break;
+            default:
+                notifyDataSetChanged();
+                break;
+        }
+    }
     
     class ViewHolder extends RecyclerView.ViewHolder {
         private ImageView ivFoodImage;
@@ -9,12 +9,13 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.fp.foodorderingsystem.R;
 import com.fp.foodorderingsystem.models.Notification;
-import java.text.ParseException;
+import com.fp.foodorderingsystem.utils.DateUtil;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapter.NotificationViewHolder> {
 
@@ -24,7 +25,6 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
 
     private final List<Notification> notifications = new ArrayList<>();
     private final OnNotificationClickListener clickListener;
-    private final SimpleDateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX", Locale.getDefault());
     private final SimpleDateFormat displayFormat = new SimpleDateFormat("MMM d, yyyy • h:mm a", Locale.getDefault());
 
     public NotificationAdapter(OnNotificationClickListener clickListener) {
@@ -94,7 +94,7 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
         void bind(Notification notification) {
             tvTitle.setText(notification.getTitle());
             tvMessage.setText(notification.getMessage());
-            tvTimestamp.setText(formatTimestamp(notification.getCreatedAt()));
+            tvTimestamp.setText(formatTimestamp(notification));
 
             if (notification.getOrderId() != null) {
                 tvOrderId.setVisibility(View.VISIBLE);
@@ -107,17 +107,23 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
             itemView.setAlpha(notification.isRead() ? 0.6f : 1f);
         }
 
-        private String formatTimestamp(String isoString) {
-            if (TextUtils.isEmpty(isoString)) {
+        /**
+         * Relative time for the last day (cached strings, no parsing per bind), the date after that.
+         */
+        private String formatTimestamp(Notification notification) {
+            String createdAt = notification.getCreatedAt();
+            if (TextUtils.isEmpty(createdAt)) {
                 return "";
             }
-            try {
-                Date date = isoFormat.parse(isoString);
-                if (date != null) {
-                    return displayFormat.format(date);
-                }
-            } catch (ParseException ignored) { }
-            return isoString;
+            long epochMillis = notification.getCreatedAtEpoch();
+            if (epochMillis == 0L) {
+                return createdAt;
+            }
+            long now = System.currentTimeMillis();
+            if (now - epochMillis < TimeUnit.DAYS.toMillis(1)) {
+                return DateUtil.getTimeAgo(epochMillis, now);
+            }
+            return displayFormat.format(new Date(epochMillis));
         }
     }
 }
@@ -77,7 +77,7 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.ViewHolder>
         }
         
         void bind(Order order) {
-            tvOrderId.setText("Order #" + order.getId());
+            tvOrderId.setText("Order #" + order.getDisplayNumber());
             tvStatus.setText(capitalize(order.getStatus()));
             tvPaymentMethod.setText(order.getPaymentMethod() != null ? capitalize(order.getPaymentMethod()) : "N/A");
             
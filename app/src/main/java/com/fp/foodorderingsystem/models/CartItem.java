@@ -1,6 +1,11 @@
 package com.fp.foodorderingsystem.models;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 
 public class CartItem {
     private String id;
@@ -129,5 +134,57 @@ public class CartItem {
             this.totalPrice = price * this.quantity;
         }
     }
+
+    /**
+     * Reflection-free Gson binding for cart_items / order_items rows.
+     * Fields are assigned directly so the server's prices are kept as sent.
+     */
+    public static final class GsonAdapter extends TypeAdapter<CartItem> {
+        private final FoodItem.GsonAdapter foodItemAdapter = new FoodItem.GsonAdapter();
+
+        @Override
+        public void write(JsonWriter out, CartItem item) throws IOException {
+            if (item == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            JsonFields.write(out, "id", item.id);
+            JsonFields.write(out, "user_id", item.userId);
+            out.name("menu_item_id").value(item.menuItemId);
+            out.name("quantity").value(item.quantity);
+            out.name("unit_price").value(item.unitPrice);
+            out.name("total_price").value(item.totalPrice);
+            if (item.menuItem != null) {
+                out.name("menu_items");
+                foodItemAdapter.write(out, item.menuItem);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public CartItem read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            CartItem item = new CartItem();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": item.id = JsonFields.nextString(in); break;
+                    case "user_id": item.userId = JsonFields.nextString(in); break;
+                    case "menu_item_id": item.menuItemId = JsonFields.nextInt(in); break;
+                    case "quantity": item.quantity = JsonFields.nextInt(in); break;
+                    case "unit_price": item.unitPrice = JsonFields.nextDouble(in); break;
+                    case "total_price": item.totalPrice = JsonFields.nextDouble(in); break;
+                    case "menu_items": item.menuItem = foodItemAdapter.read(in); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            return item;
+        }
+    }
 }
 
@@ -1,6 +1,11 @@
 package com.fp.foodorderingsystem.models;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 
 public class Category {
     private int id;
@@ -39,5 +44,48 @@ public class Category {
 
     public String getCreatedAt() { return createdAt; }
     public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
-}
 
+    /**
+     * Reflection-free Gson binding for categories rows.
+     */
+    public static final class GsonAdapter extends TypeAdapter<Category> {
+        @Override
+        public void write(JsonWriter out, Category category) throws IOException {
+            if (category == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(category.id);
+            JsonFields.write(out, "name", category.name);
+            JsonFields.write(out, "description", category.description);
+            JsonFields.write(out, "image_url", category.imageUrl);
+            out.name("is_active").value(category.isActive);
+            JsonFields.write(out, "created_at", category.createdAt);
+            out.endObject();
+        }
+
+        @Override
+        public Category read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Category category = new Category();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": category.id = JsonFields.nextInt(in); break;
+                    case "name": category.name = JsonFields.nextString(in); break;
+                    case "description": category.description = JsonFields.nextString(in); break;
+                    case "image_url": category.imageUrl = JsonFields.nextString(in); break;
+                    case "is_active": category.isActive = JsonFields.nextBoolean(in); break;
+                    case "created_at": category.createdAt = JsonFields.nextString(in); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            return category;
+        }
+    }
+}
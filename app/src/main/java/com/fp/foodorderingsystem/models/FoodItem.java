@@ -1,6 +1,11 @@
 package com.fp.foodorderingsystem.models;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 
 public class FoodItem {
     private int id;
@@ -86,5 +91,74 @@ public class FoodItem {
     public boolean isAvailable() {
         return "available".equalsIgnoreCase(status) && stock > 0;
     }
+
+    /**
+     * Reflection-free Gson binding for menu_items rows. Accepts both the snake_case
+     * column names and the camelCase keys older cached payloads were written with.
+     */
+    public static final class GsonAdapter extends TypeAdapter<FoodItem> {
+        @Override
+        public void write(JsonWriter out, FoodItem item) throws IOException {
+            if (item == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(item.id);
+            out.name("category_id").value(item.categoryId);
+            JsonFields.write(out, "name", item.name);
+            JsonFields.write(out, "description", item.description);
+            out.name("price").value(item.price);
+            JsonFields.write(out, "image_url", item.imageUrl);
+            JsonFields.write(out, "image_path", item.imagePath);
+            JsonFields.write(out, "status", item.status);
+            out.name("stock").value(item.stock);
+            out.name("preparation_time").value(item.preparationTime);
+            out.name("average_rating").value(item.averageRating);
+            out.name("total_reviews").value(item.totalReviews);
+            out.name("total_ratings").value(item.totalRatings);
+            JsonFields.write(out, "created_at", item.createdAt);
+            JsonFields.write(out, "updated_at", item.updatedAt);
+            out.endObject();
+        }
+
+        @Override
+        public FoodItem read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            FoodItem item = new FoodItem();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": item.id = JsonFields.nextInt(in); break;
+                    case "category_id":
+                    case "categoryId": item.categoryId = JsonFields.nextInt(in); break;
+                    case "name": item.name = JsonFields.nextString(in); break;
+                    case "description": item.description = JsonFields.nextString(in); break;
+                    case "price": item.price = JsonFields.nextDouble(in); break;
+                    case "image_url": item.imageUrl = JsonFields.nextString(in); break;
+                    case "image_path": item.imagePath = JsonFields.nextString(in); break;
+                    case "status": item.status = JsonFields.nextString(in); break;
+                    case "stock": item.stock = JsonFields.nextInt(in); break;
+                    case "preparation_time": item.preparationTime = JsonFields.nextInt(in); break;
+                    case "average_rating":
+                    case "averageRating": item.averageRating = JsonFields.nextDouble(in); break;
+                    case "total_reviews":
+                    case "totalReviews": item.totalReviews = JsonFields.nextInt(in); break;
+                    case "total_ratings":
+                    case "totalRatings": item.totalRatings = JsonFields.nextInt(in); break;
+                    case "created_at":
+                    case "createdAt": item.createdAt = JsonFields.nextString(in); break;
+                    case "updated_at":
+                    case "updatedAt": item.updatedAt = JsonFields.nextString(in); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            return item;
+        }
+    }
 }
 
@@ -0,0 +1,100 @@
+package com.fp.foodorderingsystem.models;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Lenient field readers shared by the hand-written model TypeAdapters.
+ * PostgREST may send numerics as strings and booleans as 0/1, and any column may be null.
+ */
+final class JsonFields {
+    private JsonFields() {}
+
+    static String nextString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(in.nextBoolean());
+        }
+        if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    static int nextInt(JsonReader in) throws IOException {
+        Integer value = nextInteger(in);
+        return value != null ? value : 0;
+    }
+
+    static Integer nextInteger(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            String raw = in.nextString();
+            try {
+                return Integer.parseInt(raw);
+            } catch (NumberFormatException e) {
+                try {
+                    return (int) Double.parseDouble(raw);
+                } catch (NumberFormatException ignored) {
+                    return null;
+                }
+            }
+        }
+        in.skipValue();
+        return null;
+    }
+
+    static double nextDouble(JsonReader in) throws IOException {
+        Double value = nextDoubleOrNull(in);
+        return value != null ? value : 0.0;
+    }
+
+    static Double nextDoubleOrNull(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            String raw = in.nextString();
+            try {
+                return Double.parseDouble(raw);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        in.skipValue();
+        return null;
+    }
+
+    static boolean nextBoolean(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.BOOLEAN) {
+            return in.nextBoolean();
+        }
+        if (token == JsonToken.NUMBER) {
+            return in.nextInt() != 0;
+        }
+        if (token == JsonToken.STRING) {
+            String raw = in.nextString();
+            return "true".equalsIgnoreCase(raw) || "1".equals(raw) || "t".equalsIgnoreCase(raw);
+        }
+        in.skipValue();
+        return false;
+    }
+
+    static void write(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    static void write(JsonWriter out, String name, Number value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+}
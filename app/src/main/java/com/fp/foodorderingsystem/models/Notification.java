@@ -1,6 +1,12 @@
 package com.fp.foodorderingsystem.models;
 
+import com.fp.foodorderingsystem.utils.DateUtil;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 
 public class Notification {
     private int id;
@@ -16,6 +22,9 @@ public class Notification {
     @SerializedName("created_at")
     private String createdAt;
 
+    private transient long createdAtEpoch;
+    private transient boolean createdAtParsed;
+
     public Notification() {}
 
     public Notification(String userId, String title, String message, String type) {
@@ -49,6 +58,70 @@ public class Notification {
     public void setRead(boolean read) { isRead = read; }
 
     public String getCreatedAt() { return createdAt; }
-    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
-}
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+        this.createdAtEpoch = DateUtil.parseTimestamp(createdAt);
+        this.createdAtParsed = true;
+    }
+
+    /**
+     * created_at as epoch millis (0 when missing or unparseable).
+     */
+    public long getCreatedAtEpoch() {
+        if (!createdAtParsed) {
+            createdAtEpoch = DateUtil.parseTimestamp(createdAt);
+            createdAtParsed = true;
+        }
+        return createdAtEpoch;
+    }
+
+    /**
+     * Reflection-free Gson binding for notifications rows.
+     */
+    public static final class GsonAdapter extends TypeAdapter<Notification> {
+        @Override
+        public void write(JsonWriter out, Notification notification) throws IOException {
+            if (notification == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(notification.id);
+            JsonFields.write(out, "user_id", notification.userId);
+            JsonFields.write(out, "title", notification.title);
+            JsonFields.write(out, "message", notification.message);
+            JsonFields.write(out, "type", notification.type);
+            JsonFields.write(out, "order_id", notification.orderId);
+            out.name("is_read").value(notification.isRead);
+            JsonFields.write(out, "created_at", notification.createdAt);
+            out.endObject();
+        }
 
+        @Override
+        public Notification read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Notification notification = new Notification();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": notification.id = JsonFields.nextInt(in); break;
+                    case "user_id": notification.userId = JsonFields.nextString(in); break;
+                    case "title": notification.title = JsonFields.nextString(in); break;
+                    case "message": notification.message = JsonFields.nextString(in); break;
+                    case "type": notification.type = JsonFields.nextString(in); break;
+                    case "order_id": notification.orderId = JsonFields.nextInteger(in); break;
+                    case "is_read": notification.isRead = JsonFields.nextBoolean(in); break;
+                    case "created_at": notification.createdAt = JsonFields.nextString(in); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            notification.createdAtEpoch = DateUtil.parseTimestamp(notification.createdAt);
+            notification.createdAtParsed = true;
+            return notification;
+        }
+    }
+}
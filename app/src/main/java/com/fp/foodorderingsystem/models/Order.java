@@ -1,6 +1,13 @@
 package com.fp.foodorderingsystem.models;
 
+import com.fp.foodorderingsystem.utils.DateUtil;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Order {
@@ -8,7 +15,9 @@ public class Order {
     // Store as String first, then convert to int when needed
     @SerializedName("id")
     private String idString; // UUID from Supabase (stored as string)
-    private transient int id; // Numeric ID for compatibility (derived from UUID) - transient so Gson ignores it
+    private transient int id; // Numeric ID for compatibility (see OrderIdRegistry) - transient so Gson ignores it
+    @SerializedName("order_number")
+    private Integer orderNumber; // Server-assigned, see SQL_COMMANDS_FOR_ORDER_NUMBERS.md
     
     @SerializedName("customer_id")
     private String customerId;
@@ -35,6 +44,14 @@ public class Order {
     private String updatedAt;
     private List<CartItem> items;
 
+    // Derived once during decode so list/dashboard code doesn't re-parse per access.
+    // The flag is separate because 0 is also the result for an unparseable created_at.
+    private transient long createdAtEpoch;
+    private transient boolean createdAtParsed;
+    private transient String normalizedStatus;
+    // Whether the decoded row had the detail-only columns; list projections leave them out
+    private transient boolean detailColumnsLoaded;
+
     public Order() {}
 
     public Order(String customerId, double totalAmount, String paymentMethod, String deliveryAddress) {
@@ -46,6 +63,12 @@ public class Order {
     }
 
     // Getters and Setters
+
+    /**
+     * Process-local compact id for intents and repository lookups. Another process may assign
+     * the same order a different value, so it must not be stored or shown; use
+     * {@link #getDisplayNumber()} for that.
+     */
     public int getId() { 
         // If we already have a numeric ID, return it
         if (id != 0) {
@@ -58,9 +81,8 @@ public class Order {
                 id = Integer.parseInt(idString);
                 return id;
             } catch (NumberFormatException e) {
-                // It's a UUID string - convert to a numeric hash
-                // Use hash code as a stable numeric ID
-                id = Math.abs(idString.hashCode() % 1000000);
+                // It's a UUID string - use its collision-free compact ID
+                id = OrderIdRegistry.getInstance().idFor(idString);
                 return id;
             }
         }
@@ -83,12 +105,28 @@ public class Order {
             try {
                 this.id = Integer.parseInt(idString);
             } catch (NumberFormatException e) {
-                // It's a UUID, use hash code
-                this.id = Math.abs(idString.hashCode() % 1000000);
+                // It's a UUID, use its collision-free compact ID
+                this.id = OrderIdRegistry.getInstance().idFor(idString);
             }
         }
     }
 
+    public Integer getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(Integer orderNumber) { this.orderNumber = orderNumber; }
+
+    /**
+     * Number shown as "#n" and stored in notifications.order_id. It is the server-assigned
+     * order_number, or for a row read without that column, a hash of the UUID. Either way it
+     * is the same on every device and after a restart.
+     */
+    public int getDisplayNumber() {
+        if (orderNumber != null) {
+            return orderNumber;
+        }
+        String uuid = getIdString();
+        return uuid != null ? OrderIdRegistry.preferredId(uuid) : 0;
+    }
+
     public String getCustomerId() { return customerId; }
     public void setCustomerId(String customerId) { this.customerId = customerId; }
 
@@ -96,7 +134,20 @@ public class Order {
     public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
 
     public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public void setStatus(String status) {
+        this.status = status;
+        this.normalizedStatus = normalizeStatus(status);
+    }
+
+    /**
+     * Lower-cased, trimmed status ("" when missing).
+     */
+    public String getNormalizedStatus() {
+        if (normalizedStatus == null) {
+            normalizedStatus = normalizeStatus(status);
+        }
+        return normalizedStatus;
+    }
 
     public String getPaymentMethod() { return paymentMethod; }
     public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
@@ -120,7 +171,22 @@ public class Order {
     public void setCancellationReason(String cancellationReason) { this.cancellationReason = cancellationReason; }
 
     public String getCreatedAt() { return createdAt; }
-    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+        this.createdAtEpoch = DateUtil.parseTimestamp(createdAt);
+        this.createdAtParsed = true;
+    }
+
+    /**
+     * created_at as epoch millis (0 when missing or unparseable).
+     */
+    public long getCreatedAtEpoch() {
+        if (!createdAtParsed) {
+            createdAtEpoch = DateUtil.parseTimestamp(createdAt);
+            createdAtParsed = true;
+        }
+        return createdAtEpoch;
+    }
 
     public String getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
@@ -128,12 +194,143 @@ public class Order {
     public List<CartItem> getItems() { return items; }
     public void setItems(List<CartItem> items) { this.items = items; }
 
+    /**
+     * Whether this copy was decoded with the detail columns (location, receipt, cancellation),
+     * as detail fetches and realtime records are. List rows are not.
+     */
+    public boolean hasDetailColumns() { return detailColumnsLoaded; }
+
+    /**
+     * Take the detail columns from a fuller copy of the same order, for a row that lacks them.
+     */
+    public void copyDetailColumnsFrom(Order other) {
+        deliveryLat = other.deliveryLat;
+        deliveryLng = other.deliveryLng;
+        receiptUrl = other.receiptUrl;
+        cancelledBy = other.cancelledBy;
+        cancellationReason = other.cancellationReason;
+        detailColumnsLoaded = other.detailColumnsLoaded;
+    }
+
     public boolean isCancelled() {
-        return "cancelled".equalsIgnoreCase(status);
+        return "cancelled".equals(getNormalizedStatus());
     }
 
     public boolean isCompleted() {
-        return "completed".equalsIgnoreCase(status);
+        return "completed".equals(getNormalizedStatus());
+    }
+
+    private static String normalizeStatus(String status) {
+        return status != null ? status.trim().toLowerCase(java.util.Locale.US) : "";
+    }
+
+    /**
+     * Reflection-free Gson binding for orders. Registered on the shared Gson in GsonProvider.
+     */
+    public static final class GsonAdapter extends TypeAdapter<Order> {
+        private final CartItem.GsonAdapter itemAdapter = new CartItem.GsonAdapter();
+
+        @Override
+        public void write(JsonWriter out, Order order) throws IOException {
+            if (order == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            JsonFields.write(out, "id", order.getIdString());
+            JsonFields.write(out, "order_number", order.orderNumber);
+            JsonFields.write(out, "customer_id", order.customerId);
+            out.name("total_amount").value(order.totalAmount);
+            JsonFields.write(out, "status", order.status);
+            JsonFields.write(out, "payment_method", order.paymentMethod);
+            JsonFields.write(out, "delivery_address", order.deliveryAddress);
+            JsonFields.write(out, "delivery_lat", order.deliveryLat);
+            JsonFields.write(out, "delivery_lng", order.deliveryLng);
+            JsonFields.write(out, "receipt_url", order.receiptUrl);
+            JsonFields.write(out, "cancelled_by", order.cancelledBy);
+            JsonFields.write(out, "cancellation_reason", order.cancellationReason);
+            JsonFields.write(out, "created_at", order.createdAt);
+            JsonFields.write(out, "updated_at", order.updatedAt);
+            if (order.items != null) {
+                out.name("items").beginArray();
+                for (CartItem item : order.items) {
+                    itemAdapter.write(out, item);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Order read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Order order = new Order();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": order.idString = JsonFields.nextString(in); break;
+                    case "order_number": order.orderNumber = JsonFields.nextInteger(in); break;
+                    case "customer_id": order.customerId = JsonFields.nextString(in); break;
+                    case "total_amount": order.totalAmount = JsonFields.nextDouble(in); break;
+                    case "status": order.status = JsonFields.nextString(in); break;
+                    case "payment_method": order.paymentMethod = JsonFields.nextString(in); break;
+                    case "delivery_address": order.deliveryAddress = JsonFields.nextString(in); break;
+                    case "delivery_lat":
+                        order.deliveryLat = JsonFields.nextDoubleOrNull(in);
+                        order.detailColumnsLoaded = true;
+                        break;
+                    case "delivery_lng":
+                        order.deliveryLng = JsonFields.nextDoubleOrNull(in);
+                        order.detailColumnsLoaded = true;
+                        break;
+                    case "receipt_url":
+                        order.receiptUrl = JsonFields.nextString(in);
+                        order.detailColumnsLoaded = true;
+                        break;
+                    case "cancelled_by":
+                        order.cancelledBy = JsonFields.nextString(in);
+                        order.detailColumnsLoaded = true;
+                        break;
+                    case "cancellation_reason":
+                        order.cancellationReason = JsonFields.nextString(in);
+                        order.detailColumnsLoaded = true;
+                        break;
+                    case "created_at": order.createdAt = JsonFields.nextString(in); break;
+                    case "updated_at": order.updatedAt = JsonFields.nextString(in); break;
+                    case "items":
+                    case "order_items": // embedded resource, see OrderService.ORDER_DETAIL_SELECT
+                        order.items = readItems(in);
+                        break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            order.normalizedStatus = normalizeStatus(order.status);
+            order.createdAtEpoch = DateUtil.parseTimestamp(order.createdAt);
+            order.createdAtParsed = true;
+            order.getId();
+            return order;
+        }
+
+        private List<CartItem> readItems(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                in.skipValue();
+                return null;
+            }
+            List<CartItem> list = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                CartItem item = itemAdapter.read(in);
+                if (item != null) {
+                    list.add(item);
+                }
+            }
+            in.endArray();
+            return list;
+        }
     }
 }
 
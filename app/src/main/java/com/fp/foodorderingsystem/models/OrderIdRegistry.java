@@ -0,0 +1,138 @@
+package com.fp.foodorderingsystem.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-local, collision-free mapping between order UUIDs and the compact numeric ids used
+ * for intent extras and repository lookups ({@link Order#getId()}).
+ *
+ * A UUID's preferred id is {@code |hashCode % 1_000_000|}. When two UUIDs want the same id, the
+ * later one probes forward to the next free id instead of silently sharing it. Which one gets
+ * the preferred id depends on arrival order, so these ids differ between processes and are
+ * never persisted or shown; see {@link Order#getDisplayNumber()}. The id -> UUID side is an
+ * open-addressing table keyed by primitive ints, so lookups don't box or allocate.
+ */
+public final class OrderIdRegistry {
+    private static final int ID_SPACE = 1_000_000;
+    private static final int INITIAL_CAPACITY = 256; // power of two
+    private static final float MAX_LOAD = 0.5f;
+
+    private static final OrderIdRegistry INSTANCE = new OrderIdRegistry();
+
+    // Guarded by this. keys[i] == 0 marks an empty slot; 0 is never assigned.
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private String[] uuids = new String[INITIAL_CAPACITY];
+    private int size;
+    private final Map<String, Integer> idsByUuid = new HashMap<>();
+    private long collisions;
+
+    OrderIdRegistry() {}
+
+    public static OrderIdRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Compact id for the UUID, assigning one on first use. Stable for the life of the process.
+     */
+    public synchronized int idFor(String uuid) {
+        Integer existing = idsByUuid.get(uuid);
+        if (existing != null) {
+            return existing;
+        }
+        int candidate = preferredId(uuid);
+        while (find(candidate) >= 0) {
+            collisions++;
+            candidate = candidate + 1 < ID_SPACE ? candidate + 1 : 1;
+        }
+        insert(candidate, uuid);
+        idsByUuid.put(uuid, candidate);
+        return candidate;
+    }
+
+    /**
+     * UUID registered for a compact id, or null if none has been assigned.
+     */
+    public synchronized String uuidFor(int id) {
+        int slot = find(id);
+        return slot >= 0 ? uuids[slot] : null;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Number of assignments that had to probe past an id already taken by another UUID.
+     */
+    public synchronized long getCollisionCount() {
+        return collisions;
+    }
+
+    synchronized void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(uuids, null);
+        idsByUuid.clear();
+        size = 0;
+        collisions = 0;
+    }
+
+    /**
+     * Deterministic hash id of a UUID; not collision-free.
+     */
+    static int preferredId(String uuid) {
+        int id = Math.abs(uuid.hashCode() % ID_SPACE);
+        return id != 0 ? id : 1;
+    }
+
+    private int find(int id) {
+        int mask = keys.length - 1;
+        for (int slot = mix(id) & mask; ; slot = (slot + 1) & mask) {
+            int key = keys[slot];
+            if (key == id) {
+                return slot;
+            }
+            if (key == 0) {
+                return -1;
+            }
+        }
+    }
+
+    private void insert(int id, String uuid) {
+        if (size + 1 > keys.length * MAX_LOAD) {
+            rehash(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int slot = mix(id) & mask;
+        while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        uuids[slot] = uuid;
+        size++;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        String[] oldUuids = uuids;
+        keys = new int[capacity];
+        uuids = new String[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            uuids[slot] = oldUuids[i];
+        }
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
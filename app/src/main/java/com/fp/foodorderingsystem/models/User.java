@@ -1,6 +1,12 @@
 package com.fp.foodorderingsystem.models;
 
+import com.fp.foodorderingsystem.utils.DateUtil;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 
 public class User {
     private String id;
@@ -26,6 +32,9 @@ public class User {
     @SerializedName("profile_picture_url")
     private String profilePictureUrl;
 
+    private transient long createdAtEpoch;
+    private transient boolean createdAtParsed;
+
     public User() {}
 
     public User(String id, String email, String fullName, String phone, String address, String userType) {
@@ -69,7 +78,22 @@ public class User {
     public void setVerified(boolean verified) { isVerified = verified; }
 
     public String getCreatedAt() { return createdAt; }
-    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+        this.createdAtEpoch = DateUtil.parseTimestamp(createdAt);
+        this.createdAtParsed = true;
+    }
+
+    /**
+     * created_at as epoch millis (0 when missing or unparseable).
+     */
+    public long getCreatedAtEpoch() {
+        if (!createdAtParsed) {
+            createdAtEpoch = DateUtil.parseTimestamp(createdAt);
+            createdAtParsed = true;
+        }
+        return createdAtEpoch;
+    }
 
     public String getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
@@ -87,5 +111,64 @@ public class User {
     public void incrementCancellationCount() {
         this.cancellationCount++;
     }
-}
 
+    /**
+     * Reflection-free Gson binding for users rows.
+     */
+    public static final class GsonAdapter extends TypeAdapter<User> {
+        @Override
+        public void write(JsonWriter out, User user) throws IOException {
+            if (user == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            JsonFields.write(out, "id", user.id);
+            JsonFields.write(out, "email", user.email);
+            JsonFields.write(out, "full_name", user.fullName);
+            JsonFields.write(out, "phone", user.phone);
+            JsonFields.write(out, "address", user.address);
+            JsonFields.write(out, "user_type", user.userType);
+            out.name("cancellation_count").value(user.cancellationCount);
+            out.name("is_blocked").value(user.isBlocked);
+            out.name("is_verified").value(user.isVerified);
+            JsonFields.write(out, "created_at", user.createdAt);
+            JsonFields.write(out, "updated_at", user.updatedAt);
+            JsonFields.write(out, "profile_picture", user.profilePicture);
+            JsonFields.write(out, "profile_picture_url", user.profilePictureUrl);
+            out.endObject();
+        }
+
+        @Override
+        public User read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            User user = new User();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": user.id = JsonFields.nextString(in); break;
+                    case "email": user.email = JsonFields.nextString(in); break;
+                    case "full_name": user.fullName = JsonFields.nextString(in); break;
+                    case "phone": user.phone = JsonFields.nextString(in); break;
+                    case "address": user.address = JsonFields.nextString(in); break;
+                    case "user_type": user.userType = JsonFields.nextString(in); break;
+                    case "cancellation_count": user.cancellationCount = JsonFields.nextInt(in); break;
+                    case "is_blocked": user.isBlocked = JsonFields.nextBoolean(in); break;
+                    case "is_verified": user.isVerified = JsonFields.nextBoolean(in); break;
+                    case "created_at": user.createdAt = JsonFields.nextString(in); break;
+                    case "updated_at": user.updatedAt = JsonFields.nextString(in); break;
+                    case "profile_picture": user.profilePicture = JsonFields.nextString(in); break;
+                    case "profile_picture_url": user.profilePictureUrl = JsonFields.nextString(in); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            user.createdAtEpoch = DateUtil.parseTimestamp(user.createdAt);
+            user.createdAtParsed = true;
+            return user;
+        }
+    }
+}
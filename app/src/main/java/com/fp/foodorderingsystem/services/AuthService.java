@@ -15,12 +15,14 @@ import java.io.IOException;
 public class AuthService {
     private static final String TAG = "AuthService";
     private SupabaseService supabaseService;
+    private ServiceExecutor executor;
     private Context appContext;
     private PreferenceUtil preferenceUtil;
     private String accessToken;
     
     public AuthService(Context context) {
         this.supabaseService = SupabaseService.getInstance(context);
+        this.executor = ServiceExecutor.getInstance();
         this.preferenceUtil = new PreferenceUtil(context);
         this.appContext = context.getApplicationContext();
         // Load access token from preferences if available
@@ -70,7 +72,7 @@ public class AuthService {
             callback.onError("No internet connection");
             return;
         }
-        new Thread(() -> {
+        executor.write(() -> {
             // Try both "signup" and "email" types since Supabase might use either
             String[] typesToTry = {"signup", "email"};
             String lastError = "Invalid or expired OTP";
@@ -166,7 +168,7 @@ public class AuthService {
                     // Otherwise continue to next type
                 }
             }
-        }).start();
+        });
     }
 
     public void sendSignupOtp(String email, SimpleCallback callback) {
@@ -201,7 +203,7 @@ public class AuthService {
             callback.onError("No internet connection");
             return;
         }
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("email", email);
@@ -242,7 +244,7 @@ public class AuthService {
                 Log.e(TAG, "Exception sending OTP", e);
                 callback.onError("Failed to send code: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void sendRecoveryOtp(String email, SimpleCallback callback) {
@@ -254,7 +256,7 @@ public class AuthService {
             callback.onError("No internet connection");
             return;
         }
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("email", email);
@@ -283,11 +285,11 @@ public class AuthService {
             } catch (Exception e) {
                 callback.onError("Failed to send code: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void verifyRecoveryOtp(String email, String otpCode, TokenCallback callback) {
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject jsonBody = new JsonObject();
                 jsonBody.addProperty("type", "recovery");
@@ -342,11 +344,11 @@ public class AuthService {
             } catch (Exception e) {
                 callback.onError("OTP verification failed: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void updatePasswordWithToken(String accessTokenForRecovery, String newPassword, SimpleCallback callback) {
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject bodyJson = new JsonObject();
                 bodyJson.addProperty("password", newPassword);
@@ -368,7 +370,7 @@ public class AuthService {
             } catch (Exception e) {
                 callback.onError("Failed to update password: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     public void login(String email, String password, AuthCallback callback) {
@@ -377,7 +379,7 @@ public class AuthService {
             return;
         }
         
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject requestBody = new JsonObject();
                 requestBody.addProperty("email", email);
@@ -422,7 +424,7 @@ public class AuthService {
                 Log.e(TAG, "Login error", e);
                 callback.onError("Login failed: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     /**
@@ -454,7 +456,7 @@ public class AuthService {
             return;
         }
         
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 // Register user in Supabase Auth
                 // This matches PHP: INSERT INTO users (email, password, is_verified) VALUES (?, ?, 0)
@@ -517,7 +519,7 @@ public class AuthService {
                 Log.e(TAG, "Sign up error", e);
                 callback.onError("Sign up failed: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     private void fetchUserData(String userId, AuthCallback callback) {
@@ -656,19 +658,19 @@ public class AuthService {
     public void logout() {
         this.accessToken = null;
         preferenceUtil.logout();
+        OrderRepository.get().clear();
     }
     
     public String getAccessToken() {
-        // First try to get from memory
-        if (accessToken != null && !accessToken.isEmpty()) {
-            return accessToken;
-        }
-        // If not in memory, try to get from preferences
+        // Preferences hold the latest token, including ones rotated by SupabaseService on a 401
         String savedToken = preferenceUtil.getAccessToken();
         if (savedToken != null && !savedToken.isEmpty()) {
             this.accessToken = savedToken; // Cache it in memory
             return savedToken;
         }
+        if (accessToken != null && !accessToken.isEmpty()) {
+            return accessToken;
+        }
         return null;
     }
     
@@ -688,44 +690,17 @@ public class AuthService {
             return;
         }
         
-        new Thread(() -> {
-            try {
-                JsonObject requestBody = new JsonObject();
-                requestBody.addProperty("refresh_token", refreshToken);
-                
-                Request request = new Request.Builder()
-                    .url(SupabaseConfig.SUPABASE_URL + "/auth/v1/token?grant_type=refresh_token")
-                    .post(RequestBody.create(
-                        MediaType.parse("application/json"),
-                        requestBody.toString()))
-                    .addHeader("apikey", SupabaseConfig.SUPABASE_ANON_KEY)
-                    .addHeader("Content-Type", "application/json")
-                    .build();
-                
-                Response response = supabaseService.executeRequest(request);
-                String responseBody = response.body() != null ? response.body().string() : "";
-                
-                if (response.isSuccessful()) {
-                    JsonObject jsonResponse = supabaseService.getGson().fromJson(responseBody, JsonObject.class);
-                    String newAccessToken = jsonResponse.get("access_token").getAsString();
-                    this.accessToken = newAccessToken;
-                    preferenceUtil.saveAccessToken(newAccessToken);
-                    
-                    // Update refresh token if provided
-                    if (jsonResponse.has("refresh_token")) {
-                        preferenceUtil.saveRefreshToken(jsonResponse.get("refresh_token").getAsString());
-                    }
-                    
-                    callback.onSuccess(newAccessToken);
-                } else {
-                    Log.e(TAG, "Token refresh failed: " + response.code() + " - " + responseBody);
-                    callback.onError("Token refresh failed. Please login again.");
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Token refresh error", e);
-                callback.onError("Token refresh error: " + e.getMessage());
+        // Read before queuing so a refresh that completes meanwhile is shared, not repeated
+        String staleToken = preferenceUtil.getAccessToken();
+        executor.write(() -> {
+            String newAccessToken = supabaseService.refreshAccessToken(staleToken);
+            if (newAccessToken != null) {
+                this.accessToken = newAccessToken;
+                callback.onSuccess(newAccessToken);
+            } else {
+                callback.onError("Token refresh failed. Please login again.");
             }
-        }).start();
+        });
     }
 }
 
@@ -4,9 +4,9 @@ import android.content.Context;
 import android.util.Log;
 import com.fp.foodorderingsystem.models.CartItem;
 import com.fp.foodorderingsystem.utils.NetworkUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import java.util.ArrayList;
 import java.util.List;
 import okhttp3.MediaType;
 import okhttp3.Request;
@@ -18,13 +18,16 @@ public class CartService {
     private static final String TAG = "CartService";
 
     private final SupabaseService supabaseService;
+
+    private final ServiceExecutor executor;
     private final Context context;
     private final Gson gson;
 
     public CartService(Context context) {
         this.context = context.getApplicationContext();
         this.supabaseService = SupabaseService.getInstance(context);
-        this.gson = new Gson();
+        this.executor = ServiceExecutor.getInstance();
+        this.gson = GsonProvider.get();
     }
 
     public interface CartItemsCallback {
@@ -48,31 +51,19 @@ public class CartService {
             return;
         }
 
-        new Thread(() -> {
+        executor.read(() -> {
             try {
-                String endpoint = String.format(
-                    java.util.Locale.US,
-                    "cart_items?select=%s&user_id=eq.%s&order=updated_at.desc",
-                    CART_SELECT,
-                    userId
-                );
-                Request request = supabaseService.createRequest(endpoint)
+                PostgrestQuery query = PostgrestQuery.from("cart_items")
+                    .select(CART_SELECT)
+                    .eqUuid("user_id", userId)
+                    .order("updated_at", false);
+                Request request = supabaseService.createRequest(query)
                     .get()
                     .build();
 
                 try (Response response = supabaseService.executeRequest(request)) {
                     if (response.isSuccessful()) {
-                        String json = response.body() != null ? response.body().string() : "[]";
-                        CartItem[] items = gson.fromJson(json, CartItem[].class);
-                        List<CartItem> cartItems = new ArrayList<>();
-                        if (items != null) {
-                            for (CartItem item : items) {
-                                if (item != null && item.getFoodItem() == null && item.getMenuItemId() != 0) {
-                                    // No-op: menu item data may be absent only when join fails.
-                                }
-                                cartItems.add(item);
-                            }
-                        }
+                        List<CartItem> cartItems = supabaseService.decodeArray(response.body(), CartItem.class);
                         callback.onSuccess(cartItems);
                     } else {
                         String errorBody = response.body() != null ? response.body().string() : "";
@@ -84,7 +75,7 @@ public class CartService {
                 Log.e(TAG, "getCartItems error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void addOrUpdateItem(String userId, int menuItemId, int quantity, double unitPrice, CartItemCallback callback) {
@@ -93,7 +84,7 @@ public class CartService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("user_id", userId);
@@ -127,7 +118,7 @@ public class CartService {
                 Log.e(TAG, "addOrUpdateItem error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void updateQuantity(String cartItemId, int quantity, CartItemCallback callback) {
@@ -136,7 +127,7 @@ public class CartService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("quantity", quantity);
@@ -167,7 +158,7 @@ public class CartService {
                 Log.e(TAG, "updateQuantity error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void removeItem(String cartItemId, SimpleCallback callback) {
@@ -176,7 +167,7 @@ public class CartService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 Request request = supabaseService.createRequest("cart_items?id=eq." + cartItemId)
                     .delete()
@@ -193,7 +184,7 @@ public class CartService {
                 Log.e(TAG, "removeItem error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void clearCart(String userId, SimpleCallback callback) {
@@ -202,9 +193,9 @@ public class CartService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
-                Request request = supabaseService.createRequest("cart_items?user_id=eq." + userId)
+                Request request = supabaseService.createRequest(PostgrestQuery.from("cart_items").eqUuid("user_id", userId))
                     .delete()
                     .build();
 
@@ -219,7 +210,7 @@ public class CartService {
                 Log.e(TAG, "clearCart error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 }
 
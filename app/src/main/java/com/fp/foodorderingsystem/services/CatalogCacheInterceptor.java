@@ -0,0 +1,122 @@
+package com.fp.foodorderingsystem.services;
+
+import java.io.IOException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Network interceptor that makes the catalog tables (menu_items, categories) cacheable
+ * by the OkHttp disk cache and always revalidated.
+ *
+ * PostgREST does not emit validators on its own, so when a catalog response has no ETag
+ * a weak one is derived from the body hash. If the request carried a matching
+ * If-None-Match, the 200 is turned into a 304 so OkHttp serves the stored copy and
+ * callers can skip decoding. When the server does send ETags it answers 304 itself and
+ * the body is not transferred at all.
+ *
+ * A 200 swapped for a 304 was still received in full, but the caller never reads it, so
+ * its size is reported to {@link NetworkTelemetry} here rather than by the
+ * {@link TelemetryInterceptor} byte counter.
+ */
+final class CatalogCacheInterceptor implements Interceptor {
+    private static final String REST_PREFIX = "/rest/v1/";
+    private static final String[] CATALOG_TABLES = {"menu_items", "categories"};
+    private static final long MAX_HASHED_BYTES = 2L * 1024 * 1024;
+
+    private final NetworkTelemetry telemetry;
+
+    CatalogCacheInterceptor(NetworkTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    static boolean isCatalogRequest(Request request) {
+        if (!"GET".equals(request.method())) {
+            return false;
+        }
+        String path = request.url().encodedPath();
+        if (!path.startsWith(REST_PREFIX)) {
+            return false;
+        }
+        String table = path.substring(REST_PREFIX.length());
+        for (String catalogTable : CATALOG_TABLES) {
+            if (catalogTable.equals(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        if (!isCatalogRequest(request) || request.header("Range") != null) {
+            return response;
+        }
+        if (response.code() != 200) {
+            return withRevalidation(response);
+        }
+
+        String etag = response.header("ETag");
+        if (etag == null) {
+            etag = bodyEtag(response);
+            if (etag == null) {
+                return response; // Too large to hash; leave it uncached
+            }
+        }
+
+        String ifNoneMatch = request.header("If-None-Match");
+        if (etag.equals(ifNoneMatch)) {
+            telemetry.recordBytesReceived(NetworkTelemetry.endpointOf(request.url()), discardedBytes(response));
+            response.close();
+            return response.newBuilder()
+                .code(304)
+                .message("Not Modified")
+                .header("ETag", etag)
+                .header("Cache-Control", "no-cache")
+                .removeHeader("Content-Length")
+                .body(ResponseBody.create(null, new byte[0]))
+                .build();
+        }
+
+        return withRevalidation(response.newBuilder().header("ETag", etag).build());
+    }
+
+    private static Response withRevalidation(Response response) {
+        // Store the catalog but always check it with the server before reuse
+        return response.newBuilder()
+            .header("Cache-Control", "no-cache")
+            .removeHeader("Pragma")
+            .removeHeader("Expires")
+            .build();
+    }
+
+    /**
+     * Size of the body dropped for a synthetic 304: the declared length, or else what peeking
+     * buffers (capped at {@link #MAX_HASHED_BYTES}, which a hashed body never exceeds).
+     */
+    private static long discardedBytes(Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null) {
+            return 0;
+        }
+        if (body.contentLength() >= 0) {
+            return body.contentLength();
+        }
+        return response.peekBody(MAX_HASHED_BYTES).contentLength();
+    }
+
+    private static String bodyEtag(Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null || body.contentLength() > MAX_HASHED_BYTES) {
+            return null;
+        }
+        ResponseBody peeked = response.peekBody(MAX_HASHED_BYTES + 1);
+        if (peeked.contentLength() > MAX_HASHED_BYTES) {
+            return null;
+        }
+        return "W/\"" + peeked.byteString().md5().hex() + "\"";
+    }
+}
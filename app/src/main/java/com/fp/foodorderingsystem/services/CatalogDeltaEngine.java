@@ -0,0 +1,212 @@
+package com.fp.foodorderingsystem.services;
+
+import android.util.Log;
+import com.fp.foodorderingsystem.utils.GsonProvider;
+import com.fp.foodorderingsystem.utils.RealtimePayloadUtil;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyed in-memory copy of a catalog table (menu items, categories) that applies realtime
+ * INSERT/UPDATE/DELETE payloads in place instead of refetching the table.
+ *
+ * The engine holds every row it has seen, keyed by id. It also keeps a sorted "visible" list
+ * of the rows that pass the current {@link Filter}, which is what the adapter shows. Each
+ * {@link #apply} returns a {@link Change} with the adapter positions it touched, so the
+ * adapter can notify just that row.
+ *
+ * A full {@link #replaceAll} is only needed when {@link #apply} reports {@link Change.Type#GAP}.
+ * That happens before the first load, after {@link #invalidate()} (call it when the realtime
+ * connection reports an error, since deletes during an outage are not replayed), and for
+ * payloads that can't be decoded.
+ *
+ * Not thread-safe; use it from one thread (the main thread in the activities).
+ */
+public final class CatalogDeltaEngine<T> {
+    private static final String TAG = "CatalogDeltaEngine";
+
+    public interface KeyFunction<T> {
+        int keyOf(T item);
+    }
+
+    public interface Filter<T> {
+        boolean accept(T item);
+    }
+
+    /**
+     * What one operation did to the visible list.
+     */
+    public static final class Change {
+        public enum Type { NONE, INSERTED, CHANGED, MOVED, REMOVED, RESET, GAP }
+
+        static final Change NONE = new Change(Type.NONE, -1, -1);
+        static final Change RESET = new Change(Type.RESET, -1, -1);
+        static final Change GAP = new Change(Type.GAP, -1, -1);
+
+        public final Type type;
+        /** Position before the change, or -1. */
+        public final int fromPosition;
+        /** Position after the change, or -1. */
+        public final int toPosition;
+
+        Change(Type type, int fromPosition, int toPosition) {
+            this.type = type;
+            this.fromPosition = fromPosition;
+            this.toPosition = toPosition;
+        }
+
+        @Override
+        public String toString() {
+            return type + "(" + fromPosition + "->" + toPosition + ")";
+        }
+    }
+
+    private final Class<T> type;
+    private final KeyFunction<T> keyFunction;
+    private final Comparator<T> order;
+    private final Filter<T> filter;
+    private final Map<Integer, T> rowsByKey = new HashMap<>();
+    private final List<T> visible = new ArrayList<>();
+    private boolean loaded;
+    private boolean stale;
+
+    /**
+     * @param order  display order of the visible rows; ties are broken by key
+     * @param filter which rows are visible, or null for all. It is re-evaluated by {@link #refilter()}.
+     */
+    public CatalogDeltaEngine(Class<T> type, KeyFunction<T> keyFunction, Comparator<T> order, Filter<T> filter) {
+        this.type = type;
+        this.keyFunction = keyFunction;
+        this.order = (a, b) -> {
+            int result = order.compare(a, b);
+            return result != 0 ? result : Integer.compare(keyFunction.keyOf(a), keyFunction.keyOf(b));
+        };
+        this.filter = filter;
+    }
+
+    /**
+     * Replace the catalog with a full fetch.
+     */
+    public Change replaceAll(List<T> rows) {
+        rowsByKey.clear();
+        if (rows != null) {
+            for (T row : rows) {
+                if (row != null) {
+                    rowsByKey.put(keyFunction.keyOf(row), row);
+                }
+            }
+        }
+        loaded = true;
+        stale = false;
+        return refilter();
+    }
+
+    /**
+     * Rebuild the visible list after the filter's inputs changed (e.g. the selected category).
+     */
+    public Change refilter() {
+        visible.clear();
+        for (T row : rowsByKey.values()) {
+            if (accepts(row)) {
+                visible.add(row);
+            }
+        }
+        Collections.sort(visible, order);
+        return Change.RESET;
+    }
+
+    /**
+     * Apply one realtime payload for this table.
+     */
+    public Change apply(JsonObject payload) {
+        if (!loaded || stale) {
+            return Change.GAP;
+        }
+        String eventType = RealtimePayloadUtil.getEventType(payload).toUpperCase();
+        T row;
+        try {
+            JsonObject record = "DELETE".equals(eventType)
+                ? RealtimePayloadUtil.getOldRecord(payload)
+                : RealtimePayloadUtil.getNewRecord(payload);
+            row = record != null ? GsonProvider.get().fromJson(record, type) : null;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Undecodable " + type.getSimpleName() + " payload", e);
+            row = null;
+        }
+        if (row == null) {
+            return Change.GAP;
+        }
+
+        int key = keyFunction.keyOf(row);
+        T previous = "DELETE".equals(eventType) ? rowsByKey.remove(key) : rowsByKey.put(key, row);
+        int from = previous != null ? indexOfVisible(previous) : -1;
+        if (from >= 0) {
+            visible.remove(from);
+        }
+        int to = -1;
+        if (!"DELETE".equals(eventType) && accepts(row)) {
+            to = -(Collections.binarySearch(visible, row, order) + 1);
+            visible.add(to, row);
+        }
+
+        if (from < 0 && to < 0) {
+            return Change.NONE;
+        } else if (from < 0) {
+            return new Change(Change.Type.INSERTED, -1, to);
+        } else if (to < 0) {
+            return new Change(Change.Type.REMOVED, from, -1);
+        } else if (from == to) {
+            return new Change(Change.Type.CHANGED, from, to);
+        }
+        return new Change(Change.Type.MOVED, from, to);
+    }
+
+    /**
+     * Stop trusting deltas until the next {@link #replaceAll}; {@link #apply} reports a gap meanwhile.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * The server confirmed the last full fetch is still current (HTTP 304).
+     */
+    public void markCurrent() {
+        if (loaded) {
+            stale = false;
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Copy of the visible rows, in display order.
+     */
+    public List<T> snapshot() {
+        return new ArrayList<>(visible);
+    }
+
+    public int size() {
+        return rowsByKey.size();
+    }
+
+    private boolean accepts(T row) {
+        return filter == null || filter.accept(row);
+    }
+
+    private int indexOfVisible(T row) {
+        int index = Collections.binarySearch(visible, row, order);
+        return index >= 0 && visible.get(index) == row ? index : -1;
+    }
+}
@@ -4,9 +4,9 @@ import android.content.Context;
 import android.util.Log;
 import com.fp.foodorderingsystem.models.Category;
 import com.fp.foodorderingsystem.utils.NetworkUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import java.util.ArrayList;
 import java.util.List;
 import okhttp3.MediaType;
 import okhttp3.Request;
@@ -15,15 +15,19 @@ import okhttp3.Response;
 
 public class CategoryService {
     private static final String TAG = "CategoryService";
+    public static final String CATEGORY_COLUMNS = "id,name,description,image_url,is_active,created_at";
 
     private final SupabaseService supabaseService;
+
+    private final ServiceExecutor executor;
     private final Context context;
     private final Gson gson;
 
     public CategoryService(Context context) {
         this.context = context.getApplicationContext();
         this.supabaseService = SupabaseService.getInstance(context);
-        this.gson = new Gson();
+        this.executor = ServiceExecutor.getInstance();
+        this.gson = GsonProvider.get();
     }
 
     public interface CategoryListCallback {
@@ -47,31 +51,36 @@ public class CategoryService {
             return;
         }
 
-        new Thread(() -> {
+        executor.read(() -> {
             try {
-                Request request = supabaseService.createRequest("categories?select=*&order=created_at.desc")
+                PostgrestQuery query = PostgrestQuery.from("categories")
+                    .select(CATEGORY_COLUMNS)
+                    .order("created_at", false);
+                Request request = supabaseService.createRequest(query)
                     .get()
                     .build();
 
-                Response response = supabaseService.executeRequest(request);
-                if (response.isSuccessful()) {
-                    String json = response.body().string();
-                    Category[] result = gson.fromJson(json, Category[].class);
-                    List<Category> categories = new ArrayList<>();
-                    if (result != null) {
-                        for (Category category : result) {
-                            categories.add(category);
+                supabaseService.fetchListShared(request, Category.class, null, new SupabaseService.SharedListCallback<Category>() {
+                    @Override
+                    public void onSuccess(List<Category> categories) {
+                        callback.onSuccess(categories);
+                    }
+
+                    @Override
+                    public void onError(int statusCode, Exception error) {
+                        if (statusCode > 0) {
+                            callback.onError("Failed to load categories: " + statusCode);
+                        } else {
+                            Log.e(TAG, "getAllCategories error", error);
+                            callback.onError("Error: " + error.getMessage());
                         }
                     }
-                    callback.onSuccess(categories);
-                } else {
-                    callback.onError("Failed to load categories: " + response.code());
-                }
+                });
             } catch (Exception e) {
                 Log.e(TAG, "getAllCategories error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void createCategory(Category category, CategoryCallback callback) {
@@ -80,7 +89,7 @@ public class CategoryService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = buildBodyFromCategory(category);
 
@@ -107,7 +116,7 @@ public class CategoryService {
                 Log.e(TAG, "createCategory error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void updateCategory(Category category, CategoryCallback callback) {
@@ -116,7 +125,7 @@ public class CategoryService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = buildBodyFromCategory(category);
 
@@ -143,7 +152,7 @@ public class CategoryService {
                 Log.e(TAG, "updateCategory error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void deleteCategory(int categoryId, SimpleCallback callback) {
@@ -152,7 +161,7 @@ public class CategoryService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 Request request = supabaseService.createRequest("categories?id=eq." + categoryId)
                     .delete()
@@ -168,7 +177,7 @@ public class CategoryService {
                 Log.e(TAG, "deleteCategory error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     private JsonObject buildBodyFromCategory(Category category) {
@@ -0,0 +1,127 @@
+package com.fp.foodorderingsystem.services;
+
+import com.fp.foodorderingsystem.models.CartItem;
+import com.fp.foodorderingsystem.models.Order;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Client side of the {@code place_order} Postgres function (see SQL_COMMANDS_FOR_CHECKOUT_RPC.md).
+ *
+ * One POST to {@code /rest/v1/rpc/place_order} inserts the order and its items and clears the
+ * customer's cart in a single transaction, and returns the order with an {@code items} array.
+ * If any step fails, nothing is written.
+ *
+ * Kept free of Android dependencies so it can be exercised against a local PostgREST stand-in.
+ */
+public final class CheckoutRpc {
+    public static final String FUNCTION = "place_order";
+    public static final String ENDPOINT = "rpc/" + FUNCTION;
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    /**
+     * The RPC returned an error. {@link #code} is the PostgREST/Postgres error code when present.
+     */
+    public static class CheckoutException extends IOException {
+        public final int statusCode;
+        public final String code;
+
+        public CheckoutException(int statusCode, String code, String message) {
+            super(message);
+            this.statusCode = statusCode;
+            this.code = code;
+        }
+
+        /**
+         * True when the function has not been deployed yet (PostgREST PGRST202).
+         */
+        public boolean isMissingFunction() {
+            return statusCode == 404 || "PGRST202".equals(code);
+        }
+    }
+
+    private CheckoutRpc() {}
+
+    public static JsonObject buildPayload(Order order, List<CartItem> cartItems) {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("p_customer_id", order.getCustomerId());
+        payload.addProperty("p_total_amount", order.getTotalAmount());
+        payload.addProperty("p_payment_method", order.getPaymentMethod() != null ? order.getPaymentMethod() : "cod");
+        payload.addProperty("p_delivery_address", order.getDeliveryAddress() != null ? order.getDeliveryAddress() : "");
+        payload.addProperty("p_status", order.getStatus() != null ? order.getStatus() : "pending");
+
+        JsonArray items = new JsonArray();
+        if (cartItems != null) {
+            for (CartItem cartItem : cartItems) {
+                if (cartItem == null) continue;
+                JsonObject item = new JsonObject();
+                item.addProperty("menu_item_id", cartItem.getMenuItemId());
+                item.addProperty("quantity", cartItem.getQuantity());
+                item.addProperty("unit_price", cartItem.getUnitPrice());
+                item.addProperty("total_price", cartItem.getTotalPrice());
+                items.add(item);
+            }
+        }
+        payload.add("p_items", items);
+        return payload;
+    }
+
+    public static Request buildRequest(String supabaseUrl, String apiKey, String accessToken, JsonObject payload) {
+        return new Request.Builder()
+            .url(supabaseUrl + "/rest/v1/" + ENDPOINT)
+            .addHeader("apikey", apiKey)
+            .addHeader("Authorization", "Bearer " + accessToken)
+            .addHeader("Content-Type", "application/json")
+            .post(RequestBody.create(JSON, payload.toString()))
+            .build();
+    }
+
+    /**
+     * Execute the RPC and decode the created order (with items).
+     *
+     * @throws CheckoutException if the server rejected the checkout; nothing was persisted
+     */
+    public static Order place(Call.Factory client, Request request, Gson gson) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            return parseResponse(response, gson);
+        }
+    }
+
+    static Order parseResponse(Response response, Gson gson) throws IOException {
+        ResponseBody body = response.body();
+        String text = body != null ? body.string() : "";
+        if (!response.isSuccessful()) {
+            String code = null;
+            String message = "Failed to place order (" + response.code() + ")";
+            try {
+                JsonObject error = gson.fromJson(text, JsonObject.class);
+                if (error != null) {
+                    if (error.has("code") && !error.get("code").isJsonNull()) {
+                        code = error.get("code").getAsString();
+                    }
+                    if (error.has("message") && !error.get("message").isJsonNull()) {
+                        message = error.get("message").getAsString();
+                    }
+                }
+            } catch (RuntimeException ignored) {
+                // Non-JSON error body; keep the generic message
+            }
+            throw new CheckoutException(response.code(), code, message);
+        }
+
+        Order order = gson.fromJson(text, Order.class);
+        if (order == null || order.getIdString() == null) {
+            throw new CheckoutException(response.code(), null, "Failed to parse order response");
+        }
+        return order;
+    }
+}
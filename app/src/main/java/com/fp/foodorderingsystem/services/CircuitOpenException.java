@@ -0,0 +1,25 @@
+package com.fp.foodorderingsystem.services;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of making a call when the endpoint's circuit breaker is open.
+ */
+public class CircuitOpenException extends IOException {
+    private final String endpoint;
+    private final long retryAfterMs;
+
+    public CircuitOpenException(String endpoint, long retryAfterMs) {
+        super("Service temporarily unavailable (" + endpoint + "), retry in " + ((retryAfterMs + 999) / 1000) + "s");
+        this.endpoint = endpoint;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
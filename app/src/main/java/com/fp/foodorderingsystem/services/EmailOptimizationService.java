@@ -1,6 +1,7 @@
 package com.fp.foodorderingsystem.services;
 
 import com.fp.foodorderingsystem.config.SupabaseConfig;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import java.io.IOException;
@@ -13,17 +14,16 @@ import okhttp3.Response;
 
 /**
  * Lightweight helper to send and verify OTP emails quickly using Supabase Auth REST endpoints.
- * Uses a shared OkHttp client with pooling and short timeouts to keep email delivery snappy.
+ * Uses a client derived from the shared NetworkStack with short timeouts to keep email delivery snappy.
  */
 public class EmailOptimizationService {
-    private static final OkHttpClient client = new OkHttpClient.Builder()
+    private static final OkHttpClient client = NetworkStack.get().newClientBuilder()
         .connectTimeout(10, TimeUnit.SECONDS)
         .readTimeout(10, TimeUnit.SECONDS)
         .writeTimeout(10, TimeUnit.SECONDS)
-        .connectionPool(new okhttp3.ConnectionPool(8, 5, TimeUnit.MINUTES))
         .build();
 
-    private static final Gson gson = new Gson();
+    private static final Gson gson = GsonProvider.get();
     private static final MediaType JSON = MediaType.parse("application/json");
 
     public interface Callback {
@@ -37,7 +37,7 @@ public class EmailOptimizationService {
     }
 
     public static void sendOtpOptimized(String email, String type, boolean createUser, Callback callback) {
-        new Thread(() -> {
+        ServiceExecutor.getInstance().write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("email", email);
@@ -68,7 +68,7 @@ public class EmailOptimizationService {
             } catch (Exception e) {
                 callback.onError("Unexpected error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public static void resendOtpOptimized(String email, String type, Callback callback) {
@@ -77,7 +77,7 @@ public class EmailOptimizationService {
     }
 
     public static void verifyOtpOptimized(String email, String otpCode, String type, TokenCallback callback) {
-        new Thread(() -> {
+        ServiceExecutor.getInstance().write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("email", email);
@@ -113,7 +113,7 @@ public class EmailOptimizationService {
             } catch (Exception e) {
                 callback.onError("Unexpected error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 }
 
@@ -4,9 +4,9 @@ import android.content.Context;
 import android.util.Log;
 import com.fp.foodorderingsystem.models.FoodItem;
 import com.fp.foodorderingsystem.utils.NetworkUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import java.util.ArrayList;
 import java.util.List;
 import okhttp3.MediaType;
 import okhttp3.Request;
@@ -15,14 +15,18 @@ import okhttp3.Response;
 
 public class MenuItemService {
     private static final String TAG = "MenuItemService";
+    public static final String MENU_ITEM_COLUMNS =
+        "id,category_id,name,description,price,image_url,image_path,status,stock,preparation_time,created_at,updated_at";
     private final SupabaseService supabaseService;
+    private final ServiceExecutor executor;
     private final Context context;
     private final Gson gson;
     
     public MenuItemService(Context context) {
         this.context = context.getApplicationContext();
         this.supabaseService = SupabaseService.getInstance(context);
-        this.gson = new Gson();
+        this.executor = ServiceExecutor.getInstance();
+        this.gson = GsonProvider.get();
     }
     
     public interface MenuItemsCallback {
@@ -46,31 +50,36 @@ public class MenuItemService {
             return;
         }
         
-        new Thread(() -> {
+        executor.read(() -> {
             try {
-                Request request = supabaseService.createRequest("menu_items?select=*&order=updated_at.desc")
+                PostgrestQuery query = PostgrestQuery.from("menu_items")
+                    .select(MENU_ITEM_COLUMNS)
+                    .order("updated_at", false);
+                Request request = supabaseService.createRequest(query)
                     .get()
                     .build();
                 
-                Response response = supabaseService.executeRequest(request);
-                if (response.isSuccessful()) {
-                    String json = response.body().string();
-                    FoodItem[] items = gson.fromJson(json, FoodItem[].class);
-                    List<FoodItem> foodItems = new ArrayList<>();
-                    if (items != null) {
-                        for (FoodItem item : items) {
-                            foodItems.add(item);
+                supabaseService.fetchListShared(request, FoodItem.class, null, new SupabaseService.SharedListCallback<FoodItem>() {
+                    @Override
+                    public void onSuccess(List<FoodItem> foodItems) {
+                        callback.onSuccess(foodItems);
+                    }
+
+                    @Override
+                    public void onError(int statusCode, Exception error) {
+                        if (statusCode > 0) {
+                            callback.onError("Failed to load items: " + statusCode);
+                        } else {
+                            Log.e(TAG, "getAllMenuItems error", error);
+                            callback.onError("Error: " + error.getMessage());
                         }
                     }
-                    callback.onSuccess(foodItems);
-                } else {
-                    callback.onError("Failed to load items: " + response.code());
-                }
+                });
             } catch (Exception e) {
                 Log.e(TAG, "getAllMenuItems error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     public void createMenuItem(FoodItem item, MenuItemCallback callback) {
@@ -79,7 +88,7 @@ public class MenuItemService {
             return;
         }
         
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = buildBodyFromItem(item);
                 
@@ -104,7 +113,7 @@ public class MenuItemService {
                 Log.e(TAG, "createMenuItem error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     public void updateMenuItem(FoodItem item, MenuItemCallback callback) {
@@ -113,7 +122,7 @@ public class MenuItemService {
             return;
         }
         
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = buildBodyFromItem(item);
                 
@@ -159,7 +168,7 @@ public class MenuItemService {
                 Log.e(TAG, "updateMenuItem error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     public void updateStatus(int itemId, String status, MenuItemCallback callback) {
@@ -168,7 +177,7 @@ public class MenuItemService {
             return;
         }
         
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("status", status);
@@ -194,7 +203,7 @@ public class MenuItemService {
                 Log.e(TAG, "updateStatus error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     public void deleteMenuItem(int itemId, SimpleCallback callback) {
@@ -203,7 +212,7 @@ public class MenuItemService {
             return;
         }
         
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 Request request = supabaseService.createRequest("menu_items?id=eq." + itemId)
                     .delete()
@@ -219,7 +228,7 @@ public class MenuItemService {
                 Log.e(TAG, "deleteMenuItem error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     private JsonObject buildBodyFromItem(FoodItem item) {
@@ -0,0 +1,132 @@
+package com.fp.foodorderingsystem.services;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.SystemClock;
+import android.util.Log;
+import com.fp.foodorderingsystem.config.SupabaseConfig;
+import com.fp.foodorderingsystem.utils.NetworkUtil;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * The app's single OkHttp stack.
+ *
+ * Every client (Supabase REST, realtime WebSockets, PayMongo, OTP email) is derived from one
+ * base client with {@code newBuilder()}, so they share a connection pool, dispatcher and
+ * thread pools. Per-use settings such as timeouts, interceptors and the HTTP cache are added
+ * to the derived builders only. Derived REST clients report to {@link NetworkTelemetry}.
+ *
+ * {@link #init(Context)} is called from {@code MyApp} and opens a TLS/HTTP2 connection to the
+ * Supabase host in the background, so the first real request skips the handshake.
+ */
+public final class NetworkStack {
+    private static final String TAG = "NetworkStack";
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    private static volatile NetworkStack instance;
+
+    private final OkHttpClient baseClient;
+    private final OkHttpClient realtimeClient;
+    private final TelemetryInterceptor telemetryInterceptor = new TelemetryInterceptor(NetworkTelemetry.getInstance());
+    private volatile long prewarmMillis = -1;
+
+    private NetworkStack() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(8);
+        baseClient = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+            .dispatcher(dispatcher)
+            .connectTimeout(20, TimeUnit.SECONDS)
+            .readTimeout(20, TimeUnit.SECONDS)
+            .writeTimeout(20, TimeUnit.SECONDS)
+            .retryOnConnectionFailure(true)
+            .build();
+        // WebSockets stay open indefinitely; liveness is handled by the Phoenix heartbeat
+        realtimeClient = baseClient.newBuilder()
+            .readTimeout(0, TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    /**
+     * Returns the stack, creating it on first use. Prefer {@link #init(Context)} at startup.
+     */
+    public static NetworkStack get() {
+        NetworkStack stack = instance;
+        if (stack == null) {
+            synchronized (NetworkStack.class) {
+                stack = instance;
+                if (stack == null) {
+                    stack = new NetworkStack();
+                    instance = stack;
+                }
+            }
+        }
+        return stack;
+    }
+
+    /**
+     * Create the stack and pre-warm the Supabase connection. Safe to call more than once.
+     */
+    public static void init(Context context) {
+        NetworkStack stack = get();
+        Context appContext = context.getApplicationContext();
+        boolean debuggable = (appContext.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        stack.telemetryInterceptor.setLoggingEnabled(debuggable);
+        if (stack.prewarmMillis < 0 && NetworkUtil.isNetworkAvailable(appContext)) {
+            ServiceExecutor.getInstance().background(stack::prewarm);
+        }
+    }
+
+    /**
+     * Builder sharing the pool and dispatcher, with request telemetry already installed.
+     * Add per-client settings before {@code build()}.
+     */
+    public OkHttpClient.Builder newClientBuilder() {
+        return baseClient.newBuilder()
+            .addNetworkInterceptor(telemetryInterceptor);
+    }
+
+    /**
+     * Shared client for realtime WebSockets (no read timeout).
+     */
+    public OkHttpClient getRealtimeClient() {
+        return realtimeClient;
+    }
+
+    /**
+     * Duration of the startup pre-warm in milliseconds, or -1 if it has not completed.
+     */
+    public long getPrewarmMillis() {
+        return prewarmMillis;
+    }
+
+    public int getConnectionCount() {
+        return baseClient.connectionPool().connectionCount();
+    }
+
+    public int getIdleConnectionCount() {
+        return baseClient.connectionPool().idleConnectionCount();
+    }
+
+    private void prewarm() {
+        // Any response will do; the point is DNS, TCP, TLS and HTTP/2 setup into the shared pool
+        Request request = new Request.Builder()
+            .url(SupabaseConfig.SUPABASE_URL + "/auth/v1/health")
+            .head()
+            .addHeader("apikey", SupabaseConfig.SUPABASE_ANON_KEY)
+            .build();
+        long start = SystemClock.elapsedRealtime();
+        try (Response response = baseClient.newCall(request).execute()) {
+            prewarmMillis = SystemClock.elapsedRealtime() - start;
+            Log.d(TAG, "Pre-warmed " + response.protocol() + " connection in " + prewarmMillis + "ms");
+        } catch (Exception e) {
+            Log.w(TAG, "Connection pre-warm failed", e);
+        }
+    }
+}
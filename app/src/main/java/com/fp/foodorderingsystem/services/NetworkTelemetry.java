@@ -0,0 +1,235 @@
+package com.fp.foodorderingsystem.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import okhttp3.HttpUrl;
+
+/**
+ * In-memory request telemetry, aggregated per normalized endpoint.
+ *
+ * Fed by {@link TelemetryInterceptor} on every client derived from {@link NetworkStack}.
+ * Endpoints are named by table for PostgREST ({@code orders}, {@code order_items},
+ * {@code menu_items}), {@code rpc/<function>}, {@code auth/<action>},
+ * {@code storage/<bucket>}, and {@code <host>/<first segments>} for other APIs.
+ * Query strings and row ids never appear in the key.
+ */
+public final class NetworkTelemetry {
+    /** Upper bounds (inclusive, ms) of the latency histogram buckets; the last bucket is open. */
+    public static final long[] LATENCY_BUCKETS_MS = {25, 50, 100, 200, 400, 800, 1600, 3200, 6400};
+
+    private static final NetworkTelemetry INSTANCE = new NetworkTelemetry();
+
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    /**
+     * Snapshot of one endpoint's counters.
+     */
+    public static class EndpointStats {
+        public String endpoint;
+        public long requests;
+        public long failures;
+        public long bytesSent;
+        public long bytesReceived;
+        public long totalLatencyMs;
+        public long maxLatencyMs;
+        /** Counts per {@link #LATENCY_BUCKETS_MS} bucket, plus one overflow bucket. */
+        public long[] latencyHistogram;
+        /** Response count per HTTP status code. */
+        public Map<Integer, Long> statusCodes;
+
+        public long getAverageLatencyMs() {
+            long completed = requests - failures;
+            return completed > 0 ? totalLatencyMs / completed : 0;
+        }
+
+        /**
+         * Upper bound of the bucket containing the given percentile (0-100), e.g. 95 for p95.
+         */
+        public long getPercentileMs(double percentile) {
+            long total = 0;
+            for (long count : latencyHistogram) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < latencyHistogram.length; i++) {
+                seen += latencyHistogram[i];
+                if (seen >= rank) {
+                    return i < LATENCY_BUCKETS_MS.length ? LATENCY_BUCKETS_MS[i] : maxLatencyMs;
+                }
+            }
+            return maxLatencyMs;
+        }
+
+        public long getStatusCount(int code) {
+            Long count = statusCodes.get(code);
+            return count != null ? count : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "EndpointStats{" +
+                    "endpoint='" + endpoint + '\'' +
+                    ", requests=" + requests +
+                    ", failures=" + failures +
+                    ", bytesSent=" + bytesSent +
+                    ", bytesReceived=" + bytesReceived +
+                    ", avgMs=" + getAverageLatencyMs() +
+                    ", p95Ms=" + getPercentileMs(95) +
+                    ", maxMs=" + maxLatencyMs +
+                    ", statusCodes=" + statusCodes +
+                    '}';
+        }
+    }
+
+    private NetworkTelemetry() {}
+
+    public static NetworkTelemetry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Stable, low-cardinality name for the endpoint a URL targets.
+     */
+    public static String endpointOf(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int size = segments.size();
+        if (size >= 3 && "rest".equals(segments.get(0))) {
+            if ("rpc".equals(segments.get(2)) && size >= 4) {
+                return "rpc/" + segments.get(3);
+            }
+            return segments.get(2);
+        }
+        if (size >= 3 && "auth".equals(segments.get(0))) {
+            return "auth/" + segments.get(2);
+        }
+        if (size >= 4 && "storage".equals(segments.get(0)) && "object".equals(segments.get(2))) {
+            String bucket = "public".equals(segments.get(3)) && size >= 5 ? segments.get(4) : segments.get(3);
+            return "storage/" + bucket;
+        }
+        if (size >= 2 && "realtime".equals(segments.get(0))) {
+            return "realtime";
+        }
+        StringBuilder key = new StringBuilder(url.host());
+        for (int i = 0; i < Math.min(size, 2); i++) {
+            if (!segments.get(i).isEmpty()) {
+                key.append('/').append(segments.get(i));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Shorten a payload for logging: at most {@code maxChars}, with the full length noted.
+     */
+    public static String preview(String body, int maxChars) {
+        if (body == null || body.length() <= maxChars) {
+            return body;
+        }
+        return body.substring(0, maxChars) + "...(" + body.length() + " chars)";
+    }
+
+    void recordResponse(String endpoint, int status, long latencyMs, long bytesSent) {
+        aggregate(endpoint).recordResponse(status, latencyMs, bytesSent);
+    }
+
+    void recordBytesReceived(String endpoint, long bytes) {
+        aggregate(endpoint).recordBytesReceived(bytes);
+    }
+
+    void recordFailure(String endpoint, long bytesSent) {
+        aggregate(endpoint).recordFailure(bytesSent);
+    }
+
+    public EndpointStats getStats(String endpoint) {
+        Aggregate aggregate = aggregates.get(endpoint);
+        return aggregate != null ? aggregate.snapshot(endpoint) : null;
+    }
+
+    public List<EndpointStats> getAllStats() {
+        List<EndpointStats> result = new ArrayList<>();
+        for (Map.Entry<String, Aggregate> entry : aggregates.entrySet()) {
+            result.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        return result;
+    }
+
+    /**
+     * Clear all counters, e.g. between test cases or before a measured scenario.
+     */
+    public void reset() {
+        aggregates.clear();
+    }
+
+    private Aggregate aggregate(String endpoint) {
+        Aggregate aggregate = aggregates.get(endpoint);
+        if (aggregate == null) {
+            Aggregate created = new Aggregate();
+            aggregate = aggregates.putIfAbsent(endpoint, created);
+            if (aggregate == null) {
+                aggregate = created;
+            }
+        }
+        return aggregate;
+    }
+
+    private static int bucketFor(long latencyMs) {
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            if (latencyMs <= LATENCY_BUCKETS_MS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKETS_MS.length;
+    }
+
+    private static final class Aggregate {
+        private long requests;
+        private long failures;
+        private long bytesSent;
+        private long bytesReceived;
+        private long totalLatencyMs;
+        private long maxLatencyMs;
+        private final long[] histogram = new long[LATENCY_BUCKETS_MS.length + 1];
+        private final Map<Integer, Long> statusCodes = new TreeMap<>();
+
+        synchronized void recordResponse(int status, long latencyMs, long sent) {
+            requests++;
+            bytesSent += Math.max(0, sent);
+            totalLatencyMs += latencyMs;
+            maxLatencyMs = Math.max(maxLatencyMs, latencyMs);
+            histogram[bucketFor(latencyMs)]++;
+            Long count = statusCodes.get(status);
+            statusCodes.put(status, count != null ? count + 1 : 1);
+        }
+
+        synchronized void recordBytesReceived(long bytes) {
+            bytesReceived += bytes;
+        }
+
+        synchronized void recordFailure(long sent) {
+            requests++;
+            failures++;
+            bytesSent += Math.max(0, sent);
+        }
+
+        synchronized EndpointStats snapshot(String endpoint) {
+            EndpointStats stats = new EndpointStats();
+            stats.endpoint = endpoint;
+            stats.requests = requests;
+            stats.failures = failures;
+            stats.bytesSent = bytesSent;
+            stats.bytesReceived = bytesReceived;
+            stats.totalLatencyMs = totalLatencyMs;
+            stats.maxLatencyMs = maxLatencyMs;
+            stats.latencyHistogram = histogram.clone();
+            stats.statusCodes = new TreeMap<>(statusCodes);
+            return stats;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import android.util.Log;
 import com.fp.foodorderingsystem.models.Notification;
 import com.fp.foodorderingsystem.utils.NetworkUtil;
 import com.fp.foodorderingsystem.utils.PreferenceUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import okhttp3.*;
@@ -14,7 +15,9 @@ import java.util.List;
 
 public class NotificationService {
     private static final String TAG = "NotificationService";
+    public static final String NOTIFICATION_COLUMNS = "id,user_id,title,message,type,order_id,is_read,created_at";
     private SupabaseService supabaseService;
+    private ServiceExecutor executor;
     private PreferenceUtil preferenceUtil;
     private Context context;
     private Gson gson;
@@ -22,8 +25,9 @@ public class NotificationService {
     public NotificationService(Context context) {
         this.context = context.getApplicationContext();
         this.supabaseService = SupabaseService.getInstance(context);
+        this.executor = ServiceExecutor.getInstance();
         this.preferenceUtil = new PreferenceUtil(context);
-        this.gson = new Gson();
+        this.gson = GsonProvider.get();
     }
     
     public interface NotificationCallback {
@@ -50,23 +54,22 @@ public class NotificationService {
             return;
         }
         
-        new Thread(() -> {
+        executor.read(() -> {
             try {
-                String url = "notifications?user_id=eq." + userId + "&order=created_at.desc&limit=50";
+                PostgrestQuery query = PostgrestQuery.from("notifications")
+                    .select(NOTIFICATION_COLUMNS)
+                    .eqUuid("user_id", userId)
+                    .order("created_at", false)
+                    .range(0, 49);
                 Request request = supabaseService
-                    .createRequest(url)
+                    .createRequest(query)
                     .get()
                     .build();
                 
                 Response response = supabaseService.executeRequest(request);
                 
                 if (response.isSuccessful()) {
-                    String responseBody = response.body().string();
-                    Notification[] notifications = gson.fromJson(responseBody, Notification[].class);
-                    List<Notification> notificationList = new ArrayList<>();
-                    for (Notification notification : notifications) {
-                        notificationList.add(notification);
-                    }
+                    List<Notification> notificationList = supabaseService.decodeArray(response.body(), Notification.class);
                     
                     // Cache the latest notification
                     if (!notificationList.isEmpty()) {
@@ -82,7 +85,7 @@ public class NotificationService {
                 Log.e(TAG, "Get notifications error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     public void getAllNotifications(NotificationCallback callback) {
@@ -91,22 +94,20 @@ public class NotificationService {
             return;
         }
         
-        new Thread(() -> {
+        executor.read(() -> {
             try {
-                String url = "notifications?order=created_at.desc&limit=100";
+                PostgrestQuery query = PostgrestQuery.from("notifications")
+                    .select(NOTIFICATION_COLUMNS)
+                    .order("created_at", false)
+                    .range(0, 99);
                 Request request = supabaseService
-                    .createRequest(url)
+                    .createRequest(query)
                     .get()
                     .build();
                 
                 Response response = supabaseService.executeRequest(request);
                 if (response.isSuccessful()) {
-                    String responseBody = response.body().string();
-                    Notification[] notifications = gson.fromJson(responseBody, Notification[].class);
-                    List<Notification> notificationList = new ArrayList<>();
-                    for (Notification notification : notifications) {
-                        notificationList.add(notification);
-                    }
+                    List<Notification> notificationList = supabaseService.decodeArray(response.body(), Notification.class);
                     callback.onSuccess(notificationList);
                 } else {
                     callback.onError("Failed to load notifications");
@@ -115,7 +116,7 @@ public class NotificationService {
                 Log.e(TAG, "Get all notifications error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     public void markAsRead(int notificationId, Runnable callback) {
@@ -123,7 +124,7 @@ public class NotificationService {
             return;
         }
         
-        new Thread(() -> {
+        executor.background(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("is_read", true);
@@ -142,7 +143,7 @@ public class NotificationService {
             } catch (Exception e) {
                 Log.e(TAG, "Mark as read error", e);
             }
-        }).start();
+        });
     }
     
     public void createNotification(String userId, String title, String message, String type, Integer orderId) {
@@ -150,7 +151,7 @@ public class NotificationService {
             return;
         }
         
-        new Thread(() -> {
+        executor.background(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("user_id", userId);
@@ -173,7 +174,7 @@ public class NotificationService {
             } catch (Exception e) {
                 Log.e(TAG, "Create notification error", e);
             }
-        }).start();
+        });
     }
 }
 
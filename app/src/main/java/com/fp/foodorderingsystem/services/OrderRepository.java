@@ -0,0 +1,320 @@
+package com.fp.foodorderingsystem.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import com.fp.foodorderingsystem.models.Order;
+import com.fp.foodorderingsystem.models.OrderIdRegistry;
+import com.fp.foodorderingsystem.utils.DateUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
+import com.fp.foodorderingsystem.utils.RealtimePayloadUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory store of the orders this process has seen, indexed by UUID and (through
+ * {@link OrderIdRegistry}) by the numeric display id, so point lookups need no network call
+ * once an order is known.
+ *
+ * Filled from every order list and detail response in {@link OrderService}, and kept fresh by
+ * realtime {@code orders} changes ({@link SupabaseRealtimeClient} feeds {@link #applyRealtimeChange}).
+ * After {@link #init(Context)} the most recent orders are also written to SharedPreferences,
+ * so a cold start begins warm. Restored orders are only a hint until the server confirms them
+ * ({@link #isFromSnapshot}). The store is cleared on logout.
+ *
+ * A list row lacks the detail columns and items. When it replaces a fuller cached copy, it
+ * takes those from that copy instead of clearing them.
+ */
+public final class OrderRepository {
+    private static final String TAG = "OrderRepository";
+    private static final String PREFS_NAME = "OrderRepository";
+    private static final String KEY_SNAPSHOT = "orders_snapshot";
+    private static final int MAX_PERSISTED_ORDERS = 200;
+    private static final long PERSIST_DELAY_MS = 2000;
+
+    private static volatile OrderRepository instance;
+
+    private final Gson gson = GsonProvider.get();
+    // Guarded by this
+    private final Map<String, Order> ordersByUuid = new HashMap<>();
+    // Guarded by this. Restored from the snapshot and not yet seen from the server.
+    private final Set<String> restoredUuids = new HashSet<>();
+    private long hits;
+    private long misses;
+    private boolean persistScheduled;
+
+    private volatile SharedPreferences prefs;
+
+    private OrderRepository() {}
+
+    public static OrderRepository get() {
+        OrderRepository repository = instance;
+        if (repository == null) {
+            synchronized (OrderRepository.class) {
+                repository = instance;
+                if (repository == null) {
+                    repository = new OrderRepository();
+                    instance = repository;
+                }
+            }
+        }
+        return repository;
+    }
+
+    /**
+     * Enable persistence and restore the last snapshot in the background. Safe to call more than once.
+     */
+    public static void init(Context context) {
+        OrderRepository repository = get();
+        if (repository.prefs != null) {
+            return;
+        }
+        repository.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        ServiceExecutor.getInstance().background(repository::restore);
+    }
+
+    /**
+     * Cached order by UUID, or null.
+     */
+    public Order getByUuid(String uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        synchronized (this) {
+            Order order = ordersByUuid.get(clean(uuid));
+            if (order != null) hits++; else misses++;
+            return order;
+        }
+    }
+
+    /**
+     * Cached order by numeric display id ({@link Order#getId()}), or null.
+     */
+    public synchronized Order getById(int numericId) {
+        String uuid = OrderIdRegistry.getInstance().uuidFor(numericId);
+        Order order = uuid != null ? ordersByUuid.get(uuid) : null;
+        if (order != null) hits++; else misses++;
+        return order;
+    }
+
+    /**
+     * UUID for a numeric display id, or null when the order has not been seen yet.
+     */
+    public synchronized String resolveUuid(int numericId) {
+        String uuid = OrderIdRegistry.getInstance().uuidFor(numericId);
+        return uuid != null && ordersByUuid.containsKey(uuid) ? uuid : null;
+    }
+
+    /**
+     * Whether the cached copy came from the persisted snapshot and has not been refreshed since.
+     */
+    public synchronized boolean isFromSnapshot(String uuid) {
+        return uuid != null && restoredUuids.contains(clean(uuid));
+    }
+
+    public void put(Order order) {
+        synchronized (this) {
+            if (!putLocked(order)) {
+                return;
+            }
+        }
+        schedulePersist();
+    }
+
+    public void putAll(Collection<Order> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return;
+        }
+        boolean changed = false;
+        synchronized (this) {
+            for (Order order : orders) {
+                changed |= putLocked(order);
+            }
+        }
+        if (changed) {
+            schedulePersist();
+        }
+    }
+
+    public void remove(String uuid) {
+        if (uuid == null) {
+            return;
+        }
+        synchronized (this) {
+            restoredUuids.remove(clean(uuid));
+            if (ordersByUuid.remove(clean(uuid)) == null) {
+                return;
+            }
+        }
+        schedulePersist();
+    }
+
+    /**
+     * Record a status change made by this client before the realtime echo arrives.
+     */
+    public synchronized void updateStatus(String uuid, String status) {
+        Order order = uuid != null ? ordersByUuid.get(clean(uuid)) : null;
+        if (order != null) {
+            order.setStatus(status);
+        }
+    }
+
+    /**
+     * Apply a realtime {@code orders} change (INSERT, UPDATE or DELETE payload).
+     *
+     * @return true if the repository changed
+     */
+    public boolean applyRealtimeChange(JsonObject payload) {
+        String eventType = RealtimePayloadUtil.getEventType(payload).toUpperCase();
+        try {
+            if ("DELETE".equals(eventType)) {
+                JsonObject oldRecord = RealtimePayloadUtil.getOldRecord(payload);
+                if (oldRecord == null || !oldRecord.has("id") || oldRecord.get("id").isJsonNull()) {
+                    return false;
+                }
+                remove(oldRecord.get("id").getAsString());
+                return true;
+            }
+            JsonObject record = RealtimePayloadUtil.getNewRecord(payload);
+            if (record == null) {
+                return false;
+            }
+            Order order = gson.fromJson(record, Order.class);
+            if (order == null) {
+                return false;
+            }
+            put(order);
+            return true;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Ignoring malformed realtime order payload", e);
+            return false;
+        }
+    }
+
+    public synchronized int size() {
+        return ordersByUuid.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Drop everything, including the persisted snapshot (logout).
+     */
+    public void clear() {
+        synchronized (this) {
+            ordersByUuid.clear();
+            restoredUuids.clear();
+        }
+        SharedPreferences preferences = prefs;
+        if (preferences != null) {
+            preferences.edit().remove(KEY_SNAPSHOT).apply();
+        }
+    }
+
+    private boolean putLocked(Order order) {
+        if (order == null || order.getIdString() == null || order.getIdString().isEmpty()) {
+            return false;
+        }
+        String uuid = clean(order.getIdString());
+        Order existing = ordersByUuid.get(uuid);
+        if (existing != null && existing != order) {
+            // Out-of-order deliveries (a list fetched before a realtime update) must not roll back
+            long existingUpdated = DateUtil.parseTimestamp(existing.getUpdatedAt());
+            long incomingUpdated = DateUtil.parseTimestamp(order.getUpdatedAt());
+            if (existingUpdated > 0 && incomingUpdated > 0 && incomingUpdated < existingUpdated) {
+                return false;
+            }
+            // List rows lack the detail columns, and list rows and realtime records lack
+            // items; keep what a detail fetch already loaded, unless it is only from the snapshot
+            if (!restoredUuids.contains(uuid)) {
+                if (!order.hasDetailColumns() && existing.hasDetailColumns()) {
+                    order.copyDetailColumnsFrom(existing);
+                }
+                if (order.getItems() == null && existing.getItems() != null) {
+                    order.setItems(existing.getItems());
+                }
+            }
+        }
+        order.getId(); // registers the compact id
+        ordersByUuid.put(uuid, order);
+        restoredUuids.remove(uuid);
+        return true;
+    }
+
+    private void schedulePersist() {
+        if (prefs == null) {
+            return;
+        }
+        synchronized (this) {
+            if (persistScheduled) {
+                return;
+            }
+            persistScheduled = true;
+        }
+        // Coalesce bursts (list loads, realtime storms) into one write
+        ServiceExecutor.getInstance().schedule(ServiceExecutor.Lane.BACKGROUND, this::persist, PERSIST_DELAY_MS);
+    }
+
+    private void persist() {
+        List<Order> snapshot;
+        synchronized (this) {
+            persistScheduled = false;
+            snapshot = new ArrayList<>(ordersByUuid.values());
+        }
+        Collections.sort(snapshot, (a, b) -> Long.compare(b.getCreatedAtEpoch(), a.getCreatedAtEpoch()));
+        if (snapshot.size() > MAX_PERSISTED_ORDERS) {
+            snapshot = new ArrayList<>(snapshot.subList(0, MAX_PERSISTED_ORDERS));
+        }
+        SharedPreferences preferences = prefs;
+        if (preferences != null) {
+            preferences.edit().putString(KEY_SNAPSHOT, gson.toJson(snapshot.toArray(new Order[0]))).apply();
+        }
+    }
+
+    private void restore() {
+        SharedPreferences preferences = prefs;
+        String json = preferences != null ? preferences.getString(KEY_SNAPSHOT, null) : null;
+        if (json == null) {
+            return;
+        }
+        try {
+            Order[] restored = gson.fromJson(json, Order[].class);
+            if (restored == null) {
+                return;
+            }
+            int count = 0;
+            synchronized (this) {
+                for (Order order : restored) {
+                    // Anything fetched since startup is fresher than the snapshot
+                    if (order != null && order.getIdString() != null
+                            && !ordersByUuid.containsKey(clean(order.getIdString())) && putLocked(order)) {
+                        restoredUuids.add(clean(order.getIdString()));
+                        count++;
+                    }
+                }
+            }
+            Log.d(TAG, "Restored " + count + " orders from snapshot");
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Discarding unreadable order snapshot", e);
+            preferences.edit().remove(KEY_SNAPSHOT).apply();
+        }
+    }
+
+    private static String clean(String uuid) {
+        return uuid.replace("\"", "").trim();
+    }
+}
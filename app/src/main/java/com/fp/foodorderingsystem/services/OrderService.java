@@ -3,12 +3,14 @@ package com.fp.foodorderingsystem.services;
 import android.content.Context;
 import android.text.TextUtils;
 import android.util.Log;
+import com.fp.foodorderingsystem.config.SupabaseConfig;
 import com.fp.foodorderingsystem.models.Order;
 import com.fp.foodorderingsystem.models.User;
 import com.fp.foodorderingsystem.utils.NetworkUtil;
 import com.fp.foodorderingsystem.utils.NotificationHelper;
 import com.fp.foodorderingsystem.utils.PreferenceUtil;
 import com.fp.foodorderingsystem.services.NotificationService;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import okhttp3.*;
@@ -18,18 +20,32 @@ import java.util.List;
 
 public class OrderService {
     private static final String TAG = "OrderService";
+    private static final int LOG_BODY_CHARS = 256;
+    // Columns rendered by the order list screens (history, manage orders, dashboard)
+    public static final String ORDER_LIST_COLUMNS =
+        "id,order_number,customer_id,total_amount,status,payment_method,delivery_address,created_at,updated_at";
+    public static final String ORDER_ITEM_COLUMNS =
+        "id,order_id,menu_item_id,quantity,unit_price,total_price";
+    // Every column the detail screen and Order.GsonAdapter read (receipt, cancellation, drop-off pin)
+    public static final String ORDER_DETAIL_COLUMNS =
+        ORDER_LIST_COLUMNS + ",delivery_lat,delivery_lng,receipt_url,cancelled_by,cancellation_reason";
+    // Order with its items and each item's menu item, embedded by PostgREST in one response
+    public static final String ORDER_DETAIL_SELECT =
+        ORDER_DETAIL_COLUMNS + ",order_items(" + ORDER_ITEM_COLUMNS + ",menu_items(" + MenuItemService.MENU_ITEM_COLUMNS + "))";
     private SupabaseService supabaseService;
+    private ServiceExecutor executor;
+    private OrderRepository orderRepository;
     private Context context;
     private PreferenceUtil preferenceUtil;
     private Gson gson;
-    private AuthService authService;
     
     public OrderService(Context context) {
         this.context = context.getApplicationContext();
         this.supabaseService = SupabaseService.getInstance(context);
-        this.gson = new Gson();
+        this.executor = ServiceExecutor.getInstance();
+        this.orderRepository = OrderRepository.get();
+        this.gson = GsonProvider.get();
         this.preferenceUtil = new PreferenceUtil(this.context);
-        this.authService = new AuthService(this.context);
     }
     
     public interface OrderCallback {
@@ -43,25 +59,32 @@ public class OrderService {
     }
     
     public void getOrderById(int orderId, String customerId, SingleOrderCallback callback) {
-        // Since Supabase uses UUID strings, we need to query by customer_id and filter by numeric ID
-        // Query all orders for the customer and find the one matching the numeric ID
+        // Known order: answer from the repository when it holds a complete, server-confirmed copy
+        // owned by this customer (the same check the network path applies); otherwise hydrate by UUID
+        String knownUuid = orderRepository.resolveUuid(orderId);
+        if (knownUuid != null) {
+            Order cached = orderRepository.getByUuid(knownUuid);
+            boolean owned = cached != null
+                && (customerId == null || customerId.isEmpty() || customerId.equals(cached.getCustomerId()));
+            if (owned && cached.getItems() != null && cached.hasDetailColumns()
+                    && !orderRepository.isFromSnapshot(knownUuid)) {
+                callback.onSuccess(cached);
+            } else {
+                getOrderDetail(knownUuid, customerId, callback);
+            }
+            return;
+        }
+        
+        // Cold: load the customer's orders (which fills the repository) and resolve again
         getOrders(customerId, new OrderCallback() {
             @Override
             public void onSuccess(List<Order> orders) {
-                // Find order with matching numeric ID
-                for (Order order : orders) {
-                    if (order.getId() == orderId) {
-                        // Load order items for this order
-                        if (order.getIdString() != null && !order.getIdString().isEmpty()) {
-                            String accessTokenForItems = preferenceUtil != null ? preferenceUtil.getAccessToken() : null;
-                            loadOrderItems(order.getIdString(), order, accessTokenForItems, callback);
-                        } else {
-                            callback.onSuccess(order);
-                        }
-                        return;
-                    }
+                String uuid = orderRepository.resolveUuid(orderId);
+                if (uuid != null) {
+                    getOrderDetail(uuid, customerId, callback);
+                } else {
+                    callback.onError("Order not found");
                 }
-                callback.onError("Order not found");
             }
             
             @Override
@@ -75,468 +98,237 @@ public class OrderService {
      * Get order by UUID string (preferred method for Supabase)
      */
     public void getOrderByIdString(String orderIdString, String customerId, SingleOrderCallback callback) {
+        getOrderDetail(orderIdString, customerId, callback);
+    }
+    
+    /**
+     * Fully populated order in one round trip: the order row, its {@code order_items} and each
+     * item's {@code menu_items} row are embedded by PostgREST ({@link #ORDER_DETAIL_SELECT}).
+     *
+     * @param customerId restricts the lookup to this customer's orders; null for admin screens
+     */
+    public void getOrderDetail(String orderIdString, String customerId, SingleOrderCallback callback) {
         if (!NetworkUtil.isNetworkAvailable(context)) {
             callback.onError("No internet connection");
             return;
         }
+        if (orderIdString == null || orderIdString.trim().isEmpty()) {
+            callback.onError("Order not found");
+            return;
+        }
         
-        new Thread(() -> {
-            try {
-                // Strip any existing quotes from UUIDs
-                String cleanOrderId = orderIdString.replace("\"", "").trim();
-                String cleanCustomerId = customerId.replace("\"", "").trim();
-                
-                // For UUIDs in PostgREST, first try without quotes (standard format)
-                String url = "orders?id=eq." + cleanOrderId + "&customer_id=eq." + cleanCustomerId;
-                Log.d(TAG, "Fetching order with URL: " + url);
-                Request request = supabaseService
-                    .createRequest(url)
-                    .get()
-                    .build();
-                
-                Response response = supabaseService.executeRequest(request);
-                Log.d(TAG, "Order fetch response code: " + response.code());
-                
+        executor.read(() -> {
+            PostgrestQuery query = PostgrestQuery.from("orders")
+                .select(ORDER_DETAIL_SELECT)
+                .eqUuid("id", orderIdString)
+                .orderEmbedded("order_items", "created_at", true);
+            if (customerId != null && !customerId.isEmpty()) {
+                query.eqUuid("customer_id", customerId);
+            }
+            Request request = createRequestWithAuth(query.toEndpoint())
+                .get()
+                .build();
+            
+            try (Response response = supabaseService.executeRequest(request)) {
                 if (response.isSuccessful()) {
-                    String responseBody = response.body().string();
-                    Log.d(TAG, "Order response body: " + responseBody);
-                    // Parse as JsonArray to handle UUID properly
-                    com.google.gson.JsonArray jsonArray = gson.fromJson(responseBody, com.google.gson.JsonArray.class);
-                    if (jsonArray != null && jsonArray.size() > 0) {
-                        Order order = gson.fromJson(jsonArray.get(0).getAsJsonObject(), Order.class);
-                        if (order != null) {
-                            order.getId(); // Trigger UUID to int conversion
-                            
-                            // Use the order's actual ID string (might be different from what was passed)
-                            String actualOrderIdString = order.getIdString();
-                            Log.d(TAG, "Order loaded. Requested ID: " + cleanOrderId + ", Actual order ID: " + actualOrderIdString);
-                            
-                            // Get access token for loading order items
-                            String accessToken = preferenceUtil != null ? preferenceUtil.getAccessToken() : null;
-                            // Load order items using the actual order ID
-                            loadOrderItems(actualOrderIdString != null ? actualOrderIdString : cleanOrderId, order, accessToken, callback);
-                        } else {
-                            callback.onError("Failed to parse order");
-                        }
-                    } else {
+                    Order order = supabaseService.decodeFirst(response.body(), Order.class);
+                    if (order == null) {
                         callback.onError("Order not found");
+                        return;
                     }
+                    if (order.getItems() == null) {
+                        order.setItems(new ArrayList<>());
+                    }
+                    orderRepository.put(order);
+                    Log.d(TAG, "Order " + order.getIdString() + " loaded with " + order.getItems().size() + " items");
+                    callback.onSuccess(order);
                 } else {
                     String errorBody = response.body() != null ? response.body().string() : "";
-                    Log.e(TAG, "Failed to load order: " + response.code() + " - " + errorBody);
-                    // If 400 error, try with quotes around UUIDs
-                    if (response.code() == 400) {
-                        try {
-                            // Retry with quotes around UUIDs
-                            url = "orders?id=eq.\"" + cleanOrderId + "\"&customer_id=eq.\"" + cleanCustomerId + "\"";
-                            Log.d(TAG, "Retrying with quoted UUIDs: " + url);
-                            request = supabaseService.createRequest(url).get().build();
-                            response = supabaseService.executeRequest(request);
-                            if (response.isSuccessful()) {
-                                String responseBody = response.body().string();
-                                com.google.gson.JsonArray jsonArray = gson.fromJson(responseBody, com.google.gson.JsonArray.class);
-                                if (jsonArray != null && jsonArray.size() > 0) {
-                                    Order order = gson.fromJson(jsonArray.get(0).getAsJsonObject(), Order.class);
-                                    if (order != null) {
-                                        order.getId();
-                                        String actualOrderIdString = order.getIdString();
-                                        Log.d(TAG, "Order loaded (with quotes). Actual order ID: " + actualOrderIdString);
-                                        String accessToken = preferenceUtil != null ? preferenceUtil.getAccessToken() : null;
-                                        loadOrderItems(actualOrderIdString != null ? actualOrderIdString : cleanOrderId, order, accessToken, callback);
-                                        return;
-                                    }
-                                }
-                            } else {
-                                Log.e(TAG, "Retry with quotes also failed: " + response.code());
-                            }
-                        } catch (Exception e2) {
-                            Log.e(TAG, "Error retrying with quoted UUIDs", e2);
-                        }
-                    }
+                    Log.e(TAG, "Failed to load order: " + response.code() + " - " + NetworkTelemetry.preview(errorBody, LOG_BODY_CHARS));
                     callback.onError("Failed to load order: " + response.code());
                 }
             } catch (Exception e) {
-                Log.e(TAG, "Get order by ID string error", e);
+                Log.e(TAG, "Get order detail error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
-    /**
-     * Load order items from order_items table
-     */
-    private void loadOrderItems(String orderIdString, Order order, SingleOrderCallback callback) {
-        loadOrderItems(orderIdString, order, null, callback);
+    public void getOrders(String customerId, OrderCallback callback) {
+        getOrders(customerId, callback, null);
     }
     
     /**
-     * Load order items from order_items table (with optional access token)
+     * @param onOrder optional, invoked for each order as soon as it is decoded
      */
-    private void loadOrderItems(String orderIdString, Order order, String accessToken, SingleOrderCallback callback) {
-        new Thread(() -> {
+    public void getOrders(String customerId, OrderCallback callback, SupabaseService.ElementCallback<Order> onOrder) {
+        if (!NetworkUtil.isNetworkAvailable(context)) {
+            callback.onError("No internet connection");
+            return;
+        }
+        
+        executor.read(() -> {
             try {
-                Log.d(TAG, "Loading order items for order ID: " + orderIdString);
-                Log.d(TAG, "Order object ID string: " + (order != null ? order.getIdString() : "null"));
-                
-                // Use the order's actual ID string if available, otherwise use the passed one
-                String actualOrderId = (order != null && order.getIdString() != null) ? order.getIdString() : orderIdString;
-                Log.d(TAG, "Using order ID for query: " + actualOrderId);
-                
-                if (actualOrderId == null || actualOrderId.isEmpty()) {
-                    Log.w(TAG, "Order ID is null or empty, cannot load order items. Setting empty list.");
-                    order.setItems(new ArrayList<>());
-                    callback.onSuccess(order);
-                    return;
-                }
-                
-                // Strip any existing quotes from the UUID
-                actualOrderId = actualOrderId.replace("\"", "").trim();
-                
-                // Try to fetch from order_items table
-                // First try without quotes (standard PostgREST format for UUIDs)
-                String orderItemsUrl = "order_items?order_id=eq." + actualOrderId + 
-                    "&select=id,order_id,menu_item_id,quantity,unit_price,total_price&order=created_at.asc";
-                Log.d(TAG, "Order items URL (no quotes): " + orderItemsUrl);
-                
-                // Use authenticated request if token is provided, otherwise use createRequestWithAuth
-                Request orderItemsRequest;
-                if (accessToken != null && !accessToken.isEmpty()) {
-                    orderItemsRequest = supabaseService.createAuthenticatedRequest(orderItemsUrl, accessToken)
+                PostgrestQuery query = PostgrestQuery.from("orders")
+                    .select(ORDER_LIST_COLUMNS)
+                    .eqUuid("customer_id", customerId)
+                    .order("created_at", false);
+                Request request = supabaseService
+                    .createRequest(query)
                     .get()
                     .build();
-                } else {
-                    orderItemsRequest = createRequestWithAuth(orderItemsUrl)
-                        .get()
-                        .build();
-                }
-                
-                Response orderItemsResponse = supabaseService.executeRequest(orderItemsRequest);
-                Log.d(TAG, "Order items response code: " + orderItemsResponse.code());
-                
-                // If 400 error, retry with quotes around UUID
-                if (orderItemsResponse.code() == 400) {
-                    String errorBody = orderItemsResponse.body() != null ? orderItemsResponse.body().string() : "";
-                    Log.w(TAG, "Got 400 error, retrying with quoted UUID. Error: " + errorBody);
-                    
-                    // Retry with quotes around UUID
-                    orderItemsUrl = "order_items?order_id=eq.\"" + actualOrderId + "\"" + 
-                        "&select=id,order_id,menu_item_id,quantity,unit_price,total_price&order=created_at.asc";
-                    Log.d(TAG, "Order items URL (with quotes): " + orderItemsUrl);
-                    
-                    if (accessToken != null && !accessToken.isEmpty()) {
-                        orderItemsRequest = supabaseService.createAuthenticatedRequest(orderItemsUrl, accessToken)
-                        .get()
-                        .build();
-                    } else {
-                        orderItemsRequest = createRequestWithAuth(orderItemsUrl)
-                            .get()
-                            .build();
-                    }
-                    
-                    orderItemsResponse = supabaseService.executeRequest(orderItemsRequest);
-                    Log.d(TAG, "Order items response code (retry): " + orderItemsResponse.code());
-                }
                 
-                if (orderItemsResponse.isSuccessful()) {
-                    ResponseBody responseBody = orderItemsResponse.body();
-                    if (responseBody == null) {
-                        Log.w(TAG, "Order items response body is null");
-                        order.setItems(new ArrayList<>());
-                        callback.onSuccess(order);
-                        return;
-                    }
-                    
-                    String itemsBody = responseBody.string();
-                    Log.d(TAG, "Order items response body: " + itemsBody);
-                    Log.d(TAG, "Response body length: " + (itemsBody != null ? itemsBody.length() : 0));
-                    Log.d(TAG, "Response headers: " + orderItemsResponse.headers());
-                    
-                    // Check if response is empty array
-                    if (itemsBody == null || itemsBody.trim().isEmpty() || itemsBody.trim().equals("[]")) {
-                        Log.w(TAG, "Order items response is empty array for order: " + actualOrderId);
-                        // Return order with empty list (not null)
-                        order.setItems(new ArrayList<>());
-                        callback.onSuccess(order);
-                        return;
+                // Identical list requests already in flight (e.g. a burst of realtime refreshes) share one call
+                supabaseService.fetchListShared(request, Order.class, onOrder, new SupabaseService.SharedListCallback<Order>() {
+                    @Override
+                    public void onSuccess(List<Order> orderList) {
+                        orderRepository.putAll(orderList);
+                        callback.onSuccess(orderList);
                     }
-                    
-                    com.google.gson.JsonArray itemsArray = gson.fromJson(itemsBody, com.google.gson.JsonArray.class);
-                    Log.d(TAG, "Parsed items array size: " + (itemsArray != null ? itemsArray.size() : "null"));
-                    
-                    if (itemsArray != null && itemsArray.size() > 0) {
-                        // Parse order items as CartItems
-                        List<com.fp.foodorderingsystem.models.CartItem> items = new ArrayList<>();
-                        List<Integer> menuItemIds = new ArrayList<>();
-                        
-                        for (int i = 0; i < itemsArray.size(); i++) {
-                            try {
-                                com.google.gson.JsonObject itemJson = itemsArray.get(i).getAsJsonObject();
-                                com.fp.foodorderingsystem.models.CartItem item = new com.fp.foodorderingsystem.models.CartItem();
-                                
-                                // Map order_items fields to CartItem
-                                if (itemJson.has("id")) {
-                                    item.setId(itemJson.get("id").getAsString());
-                                }
-                                if (itemJson.has("menu_item_id")) {
-                                    int menuItemId = itemJson.get("menu_item_id").getAsInt();
-                                    item.setMenuItemId(menuItemId);
-                                    menuItemIds.add(menuItemId);
-                                    Log.d(TAG, "Found order item with menu_item_id: " + menuItemId);
-                                }
-                                if (itemJson.has("quantity")) {
-                                    item.setQuantity(itemJson.get("quantity").getAsInt());
-                                }
-                                if (itemJson.has("unit_price")) {
-                                    item.setUnitPrice(itemJson.get("unit_price").getAsDouble());
-                                }
-                                if (itemJson.has("total_price")) {
-                                    item.setTotalPrice(itemJson.get("total_price").getAsDouble());
-                                }
-                                
-                                items.add(item);
-                                Log.d(TAG, "Added order item: menu_item_id=" + item.getMenuItemId() + ", quantity=" + item.getQuantity());
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error parsing order item at index " + i, e);
-                            }
-                        }
-                        
-                        if (!items.isEmpty()) {
-                            Log.d(TAG, "Successfully loaded " + items.size() + " order items for order: " + orderIdString);
-                            Log.d(TAG, "Items before menu details: " + items.size());
-                            
-                            // Load menu item details for better display
-                            loadMenuItemDetails(items, menuItemIds, () -> {
-                                Log.d(TAG, "Menu details loaded, setting " + items.size() + " items on order");
-                                order.setItems(items);
-                                Log.d(TAG, "Order items set. Order.getItems() size: " + (order.getItems() != null ? order.getItems().size() : "null"));
-                                callback.onSuccess(order);
-                            }, () -> {
-                                // Even without menu details, return items
-                                Log.d(TAG, "Returning items without menu details. Items count: " + items.size());
-                                order.setItems(items);
-                                Log.d(TAG, "Order items set (no menu details). Order.getItems() size: " + (order.getItems() != null ? order.getItems().size() : "null"));
-                                callback.onSuccess(order);
-                            });
-                            return;
+
+                    @Override
+                    public void onError(int statusCode, Exception error) {
+                        if (statusCode > 0) {
+                            callback.onError("Failed to load orders");
                         } else {
-                            Log.w(TAG, "Order items array was empty after parsing. Setting empty list.");
-                            order.setItems(new ArrayList<>());
-                            callback.onSuccess(order);
-                            return;
+                            Log.e(TAG, "Get orders error", error);
+                            callback.onError("Error: " + error.getMessage());
                         }
-                    } else {
-                        Log.w(TAG, "No order items found in response for order: " + orderIdString + ". Setting empty list.");
-                        order.setItems(new ArrayList<>());
-                        callback.onSuccess(order);
-                        return;
-                    }
-                } else {
-                    ResponseBody errorBody = orderItemsResponse.body();
-                    String errorText = "";
-                    if (errorBody != null) {
-                        try {
-                            errorText = errorBody.string();
-                        } catch (IOException e) {
-                            Log.e(TAG, "Error reading error body", e);
-                        }
-                    }
-                    Log.e(TAG, "Failed to load order items. Code: " + orderItemsResponse.code() + ", Error: " + errorText);
-                    Log.e(TAG, "Order ID used in query: " + actualOrderId);
-                    
-                    // Make final copy for use in inner class
-                    final String finalOrderId = actualOrderId;
-                    final Order finalOrder = order;
-                    
-                    // If 401 error (JWT expired), try to refresh token and retry
-                    if (orderItemsResponse.code() == 401 && (errorText.contains("JWT expired") || errorText.contains("jwt expired") || errorText.contains("token expired"))) {
-                        Log.w(TAG, "JWT expired, attempting to refresh token and retry...");
-                        authService.refreshAccessToken(new AuthService.TokenCallback() {
-                            @Override
-                            public void onSuccess(String newAccessToken) {
-                                Log.d(TAG, "Token refreshed successfully, retrying order items load...");
-                                // Retry with new token
-                                try {
-                                    String retryUrl = "order_items?order_id=eq." + finalOrderId + 
-                                        "&select=id,order_id,menu_item_id,quantity,unit_price,total_price&order=created_at.asc";
-                                    
-                                    Request retryRequest = supabaseService.createAuthenticatedRequest(retryUrl, newAccessToken)
-                                        .get()
-                                        .build();
-                                    
-                                    Response retryResponse = supabaseService.executeRequest(retryRequest);
-                                    
-                                    if (retryResponse.isSuccessful()) {
-                                        ResponseBody retryBody = retryResponse.body();
-                                        if (retryBody != null) {
-                                            String itemsBody = retryBody.string();
-                                            if (itemsBody != null && !itemsBody.trim().isEmpty() && !itemsBody.trim().equals("[]")) {
-                                                com.google.gson.JsonArray itemsArray = gson.fromJson(itemsBody, com.google.gson.JsonArray.class);
-                                                if (itemsArray != null && itemsArray.size() > 0) {
-                                                    List<com.fp.foodorderingsystem.models.CartItem> items = new ArrayList<>();
-                                                    List<Integer> menuItemIds = new ArrayList<>();
-                                                    
-                                                    for (int i = 0; i < itemsArray.size(); i++) {
-                                                        try {
-                                                            com.google.gson.JsonObject itemJson = itemsArray.get(i).getAsJsonObject();
-                                                            com.fp.foodorderingsystem.models.CartItem item = new com.fp.foodorderingsystem.models.CartItem();
-                                                            
-                                                            if (itemJson.has("id")) {
-                                                                item.setId(itemJson.get("id").getAsString());
-                                                            }
-                                                            if (itemJson.has("menu_item_id")) {
-                                                                int menuItemId = itemJson.get("menu_item_id").getAsInt();
-                                                                item.setMenuItemId(menuItemId);
-                                                                menuItemIds.add(menuItemId);
-                                                            }
-                                                            if (itemJson.has("quantity")) {
-                                                                item.setQuantity(itemJson.get("quantity").getAsInt());
-                                                            }
-                                                            if (itemJson.has("unit_price")) {
-                                                                item.setUnitPrice(itemJson.get("unit_price").getAsDouble());
-                                                            }
-                                                            if (itemJson.has("total_price")) {
-                                                                item.setTotalPrice(itemJson.get("total_price").getAsDouble());
-                                                            }
-                                                            
-                                                            items.add(item);
-                                                        } catch (Exception e) {
-                                                            Log.e(TAG, "Error parsing order item at index " + i, e);
-                                                        }
-                                                    }
-                                                    
-                                                    if (!items.isEmpty()) {
-                                                        loadMenuItemDetails(items, menuItemIds, () -> {
-                                                            finalOrder.setItems(items);
-                                                            callback.onSuccess(finalOrder);
-                                                        }, () -> {
-                                                            finalOrder.setItems(items);
-                                                            callback.onSuccess(finalOrder);
-                                                        });
-                                                        return;
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    }
-                                    
-                                    // If retry also failed, return empty list
-                                    Log.w(TAG, "Retry after token refresh also failed. Code: " + retryResponse.code());
-                                    finalOrder.setItems(new ArrayList<>());
-                                    callback.onSuccess(finalOrder);
-                                } catch (Exception e) {
-                                    Log.e(TAG, "Error retrying after token refresh", e);
-                                    finalOrder.setItems(new ArrayList<>());
-                                    callback.onSuccess(finalOrder);
-                                }
-                            }
-                            
-                            @Override
-                            public void onError(String refreshError) {
-                                Log.e(TAG, "Token refresh failed: " + refreshError);
-                                // Return order with empty list
-                                finalOrder.setItems(new ArrayList<>());
-                                callback.onSuccess(finalOrder);
-                            }
-                        });
-                        return;
                     }
-                    
-                    // For other errors, return order with empty list
-                    order.setItems(new ArrayList<>());
-                    callback.onSuccess(order);
-                    return;
-                }
-                
+                });
             } catch (Exception e) {
-                Log.e(TAG, "Error loading order items", e);
-                e.printStackTrace();
-                // Return order with empty list even if items failed to load
-                order.setItems(new ArrayList<>());
-                callback.onSuccess(order);
+                Log.e(TAG, "Get orders error", e);
+                callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
-    public void getOrders(String customerId, OrderCallback callback) {
+    public void getAllOrders(OrderCallback callback) {
+        getAllOrders(callback, null);
+    }
+    
+    /**
+     * @param onOrder optional, invoked for each order as soon as it is decoded
+     */
+    public void getAllOrders(OrderCallback callback, SupabaseService.ElementCallback<Order> onOrder) {
         if (!NetworkUtil.isNetworkAvailable(context)) {
             callback.onError("No internet connection");
             return;
         }
         
-        new Thread(() -> {
+        executor.read(() -> {
             try {
-                String url = "orders?customer_id=eq." + customerId + "&order=created_at.desc";
+                PostgrestQuery query = PostgrestQuery.from("orders")
+                    .select(ORDER_LIST_COLUMNS)
+                    .order("created_at", false);
                 Request request = supabaseService
-                    .createRequest(url)
+                    .createRequest(query)
                     .get()
                     .build();
                 
-                Response response = supabaseService.executeRequest(request);
-                
-                if (response.isSuccessful()) {
-                    String responseBody = response.body().string();
-                    // Parse as JsonArray to handle UUID properly
-                    com.google.gson.JsonArray jsonArray = gson.fromJson(responseBody, com.google.gson.JsonArray.class);
-                    List<Order> orderList = new ArrayList<>();
-                    if (jsonArray != null) {
-                        for (int i = 0; i < jsonArray.size(); i++) {
-                            Order order = gson.fromJson(jsonArray.get(i).getAsJsonObject(), Order.class);
-                            if (order != null) {
-                                order.getId(); // Trigger UUID to int conversion
-                                orderList.add(order);
-                            }
+                // Identical list requests already in flight (e.g. a burst of realtime refreshes) share one call
+                supabaseService.fetchListShared(request, Order.class, onOrder, new SupabaseService.SharedListCallback<Order>() {
+                    @Override
+                    public void onSuccess(List<Order> orderList) {
+                        orderRepository.putAll(orderList);
+                        callback.onSuccess(orderList);
+                    }
+
+                    @Override
+                    public void onError(int statusCode, Exception error) {
+                        if (statusCode > 0) {
+                            callback.onError("Failed to load orders");
+                        } else {
+                            Log.e(TAG, "Get all orders error", error);
+                            callback.onError("Error: " + error.getMessage());
                         }
                     }
-                    callback.onSuccess(orderList);
-                } else {
-                    callback.onError("Failed to load orders");
-                }
+                });
             } catch (Exception e) {
-                Log.e(TAG, "Get orders error", e);
+                Log.e(TAG, "Get all orders error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
-    public void getAllOrders(OrderCallback callback) {
+    /**
+     * Place an order through the {@code place_order} RPC: the order row, its items and the
+     * customer's server-side cart clear commit in one transaction and one round trip. The
+     * returned order already carries its items.
+     *
+     * Falls back to {@link #createOrder} plus a cart clear when the function is not deployed.
+     */
+    public void placeOrder(Order order, List<com.fp.foodorderingsystem.models.CartItem> cartItems, String accessToken, SingleOrderCallback callback) {
         if (!NetworkUtil.isNetworkAvailable(context)) {
             callback.onError("No internet connection");
             return;
         }
         
-        new Thread(() -> {
+        double amount = order.getTotalAmount();
+        if (Double.isNaN(amount) || Double.isInfinite(amount) || amount < 0) {
+            Log.e(TAG, "Invalid total_amount: " + amount);
+            callback.onError("Invalid order amount");
+            return;
+        }
+        
+        executor.write(() -> {
             try {
-                String url = "orders?order=created_at.desc";
-                Request request = supabaseService
-                    .createRequest(url)
-                    .get()
-                    .build();
+                // No Idempotency-Key: the checkout is never blindly replayed after a lost response
+                Request request = CheckoutRpc.buildRequest(
+                    SupabaseConfig.SUPABASE_URL,
+                    SupabaseConfig.SUPABASE_ANON_KEY,
+                    accessToken,
+                    CheckoutRpc.buildPayload(order, cartItems));
                 
-                Response response = supabaseService.executeRequest(request);
-                
-                if (response.isSuccessful()) {
-                    String responseBody = response.body().string();
-                    // Parse as JsonArray to handle UUID properly
-                    com.google.gson.JsonArray jsonArray = gson.fromJson(responseBody, com.google.gson.JsonArray.class);
-                    List<Order> orderList = new ArrayList<>();
-                    if (jsonArray != null) {
-                        for (int i = 0; i < jsonArray.size(); i++) {
-                            Order order = gson.fromJson(jsonArray.get(i).getAsJsonObject(), Order.class);
-                            if (order != null) {
-                                order.getId(); // Trigger UUID to int conversion
-                                orderList.add(order);
-                            }
-                        }
-                    }
-                    callback.onSuccess(orderList);
+                Order placedOrder;
+                try (Response response = supabaseService.executeRequest(request)) {
+                    placedOrder = CheckoutRpc.parseResponse(response, gson);
+                }
+                Log.d(TAG, "Order placed via RPC - UUID: " + placedOrder.getIdString() +
+                    ", items: " + (placedOrder.getItems() != null ? placedOrder.getItems().size() : 0));
+                orderRepository.put(placedOrder);
+                callback.onSuccess(placedOrder);
+            } catch (CheckoutRpc.CheckoutException e) {
+                if (e.isMissingFunction()) {
+                    Log.w(TAG, CheckoutRpc.FUNCTION + " is not deployed; using multi-request checkout");
+                    createOrderAndClearCart(order, cartItems, accessToken, callback);
                 } else {
-                    callback.onError("Failed to load orders");
+                    Log.e(TAG, "Place order failed: code=" + e.statusCode + ", " + e.code + ": " + e.getMessage());
+                    callback.onError(e.getMessage());
                 }
             } catch (Exception e) {
-                Log.e(TAG, "Get all orders error", e);
+                Log.e(TAG, "Place order error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
+    }
+    
+    private void createOrderAndClearCart(Order order, List<com.fp.foodorderingsystem.models.CartItem> cartItems, String accessToken, SingleOrderCallback callback) {
+        createOrder(order, cartItems, accessToken, new SingleOrderCallback() {
+            @Override
+            public void onSuccess(Order createdOrder) {
+                try {
+                    Request request = supabaseService
+                        .createAuthenticatedRequest(PostgrestQuery.from("cart_items").eqUuid("user_id", order.getCustomerId()), accessToken)
+                        .delete()
+                        .build();
+                    try (Response response = supabaseService.executeRequest(request)) {
+                        if (!response.isSuccessful()) {
+                            Log.w(TAG, "Failed to clear remote cart: " + response.code());
+                        }
+                    }
+                } catch (Exception e) {
+                    Log.w(TAG, "Failed to clear remote cart", e);
+                }
+                orderRepository.put(createdOrder);
+                callback.onSuccess(createdOrder);
+            }
+            
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
     }
     
     public void createOrder(Order order, List<com.fp.foodorderingsystem.models.CartItem> cartItems, String accessToken, SingleOrderCallback callback) {
@@ -545,7 +337,7 @@ public class OrderService {
             return;
         }
         
-        new Thread(() -> {
+        executor.write(() -> {
             try {
         JsonObject body = new JsonObject();
         body.addProperty("customer_id", order.getCustomerId());
@@ -576,7 +368,7 @@ public class OrderService {
                 
                 if (response.isSuccessful()) {
                     try {
-                        Log.d(TAG, "Order creation response: " + responseBody);
+                        Log.d(TAG, "Order creation response: " + NetworkTelemetry.preview(responseBody, LOG_BODY_CHARS));
                         
                         // Parse response - Supabase returns array with created order
                         // Use JsonArray to parse and handle UUID properly
@@ -604,9 +396,10 @@ public class OrderService {
                                     }, new Runnable() {
                                         @Override
                                         public void run() {
-                                            // Even if items fail to save, return the order
-                                            Log.w(TAG, "Order created but items failed to save");
-                                            callback.onSuccess(createdOrder);
+                                            // Don't leave an order without items behind
+                                            Log.w(TAG, "Order created but items failed to save; deleting order " + createdOrder.getIdString());
+                                            deleteOrphanOrder(createdOrder.getIdString(), accessToken);
+                                            callback.onError("Failed to save order items");
                                         }
                                     });
                                 } else {
@@ -658,7 +451,23 @@ public class OrderService {
                 Log.e(TAG, "Create order error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
+    }
+    
+    private void deleteOrphanOrder(String orderId, String accessToken) {
+        try {
+            Request request = supabaseService
+                .createAuthenticatedRequest(PostgrestQuery.from("orders").eqUuid("id", orderId), accessToken)
+                .delete()
+                .build();
+            try (Response response = supabaseService.executeRequest(request)) {
+                if (!response.isSuccessful()) {
+                    Log.e(TAG, "Failed to delete order without items: " + response.code());
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error deleting order without items", e);
+        }
     }
     
     /**
@@ -666,7 +475,7 @@ public class OrderService {
      */
     private void saveOrderItems(String orderId, List<com.fp.foodorderingsystem.models.CartItem> cartItems, 
                                 String accessToken, Runnable onSuccess, Runnable onError) {
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 if (cartItems == null || cartItems.isEmpty()) {
                     Log.d(TAG, "No items to save");
@@ -700,7 +509,7 @@ public class OrderService {
                 
                 // Use Supabase's bulk insert endpoint - send array directly
                 String jsonBody = itemsArray.toString();
-                Log.d(TAG, "Order items JSON: " + jsonBody);
+                Log.d(TAG, "Order items JSON: " + NetworkTelemetry.preview(jsonBody, LOG_BODY_CHARS));
                 
                 Request request = supabaseService
                     .createAuthenticatedRequest("order_items", accessToken)
@@ -714,7 +523,7 @@ public class OrderService {
                 String responseBody = response.body() != null ? response.body().string() : "";
                 
                 if (response.isSuccessful()) {
-                    Log.d(TAG, "Order items saved successfully: " + itemsArray.size() + " items. Response: " + responseBody);
+                    Log.d(TAG, "Order items saved successfully: " + itemsArray.size() + " items");
                     onSuccess.run();
                 } else {
                     Log.e(TAG, "Failed to save order items: " + response.code() + " - " + responseBody);
@@ -724,77 +533,7 @@ public class OrderService {
                 Log.e(TAG, "Error saving order items", e);
                 onError.run();
             }
-        }).start();
-    }
-    
-    /**
-     * Load menu item details for order items
-     */
-    private void loadMenuItemDetails(List<com.fp.foodorderingsystem.models.CartItem> items, 
-                                     List<Integer> menuItemIds, Runnable onSuccess, Runnable onError) {
-        if (menuItemIds == null || menuItemIds.isEmpty()) {
-            onError.run();
-            return;
-        }
-        
-        new Thread(() -> {
-            try {
-                // Build query to get all menu items at once
-                StringBuilder idsQuery = new StringBuilder();
-                for (int i = 0; i < menuItemIds.size(); i++) {
-                    if (i > 0) idsQuery.append(",");
-                    idsQuery.append(menuItemIds.get(i));
-                }
-                
-                String menuItemsUrl = "menu_items?id=in.(" + idsQuery.toString() + ")";
-                Request menuItemsRequest = createRequestWithAuth(menuItemsUrl)
-                    .get()
-                    .build();
-                
-                Response menuItemsResponse = supabaseService.executeRequest(menuItemsRequest);
-                
-                if (menuItemsResponse.isSuccessful()) {
-                    String menuItemsBody = menuItemsResponse.body().string();
-                    com.google.gson.JsonArray menuItemsArray = gson.fromJson(menuItemsBody, com.google.gson.JsonArray.class);
-                    
-                    if (menuItemsArray != null && menuItemsArray.size() > 0) {
-                        // Create a map of menu item ID to FoodItem
-                        java.util.Map<Integer, com.fp.foodorderingsystem.models.FoodItem> menuItemMap = new java.util.HashMap<>();
-                        for (int i = 0; i < menuItemsArray.size(); i++) {
-                            try {
-                                com.fp.foodorderingsystem.models.FoodItem foodItem = gson.fromJson(
-                                    menuItemsArray.get(i).getAsJsonObject(),
-                                    com.fp.foodorderingsystem.models.FoodItem.class
-                                );
-                                if (foodItem != null) {
-                                    menuItemMap.put(foodItem.getId(), foodItem);
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error parsing menu item", e);
-                            }
-                        }
-                        
-                        // Attach FoodItem to each CartItem
-                        for (com.fp.foodorderingsystem.models.CartItem item : items) {
-                            com.fp.foodorderingsystem.models.FoodItem foodItem = menuItemMap.get(item.getMenuItemId());
-                            if (foodItem != null) {
-                                item.setFoodItem(foodItem);
-                            }
-                        }
-                        
-                        Log.d(TAG, "Loaded menu item details for " + menuItemMap.size() + " items");
-                        onSuccess.run();
-                        return;
-                    }
-                }
-                
-                Log.w(TAG, "Failed to load menu item details");
-                onError.run();
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading menu item details", e);
-                onError.run();
-            }
-        }).start();
+        });
     }
     
     public interface UpdateStatusCallback {
@@ -855,13 +594,13 @@ public class OrderService {
             return;
         }
         
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("status", normalizedStatus);
                 
                 // Use UUID string for the query
-                String endpoint = "orders?id=eq." + orderIdString;
+                String endpoint = PostgrestQuery.from("orders").eqUuid("id", orderIdString).toEndpoint();
                 Log.d(TAG, "Updating order status - Order ID (UUID): " + orderIdString + ", Status: " + normalizedStatus);
                 Log.d(TAG, "Endpoint: " + endpoint);
                 
@@ -875,7 +614,7 @@ public class OrderService {
                 Response response = supabaseService.executeRequest(request);
                 String responseBody = response.body() != null ? response.body().string() : "";
                 
-                Log.d(TAG, "Update status response - Code: " + response.code() + ", Body: " + responseBody);
+                Log.d(TAG, "Update status response - Code: " + response.code() + ", Body: " + NetworkTelemetry.preview(responseBody, LOG_BODY_CHARS));
                 
                 if (response.isSuccessful()) {
                     Log.d(TAG, "Order status updated successfully");
@@ -933,7 +672,7 @@ public class OrderService {
                     callback.onError("Error updating status: " + e.getMessage());
                 }
             }
-        }).start();
+        });
     }
     
     public interface CancelOrderCallback {
@@ -941,73 +680,34 @@ public class OrderService {
         void onError(String error);
     }
     
+    /**
+     * Cancel by numeric display id; resolved to the UUID through {@link OrderRepository}.
+     */
     public void cancelOrder(int orderId, String customerId, String reason, String accessToken, NotificationService notificationService, CancelOrderCallback callback) {
-        if (!NetworkUtil.isNetworkAvailable(context)) {
-            if (callback != null) {
-                callback.onError("No internet connection");
-            }
+        String knownUuid = orderRepository.resolveUuid(orderId);
+        if (knownUuid != null) {
+            cancelOrder(knownUuid, customerId, reason, accessToken, notificationService, callback);
             return;
         }
         
-        new Thread(() -> {
-            try {
-                JsonObject body = new JsonObject();
-                body.addProperty("status", "cancelled");
-                body.addProperty("cancelled_by", "customer");
-                body.addProperty("cancellation_reason", reason);
-                
-                Request request = supabaseService
-                    .createAuthenticatedRequest("orders?id=eq." + orderId, accessToken)
-                    .patch(RequestBody.create(
-                        MediaType.parse("application/json"),
-                        body.toString()))
-                    .build();
-                
-                Response response = supabaseService.executeRequest(request);
-                String responseBody = response.body() != null ? response.body().string() : "";
-                
-                if (response.isSuccessful()) {
-                    // Increment cancellation count
-                    incrementCancellationCount(customerId, accessToken);
-                    
-                    // Send notification to customer
-                    notificationService.createNotification(
-                        customerId,
-                        "Order Cancelled",
-                        "Your order has been cancelled. Reason: " + reason,
-                        "order",
-                        orderId
-                    );
-                    
-                    // Fetch order details and notify all admins
-                    notifyAdminsOfCancellation(orderId, customerId, reason, accessToken, notificationService);
-                    
-                    if (callback != null) {
-                        callback.onSuccess();
-                    }
-                } else {
-                    String errorMsg = "Failed to cancel order: " + response.code();
-                    try {
-                        if (!responseBody.isEmpty()) {
-                            JsonObject errorJson = gson.fromJson(responseBody, JsonObject.class);
-                            if (errorJson != null && errorJson.has("message")) {
-                                errorMsg = errorJson.get("message").getAsString();
-                            }
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Failed to parse error response", e);
-                    }
-                    if (callback != null) {
-                        callback.onError(errorMsg);
-                    }
+        getOrders(customerId, new OrderCallback() {
+            @Override
+            public void onSuccess(List<Order> orders) {
+                String uuid = orderRepository.resolveUuid(orderId);
+                if (uuid != null) {
+                    cancelOrder(uuid, customerId, reason, accessToken, notificationService, callback);
+                } else if (callback != null) {
+                    callback.onError("Order not found");
                 }
-            } catch (Exception e) {
-                Log.e(TAG, "Cancel order error", e);
+            }
+            
+            @Override
+            public void onError(String error) {
                 if (callback != null) {
-                    callback.onError("Error: " + e.getMessage());
+                    callback.onError(error);
                 }
             }
-        }).start();
+        });
     }
     
     /**
@@ -1028,7 +728,7 @@ public class OrderService {
             return;
         }
         
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("status", "cancelled");
@@ -1037,7 +737,7 @@ public class OrderService {
                 // Note: cancelled_at is handled automatically by Supabase or database triggers
                 
                 // Use UUID string for the query
-                String endpoint = "orders?id=eq." + orderIdString;
+                String endpoint = PostgrestQuery.from("orders").eqUuid("id", orderIdString).toEndpoint();
                 Log.d(TAG, "Cancelling order - Order ID (UUID): " + orderIdString);
                 Log.d(TAG, "Endpoint: " + endpoint);
                 
@@ -1051,9 +751,11 @@ public class OrderService {
                 Response response = supabaseService.executeRequest(request);
                 String responseBody = response.body() != null ? response.body().string() : "";
                 
-                Log.d(TAG, "Cancel order response - Code: " + response.code() + ", Body: " + responseBody);
+                Log.d(TAG, "Cancel order response - Code: " + response.code() + ", Body: " + NetworkTelemetry.preview(responseBody, LOG_BODY_CHARS));
                 
                 if (response.isSuccessful()) {
+                    orderRepository.updateStatus(orderIdString, "cancelled");
+                    
                     // Increment cancellation count
                     incrementCancellationCount(customerId, accessToken);
                     
@@ -1091,169 +793,46 @@ public class OrderService {
                     callback.onError("Error: " + e.getMessage());
                 }
             }
-        }).start();
-    }
-    
-    /**
-     * Notify all admins when a customer cancels an order
-     */
-    private void notifyAdminsOfCancellation(int orderId, String customerId, String reason, String accessToken, NotificationService notificationService) {
-        new Thread(() -> {
-            try {
-                // Fetch the order to get order details (UUID string)
-                // Query by customer_id and find matching order by integer ID
-                String url = "orders?customer_id=eq." + customerId + "&order=created_at.desc";
-                Request orderRequest = supabaseService
-                    .createRequest(url)
-                    .get()
-                    .build();
-                
-                Response orderResponse = supabaseService.executeRequest(orderRequest);
-                
-                String orderIdDisplay = String.valueOf(orderId);
-                if (orderResponse.isSuccessful()) {
-                    String responseBody = orderResponse.body() != null ? orderResponse.body().string() : "";
-                    com.google.gson.JsonArray jsonArray = gson.fromJson(responseBody, com.google.gson.JsonArray.class);
-                    if (jsonArray != null) {
-                        for (int i = 0; i < jsonArray.size(); i++) {
-                            Order order = gson.fromJson(jsonArray.get(i).getAsJsonObject(), Order.class);
-                            if (order != null && order.getId() == orderId) {
-                                orderIdDisplay = order.getIdString() != null ? order.getIdString() : String.valueOf(order.getId());
-                                break;
-                            }
-                        }
-                    }
-                }
-                
-                // Make final copy for use in inner class
-                final String finalOrderIdDisplay = orderIdDisplay;
-                final String finalReason = reason;
-                
-                // Get all admin users
-                UserService userService = new UserService(context);
-                userService.getAdminUsers(accessToken, new UserService.UserListCallback() {
-                    @Override
-                    public void onSuccess(List<User> adminUsers) {
-                        if (adminUsers != null && !adminUsers.isEmpty()) {
-                            // Send notification to each admin
-                            for (User admin : adminUsers) {
-                                if (admin != null && admin.getId() != null) {
-                                    notificationService.createNotification(
-                                        admin.getId(),
-                                        "Order Cancelled by Customer",
-                                        "Order #" + finalOrderIdDisplay + " has been cancelled by customer. Reason: " + (finalReason != null ? finalReason : "No reason provided"),
-                                        "order",
-                                        orderId
-                                    );
-                                }
-                            }
-                            Log.d(TAG, "Notified " + adminUsers.size() + " admin(s) about order cancellation: " + finalOrderIdDisplay);
-                        } else {
-                            Log.d(TAG, "No admin users found to notify about order cancellation");
-                        }
-                    }
-                    
-                    @Override
-                    public void onError(String error) {
-                        Log.e(TAG, "Failed to fetch admin users for cancellation notification: " + error);
-                        // Don't fail the cancellation if we can't notify admins
-                    }
-                });
-            } catch (Exception e) {
-                Log.e(TAG, "Error notifying admins of cancellation", e);
-                // Don't fail the cancellation if notification fails
-            }
-        }).start();
+        });
     }
     
     /**
      * Fetch order and send cancellation notification to customer
      */
     private void fetchOrderAndSendCancellationNotification(String orderIdString, String customerId, String reason, String accessToken, NotificationService notificationService) {
-        new Thread(() -> {
+        executor.background(() -> {
             try {
-                // Strip any existing quotes from UUID
-                String cleanOrderId = orderIdString.replace("\"", "").trim();
-                
-                // Fetch order by UUID string
-                String url = "orders?id=eq." + cleanOrderId;
-                Request request = supabaseService
-                    .createRequest(url)
-                    .get()
-                    .build();
-                
-                Response response = supabaseService.executeRequest(request);
-                
-                // If 400 error, retry with quotes
-                if (response.code() == 400) {
-                    url = "orders?id=eq.\"" + cleanOrderId + "\"";
-                    request = supabaseService.createRequest(url).get().build();
-                    response = supabaseService.executeRequest(request);
-                }
-                
-                if (response.isSuccessful() && response.body() != null) {
-                    String responseBody = response.body().string();
-                    com.google.gson.JsonArray jsonArray = gson.fromJson(responseBody, com.google.gson.JsonArray.class);
-                    if (jsonArray != null && jsonArray.size() > 0) {
-                        Order order = gson.fromJson(jsonArray.get(0).getAsJsonObject(), Order.class);
-                        if (order != null) {
-                            order.getId(); // Trigger UUID to int conversion
-                            
-                            // Send notification to customer
-                            notificationService.createNotification(
-                                customerId,
-                                "Order Cancelled",
-                                "Your order has been cancelled. Reason: " + (reason != null ? reason : "No reason provided"),
-                                "order",
-                                order.getId()
-                            );
-                        }
-                    }
+                Order order = findOrder(orderIdString);
+                if (order != null) {
+                    // Send notification to customer
+                    notificationService.createNotification(
+                        customerId,
+                        "Order Cancelled",
+                        "Your order has been cancelled. Reason: " + (reason != null ? reason : "No reason provided"),
+                        "order",
+                        order.getDisplayNumber()
+                    );
                 }
             } catch (Exception e) {
                 Log.e(TAG, "Error fetching order for cancellation notification", e);
                 // Don't fail the cancellation if notification fails
             }
-        }).start();
+        });
     }
     
     /**
      * Notify all admins when a customer cancels an order (UUID string version)
      */
     private void notifyAdminsOfCancellation(String orderIdString, String customerId, String reason, String accessToken, NotificationService notificationService) {
-        new Thread(() -> {
+        executor.background(() -> {
             try {
-                // Strip any existing quotes from UUID
                 String cleanOrderId = orderIdString.replace("\"", "").trim();
-                
-                // Fetch the order to get order details
-                String url = "orders?id=eq." + cleanOrderId;
-                Request orderRequest = supabaseService
-                    .createRequest(url)
-                    .get()
-                    .build();
-                
-                Response orderResponse = supabaseService.executeRequest(orderRequest);
-                
-                // If 400 error, retry with quotes
-                if (orderResponse.code() == 400) {
-                    url = "orders?id=eq.\"" + cleanOrderId + "\"";
-                    orderRequest = supabaseService.createRequest(url).get().build();
-                    orderResponse = supabaseService.executeRequest(orderRequest);
-                }
-                
                 String orderIdDisplay = cleanOrderId;
                 int orderIdInt = 0;
-                if (orderResponse.isSuccessful() && orderResponse.body() != null) {
-                    String responseBody = orderResponse.body().string();
-                    com.google.gson.JsonArray jsonArray = gson.fromJson(responseBody, com.google.gson.JsonArray.class);
-                    if (jsonArray != null && jsonArray.size() > 0) {
-                        Order order = gson.fromJson(jsonArray.get(0).getAsJsonObject(), Order.class);
-                        if (order != null) {
-                            orderIdInt = order.getId();
-                            orderIdDisplay = order.getIdString() != null ? order.getIdString() : String.valueOf(order.getId());
-                        }
-                    }
+                Order order = findOrder(cleanOrderId);
+                if (order != null) {
+                    orderIdInt = order.getDisplayNumber();
+                    orderIdDisplay = order.getIdString() != null ? order.getIdString() : String.valueOf(order.getId());
                 }
                 
                 // Make final copy for use in inner class
@@ -1295,21 +874,20 @@ public class OrderService {
                 Log.e(TAG, "Error notifying admins of cancellation", e);
                 // Don't fail the cancellation if notification fails
             }
-        }).start();
+        });
     }
     
     /**
      * Fetch order details and send notifications for status changes
      */
     private void fetchOrderAndSendNotifications(String orderIdString, String newStatus) {
-        new Thread(() -> {
+        executor.background(() -> {
             try {
                 // Strip any existing quotes from UUID
                 String cleanOrderId = orderIdString.replace("\"", "").trim();
                 
                 // Fetch order by UUID string (for Supabase realtime database)
-                // First try without quotes
-                String url = "orders?id=eq." + cleanOrderId;
+                String url = PostgrestQuery.from("orders").eqUuid("id", cleanOrderId).toEndpoint();
                 Request request = supabaseService
                     .createRequest(url)
                     .get()
@@ -1317,13 +895,6 @@ public class OrderService {
                 
                 Response response = supabaseService.executeRequest(request);
                 
-                // If 400 error, retry with quotes
-                if (response.code() == 400) {
-                    url = "orders?id=eq.\"" + cleanOrderId + "\"";
-                    request = supabaseService.createRequest(url).get().build();
-                    response = supabaseService.executeRequest(request);
-                }
-                
                 if (response.isSuccessful()) {
                     String responseBody = response.body().string();
                     com.google.gson.JsonArray jsonArray = gson.fromJson(responseBody, com.google.gson.JsonArray.class);
@@ -1343,7 +914,7 @@ public class OrderService {
                                 statusTitle,
                                 statusMessage,
                                 "order",
-                                order.getId()
+                                order.getDisplayNumber()
                             );
                             
                             // Send system notification
@@ -1351,7 +922,7 @@ public class OrderService {
                             notificationHelper.showOrderStatusNotification(
                                 orderIdDisplay,
                                 newStatus,
-                                order.getId()
+                                order.getDisplayNumber()
                             );
                             
                             Log.d(TAG, "Notifications sent for order " + orderIdDisplay + " status: " + newStatus);
@@ -1362,7 +933,7 @@ public class OrderService {
                 Log.e(TAG, "Error fetching order and sending notifications", e);
                 // Don't fail the status update if notification fails
             }
-        }).start();
+        });
     }
     
     /**
@@ -1417,7 +988,7 @@ public class OrderService {
         try {
             // First get current count
             Request getRequest = supabaseService
-                .createAuthenticatedRequest("users?id=eq." + userId, accessToken)
+                .createAuthenticatedRequest(PostgrestQuery.from("users").select("id,cancellation_count").eqUuid("id", userId), accessToken)
                 .get()
                 .build();
             
@@ -1432,7 +1003,7 @@ public class OrderService {
                     body.addProperty("cancellation_count", currentCount + 1);
                     
                     Request updateRequest = supabaseService
-                        .createAuthenticatedRequest("users?id=eq." + userId, accessToken)
+                        .createAuthenticatedRequest(PostgrestQuery.from("users").eqUuid("id", userId), accessToken)
                         .patch(RequestBody.create(
                             MediaType.parse("application/json"),
                             body.toString()))
@@ -1446,6 +1017,30 @@ public class OrderService {
         }
     }
 
+    /**
+     * Order by UUID from the repository, fetching (and caching) it on a miss. Call off the main thread.
+     */
+    private Order findOrder(String orderIdString) throws IOException {
+        Order cached = orderRepository.getByUuid(orderIdString);
+        if (cached != null) {
+            return cached;
+        }
+        PostgrestQuery query = PostgrestQuery.from("orders")
+            .select(ORDER_LIST_COLUMNS)
+            .eqUuid("id", orderIdString);
+        Request request = createRequestWithAuth(query.toEndpoint())
+            .get()
+            .build();
+        try (Response response = supabaseService.executeRequest(request)) {
+            if (!response.isSuccessful()) {
+                return null;
+            }
+            Order order = supabaseService.decodeFirst(response.body(), Order.class);
+            orderRepository.put(order);
+            return order;
+        }
+    }
+    
     private Request.Builder createRequestWithAuth(String endpoint) {
         String accessToken = preferenceUtil != null ? preferenceUtil.getAccessToken() : null;
         if (!TextUtils.isEmpty(accessToken)) {
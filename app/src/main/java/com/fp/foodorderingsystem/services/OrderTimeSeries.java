@@ -0,0 +1,288 @@
+package com.fp.foodorderingsystem.services;
+
+import android.util.Log;
+import com.fp.foodorderingsystem.models.Order;
+import com.fp.foodorderingsystem.utils.GsonProvider;
+import com.fp.foodorderingsystem.utils.RealtimePayloadUtil;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Rolling per-hour and per-day order counts and completed revenue for the admin charts.
+ *
+ * Each order is bucketed once, by its local created_at hour and day, when it arrives. The
+ * charts then read ready-made series instead of re-parsing every order for every slot.
+ * A realtime change only moves that order's contribution between buckets.
+ *
+ * Buckets live in fixed-size rings ({@link #HOURS} hours, {@link #DAYS} days). A slot is
+ * reused once its bucket falls out of the window, and orders older than the window are
+ * ignored.
+ *
+ * It also keeps running {@link Totals} over every order (in or out of the window) for the
+ * dashboard cards, so an order-only realtime batch needs no refetch.
+ */
+public final class OrderTimeSeries {
+    private static final String TAG = "OrderTimeSeries";
+    public static final int HOURS = 48;
+    public static final int DAYS = 31;
+    private static final long HOUR_MS = 60L * 60 * 1000;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    // Bucket of an order whose created_at couldn't be parsed; it only counts toward the totals
+    private static final long NO_BUCKET = Long.MIN_VALUE;
+
+    /**
+     * Dashboard card figures over every order.
+     */
+    public static final class Totals {
+        public int orders;
+        public int pendingOrders;
+        public int completedOrders;
+        public double completedRevenue;
+    }
+
+    /**
+     * What one order currently contributes, so an update or delete can take it back out.
+     */
+    private static final class Contribution {
+        final long hour;
+        final long day;
+        final boolean pending;
+        final boolean completed;
+        final long revenueCents;
+
+        Contribution(long hour, long day, boolean pending, boolean completed, long revenueCents) {
+            this.hour = hour;
+            this.day = day;
+            this.pending = pending;
+            this.completed = completed;
+            this.revenueCents = revenueCents;
+        }
+    }
+
+    private static final class Ring {
+        final long[] bucketOf;
+        final int[] orders;
+        final long[] revenueCents;
+
+        Ring(int size) {
+            bucketOf = new long[size];
+            orders = new int[size];
+            revenueCents = new long[size];
+            clear();
+        }
+
+        void clear() {
+            Arrays.fill(bucketOf, Long.MIN_VALUE);
+            Arrays.fill(orders, 0);
+            Arrays.fill(revenueCents, 0);
+        }
+
+        void add(long bucket, int orderDelta, long revenueDelta) {
+            int slot = slotOf(bucket);
+            if (bucketOf[slot] != bucket) {
+                if (bucketOf[slot] > bucket) {
+                    return; // older than the window
+                }
+                bucketOf[slot] = bucket;
+                orders[slot] = 0;
+                revenueCents[slot] = 0;
+            }
+            orders[slot] += orderDelta;
+            revenueCents[slot] += revenueDelta;
+        }
+
+        int ordersAt(long bucket) {
+            int slot = slotOf(bucket);
+            return bucketOf[slot] == bucket ? orders[slot] : 0;
+        }
+
+        long revenueAt(long bucket) {
+            int slot = slotOf(bucket);
+            return bucketOf[slot] == bucket ? revenueCents[slot] : 0;
+        }
+
+        private int slotOf(long bucket) {
+            return (int) Math.floorMod(bucket, (long) bucketOf.length);
+        }
+    }
+
+    private final TimeZone zone;
+    // Guarded by this
+    private final Map<String, Contribution> contributions = new HashMap<>();
+    private final Ring hours = new Ring(HOURS);
+    private final Ring days = new Ring(DAYS);
+    private int pendingOrders;
+    private int completedOrders;
+    private long completedRevenueCents;
+    private boolean loaded;
+
+    public OrderTimeSeries() {
+        this(TimeZone.getDefault());
+    }
+
+    public OrderTimeSeries(TimeZone zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Rebuild from a full fetch.
+     */
+    public synchronized void replaceAll(List<Order> orders) {
+        contributions.clear();
+        hours.clear();
+        days.clear();
+        pendingOrders = 0;
+        completedOrders = 0;
+        completedRevenueCents = 0;
+        loaded = true;
+        if (orders != null) {
+            for (Order order : orders) {
+                if (order != null) {
+                    put(order);
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply one realtime payload for the orders table.
+     *
+     * @return whether any bucket changed
+     */
+    public synchronized boolean apply(JsonObject payload) {
+        String eventType = RealtimePayloadUtil.getEventType(payload).toUpperCase();
+        try {
+            if ("DELETE".equals(eventType)) {
+                JsonObject oldRecord = RealtimePayloadUtil.getOldRecord(payload);
+                JsonElement id = oldRecord != null ? oldRecord.get("id") : null;
+                return id != null && !id.isJsonNull() && remove(id.getAsString());
+            }
+            JsonObject record = RealtimePayloadUtil.getNewRecord(payload);
+            Order order = record != null ? GsonProvider.get().fromJson(record, Order.class) : null;
+            return order != null && put(order);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Undecodable order payload", e);
+            return false;
+        }
+    }
+
+    /**
+     * Whether {@link #replaceAll} has run, i.e. deltas apply to a complete picture.
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized Totals totals() {
+        Totals totals = new Totals();
+        totals.orders = contributions.size();
+        totals.pendingOrders = pendingOrders;
+        totals.completedOrders = completedOrders;
+        totals.completedRevenue = completedRevenueCents / 100.0;
+        return totals;
+    }
+
+    /**
+     * Orders created in each of the last {@code count} hours, oldest first; the last entry
+     * is the current hour.
+     */
+    public synchronized int[] hourlyOrders(int count, long now) {
+        checkWindow(count, HOURS);
+        int[] series = new int[count];
+        long current = bucketOf(now, HOUR_MS);
+        for (int i = 0; i < count; i++) {
+            series[i] = hours.ordersAt(current - (count - 1 - i));
+        }
+        return series;
+    }
+
+    /**
+     * Orders created on each of the last {@code count} days, oldest first; the last entry is today.
+     */
+    public synchronized int[] dailyOrders(int count, long now) {
+        checkWindow(count, DAYS);
+        int[] series = new int[count];
+        long current = bucketOf(now, DAY_MS);
+        for (int i = 0; i < count; i++) {
+            series[i] = days.ordersAt(current - (count - 1 - i));
+        }
+        return series;
+    }
+
+    /**
+     * Revenue from completed orders created on each of the last {@code count} days, oldest first.
+     */
+    public synchronized double[] dailyRevenue(int count, long now) {
+        checkWindow(count, DAYS);
+        double[] series = new double[count];
+        long current = bucketOf(now, DAY_MS);
+        for (int i = 0; i < count; i++) {
+            series[i] = days.revenueAt(current - (count - 1 - i)) / 100.0;
+        }
+        return series;
+    }
+
+    // Must hold this
+    private boolean put(Order order) {
+        String orderId = order.getIdString();
+        if (orderId == null) {
+            return false;
+        }
+        remove(orderId);
+        long created = order.getCreatedAtEpoch();
+        boolean bucketed = created > 0;
+        boolean completed = order.isCompleted();
+        Contribution contribution = new Contribution(
+            bucketed ? bucketOf(created, HOUR_MS) : NO_BUCKET,
+            bucketed ? bucketOf(created, DAY_MS) : NO_BUCKET,
+            "pending".equals(order.getNormalizedStatus()),
+            completed,
+            completed ? Math.round(order.getTotalAmount() * 100) : 0);
+        contributions.put(orderId, contribution);
+        account(contribution, 1);
+        return true;
+    }
+
+    // Must hold this
+    private boolean remove(String orderId) {
+        Contribution contribution = contributions.remove(orderId);
+        if (contribution == null) {
+            return false;
+        }
+        account(contribution, -1);
+        return true;
+    }
+
+    // Must hold this
+    private void account(Contribution contribution, int sign) {
+        if (contribution.pending) {
+            pendingOrders += sign;
+        }
+        if (contribution.completed) {
+            completedOrders += sign;
+            completedRevenueCents += sign * contribution.revenueCents;
+        }
+        if (contribution.hour != NO_BUCKET) {
+            hours.add(contribution.hour, sign, sign * contribution.revenueCents);
+            days.add(contribution.day, sign, sign * contribution.revenueCents);
+        }
+    }
+
+    /**
+     * Local-time bucket number, so day buckets start at local midnight.
+     */
+    private long bucketOf(long epochMs, long unitMs) {
+        return Math.floorDiv(epochMs + zone.getOffset(epochMs), unitMs);
+    }
+
+    private static void checkWindow(int count, int size) {
+        if (count < 1 || count > size) {
+            throw new IllegalArgumentException("count must be between 1 and " + size);
+        }
+    }
+}
@@ -3,12 +3,12 @@ package com.fp.foodorderingsystem.services;
 import android.content.Context;
 import android.util.Log;
 import com.fp.foodorderingsystem.config.PayMongoConfig;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import okhttp3.*;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
-import android.content.pm.ApplicationInfo;
 
 /**
  * PayMongo Service
@@ -16,6 +16,7 @@ import android.content.pm.ApplicationInfo;
  */
 public class PayMongoService {
     private static final String TAG = "PayMongoService";
+    private static final int LOG_BODY_CHARS = 256;
     private static PayMongoService instance;
     private OkHttpClient client;
     private Gson gson;
@@ -23,23 +24,14 @@ public class PayMongoService {
     
     private PayMongoService(Context context) {
         this.context = context.getApplicationContext();
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+        OkHttpClient.Builder builder = NetworkStack.get().newClientBuilder()
             .connectTimeout(30, TimeUnit.SECONDS)
             .readTimeout(30, TimeUnit.SECONDS)
             .retryOnConnectionFailure(true);
         
-        // Add HTTP logging in debug builds
-        boolean isDebuggable = (this.context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
-        if (isDebuggable) {
-            okhttp3.logging.HttpLoggingInterceptor logging = new okhttp3.logging.HttpLoggingInterceptor(
-                message -> Log.d("PayMongo", message)
-            );
-            logging.setLevel(okhttp3.logging.HttpLoggingInterceptor.Level.BODY);
-            builder.addInterceptor(logging);
-        }
-        
+        // Request telemetry comes from NetworkStack; payment payloads are never logged in full
         this.client = builder.build();
-        this.gson = new Gson();
+        this.gson = GsonProvider.get();
     }
     
     public static synchronized PayMongoService getInstance(Context context) {
@@ -130,13 +122,12 @@ public class PayMongoService {
             public void onResponse(Call call, Response response) throws IOException {
                 if (!response.isSuccessful()) {
                     String errorBody = response.body() != null ? response.body().string() : "Unknown error";
-                    Log.e(TAG, "Payment intent creation failed: " + response.code() + " - " + errorBody);
+                    Log.e(TAG, "Payment intent creation failed: " + response.code() + " - " + NetworkTelemetry.preview(errorBody, LOG_BODY_CHARS));
                     callback.onError("Failed to create payment intent: " + response.code());
                     return;
                 }
                 
                 String responseBody = response.body() != null ? response.body().string() : "{}";
-                Log.d(TAG, "Payment intent response: " + responseBody);
                 
                 try {
                     JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
@@ -270,7 +261,7 @@ public class PayMongoService {
             public void onResponse(Call call, Response response) throws IOException {
                 if (!response.isSuccessful()) {
                     String errorBody = response.body() != null ? response.body().string() : "Unknown error";
-                    Log.e(TAG, "Attach payment method failed: " + response.code() + " - " + errorBody);
+                    Log.e(TAG, "Attach payment method failed: " + response.code() + " - " + NetworkTelemetry.preview(errorBody, LOG_BODY_CHARS));
                     
                     // Check if it's a return_url format error
                     if (errorBody.contains("return_url") && errorBody.contains("format")) {
@@ -283,7 +274,6 @@ public class PayMongoService {
                 }
                 
                 String responseBody = response.body() != null ? response.body().string() : "{}";
-                Log.d(TAG, "Attach payment method response: " + responseBody);
                 JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
                 JsonObject data = jsonResponse.getAsJsonObject("data");
                 String paymentIntentId = data.get("id").getAsString();
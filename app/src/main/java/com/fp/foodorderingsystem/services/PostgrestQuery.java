@@ -0,0 +1,251 @@
+package com.fp.foodorderingsystem.services;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import okhttp3.Request;
+
+/**
+ * Typed builder for PostgREST endpoints.
+ *
+ * Replaces hand-concatenated strings like
+ * {@code "orders?customer_id=eq." + customerId + "&order=created_at.desc"} with
+ * <pre>
+ * PostgrestQuery.from("orders")
+ *     .select(OrderService.ORDER_LIST_COLUMNS)
+ *     .eq("customer_id", customerId)
+ *     .order("created_at", false)
+ *     .range(0, 49);
+ * </pre>
+ * Filter values are percent-encoded and otherwise sent as given. Use {@link #eqUuid} for ids
+ * that older call sites may have wrapped in quotes, so they no longer need the quoted-UUID
+ * 400 retry. Pass the query to {@link SupabaseService#createRequest(PostgrestQuery)}
+ * so the Range headers are applied along with the URL.
+ */
+public final class PostgrestQuery {
+    private final String table;
+    private String select;
+    private final List<String> filters = new ArrayList<>();
+    private final List<String> orderings = new ArrayList<>();
+    private int limit = -1;
+    private int offset = -1;
+    private long rangeFrom = -1;
+    private long rangeTo = -1;
+
+    private PostgrestQuery(String table) {
+        this.table = table;
+    }
+
+    public static PostgrestQuery from(String table) {
+        if (table == null || table.isEmpty()) {
+            throw new IllegalArgumentException("Table name is required");
+        }
+        return new PostgrestQuery(table);
+    }
+
+    /**
+     * Column projection. Accepts either a list of columns or a single pre-joined
+     * select string (embedded resources such as {@code menu_items(*)} are allowed).
+     */
+    public PostgrestQuery select(String... columns) {
+        StringBuilder builder = new StringBuilder();
+        for (String column : columns) {
+            if (column == null || column.trim().isEmpty()) continue;
+            if (builder.length() > 0) builder.append(',');
+            builder.append(column.trim());
+        }
+        this.select = builder.length() > 0 ? builder.toString() : null;
+        return this;
+    }
+
+    public PostgrestQuery eq(String column, Object value) {
+        return filter(column, "eq", value);
+    }
+
+    /**
+     * {@code eq} on a UUID column, dropping the quotes and whitespace that ids read from
+     * older storage may carry.
+     */
+    public PostgrestQuery eqUuid(String column, Object uuid) {
+        return filter(column, "eq", String.valueOf(uuid).replace("\"", "").trim());
+    }
+
+    public PostgrestQuery neq(String column, Object value) {
+        return filter(column, "neq", value);
+    }
+
+    public PostgrestQuery gt(String column, Object value) {
+        return filter(column, "gt", value);
+    }
+
+    public PostgrestQuery gte(String column, Object value) {
+        return filter(column, "gte", value);
+    }
+
+    public PostgrestQuery lt(String column, Object value) {
+        return filter(column, "lt", value);
+    }
+
+    public PostgrestQuery lte(String column, Object value) {
+        return filter(column, "lte", value);
+    }
+
+    public PostgrestQuery ilike(String column, String pattern) {
+        return filter(column, "ilike", pattern);
+    }
+
+    public PostgrestQuery is(String column, String value) {
+        return filter(column, "is", value);
+    }
+
+    /**
+     * {@code column=in.(a,b,c)}. Members containing PostgREST reserved characters are
+     * double-quoted before encoding.
+     */
+    public PostgrestQuery in(String column, Collection<?> values) {
+        StringBuilder list = new StringBuilder("(");
+        boolean first = true;
+        if (values != null) {
+            for (Object value : values) {
+                if (value == null) continue;
+                if (!first) list.append(',');
+                list.append(quoteListMember(String.valueOf(value)));
+                first = false;
+            }
+        }
+        list.append(')');
+        filters.add(column + "=in." + encode(list.toString()));
+        return this;
+    }
+
+    /**
+     * Keyset paging for a query ordered by {@code column, idColumn} ascending: only rows after
+     * ({@code value}, {@code id}), i.e. {@code or=(column.gt.value,and(column.eq.value,idColumn.gt.id))}.
+     * Unlike {@code gt(column, value)} it doesn't skip rows that share the boundary value.
+     */
+    public PostgrestQuery after(String column, Object value, String idColumn, Object id) {
+        String boundary = quoteLogicValue(String.valueOf(value));
+        filters.add("or=" + encode("(" + column + ".gt." + boundary
+            + ",and(" + column + ".eq." + boundary + "," + idColumn + ".gt." + quoteLogicValue(String.valueOf(id)) + "))"));
+        return this;
+    }
+
+    public PostgrestQuery order(String column, boolean ascending) {
+        orderings.add(column + (ascending ? ".asc" : ".desc"));
+        return this;
+    }
+
+    /**
+     * Ordering of an embedded resource, e.g. {@code order_items.order=created_at.asc}.
+     */
+    public PostgrestQuery orderEmbedded(String resource, String column, boolean ascending) {
+        filters.add(resource + ".order=" + column + (ascending ? ".asc" : ".desc"));
+        return this;
+    }
+
+    public PostgrestQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public PostgrestQuery offset(int offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Inclusive row range sent as {@code Range: from-to} instead of query parameters.
+     */
+    public PostgrestQuery range(long from, long to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException("Invalid range " + from + "-" + to);
+        }
+        this.rangeFrom = from;
+        this.rangeTo = to;
+        return this;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Path and query string relative to {@code /rest/v1/}.
+     */
+    public String toEndpoint() {
+        StringBuilder endpoint = new StringBuilder(table);
+        char separator = '?';
+        if (select != null) {
+            endpoint.append(separator).append("select=").append(select);
+            separator = '&';
+        }
+        for (String filter : filters) {
+            endpoint.append(separator).append(filter);
+            separator = '&';
+        }
+        if (!orderings.isEmpty()) {
+            endpoint.append(separator).append("order=");
+            for (int i = 0; i < orderings.size(); i++) {
+                if (i > 0) endpoint.append(',');
+                endpoint.append(orderings.get(i));
+            }
+            separator = '&';
+        }
+        if (limit >= 0) {
+            endpoint.append(separator).append("limit=").append(limit);
+            separator = '&';
+        }
+        if (offset >= 0) {
+            endpoint.append(separator).append("offset=").append(offset);
+        }
+        return endpoint.toString();
+    }
+
+    Request.Builder applyHeaders(Request.Builder builder) {
+        if (rangeFrom >= 0) {
+            builder.header("Range-Unit", "items");
+            builder.header("Range", rangeFrom + "-" + rangeTo);
+        }
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return toEndpoint();
+    }
+
+    PostgrestQuery filter(String column, String operator, Object value) {
+        filters.add(column + "=" + operator + "." + encode(String.valueOf(value)));
+        return this;
+    }
+
+    private static String quoteListMember(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '(' || c == ')' || c == ':' || c == ' ' || c == '"' || c == '\\') {
+                return quoteLogicValue(value);
+            }
+        }
+        return value;
+    }
+
+    // Values inside or=(...) may contain '.', ':' or ',' (timestamps); quoting is always allowed
+    private static String quoteLogicValue(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8")
+                .replace("+", "%20")
+                .replace("%7E", "~")
+                .replace("%2C", ",")
+                .replace("%28", "(")
+                .replace("%29", ")");
+        } catch (UnsupportedEncodingException e) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.fp.foodorderingsystem.services;
+
+import android.util.Log;
+import com.fp.foodorderingsystem.utils.RealtimePayloadUtil;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces realtime changes into batches, so a screen refreshes once per burst instead of
+ * once per event.
+ *
+ * Register it as the {@link SupabaseRealtimeClient.RealtimeListener} for one or more tables.
+ * The first change after a flush opens a window of {@code windowMs}. When the window ends, or
+ * once {@code maxBatch} distinct rows are pending, everything collected is handed to
+ * {@link BatchListener#onBatch} on the delivery executor (e.g. {@code mainHandler::post}).
+ * Changes are keyed by table and primary key, and a newer change replaces an older pending
+ * one for the same row. Changes without a key are all kept.
+ */
+public final class RealtimeBatcher implements SupabaseRealtimeClient.RealtimeListener {
+    private static final String TAG = "RealtimeBatcher";
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "realtime-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public interface BatchListener {
+        void onOpen();
+        /** Pending changes in arrival order of their latest event; never empty. */
+        void onBatch(List<JsonObject> changes);
+        void onError(String error);
+    }
+
+    private final long windowMs;
+    private final int maxBatch;
+    private final String keyColumn;
+    private final Executor deliveryExecutor;
+    private final BatchListener listener;
+
+    // Guarded by this
+    private final Map<String, JsonObject> pending = new LinkedHashMap<>();
+    private int unkeyedCount;
+    private ScheduledFuture<?> flushTask;
+    private boolean closed;
+    private long received;
+    private long superseded;
+    private long batches;
+
+    public RealtimeBatcher(long windowMs, int maxBatch, Executor deliveryExecutor, BatchListener listener) {
+        this(windowMs, maxBatch, "id", deliveryExecutor, listener);
+    }
+
+    public RealtimeBatcher(long windowMs, int maxBatch, String keyColumn, Executor deliveryExecutor,
+                           BatchListener listener) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be at least 1");
+        }
+        this.windowMs = Math.max(0, windowMs);
+        this.maxBatch = maxBatch;
+        this.keyColumn = keyColumn;
+        this.deliveryExecutor = deliveryExecutor;
+        this.listener = listener;
+    }
+
+    @Override
+    public void onOpen() {
+        if (!isClosed()) {
+            deliveryExecutor.execute(listener::onOpen);
+        }
+    }
+
+    @Override
+    public void onChange(JsonObject payload) {
+        if (payload == null) {
+            return;
+        }
+        boolean flushNow;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            received++;
+            String key = keyOf(payload);
+            if (key == null) {
+                key = "#" + unkeyedCount++;
+            } else if (pending.remove(key) != null) {
+                superseded++;
+            }
+            pending.put(key, payload);
+
+            flushNow = pending.size() >= maxBatch;
+            if (!flushNow && flushTask == null) {
+                flushTask = SCHEDULER.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    @Override
+    public void onError(String error) {
+        if (!isClosed()) {
+            deliveryExecutor.execute(() -> listener.onError(error));
+        }
+    }
+
+    /**
+     * Deliver whatever is pending now instead of waiting for the window to end.
+     */
+    public void flush() {
+        List<JsonObject> batch;
+        synchronized (this) {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+                flushTask = null;
+            }
+            if (closed || pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+            unkeyedCount = 0;
+            batches++;
+        }
+        deliveryExecutor.execute(() -> {
+            if (isClosed()) {
+                return;
+            }
+            try {
+                listener.onBatch(batch);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Batch listener failed", e);
+            }
+        });
+    }
+
+    /**
+     * Drop pending changes and stop delivering (call from onDestroy).
+     */
+    public synchronized void close() {
+        closed = true;
+        pending.clear();
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+    }
+
+    public synchronized long getReceivedCount() {
+        return received;
+    }
+
+    /**
+     * Changes dropped because a newer change for the same row arrived in the same window.
+     */
+    public synchronized long getSupersededCount() {
+        return superseded;
+    }
+
+    public synchronized long getBatchCount() {
+        return batches;
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private String keyOf(JsonObject payload) {
+        JsonObject record = RealtimePayloadUtil.getRelevantRecord(payload);
+        if (record == null || keyColumn == null) {
+            return null;
+        }
+        JsonElement id = record.get(keyColumn);
+        if (id == null || id.isJsonNull()) {
+            return null;
+        }
+        JsonElement table = payload.get("table");
+        return (table != null && !table.isJsonNull() ? table.getAsString() : "") + ":" + id.getAsString();
+    }
+}
@@ -2,10 +2,14 @@ package com.fp.foodorderingsystem.services;
 
 import android.util.Log;
 import com.fp.foodorderingsystem.models.Order;
+import com.fp.foodorderingsystem.utils.GsonProvider;
+import com.fp.foodorderingsystem.utils.RealtimePayloadUtil;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -54,21 +58,34 @@ public class RealtimeDashboardManager {
         }
     }
 
+    private static final int BUCKET_OTHER = 0;
+    private static final int BUCKET_PENDING = 1;
+    private static final int BUCKET_COMPLETED = 2;
+    private static final int BUCKET_CANCELLED = 3;
+
     private final OrderService orderService;
     private final SupabaseRealtimeClient realtimeClient;
     private final Gson gson;
     private final CopyOnWriteArrayList<DashboardMetricsListener> listeners;
     private final AtomicBoolean isConnected;
-    private final List<Order> cachedOrders;
-    private DashboardMetrics cachedMetrics;
+    // Guarded by ordersById; the running totals below always describe its contents
+    private final Map<String, Order> ordersById;
+    private final int[] statusCounts = new int[4];
+    // Revenue in cents, so repeated add/subtract doesn't drift
+    private long revenueCents;
+    private volatile DashboardMetrics cachedMetrics;
 
     public RealtimeDashboardManager(OrderService orderService) {
+        this(orderService, new SupabaseRealtimeClient());
+    }
+
+    RealtimeDashboardManager(OrderService orderService, SupabaseRealtimeClient realtimeClient) {
         this.orderService = orderService;
-        this.realtimeClient = new SupabaseRealtimeClient();
-        this.gson = new Gson();
+        this.realtimeClient = realtimeClient;
+        this.gson = GsonProvider.get();
         this.listeners = new CopyOnWriteArrayList<>();
         this.isConnected = new AtomicBoolean(false);
-        this.cachedOrders = new ArrayList<>();
+        this.ordersById = new HashMap<>();
         this.cachedMetrics = new DashboardMetrics();
     }
 
@@ -80,13 +97,17 @@ public class RealtimeDashboardManager {
         orderService.getAllOrders(new OrderService.OrderCallback() {
             @Override
             public void onSuccess(List<Order> orders) {
-                synchronized (cachedOrders) {
-                    cachedOrders.clear();
+                synchronized (ordersById) {
+                    ordersById.clear();
+                    Arrays.fill(statusCounts, 0);
+                    revenueCents = 0;
                     if (orders != null) {
-                        cachedOrders.addAll(orders);
+                        for (Order order : orders) {
+                            putOrder(order);
+                        }
                     }
+                    publishMetrics();
                 }
-                calculateMetrics();
                 notifyListeners();
             }
 
@@ -96,7 +117,13 @@ public class RealtimeDashboardManager {
             }
         });
 
-        // Subscribe to realtime events
+        subscribeToChanges();
+    }
+
+    /**
+     * Subscribe to realtime order events (the load harness drives this without the initial fetch)
+     */
+    void subscribeToChanges() {
         realtimeClient.subscribeToTable("public", "orders", new SupabaseRealtimeClient.RealtimeListener() {
             @Override
             public void onOpen() {
@@ -130,27 +157,27 @@ public class RealtimeDashboardManager {
     }
 
     /**
-     * Handle real-time changes from Supabase
+     * Handle real-time changes from Supabase. Each event adjusts the running totals by the
+     * difference between the cached order and its replacement, so the cost doesn't depend on
+     * how many orders are cached.
      */
     private void handleRealtimeChange(JsonObject payload) {
-        String eventType = getEventType(payload);
-        JsonObject newRecord = getNewRecord(payload);
-        JsonObject oldRecord = getOldRecord(payload);
+        String eventType = RealtimePayloadUtil.getEventType(payload);
+        JsonObject newRecord = RealtimePayloadUtil.getNewRecord(payload);
+        JsonObject oldRecord = RealtimePayloadUtil.getOldRecord(payload);
+        boolean changed = false;
 
-        synchronized (cachedOrders) {
+        synchronized (ordersById) {
             switch (eventType.toUpperCase()) {
                 case "INSERT":
                     if (newRecord != null) {
                         try {
                             Order order = gson.fromJson(newRecord, Order.class);
-                            if (order != null) {
-                                String orderId = order.getIdString();
-                                if (orderId != null && !orderExists(orderId)) {
-                                    cachedOrders.add(0, order);
-                                    Log.d(TAG, "Order added: " + orderId);
-                                    calculateMetrics();
-                                    notifyListeners();
-                                }
+                            String orderId = order != null ? order.getIdString() : null;
+                            if (orderId != null && !ordersById.containsKey(orderId)) {
+                                putOrder(order);
+                                Log.d(TAG, "Order added: " + orderId);
+                                changed = true;
                             }
                         } catch (Exception e) {
                             Log.e(TAG, "Error parsing INSERT", e);
@@ -162,11 +189,11 @@ public class RealtimeDashboardManager {
                     if (newRecord != null) {
                         try {
                             Order order = gson.fromJson(newRecord, Order.class);
-                            if (order != null) {
-                                updateOrder(order);
-                                Log.d(TAG, "Order updated: " + order.getIdString());
-                                calculateMetrics();
-                                notifyListeners();
+                            String orderId = order != null ? order.getIdString() : null;
+                            if (orderId != null && ordersById.containsKey(orderId)) {
+                                putOrder(order);
+                                Log.d(TAG, "Order updated: " + orderId);
+                                changed = true;
                             }
                         } catch (Exception e) {
                             Log.e(TAG, "Error parsing UPDATE", e);
@@ -178,11 +205,9 @@ public class RealtimeDashboardManager {
                     if (oldRecord != null && oldRecord.has("id")) {
                         try {
                             String orderId = oldRecord.get("id").getAsString();
-                            if (orderId != null && !orderId.isEmpty()) {
-                                removeOrder(orderId);
+                            if (orderId != null && !orderId.isEmpty() && removeOrder(orderId)) {
                                 Log.d(TAG, "Order deleted: " + orderId);
-                                calculateMetrics();
-                                notifyListeners();
+                                changed = true;
                             }
                         } catch (Exception e) {
                             Log.e(TAG, "Error parsing DELETE", e);
@@ -190,133 +215,81 @@ public class RealtimeDashboardManager {
                     }
                     break;
             }
-        }
-    }
-
-    /**
-     * Calculate dashboard metrics from cached orders
-     */
-    private void calculateMetrics() {
-        synchronized (cachedOrders) {
-            DashboardMetrics metrics = new DashboardMetrics();
-            metrics.totalOrders = cachedOrders.size();
-            metrics.lastSyncTime = System.currentTimeMillis();
-
-            double totalRevenue = 0;
-            int pending = 0;
-            int completed = 0;
-            int cancelled = 0;
-
-            for (Order order : cachedOrders) {
-                if (order.getTotalAmount() > 0) {
-                    totalRevenue += order.getTotalAmount();
-                }
-
-                String status = order.getStatus();
-                if (status != null) {
-                    switch (status.toLowerCase()) {
-                        case "pending":
-                        case "preparing":
-                            pending++;
-                            break;
-                        case "completed":
-                        case "delivered":
-                            completed++;
-                            break;
-                        case "cancelled":
-                            cancelled++;
-                            break;
-                    }
-                }
-            }
-
-            metrics.totalRevenue = totalRevenue;
-            metrics.pendingOrders = pending;
-            metrics.completedOrders = completed;
-            metrics.cancelledOrders = cancelled;
-
-            if (metrics.totalOrders > 0) {
-                metrics.averageOrderValue = totalRevenue / metrics.totalOrders;
-                metrics.completionRate = (completed * 100.0) / metrics.totalOrders;
+            if (changed) {
+                publishMetrics();
             }
-
-            this.cachedMetrics = metrics;
         }
-    }
-
-    /**
-     * Update order in cache
-     */
-    private void updateOrder(Order newOrder) {
-        String newOrderId = newOrder.getIdString();
-        if (newOrderId == null) return;
-
-        for (int i = 0; i < cachedOrders.size(); i++) {
-            String cachedOrderId = cachedOrders.get(i).getIdString();
-            if (newOrderId.equals(cachedOrderId)) {
-                cachedOrders.set(i, newOrder);
-                return;
-            }
+        if (changed) {
+            notifyListeners();
         }
     }
 
     /**
-     * Remove order from cache
+     * Add or replace an order, moving its contribution to the totals. Must hold ordersById.
      */
-    private void removeOrder(String orderId) {
+    private void putOrder(Order order) {
+        String orderId = order.getIdString();
         if (orderId == null) return;
 
-        for (int i = 0; i < cachedOrders.size(); i++) {
-            String cachedOrderId = cachedOrders.get(i).getIdString();
-            if (orderId.equals(cachedOrderId)) {
-                cachedOrders.remove(i);
-                return;
-            }
+        Order previous = ordersById.put(orderId, order);
+        if (previous != null) {
+            account(previous, -1);
         }
+        account(order, 1);
     }
 
     /**
-     * Check if order exists in cache
+     * Remove an order and its contribution to the totals. Must hold ordersById.
      */
-    private boolean orderExists(String orderId) {
-        if (orderId == null) return false;
-
-        for (Order order : cachedOrders) {
-            if (orderId.equals(order.getIdString())) {
-                return true;
-            }
+    private boolean removeOrder(String orderId) {
+        Order previous = ordersById.remove(orderId);
+        if (previous == null) {
+            return false;
         }
-        return false;
+        account(previous, -1);
+        return true;
     }
 
-    /**
-     * Get event type from payload
-     */
-    private String getEventType(JsonObject payload) {
-        if (payload != null && payload.has("type")) {
-            return payload.get("type").getAsString();
+    private void account(Order order, int sign) {
+        statusCounts[bucketOf(order.getNormalizedStatus())] += sign;
+        if (order.getTotalAmount() > 0) {
+            revenueCents += sign * Math.round(order.getTotalAmount() * 100);
         }
-        return "";
     }
 
-    /**
-     * Get new record from payload
-     */
-    private JsonObject getNewRecord(JsonObject payload) {
-        if (payload != null && payload.has("new")) {
-            return payload.getAsJsonObject("new");
+    private static int bucketOf(String normalizedStatus) {
+        switch (normalizedStatus) {
+            case "pending":
+            case "preparing":
+                return BUCKET_PENDING;
+            case "completed":
+            case "delivered":
+                return BUCKET_COMPLETED;
+            case "cancelled":
+                return BUCKET_CANCELLED;
+            default:
+                return BUCKET_OTHER;
         }
-        return null;
     }
 
     /**
-     * Get old record from payload
+     * Snapshot the running totals into a new metrics object. Must hold ordersById.
      */
-    private JsonObject getOldRecord(JsonObject payload) {
-        if (payload != null && payload.has("old")) {
-            return payload.getAsJsonObject("old");
+    private void publishMetrics() {
+        DashboardMetrics metrics = new DashboardMetrics();
+        metrics.totalOrders = ordersById.size();
+        metrics.lastSyncTime = System.currentTimeMillis();
+        metrics.totalRevenue = revenueCents / 100.0;
+        metrics.pendingOrders = statusCounts[BUCKET_PENDING];
+        metrics.completedOrders = statusCounts[BUCKET_COMPLETED];
+        metrics.cancelledOrders = statusCounts[BUCKET_CANCELLED];
+
+        if (metrics.totalOrders > 0) {
+            metrics.averageOrderValue = metrics.totalRevenue / metrics.totalOrders;
+            metrics.completionRate = (metrics.completedOrders * 100.0) / metrics.totalOrders;
         }
-        return null;
+
+        this.cachedMetrics = metrics;
     }
 
     /**
@@ -0,0 +1,276 @@
+package com.fp.foodorderingsystem.services;
+
+import android.util.Log;
+import com.fp.foodorderingsystem.utils.RealtimePayloadUtil;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Hands realtime changes from the WebSocket reader thread to a single dispatch thread, so
+ * listener code (locks, metric recomputes, repository updates) never stalls frame reading.
+ * Lifecycle callbacks (onOpen, onError) go through the same queue, so they never overtake
+ * changes that arrived before them. They are not dropped, collapsed or counted in the metrics.
+ *
+ * Changes are delivered in order through a bounded queue. When the queue is full, the
+ * {@link OverflowPolicy} decides what happens:
+ * - BLOCK: the reader waits for room, which pushes back on the socket
+ * - DROP_OLDEST: the oldest pending change is discarded
+ * - COLLAPSE_BY_KEY: the incoming change replaces the pending one for the same row
+ *   (topic + id), keeping its queue position. If no pending change shares the key, the
+ *   oldest one is dropped instead.
+ *
+ * Configure with {@link SupabaseRealtimeClient#configureDispatch}; read counters with
+ * {@link SupabaseRealtimeClient#getDispatchMetrics()}.
+ */
+public final class RealtimeDispatcher {
+    private static final String TAG = "RealtimeDispatcher";
+    static final int DEFAULT_CAPACITY = 512;
+
+    public enum OverflowPolicy { BLOCK, DROP_OLDEST, COLLAPSE_BY_KEY }
+
+    /**
+     * Snapshot of the dispatch queue counters.
+     */
+    public static final class Metrics {
+        public OverflowPolicy policy;
+        public int capacity;
+        public int depth;
+        public int maxDepth;
+        public long enqueued;
+        public long delivered;
+        public long dropped;
+        public long collapsed;
+        /** Total time the reader thread spent waiting for room (BLOCK). */
+        public long blockedMs;
+
+        @Override
+        public String toString() {
+            return "RealtimeDispatch{" +
+                    "policy=" + policy +
+                    ", depth=" + depth + "/" + capacity +
+                    ", maxDepth=" + maxDepth +
+                    ", enqueued=" + enqueued +
+                    ", delivered=" + delivered +
+                    ", dropped=" + dropped +
+                    ", collapsed=" + collapsed +
+                    ", blockedMs=" + blockedMs +
+                    '}';
+        }
+    }
+
+    interface Sink {
+        void deliver(RealtimeSocket.Channel channel, JsonObject change);
+    }
+
+    private static final class Event {
+        final RealtimeSocket.Channel channel;
+        final String key;
+        JsonObject change;
+        // Set for lifecycle callbacks instead of a change
+        final Runnable callback;
+
+        Event(RealtimeSocket.Channel channel, String key, JsonObject change) {
+            this.channel = channel;
+            this.key = key;
+            this.change = change;
+            this.callback = null;
+        }
+
+        Event(Runnable callback) {
+            this.channel = null;
+            this.key = null;
+            this.callback = callback;
+        }
+    }
+
+    private final Sink sink;
+    // Guarded by this
+    private final ArrayDeque<Event> queue = new ArrayDeque<>();
+    private final Map<String, Event> pendingByKey = new HashMap<>();
+    private int capacity = DEFAULT_CAPACITY;
+    private OverflowPolicy policy = OverflowPolicy.COLLAPSE_BY_KEY;
+    private Thread thread;
+    private int maxDepth;
+    private long enqueued;
+    private long delivered;
+    private long dropped;
+    private long collapsed;
+    private long blockedMs;
+
+    RealtimeDispatcher(Sink sink) {
+        this.sink = sink;
+    }
+
+    synchronized void configure(int capacity, OverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.policy = policy != null ? policy : OverflowPolicy.COLLAPSE_BY_KEY;
+        notifyAll();
+    }
+
+    /**
+     * Queue a change for delivery. Called on the reader thread, or a catch-up worker.
+     */
+    void enqueue(RealtimeSocket.Channel channel, JsonObject change) {
+        synchronized (this) {
+            startIfNeeded();
+            String key = policy == OverflowPolicy.COLLAPSE_BY_KEY ? keyOf(channel, change) : null;
+            if (queue.size() >= capacity) {
+                switch (policy) {
+                    case BLOCK:
+                        long started = System.currentTimeMillis();
+                        try {
+                            while (queue.size() >= capacity && policy == OverflowPolicy.BLOCK) {
+                                wait();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            dropped++;
+                            return;
+                        } finally {
+                            blockedMs += System.currentTimeMillis() - started;
+                        }
+                        break;
+                    case COLLAPSE_BY_KEY:
+                        Event pending = key != null ? pendingByKey.get(key) : null;
+                        if (pending != null) {
+                            pending.change = collapse(pending.change, change);
+                            collapsed++;
+                            enqueued++;
+                            return;
+                        }
+                        dropOldest();
+                        break;
+                    default:
+                        dropOldest();
+                        break;
+                }
+            }
+            Event event = new Event(channel, key, change);
+            queue.addLast(event);
+            if (key != null) {
+                pendingByKey.put(key, event);
+            }
+            enqueued++;
+            maxDepth = Math.max(maxDepth, queue.size());
+            notifyAll();
+        }
+    }
+
+    /**
+     * Queue a lifecycle callback behind the pending changes. Never waits for room.
+     */
+    void enqueueCallback(Runnable callback) {
+        synchronized (this) {
+            startIfNeeded();
+            queue.addLast(new Event(callback));
+            notifyAll();
+        }
+    }
+
+    synchronized Metrics getMetrics() {
+        Metrics metrics = new Metrics();
+        metrics.policy = policy;
+        metrics.capacity = capacity;
+        metrics.depth = queue.size();
+        metrics.maxDepth = maxDepth;
+        metrics.enqueued = enqueued;
+        metrics.delivered = delivered;
+        metrics.dropped = dropped;
+        metrics.collapsed = collapsed;
+        metrics.blockedMs = blockedMs;
+        return metrics;
+    }
+
+    // Must hold this
+    private void startIfNeeded() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this::run, "realtime-dispatch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Must hold this
+    private void dropOldest() {
+        for (Iterator<Event> iterator = queue.iterator(); iterator.hasNext(); ) {
+            Event oldest = iterator.next();
+            if (oldest.callback != null) {
+                continue; // lifecycle callbacks are never dropped
+            }
+            iterator.remove();
+            if (oldest.key != null) {
+                pendingByKey.remove(oldest.key, oldest);
+            }
+            dropped++;
+            return;
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Event event;
+            synchronized (this) {
+                while (queue.isEmpty()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Log.w(TAG, "Dispatch thread interrupted");
+                        thread = null;
+                        return;
+                    }
+                }
+                event = queue.pollFirst();
+                if (event.key != null) {
+                    pendingByKey.remove(event.key, event);
+                }
+                notifyAll(); // room for a blocked reader
+            }
+            try {
+                if (event.callback != null) {
+                    event.callback.run();
+                    continue;
+                }
+                sink.deliver(event.channel, event.change);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Realtime listener failed", e);
+            }
+            if (event.callback == null) {
+                synchronized (this) {
+                    delivered++;
+                }
+            }
+        }
+    }
+
+    private static String keyOf(RealtimeSocket.Channel channel, JsonObject change) {
+        JsonObject record = RealtimePayloadUtil.getRelevantRecord(change);
+        JsonElement id = record != null ? record.get("id") : null;
+        return id != null && !id.isJsonNull() ? channel.topic + ":" + id.getAsString() : null;
+    }
+
+    /**
+     * The newer change wins, except that an INSERT followed by an UPDATE is still an INSERT
+     * (with the updated row) for listeners that ignore updates to rows they don't know.
+     */
+    private static JsonObject collapse(JsonObject pending, JsonObject incoming) {
+        if (!"INSERT".equalsIgnoreCase(RealtimePayloadUtil.getEventType(pending))
+                || !"UPDATE".equalsIgnoreCase(RealtimePayloadUtil.getEventType(incoming))) {
+            return incoming;
+        }
+        JsonObject merged = incoming.deepCopy();
+        for (String field : new String[] {"eventType", "type"}) {
+            if (merged.has(field)) {
+                merged.addProperty(field, "INSERT");
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,46 @@
+package com.fp.foodorderingsystem.services;
+
+import java.util.Locale;
+
+/**
+ * Snapshot of the shared realtime connection's health, from
+ * {@link SupabaseRealtimeClient#getHealth()}.
+ *
+ * Round-trip times come from heartbeat replies (matched by ref) over the last
+ * {@code rttSamples} heartbeats; they are 0 until the first reply.
+ */
+public final class RealtimeHealth {
+    public boolean connected;
+    public int channels;
+    public int joinedChannels;
+    public long reconnects;
+    /** Connections dropped because heartbeat replies stopped arriving. */
+    public long deadConnections;
+    /** Heartbeats sent since the last reply on the current connection. */
+    public int missedHeartbeats;
+    public int rttSamples;
+    public long rttLastMs;
+    public long rttP50Ms;
+    public long rttP95Ms;
+    public long rttMaxMs;
+    /** Changes received per second, averaged over the last few seconds. */
+    public double eventsPerSecond;
+    public long totalEvents;
+    public RealtimeDispatcher.Metrics dispatch;
+
+    @Override
+    public String toString() {
+        return "RealtimeHealth{" +
+                "connected=" + connected +
+                ", channels=" + joinedChannels + "/" + channels +
+                ", reconnects=" + reconnects +
+                ", deadConnections=" + deadConnections +
+                ", missedHeartbeats=" + missedHeartbeats +
+                ", rttMs=" + rttLastMs + " (p50 " + rttP50Ms + ", p95 " + rttP95Ms + ", max " + rttMaxMs +
+                ", n=" + rttSamples + ")" +
+                ", eventsPerSecond=" + String.format(Locale.US, "%.1f", eventsPerSecond) +
+                ", totalEvents=" + totalEvents +
+                ", dispatch=" + dispatch +
+                '}';
+    }
+}
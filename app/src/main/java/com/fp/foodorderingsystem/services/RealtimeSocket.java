@@ -0,0 +1,862 @@
+package com.fp.foodorderingsystem.services;
+
+import android.content.Context;
+import android.util.Log;
+import com.fp.foodorderingsystem.config.SupabaseConfig;
+import com.fp.foodorderingsystem.utils.DateUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
+import com.fp.foodorderingsystem.utils.PreferenceUtil;
+import com.fp.foodorderingsystem.utils.RealtimePayloadUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.ByteString;
+
+/**
+ * The app's single Supabase Realtime WebSocket, multiplexing every subscribed
+ * {@code realtime:<schema>:<table>} topic as a Phoenix channel.
+ *
+ * A channel is one table plus an optional postgres_changes event type and row filter (for
+ * example {@code customer_id=eq.<uid>}), so the server only sends the rows a screen wants.
+ * Each distinct configuration gets its own topic. Subscriptions with the same configuration
+ * share one channel (Phoenix allows one join per topic per socket). Join replies are matched by join ref, and change messages are routed by topic. The
+ * socket opens with the first subscription and closes when the last one leaves. There is one
+ * heartbeat for all channels.
+ *
+ * If the connection drops while channels are subscribed, it reconnects with full-jitter
+ * exponential backoff and rejoins every topic. A join not acknowledged within
+ * {@link #JOIN_TIMEOUT_MS} is sent again. Each channel tracks the newest {@code updated_at}
+ * it has delivered. After a rejoin, the rows changed since then are fetched over REST and
+ * replayed to the listeners as INSERT (created since) or UPDATE payloads, so screens don't
+ * need a full reload. Deletes can't be replayed. This catch-up needs
+ * {@link SupabaseRealtimeClient#init(Context)}.
+ *
+ * Heartbeat replies are matched by ref to measure round-trip time. After
+ * {@link #MAX_MISSED_HEARTBEATS} heartbeats go unanswered the connection is treated as dead,
+ * dropped and reconnected, instead of waiting for TCP to notice. {@link #getHealth()} reports
+ * RTT percentiles, reconnects and event rate.
+ *
+ * The reader thread only parses frames and tracks joins. Changes and lifecycle callbacks
+ * (onOpen, onError) are handed to a {@link RealtimeDispatcher}, and listeners are called on
+ * its single dispatch thread, in order.
+ */
+final class RealtimeSocket {
+    private static final String TAG = "RealtimeSocket";
+    private static final long HEARTBEAT_SECONDS = 20;
+    static final int MAX_MISSED_HEARTBEATS = 2;
+    private static final int RTT_SAMPLE_COUNT = 64;
+    private static final int EVENT_RATE_WINDOW_SECONDS = 10;
+    static final long JOIN_TIMEOUT_MS = 10_000;
+    private static final long RECONNECT_MIN_DELAY_MS = 500;
+    // Only the backoff math is used; attempts are unbounded while anyone is subscribed
+    private static final RetryPolicy RECONNECT_BACKOFF = new RetryPolicy(Integer.MAX_VALUE, 1000, 30_000, 0, 1, 0);
+    // Covers clock skew between the device and the database when no event has been seen yet
+    private static final long WATERMARK_SAFETY_MS = 5_000;
+    private static final int CATCH_UP_PAGE_SIZE = 200;
+    private static final int CATCH_UP_MAX_PAGES = 10;
+
+    private static final RealtimeSocket INSTANCE =
+        new RealtimeSocket(SupabaseConfig.SUPABASE_URL, SupabaseConfig.SUPABASE_ANON_KEY, null);
+
+    /**
+     * One local listener on a channel. Returned by {@link #subscribe}, passed back to {@link #unsubscribe}.
+     */
+    static final class Subscription {
+        final Channel channel;
+        final SupabaseRealtimeClient.RealtimeListener listener;
+
+        Subscription(Channel channel, SupabaseRealtimeClient.RealtimeListener listener) {
+            this.channel = channel;
+            this.listener = listener;
+        }
+    }
+
+    static final class Channel {
+        final String topic;
+        final String schema;
+        final String table;
+        final String event;
+        final String filter;
+        final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        // Guarded by the socket lock
+        String joinRef;
+        boolean joined;
+        boolean needsCatchUp;
+        boolean catchUpSupported = true;
+        long watermarkEpoch;
+        String watermark;
+
+        Channel(String schema, String table, String event, String filter) {
+            this.schema = schema;
+            this.table = table;
+            this.event = event;
+            this.filter = filter;
+            this.topic = topicFor(schema, table, event, filter);
+        }
+    }
+
+    private final String baseUrl;
+    private final String apiKey;
+    // Null: the shared NetworkStack realtime client
+    private final WebSocket.Factory socketFactory;
+    private final Object lock = new Object();
+    private final Gson gson = GsonProvider.get();
+    private final AtomicInteger refCounter = new AtomicInteger(1);
+    private final RealtimeDispatcher dispatcher = new RealtimeDispatcher(this::deliver);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "realtime-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Guarded by lock
+    private final Map<String, Channel> channelsByTopic = new HashMap<>();
+    private final Map<String, Channel> channelsByJoinRef = new HashMap<>();
+    private WebSocket webSocket;
+    private boolean open;
+    private ScheduledFuture<?> heartbeatTask;
+    private ScheduledFuture<?> reconnectTask;
+    private int reconnectAttempt;
+    private long reconnectCount;
+    private String pendingHeartbeatRef;
+    private long pendingHeartbeatSentNanos;
+    private int missedHeartbeats;
+    private long deadConnections;
+    private final long[] rttSamplesMs = new long[RTT_SAMPLE_COUNT];
+    private int rttSampleCount;
+    private int rttSampleNext;
+    private long rttLastMs;
+    private final long[] eventBucketSecond = new long[EVENT_RATE_WINDOW_SECONDS + 1];
+    private final long[] eventBucketCount = new long[EVENT_RATE_WINDOW_SECONDS + 1];
+    private long totalEvents;
+
+    private volatile Context appContext;
+
+    /**
+     * Socket against another server, e.g. a local stand-in in tests. The app uses {@link #get()}.
+     */
+    RealtimeSocket(String baseUrl, String apiKey, WebSocket.Factory socketFactory) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.socketFactory = socketFactory;
+    }
+
+    static RealtimeSocket get() {
+        return INSTANCE;
+    }
+
+    void init(Context context) {
+        appContext = context.getApplicationContext();
+    }
+
+    Subscription subscribe(String schema, String table, String event, String filter,
+                           SupabaseRealtimeClient.RealtimeListener listener) {
+        String changeEvent = event == null || event.isEmpty() ? "*" : event.toUpperCase(Locale.US);
+        String rowFilter = filter == null || filter.trim().isEmpty() ? null : filter.trim();
+        Subscription subscription;
+        boolean alreadyJoined;
+        synchronized (lock) {
+            String topic = topicFor(schema, table, changeEvent, rowFilter);
+            Channel channel = channelsByTopic.get(topic);
+            boolean newChannel = channel == null;
+            if (newChannel) {
+                channel = new Channel(schema, table, changeEvent, rowFilter);
+                channelsByTopic.put(topic, channel);
+            }
+            subscription = new Subscription(channel, listener);
+            channel.subscriptions.add(subscription);
+            alreadyJoined = channel.joined;
+
+            if (webSocket == null && reconnectTask == null) {
+                if (!connect()) {
+                    channel.subscriptions.remove(subscription);
+                    if (channel.subscriptions.isEmpty()) {
+                        channelsByTopic.remove(topic);
+                    }
+                    subscription = null;
+                }
+            } else if (open && newChannel) {
+                sendJoin(channel);
+            }
+        }
+        if (subscription == null) {
+            if (listener != null) {
+                notifyError(listener, "Invalid Supabase URL configuration.");
+            }
+            return null;
+        }
+        if (alreadyJoined && listener != null) {
+            notifyOpen(listener);
+        }
+        return subscription;
+    }
+
+    void unsubscribe(Subscription subscription) {
+        if (subscription == null) {
+            return;
+        }
+        synchronized (lock) {
+            Channel channel = subscription.channel;
+            channel.subscriptions.remove(subscription);
+            if (!channel.subscriptions.isEmpty() || channelsByTopic.get(channel.topic) != channel) {
+                return;
+            }
+            channelsByTopic.remove(channel.topic);
+            if (channel.joinRef != null) {
+                channelsByJoinRef.remove(channel.joinRef);
+            }
+            if (open && channel.joined) {
+                sendMessage(channel.topic, "phx_leave", new JsonObject(), nextRef(), channel.joinRef);
+            }
+            if (channelsByTopic.isEmpty()) {
+                close();
+            }
+        }
+    }
+
+    int getChannelCount() {
+        synchronized (lock) {
+            return channelsByTopic.size();
+        }
+    }
+
+    boolean isConnected() {
+        synchronized (lock) {
+            return open;
+        }
+    }
+
+    long getReconnectCount() {
+        synchronized (lock) {
+            return reconnectCount;
+        }
+    }
+
+    RealtimeDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    RealtimeHealth getHealth() {
+        RealtimeHealth health = new RealtimeHealth();
+        long[] samples;
+        synchronized (lock) {
+            health.connected = open;
+            health.channels = channelsByTopic.size();
+            for (Channel channel : channelsByTopic.values()) {
+                if (channel.joined) health.joinedChannels++;
+            }
+            health.reconnects = reconnectCount;
+            health.deadConnections = deadConnections;
+            health.missedHeartbeats = missedHeartbeats;
+            health.rttLastMs = rttLastMs;
+            health.totalEvents = totalEvents;
+            health.eventsPerSecond = eventsPerSecondLocked(System.currentTimeMillis() / 1000);
+            samples = Arrays.copyOf(rttSamplesMs, rttSampleCount);
+        }
+        Arrays.sort(samples);
+        health.rttSamples = samples.length;
+        if (samples.length > 0) {
+            health.rttP50Ms = samples[(samples.length - 1) / 2];
+            health.rttP95Ms = samples[(int) Math.ceil(samples.length * 0.95) - 1];
+            health.rttMaxMs = samples[samples.length - 1];
+        }
+        health.dispatch = dispatcher.getMetrics();
+        return health;
+    }
+
+    // Must hold lock
+    private boolean connect() {
+        HttpUrl base = HttpUrl.parse(baseUrl);
+        if (base == null) {
+            Log.e(TAG, "Invalid Supabase URL: " + baseUrl);
+            return false;
+        }
+        HttpUrl url = base.newBuilder()
+            .addPathSegments("realtime/v1/websocket")
+            .addQueryParameter("apikey", apiKey)
+            .addQueryParameter("vsn", "1.0.0")
+            .build();
+        Request request = new Request.Builder()
+            .url(url.toString().replaceFirst("^http", "ws"))
+            .addHeader("Accept", "application/json")
+            .build();
+
+        WebSocket.Factory factory = socketFactory != null ? socketFactory : NetworkStack.get().getRealtimeClient();
+        webSocket = factory.newWebSocket(request, new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket socket, Response response) {
+                handleOpen(socket);
+            }
+
+            @Override
+            public void onMessage(WebSocket socket, String text) {
+                handleMessage(socket, text);
+            }
+
+            @Override
+            public void onMessage(WebSocket socket, ByteString bytes) {
+                // Not expecting binary messages, but handle gracefully
+                handleMessage(socket, bytes.utf8());
+            }
+
+            @Override
+            public void onFailure(WebSocket socket, Throwable t, Response response) {
+                Log.e(TAG, "Realtime connection error", t);
+                handleClosed(socket, t.getMessage());
+            }
+
+            @Override
+            public void onClosed(WebSocket socket, int code, String reason) {
+                handleClosed(socket, "Connection closed: " + code + " " + reason);
+            }
+        });
+        return true;
+    }
+
+    // Must hold lock
+    private void close() {
+        stopHeartbeat();
+        if (reconnectTask != null) {
+            reconnectTask.cancel(false);
+            reconnectTask = null;
+        }
+        reconnectAttempt = 0;
+        if (webSocket != null) {
+            try {
+                webSocket.close(1000, "Client closing");
+            } catch (Exception e) {
+                Log.w(TAG, "Error closing realtime socket", e);
+            }
+        }
+        webSocket = null;
+        open = false;
+    }
+
+    private void handleOpen(WebSocket socket) {
+        synchronized (lock) {
+            if (socket != webSocket) {
+                return;
+            }
+            open = true;
+            pendingHeartbeatRef = null;
+            missedHeartbeats = 0;
+            for (Channel channel : channelsByTopic.values()) {
+                sendJoin(channel);
+            }
+            startHeartbeat();
+        }
+    }
+
+    private void handleClosed(WebSocket socket, String error) {
+        List<Subscription> affected = new ArrayList<>();
+        boolean wasOpen;
+        synchronized (lock) {
+            if (socket != webSocket) {
+                return; // stale socket, or closed by us
+            }
+            wasOpen = open;
+            stopHeartbeat();
+            webSocket = null;
+            open = false;
+            channelsByJoinRef.clear();
+            for (Channel channel : channelsByTopic.values()) {
+                if (channel.joined || channel.watermark != null) {
+                    channel.needsCatchUp = true;
+                }
+                channel.joined = false;
+                channel.joinRef = null;
+                affected.addAll(channel.subscriptions);
+            }
+            if (!channelsByTopic.isEmpty()) {
+                scheduleReconnect();
+            }
+        }
+        // Report each outage once, not every failed reconnect attempt
+        if (wasOpen) {
+            for (Subscription subscription : affected) {
+                if (subscription.listener != null) {
+                    notifyError(subscription.listener, error != null ? error : "Realtime connection lost");
+                }
+            }
+        }
+    }
+
+    // Must hold lock
+    private void scheduleReconnect() {
+        if (reconnectTask != null) {
+            return;
+        }
+        long delay = Math.max(RECONNECT_MIN_DELAY_MS,
+            RECONNECT_BACKOFF.backoffMs(reconnectAttempt, ThreadLocalRandom.current().nextDouble()));
+        reconnectAttempt++;
+        Log.d(TAG, "Reconnecting in " + delay + "ms (attempt " + reconnectAttempt + ")");
+        reconnectTask = scheduler.schedule(() -> {
+            synchronized (lock) {
+                reconnectTask = null;
+                if (webSocket != null || channelsByTopic.isEmpty()) {
+                    return;
+                }
+                reconnectCount++;
+                connect();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void handleMessage(WebSocket socket, String text) {
+        try {
+            JsonObject message = gson.fromJson(text, JsonObject.class);
+            if (message == null || !message.has("event") || !message.has("topic")) {
+                return;
+            }
+            String topic = message.get("topic").getAsString();
+            String event = message.get("event").getAsString();
+            JsonObject payload = message.has("payload") && message.get("payload").isJsonObject()
+                ? message.getAsJsonObject("payload") : null;
+
+            switch (event) {
+                case "phx_reply":
+                    handleReply(socket, topic, stringOrNull(message.get("ref")), payload);
+                    break;
+                case "postgres_changes":
+                    if (payload != null) {
+                        // Realtime v2 wraps the change in "data"; listeners read the record fields directly
+                        JsonElement data = payload.get("data");
+                        dispatchChange(topic, data != null && data.isJsonObject() ? data.getAsJsonObject() : payload);
+                    }
+                    break;
+                case "phx_error":
+                case "phx_close":
+                    handleChannelClosed(topic, "phx_error".equals(event));
+                    break;
+                default:
+                    break;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to parse realtime message: " + text, e);
+        }
+    }
+
+    private void handleReply(WebSocket socket, String topic, String ref, JsonObject payload) {
+        Channel channel;
+        boolean ok;
+        boolean catchUp;
+        synchronized (lock) {
+            if (socket != webSocket || ref == null) {
+                return;
+            }
+            if (ref.equals(pendingHeartbeatRef)) {
+                rttLastMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pendingHeartbeatSentNanos);
+                rttSamplesMs[rttSampleNext] = rttLastMs;
+                rttSampleNext = (rttSampleNext + 1) % RTT_SAMPLE_COUNT;
+                rttSampleCount = Math.min(rttSampleCount + 1, RTT_SAMPLE_COUNT);
+                pendingHeartbeatRef = null;
+                missedHeartbeats = 0;
+                return;
+            }
+            channel = channelsByJoinRef.get(ref);
+            if (channel == null || !channel.topic.equals(topic)) {
+                return; // leave reply
+            }
+            ok = payload != null && payload.has("status") && "ok".equals(payload.get("status").getAsString());
+            channel.joined = ok;
+            catchUp = ok && channel.needsCatchUp;
+            if (ok) {
+                channel.needsCatchUp = false;
+                reconnectAttempt = 0;
+                if (channel.watermark == null) {
+                    channel.watermarkEpoch = System.currentTimeMillis() - WATERMARK_SAFETY_MS;
+                    channel.watermark = formatTimestamp(channel.watermarkEpoch);
+                }
+            }
+        }
+        for (Subscription subscription : channel.subscriptions) {
+            if (subscription.listener == null) continue;
+            if (ok) {
+                notifyOpen(subscription.listener);
+            } else {
+                notifyError(subscription.listener, "Failed to join " + topic + ": " + payload);
+            }
+        }
+        if (catchUp) {
+            ServiceExecutor.getInstance().read(() -> catchUp(channel));
+        }
+    }
+
+    private void dispatchChange(String topic, JsonObject change) {
+        Channel channel;
+        synchronized (lock) {
+            recordEventLocked();
+            channel = channelsByTopic.get(topic);
+            if (channel != null) {
+                advanceWatermark(channel, change);
+            }
+        }
+        if (channel == null) {
+            return;
+        }
+        dispatcher.enqueue(channel, change);
+    }
+
+    private void notifyOpen(SupabaseRealtimeClient.RealtimeListener listener) {
+        dispatcher.enqueueCallback(listener::onOpen);
+    }
+
+    private void notifyError(SupabaseRealtimeClient.RealtimeListener listener, String error) {
+        dispatcher.enqueueCallback(() -> listener.onError(error));
+    }
+
+    // Runs on the dispatch thread
+    private void deliver(Channel channel, JsonObject change) {
+        // Reloads triggered by this change must not join a list GET sent before it
+        Context context = appContext;
+        if (context != null) {
+            SupabaseService.getInstance(context).invalidateSharedFetches(channel.table);
+        }
+        // Keep the shared order index fresh once per change, before screens react to it
+        if ("orders".equals(channel.table)) {
+            OrderRepository.get().applyRealtimeChange(change);
+        }
+        for (Subscription subscription : channel.subscriptions) {
+            if (subscription.listener != null) {
+                subscription.listener.onChange(change);
+            }
+        }
+    }
+
+    // Must hold lock
+    private void advanceWatermark(Channel channel, JsonObject change) {
+        JsonObject record = RealtimePayloadUtil.getNewRecord(change);
+        String candidate = null;
+        if (record != null && record.has("updated_at") && !record.get("updated_at").isJsonNull()) {
+            candidate = record.get("updated_at").getAsString();
+        } else if (change.has("commit_timestamp") && !change.get("commit_timestamp").isJsonNull()) {
+            candidate = change.get("commit_timestamp").getAsString();
+        }
+        long epoch = DateUtil.parseTimestamp(candidate);
+        if (epoch > channel.watermarkEpoch) {
+            channel.watermarkEpoch = epoch;
+            channel.watermark = candidate;
+        }
+    }
+
+    /**
+     * Replay rows changed while the channel was down. Runs on a worker thread.
+     *
+     * Rows created after the watermark are replayed as INSERT, the rest as UPDATE, so
+     * listeners that ignore updates to unknown rows still pick up new ones. Pages are keyed
+     * on (updated_at, id), so rows sharing one updated_at across a page boundary aren't skipped.
+     */
+    private void catchUp(Channel channel) {
+        Context context = appContext;
+        if ("DELETE".equals(channel.event)) {
+            return; // deleted rows can't be fetched
+        }
+        String since;
+        long sinceEpoch;
+        synchronized (lock) {
+            if (!channel.catchUpSupported || channel.watermark == null || channelsByTopic.get(channel.topic) != channel) {
+                return;
+            }
+            since = channel.watermark;
+            sinceEpoch = channel.watermarkEpoch;
+        }
+        if (context == null) {
+            Log.w(TAG, "Skipping catch-up for " + channel.table + ": SupabaseRealtimeClient.init was not called");
+            return;
+        }
+
+        SupabaseService supabaseService = SupabaseService.getInstance(context);
+        String accessToken = new PreferenceUtil(context).getAccessToken();
+        int replayed = 0;
+        try {
+            String lastUpdatedAt = null;
+            String lastId = null;
+            for (int page = 0; page < CATCH_UP_MAX_PAGES; page++) {
+                PostgrestQuery query = PostgrestQuery.from(channel.table);
+                if (lastUpdatedAt == null) {
+                    query.gt("updated_at", since);
+                } else {
+                    query.after("updated_at", lastUpdatedAt, "id", lastId);
+                }
+                query.order("updated_at", true)
+                    .order("id", true)
+                    .limit(CATCH_UP_PAGE_SIZE);
+                if (channel.filter != null && !applyFilter(query, channel.filter)) {
+                    Log.w(TAG, "Skipping catch-up for " + channel.topic + ": unrecognised filter");
+                    return;
+                }
+                Request request = (accessToken != null && !accessToken.isEmpty()
+                        ? supabaseService.createAuthenticatedRequest(query, accessToken)
+                        : supabaseService.createRequest(query))
+                    .get()
+                    .build();
+
+                JsonArray rows;
+                try (Response response = supabaseService.executeRequest(request)) {
+                    String body = response.body() != null ? response.body().string() : "";
+                    if (response.code() == 400) {
+                        // Table has no updated_at column; nothing to catch up from
+                        Log.w(TAG, "Catch-up unsupported for " + channel.table + ": " + NetworkTelemetry.preview(body, 200));
+                        synchronized (lock) {
+                            channel.catchUpSupported = false;
+                        }
+                        return;
+                    }
+                    if (!response.isSuccessful()) {
+                        Log.w(TAG, "Catch-up for " + channel.table + " failed: " + response.code());
+                        return;
+                    }
+                    rows = gson.fromJson(body, JsonArray.class);
+                }
+                if (rows == null || rows.size() == 0) {
+                    break;
+                }
+                for (JsonElement row : rows) {
+                    if (!row.isJsonObject()) continue;
+                    JsonObject record = row.getAsJsonObject();
+                    lastUpdatedAt = stringOrNull(record.get("updated_at"));
+                    lastId = stringOrNull(record.get("id"));
+                    JsonObject change = catchUpChange(channel, record, sinceEpoch);
+                    if (change == null) continue;
+                    synchronized (lock) {
+                        if (channelsByTopic.get(channel.topic) != channel) {
+                            return; // unsubscribed meanwhile
+                        }
+                        advanceWatermark(channel, change);
+                    }
+                    dispatcher.enqueue(channel, change);
+                    replayed++;
+                }
+                if (rows.size() < CATCH_UP_PAGE_SIZE || lastUpdatedAt == null || lastId == null) {
+                    break;
+                }
+            }
+            Log.d(TAG, "Caught up " + replayed + " " + channel.table + " rows since reconnect");
+        } catch (Exception e) {
+            Log.w(TAG, "Catch-up for " + channel.table + " failed", e);
+        }
+    }
+
+    /**
+     * Replay payload for a fetched row, or null when the channel doesn't take that event type.
+     */
+    private static JsonObject catchUpChange(Channel channel, JsonObject row, long sinceEpoch) {
+        long createdAt = DateUtil.parseTimestamp(stringOrNull(row.get("created_at")));
+        String type = createdAt > sinceEpoch && !"UPDATE".equals(channel.event) ? "INSERT" : "UPDATE";
+        if ("INSERT".equals(channel.event) && !"INSERT".equals(type)) {
+            return null;
+        }
+        JsonObject change = new JsonObject();
+        change.addProperty("schema", channel.schema);
+        change.addProperty("table", channel.table);
+        change.addProperty("type", type);
+        change.addProperty("eventType", type);
+        change.add("record", row);
+        change.add("new", row);
+        change.addProperty("catch_up", true);
+        return change;
+    }
+
+    private void handleChannelClosed(String topic, boolean error) {
+        Channel channel;
+        synchronized (lock) {
+            channel = channelsByTopic.get(topic);
+            if (channel == null) {
+                return;
+            }
+            channel.joined = false;
+            if (error && open) {
+                // Server-side channel crash; rejoin and catch up, the socket itself is fine
+                channel.needsCatchUp = true;
+                sendJoin(channel);
+            }
+        }
+        if (error) {
+            for (Subscription subscription : channel.subscriptions) {
+                if (subscription.listener != null) {
+                    notifyError(subscription.listener, "Channel " + topic + " errored");
+                }
+            }
+        }
+    }
+
+    // Must hold lock
+    private void sendJoin(Channel channel) {
+        JsonObject changeConfig = new JsonObject();
+        changeConfig.addProperty("event", channel.event);
+        changeConfig.addProperty("schema", channel.schema);
+        changeConfig.addProperty("table", channel.table);
+        if (channel.filter != null) {
+            changeConfig.addProperty("filter", channel.filter);
+        }
+
+        JsonArray changes = new JsonArray();
+        changes.add(changeConfig);
+
+        JsonObject config = new JsonObject();
+        config.add("postgres_changes", changes);
+
+        JsonObject payload = new JsonObject();
+        payload.add("config", config);
+
+        if (channel.joinRef != null) {
+            channelsByJoinRef.remove(channel.joinRef);
+        }
+        String joinRef = nextRef();
+        channel.joinRef = joinRef;
+        channel.joined = false;
+        channelsByJoinRef.put(joinRef, channel);
+        sendMessage(channel.topic, "phx_join", payload, joinRef, joinRef);
+
+        // No phx_reply in time: send the join again on the same socket
+        scheduler.schedule(() -> {
+            synchronized (lock) {
+                if (open && joinRef.equals(channel.joinRef) && !channel.joined
+                        && channelsByTopic.get(channel.topic) == channel) {
+                    Log.w(TAG, "Join of " + channel.topic + " not acknowledged; retrying");
+                    sendJoin(channel);
+                }
+            }
+        }, JOIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    void sendHeartbeat() {
+        WebSocket dead = null;
+        synchronized (lock) {
+            if (!open) {
+                return;
+            }
+            if (pendingHeartbeatRef != null && ++missedHeartbeats >= MAX_MISSED_HEARTBEATS) {
+                Log.w(TAG, missedHeartbeats + " heartbeats unanswered; dropping the connection");
+                deadConnections++;
+                dead = webSocket;
+            } else {
+                pendingHeartbeatRef = nextRef();
+                pendingHeartbeatSentNanos = System.nanoTime();
+                sendMessage("phoenix", "heartbeat", new JsonObject(), pendingHeartbeatRef, null);
+            }
+        }
+        if (dead != null) {
+            dead.cancel();
+            handleClosed(dead, "Realtime heartbeat timed out");
+        }
+    }
+
+    // Must hold lock
+    private void recordEventLocked() {
+        totalEvents++;
+        long second = System.currentTimeMillis() / 1000;
+        int bucket = (int) (second % eventBucketCount.length);
+        if (eventBucketSecond[bucket] != second) {
+            eventBucketSecond[bucket] = second;
+            eventBucketCount[bucket] = 0;
+        }
+        eventBucketCount[bucket]++;
+    }
+
+    // Must hold lock. Averages the last complete seconds; the current one is still filling.
+    private double eventsPerSecondLocked(long nowSecond) {
+        long events = 0;
+        for (int i = 0; i < eventBucketCount.length; i++) {
+            long second = eventBucketSecond[i];
+            if (second < nowSecond && second >= nowSecond - EVENT_RATE_WINDOW_SECONDS) {
+                events += eventBucketCount[i];
+            }
+        }
+        return events / (double) EVENT_RATE_WINDOW_SECONDS;
+    }
+
+    // Must hold lock
+    private void sendMessage(String topic, String event, JsonObject payload, String ref, String joinRef) {
+        if (webSocket == null) {
+            return;
+        }
+        JsonObject message = new JsonObject();
+        message.addProperty("topic", topic);
+        message.addProperty("event", event);
+        message.add("payload", payload);
+        message.addProperty("ref", ref);
+        if (joinRef != null) {
+            message.addProperty("join_ref", joinRef);
+        }
+        webSocket.send(message.toString());
+    }
+
+    // Must hold lock
+    private void startHeartbeat() {
+        stopHeartbeat();
+        heartbeatTask = scheduler.scheduleAtFixedRate(
+            this::sendHeartbeat,
+            HEARTBEAT_SECONDS,
+            HEARTBEAT_SECONDS,
+            TimeUnit.SECONDS
+        );
+    }
+
+    // Must hold lock
+    private void stopHeartbeat() {
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
+        }
+        heartbeatTask = null;
+    }
+
+    private String nextRef() {
+        return String.valueOf(refCounter.getAndIncrement());
+    }
+
+    private static String topicFor(String schema, String table, String event, String filter) {
+        String topic = "realtime:" + schema + ":" + table;
+        if (!"*".equals(event)) {
+            topic += ":" + event.toLowerCase(Locale.US);
+        }
+        if (filter != null) {
+            topic += ":" + filter;
+        }
+        return topic;
+    }
+
+    /**
+     * Translate a realtime filter ({@code column=op.value}) to the same PostgREST filter.
+     */
+    private static boolean applyFilter(PostgrestQuery query, String filter) {
+        int equals = filter.indexOf('=');
+        int dot = equals > 0 ? filter.indexOf('.', equals) : -1;
+        if (dot < 0) {
+            return false;
+        }
+        query.filter(filter.substring(0, equals), filter.substring(equals + 1, dot), filter.substring(dot + 1));
+        return true;
+    }
+
+    private static String formatTimestamp(long epochMillis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(epochMillis));
+    }
+
+    private static String stringOrNull(JsonElement element) {
+        return element != null && !element.isJsonNull() ? element.getAsString() : null;
+    }
+}
@@ -2,6 +2,7 @@ package com.fp.foodorderingsystem.services;
 
 import android.util.Log;
 import com.fp.foodorderingsystem.models.User;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import java.util.ArrayList;
@@ -47,7 +48,7 @@ public class RealtimeUserManager {
     public RealtimeUserManager(UserService userService) {
         this.userService = userService;
         this.realtimeClient = new SupabaseRealtimeClient();
-        this.gson = new Gson();
+        this.gson = GsonProvider.get();
         this.cachedUsers = Collections.synchronizedList(new ArrayList<>());
         this.listListeners = new CopyOnWriteArrayList<>();
         this.eventListeners = new CopyOnWriteArrayList<>();
@@ -0,0 +1,122 @@
+package com.fp.foodorderingsystem.services;
+
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-flight execution keyed by request identity.
+ *
+ * The first caller for a key (the leader) runs the load on its own thread. Callers that
+ * arrive while it is in flight register a listener and return immediately, so they do
+ * not hold a worker thread. Every listener is invoked with the leader's result once it
+ * completes. Nothing is cached after completion; the next call starts a new flight.
+ *
+ * Each key belongs to a scope (the table). {@link #invalidate(String)} bumps the scope's
+ * generation: flights started before it still finish for their own callers, but later
+ * callers start a new flight instead of joining one whose response may predate the change.
+ */
+final class RequestCoalescer {
+    private static final String TAG = "RequestCoalescer";
+
+    interface Loader<R> {
+        R load() throws Exception;
+    }
+
+    interface Listener<R> {
+        void onResult(R result, boolean leader);
+
+        void onFailure(Exception error);
+    }
+
+    // Guarded by inFlight
+    private final Map<String, Flight<?>> inFlight = new HashMap<>();
+    private final Map<String, Long> generations = new HashMap<>();
+    private final AtomicLong flights = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+
+    /**
+     * Stop new callers in {@code scope} from joining flights that are already in progress.
+     */
+    void invalidate(String scope) {
+        synchronized (inFlight) {
+            generations.put(scope, generationOf(scope) + 1);
+        }
+    }
+
+    <R> void execute(String key, String scope, Loader<R> loader, Listener<R> listener) {
+        Flight<R> flight;
+        synchronized (inFlight) {
+            long generation = generationOf(scope);
+            @SuppressWarnings("unchecked")
+            Flight<R> existing = (Flight<R>) inFlight.get(key);
+            if (existing != null && existing.generation == generation) {
+                existing.followers.add(listener);
+                joined.incrementAndGet();
+                return;
+            }
+            // A stale flight keeps running for its callers; this one replaces it for newcomers
+            flight = new Flight<>(generation);
+            inFlight.put(key, flight);
+        }
+        flights.incrementAndGet();
+
+        R result = null;
+        Exception error = null;
+        try {
+            result = loader.load();
+        } catch (Exception e) {
+            error = e;
+        }
+
+        List<Listener<R>> followers;
+        synchronized (inFlight) {
+            inFlight.remove(key, flight);
+            followers = flight.followers;
+        }
+
+        deliver(listener, result, error, true);
+        for (Listener<R> follower : followers) {
+            deliver(follower, result, error, false);
+        }
+    }
+
+    long getFlightCount() {
+        return flights.get();
+    }
+
+    long getJoinedCount() {
+        return joined.get();
+    }
+
+    // Must hold inFlight
+    private long generationOf(String scope) {
+        Long generation = generations.get(scope);
+        return generation != null ? generation : 0L;
+    }
+
+    private static <R> void deliver(Listener<R> listener, R result, Exception error, boolean leader) {
+        try {
+            if (error != null) {
+                listener.onFailure(error);
+            } else {
+                listener.onResult(result, leader);
+            }
+        } catch (RuntimeException e) {
+            // One caller's callback must not prevent the others from being notified
+            Log.e(TAG, "Coalesced callback failed", e);
+        }
+    }
+
+    private static final class Flight<R> {
+        final long generation;
+        final List<Listener<R>> followers = new ArrayList<>();
+
+        Flight(long generation) {
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.fp.foodorderingsystem.services;
+
+import android.util.Log;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor applying {@link RetryPolicy} to every Supabase call:
+ * exponential backoff with full jitter, a per-endpoint retry budget, and a per-endpoint
+ * circuit breaker that fails fast with {@link CircuitOpenException} while the backend
+ * is failing.
+ *
+ * Only idempotent requests are retried after a server error or timeout. Any request may
+ * be retried when the server states it did not process it (429, 503) or when the
+ * connection was never established.
+ */
+final class ResilienceInterceptor implements Interceptor {
+    private static final String TAG = "ResilienceInterceptor";
+    private static final long BUDGET_WINDOW_MS = 10_000;
+    private static final int MIN_RETRIES_PER_WINDOW = 3;
+
+    enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    private final Map<String, RetryPolicy> policies = new ConcurrentHashMap<>();
+    private final Map<String, EndpointState> endpoints = new ConcurrentHashMap<>();
+    private final Random random = new Random();
+
+    void setPolicy(String endpoint, RetryPolicy policy) {
+        if (policy == null) {
+            policies.remove(endpoint);
+        } else {
+            policies.put(endpoint, policy);
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String endpoint = NetworkTelemetry.endpointOf(request.url());
+        RetryPolicy policy = policyFor(endpoint);
+        EndpointState state = stateFor(endpoint);
+        boolean idempotent = isIdempotent(request);
+        state.onRequest(now());
+
+        for (int attempt = 1; ; attempt++) {
+            long waitMs = state.acquirePermit(policy, now());
+            if (waitMs > 0) {
+                throw new CircuitOpenException(endpoint, waitMs);
+            }
+
+            Response response = null;
+            IOException failure = null;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                // Release a HALF_OPEN probe, or the endpoint short-circuits forever
+                state.onFailure(policy, now());
+                throw e;
+            }
+
+            if (failure == null && !isServerFailure(response.code())) {
+                state.onSuccess();
+                return response;
+            }
+            state.onFailure(policy, now());
+
+            boolean safeToRepeat = idempotent
+                || (response != null && wasNotProcessed(response.code()))
+                || (failure != null && neverConnected(failure));
+            boolean retry = safeToRepeat
+                && attempt < policy.maxAttempts
+                && !chain.call().isCanceled()
+                && state.tryAcquireRetry(policy, now());
+            if (!retry) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+
+            long delayMs = retryAfterMs(response, policy);
+            if (delayMs < 0) {
+                delayMs = policy.backoffMs(attempt - 1, nextRandom());
+            }
+            if (response != null) {
+                response.close();
+            }
+            Log.w(TAG, endpoint + " attempt " + attempt + " failed ("
+                + (failure != null ? failure.getClass().getSimpleName() : "HTTP " + response.code())
+                + "), retrying in " + delayMs + "ms");
+            sleep(delayMs);
+        }
+    }
+
+    List<SupabaseService.EndpointHealth> getHealth() {
+        List<SupabaseService.EndpointHealth> result = new ArrayList<>();
+        for (Map.Entry<String, EndpointState> entry : endpoints.entrySet()) {
+            result.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        return result;
+    }
+
+    static boolean isIdempotent(Request request) {
+        switch (request.method()) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+            case "OPTIONS":
+                return true;
+            default:
+                if (request.header("Idempotency-Key") != null) {
+                    return true;
+                }
+                // PostgREST upserts converge to the same row no matter how often they run
+                String prefer = request.header("Prefer");
+                return prefer != null && prefer.contains("resolution=");
+        }
+    }
+
+    private static boolean isServerFailure(int code) {
+        return code == 408 || code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    private static boolean wasNotProcessed(int code) {
+        return code == 429 || code == 503;
+    }
+
+    private static boolean neverConnected(IOException e) {
+        return e instanceof ConnectException || e instanceof UnknownHostException;
+    }
+
+    private static long retryAfterMs(Response response, RetryPolicy policy) {
+        if (response == null) {
+            return -1;
+        }
+        String header = response.header("Retry-After");
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return Math.min(Long.parseLong(header.trim()) * 1000L, policy.maxDelayMs);
+        } catch (NumberFormatException e) {
+            return -1; // HTTP-date form; fall back to backoff
+        }
+    }
+
+    private RetryPolicy policyFor(String endpoint) {
+        RetryPolicy policy = policies.get(endpoint);
+        return policy != null ? policy : RetryPolicy.DEFAULT;
+    }
+
+    private EndpointState stateFor(String endpoint) {
+        EndpointState state = endpoints.get(endpoint);
+        if (state == null) {
+            EndpointState created = new EndpointState();
+            state = endpoints.putIfAbsent(endpoint, created);
+            if (state == null) {
+                state = created;
+            }
+        }
+        return state;
+    }
+
+    private double nextRandom() {
+        synchronized (random) {
+            return random.nextDouble();
+        }
+    }
+
+    private static void sleep(long delayMs) throws IOException {
+        if (delayMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000L;
+    }
+
+    /**
+     * Breaker and retry budget for one endpoint.
+     */
+    static final class EndpointState {
+        private CircuitState circuit = CircuitState.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probeInFlight;
+
+        private long windowStart;
+        private int windowRequests;
+        private int windowRetries;
+
+        private long requests;
+        private long failures;
+        private long retries;
+        private long shortCircuits;
+        private long circuitOpens;
+
+        synchronized void onRequest(long now) {
+            rollWindow(now);
+            windowRequests++;
+            requests++;
+        }
+
+        /**
+         * @return 0 if the call may proceed, otherwise how long the circuit stays open
+         */
+        synchronized long acquirePermit(RetryPolicy policy, long now) {
+            switch (circuit) {
+                case CLOSED:
+                    return 0;
+                case OPEN:
+                    long remaining = openedAt + policy.openDurationMs - now;
+                    if (remaining > 0) {
+                        shortCircuits++;
+                        return remaining;
+                    }
+                    circuit = CircuitState.HALF_OPEN;
+                    probeInFlight = true;
+                    return 0;
+                default:
+                    if (probeInFlight) {
+                        shortCircuits++;
+                        return Math.max(1, policy.openDurationMs / 4);
+                    }
+                    probeInFlight = true;
+                    return 0;
+            }
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            circuit = CircuitState.CLOSED;
+        }
+
+        synchronized void onFailure(RetryPolicy policy, long now) {
+            failures++;
+            consecutiveFailures++;
+            probeInFlight = false;
+            if (circuit == CircuitState.HALF_OPEN
+                || (circuit == CircuitState.CLOSED && consecutiveFailures >= policy.failureThreshold)) {
+                circuit = CircuitState.OPEN;
+                openedAt = now;
+                circuitOpens++;
+                Log.w(TAG, "Circuit opened after " + consecutiveFailures + " consecutive failures");
+            }
+        }
+
+        synchronized boolean tryAcquireRetry(RetryPolicy policy, long now) {
+            rollWindow(now);
+            int allowed = Math.max(MIN_RETRIES_PER_WINDOW, (int) (windowRequests * policy.retryBudgetRatio));
+            if (windowRetries >= allowed) {
+                return false;
+            }
+            windowRetries++;
+            retries++;
+            return true;
+        }
+
+        synchronized SupabaseService.EndpointHealth snapshot(String endpoint) {
+            SupabaseService.EndpointHealth health = new SupabaseService.EndpointHealth();
+            health.endpoint = endpoint;
+            health.circuitState = circuit.name();
+            health.consecutiveFailures = consecutiveFailures;
+            health.requests = requests;
+            health.failures = failures;
+            health.retries = retries;
+            health.shortCircuits = shortCircuits;
+            health.circuitOpens = circuitOpens;
+            return health;
+        }
+
+        private void rollWindow(long now) {
+            if (now - windowStart >= BUDGET_WINDOW_MS) {
+                windowStart = now;
+                windowRequests = 0;
+                windowRetries = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.fp.foodorderingsystem.services;
+
+/**
+ * Retry, backoff and circuit-breaker settings for one Supabase endpoint.
+ *
+ * Endpoints use the names from {@link NetworkTelemetry#endpointOf}, e.g. {@code orders},
+ * {@code auth/token} or {@code storage/profile-pictures}. Register overrides with
+ * {@link SupabaseService#setRetryPolicy(String, RetryPolicy)}; anything not registered
+ * uses {@link #DEFAULT}.
+ */
+public final class RetryPolicy {
+    /** Reads and idempotent writes: 3 attempts, 250 ms base backoff capped at 4 s. */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, 250, 4000, 0.2, 5, 15000);
+
+    /** Single attempt; the circuit breaker still applies. */
+    public static final RetryPolicy NO_RETRY = new RetryPolicy(1, 0, 0, 0, 5, 15000);
+
+    /** Total attempts including the first one. */
+    public final int maxAttempts;
+    public final long baseDelayMs;
+    public final long maxDelayMs;
+    /** Retries allowed per window as a fraction of requests (the endpoint's retry budget). */
+    public final double retryBudgetRatio;
+    /** Consecutive failures that open the circuit. */
+    public final int failureThreshold;
+    /** How long an open circuit fails fast before letting a probe through. */
+    public final long openDurationMs;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs,
+                       double retryBudgetRatio, int failureThreshold, long openDurationMs) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = Math.max(0, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+        this.retryBudgetRatio = Math.max(0, retryBudgetRatio);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMs = Math.max(0, openDurationMs);
+    }
+
+    /**
+     * Full-jitter exponential backoff: a random delay in [0, min(max, base * 2^retry)).
+     */
+    long backoffMs(int retry, double random) {
+        if (baseDelayMs == 0) {
+            return 0;
+        }
+        long ceiling = baseDelayMs << Math.min(retry, 16);
+        if (ceiling <= 0 || ceiling > maxDelayMs) {
+            ceiling = maxDelayMs;
+        }
+        return (long) (ceiling * random);
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{" +
+                "maxAttempts=" + maxAttempts +
+                ", baseDelayMs=" + baseDelayMs +
+                ", maxDelayMs=" + maxDelayMs +
+                ", retryBudgetRatio=" + retryBudgetRatio +
+                ", failureThreshold=" + failureThreshold +
+                ", openDurationMs=" + openDurationMs +
+                '}';
+    }
+}
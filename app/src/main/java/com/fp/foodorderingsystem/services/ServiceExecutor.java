@@ -0,0 +1,247 @@
+package com.fp.foodorderingsystem.services;
+
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Central scheduler for all service work.
+ *
+ * Replaces the per-call {@code new Thread(...)} pattern with three bounded pools:
+ * - READ: user-visible fetches (lists, detail screens)
+ * - WRITE: inserts, updates, deletes and auth calls
+ * - BACKGROUND: fire-and-forget work such as notifications
+ *
+ * Each lane has a fixed number of named worker threads and a bounded queue. Delayed work
+ * waits on one timer thread and only takes a lane worker once it is due.
+ */
+public class ServiceExecutor {
+    private static final String TAG = "ServiceExecutor";
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final int OVERFLOW_POOL_SIZE = 2;
+    private static final int OVERFLOW_QUEUE_CAPACITY = 32;
+
+    public enum Lane {
+        READ("svc-read", 4, 64, Process.THREAD_PRIORITY_DEFAULT),
+        WRITE("svc-write", 2, 32, Process.THREAD_PRIORITY_DEFAULT),
+        BACKGROUND("svc-bg", 2, 128, Process.THREAD_PRIORITY_BACKGROUND);
+
+        final String threadPrefix;
+        final int poolSize;
+        final int queueCapacity;
+        final int threadPriority;
+
+        Lane(String threadPrefix, int poolSize, int queueCapacity, int threadPriority) {
+            this.threadPrefix = threadPrefix;
+            this.poolSize = poolSize;
+            this.queueCapacity = queueCapacity;
+            this.threadPriority = threadPriority;
+        }
+    }
+
+    /**
+     * Point-in-time metrics for a single lane.
+     */
+    public static class LaneStats {
+        public Lane lane;
+        public int poolSize;
+        public int activeThreads;
+        public int queueDepth;
+        public int queueCapacity;
+        public long completedTasks;
+        public long submittedTasks;
+        public long overflowTasks;
+        public long droppedTasks;
+
+        @Override
+        public String toString() {
+            return "LaneStats{" +
+                    "lane=" + lane +
+                    ", poolSize=" + poolSize +
+                    ", activeThreads=" + activeThreads +
+                    ", queueDepth=" + queueDepth + "/" + queueCapacity +
+                    ", completedTasks=" + completedTasks +
+                    ", submittedTasks=" + submittedTasks +
+                    ", overflowTasks=" + overflowTasks +
+                    ", droppedTasks=" + droppedTasks +
+                    '}';
+        }
+    }
+
+    private static ServiceExecutor instance;
+
+    private final ThreadPoolExecutor[] pools;
+    private final AtomicLong[] submitted;
+    private final AtomicLong[] overflow;
+    private final AtomicLong[] dropped;
+    // Shared by all lanes for main-thread overflow; bounded so a storm can't spawn threads
+    private final ThreadPoolExecutor overflowPool;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "svc-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ServiceExecutor() {
+        Lane[] lanes = Lane.values();
+        pools = new ThreadPoolExecutor[lanes.length];
+        submitted = new AtomicLong[lanes.length];
+        overflow = new AtomicLong[lanes.length];
+        dropped = new AtomicLong[lanes.length];
+        for (Lane lane : lanes) {
+            submitted[lane.ordinal()] = new AtomicLong();
+            overflow[lane.ordinal()] = new AtomicLong();
+            dropped[lane.ordinal()] = new AtomicLong();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                lane.poolSize,
+                lane.poolSize,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(lane.queueCapacity),
+                new LaneThreadFactory(lane),
+                new OverflowHandler(lane)
+            );
+            pool.allowCoreThreadTimeOut(true);
+            pools[lane.ordinal()] = pool;
+        }
+        AtomicInteger overflowThreads = new AtomicInteger(1);
+        overflowPool = new ThreadPoolExecutor(
+            OVERFLOW_POOL_SIZE,
+            OVERFLOW_POOL_SIZE,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(OVERFLOW_QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "svc-overflow-" + overflowThreads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        overflowPool.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized ServiceExecutor getInstance() {
+        if (instance == null) {
+            instance = new ServiceExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * Run a user-visible fetch.
+     */
+    public void read(Runnable task) {
+        execute(Lane.READ, task);
+    }
+
+    /**
+     * Run a mutation (insert, update, delete, auth).
+     */
+    public void write(Runnable task) {
+        execute(Lane.WRITE, task);
+    }
+
+    /**
+     * Run fire-and-forget work that nobody is waiting on.
+     */
+    public void background(Runnable task) {
+        execute(Lane.BACKGROUND, task);
+    }
+
+    /**
+     * Run a task on a lane after a delay, without holding a lane worker while waiting.
+     */
+    public void schedule(Lane lane, Runnable task, long delayMs) {
+        timer.schedule(() -> execute(lane, task), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void execute(Lane lane, Runnable task) {
+        submitted[lane.ordinal()].incrementAndGet();
+        pools[lane.ordinal()].execute(task);
+    }
+
+    public int getQueueDepth(Lane lane) {
+        return pools[lane.ordinal()].getQueue().size();
+    }
+
+    public int getActiveThreadCount(Lane lane) {
+        return pools[lane.ordinal()].getActiveCount();
+    }
+
+    public LaneStats getStats(Lane lane) {
+        ThreadPoolExecutor pool = pools[lane.ordinal()];
+        LaneStats stats = new LaneStats();
+        stats.lane = lane;
+        stats.poolSize = pool.getPoolSize();
+        stats.activeThreads = pool.getActiveCount();
+        stats.queueDepth = pool.getQueue().size();
+        stats.queueCapacity = lane.queueCapacity;
+        stats.completedTasks = pool.getCompletedTaskCount();
+        stats.submittedTasks = submitted[lane.ordinal()].get();
+        stats.overflowTasks = overflow[lane.ordinal()].get();
+        stats.droppedTasks = dropped[lane.ordinal()].get();
+        return stats;
+    }
+
+    private static class LaneThreadFactory implements ThreadFactory {
+        private final Lane lane;
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        LaneThreadFactory(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(lane.threadPriority);
+                runnable.run();
+            }, lane.threadPrefix + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * When a lane's queue is full, run the task on the submitting thread if it is
+     * already a worker (nested calls such as createOrder -> saveOrderItems).
+     * The main thread must never block on network, so its task goes to the small shared
+     * overflow pool. If that is full too, the task is dropped and counted.
+     */
+    private class OverflowHandler implements RejectedExecutionHandler {
+        private final Lane lane;
+
+        OverflowHandler(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            overflow[lane.ordinal()].incrementAndGet();
+            Log.w(TAG, lane + " lane saturated (queue=" + executor.getQueue().size() + ")");
+            if (executor.isShutdown()) {
+                return;
+            }
+            if (Looper.getMainLooper().isCurrentThread()) {
+                try {
+                    overflowPool.execute(task);
+                } catch (RejectedExecutionException e) {
+                    dropped[lane.ordinal()].incrementAndGet();
+                    Log.e(TAG, lane + " lane and overflow pool saturated; dropping task");
+                }
+            } else {
+                task.run();
+            }
+        }
+    }
+}
@@ -1,204 +1,253 @@
 package com.fp.foodorderingsystem.services;
 
-import android.util.Log;
-import com.fp.foodorderingsystem.config.SupabaseConfig;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
+import android.content.Context;
+import com.fp.foodorderingsystem.utils.RealtimePayloadUtil;
 import com.google.gson.JsonObject;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
-import okhttp3.WebSocket;
-import okhttp3.WebSocketListener;
-import okio.ByteString;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Lightweight Supabase Realtime client using OkHttp WebSockets.
- * Listens for Postgres changes and forwards them to the provided listener.
+ * Lightweight Supabase Realtime client. Listens for Postgres changes and forwards them to the
+ * provided listeners.
+ *
+ * All clients share one WebSocket and heartbeat (see {@link RealtimeSocket}); each subscribed
+ * table is a channel on it. A client may subscribe to several tables, and {@link #disconnect()}
+ * leaves all of them. Subscribing again to a table the client already has replaces its listener.
+ *
+ * Pass an event type and a row filter to have the server drop everything else, e.g.
+ * <pre>
+ * client.subscribeToTable("public", "orders", SupabaseRealtimeClient.EVENT_ALL,
+ *     SupabaseRealtimeClient.eq("customer_id", userId), listener);
+ * </pre>
+ * Realtime supports one filter per subscription, with the operators eq, neq, lt, lte, gt, gte
+ * and in.
+ *
+ * For DELETE, Postgres puts only the primary key in old_record, so a filter on any other
+ * column never matches and the server drops the delete. Use {@link #subscribeToRows} for
+ * "my rows" subscriptions: it adds an unfiltered DELETE channel, and the listener matches
+ * each delete's id against the rows it holds. Reconnect catch-up can't replay deletes
+ * either, so reload when {@code onOpen} follows a reconnect.
+ *
+ * That DELETE channel receives the deletes of every user of the table. Listeners only see
+ * the deleted row's id, never other columns, and should drop ids they don't hold.
  */
 public class SupabaseRealtimeClient {
-    private static final String TAG = "SupabaseRealtimeClient";
-    private static final long HEARTBEAT_SECONDS = 20;
-    
+    public static final String EVENT_ALL = "*";
+    public static final String EVENT_INSERT = "INSERT";
+    public static final String EVENT_UPDATE = "UPDATE";
+    public static final String EVENT_DELETE = "DELETE";
+
     public interface RealtimeListener {
         void onOpen();
         void onChange(JsonObject payload);
         void onError(String error);
     }
-    
-    private final OkHttpClient okHttpClient;
-    private final Gson gson;
-    private final AtomicInteger refCounter = new AtomicInteger(1);
-    private ScheduledExecutorService heartbeatExecutor;
-    private WebSocket webSocket;
-    private RealtimeListener listener;
-    private String currentTopic;
-    
+
+    private final RealtimeSocket socket;
+    // Keyed by schema:table, plus schema:table:DELETE for subscribeToRows
+    private final Map<String, RealtimeSocket.Subscription> subscriptions = new LinkedHashMap<>();
+
     public SupabaseRealtimeClient() {
-        this.okHttpClient = new OkHttpClient.Builder()
-            .readTimeout(0, TimeUnit.MILLISECONDS)
-            .retryOnConnectionFailure(true)
-            .build();
-        this.gson = new Gson();
+        this(RealtimeSocket.get());
+    }
+
+    SupabaseRealtimeClient(RealtimeSocket socket) {
+        this.socket = socket;
+    }
+
+    /**
+     * Give the shared socket an application context, so it can fetch the rows missed while
+     * reconnecting. Without it, subscriptions still work but gaps are not caught up.
+     */
+    public static void init(Context context) {
+        RealtimeSocket.get().init(context);
+    }
+
+    /**
+     * Size the queue between the socket reader and the listeners, and choose what happens
+     * when it fills up. Defaults to {@value RealtimeDispatcher#DEFAULT_CAPACITY} and
+     * {@link RealtimeDispatcher.OverflowPolicy#COLLAPSE_BY_KEY}.
+     */
+    public static void configureDispatch(int capacity, RealtimeDispatcher.OverflowPolicy policy) {
+        RealtimeSocket.get().getDispatcher().configure(capacity, policy);
+    }
+
+    public static RealtimeDispatcher.Metrics getDispatchMetrics() {
+        return RealtimeSocket.get().getDispatcher().getMetrics();
+    }
+
+    /**
+     * Connection state, heartbeat RTT, reconnects and event rate of the shared socket.
+     */
+    public static RealtimeHealth getHealth() {
+        return RealtimeSocket.get().getHealth();
     }
-    
+
+    /**
+     * Realtime row filter {@code column=eq.value}.
+     */
+    public static String eq(String column, Object value) {
+        // Older call sites keep UUIDs wrapped in quotes; the filter wants them bare.
+        return column + "=eq." + String.valueOf(value).replace("\"", "").trim();
+    }
+
     public void subscribeToTable(String schema, String table, RealtimeListener listener) {
-        disconnect();
-        this.listener = listener;
-        this.currentTopic = "realtime:" + schema + ":" + table;
-        
-        HttpUrl baseUrl = HttpUrl.parse(SupabaseConfig.SUPABASE_URL);
-        if (baseUrl == null) {
-            Log.e(TAG, "Invalid Supabase URL: " + SupabaseConfig.SUPABASE_URL);
-            if (listener != null) {
-                listener.onError("Invalid Supabase URL configuration.");
+        subscribeToTable(schema, table, EVENT_ALL, null, listener);
+    }
+
+    /**
+     * Subscribe to one event type ({@link #EVENT_ALL} for all) of the rows matching
+     * {@code filter}, or of every row when the filter is null.
+     */
+    public void subscribeToTable(String schema, String table, String event, String filter, RealtimeListener listener) {
+        subscribe(schema + ":" + table, schema, table, event, filter, listener);
+    }
+
+    /**
+     * Subscribe to the rows where {@code column} equals {@code value}: inserts and updates
+     * filtered on the server, plus every delete on the table. Delete payloads carry only the
+     * row id in old_record, so the listener must check that id against its own rows.
+     *
+     * The two channels report to the listener as one: {@code onOpen} once both have joined,
+     * and {@code onError} once per interruption.
+     */
+    public void subscribeToRows(String schema, String table, String column, Object value, RealtimeListener listener) {
+        RowsListener rows = new RowsListener(listener);
+        subscribe(schema + ":" + table, schema, table, EVENT_ALL, eq(column, value), rows.filtered);
+        subscribe(schema + ":" + table + ":" + EVENT_DELETE, schema, table, EVENT_DELETE, null, rows.deletes);
+    }
+
+    private void subscribe(String key, String schema, String table, String event, String filter, RealtimeListener listener) {
+        RealtimeSocket.Subscription previous;
+        synchronized (this) {
+            previous = subscriptions.remove(key);
+        }
+        // Join the replacement first so a shared channel isn't left and rejoined
+        RealtimeSocket.Subscription subscription = socket.subscribe(schema, table, event, filter, listener);
+        socket.unsubscribe(previous);
+        if (subscription != null) {
+            synchronized (this) {
+                subscriptions.put(key, subscription);
             }
-            return;
         }
-        
-        HttpUrl url = baseUrl.newBuilder()
-            .addPathSegments("realtime/v1/websocket")
-            .addQueryParameter("apikey", SupabaseConfig.SUPABASE_ANON_KEY)
-            .addQueryParameter("vsn", "1.0.0")
-            .build();
-        
-        String websocketUrl = url.toString()
-            .replaceFirst("^http", "ws");
-        
-        Request request = new Request.Builder()
-            .url(websocketUrl)
-            .addHeader("User-Agent", "okhttp/4.12.0")
-            .addHeader("Accept", "application/json")
-            .build();
-        
-        webSocket = okHttpClient.newWebSocket(request, new WebSocketListener() {
-            @Override
-            public void onOpen(WebSocket webSocket, Response response) {
-                sendJoinMessage(schema, table);
-                startHeartbeat();
-                if (listener != null) {
-                    listener.onOpen();
+    }
+
+    /**
+     * Joins the lifecycle of a filtered channel and its DELETE channel, and trims deletes
+     * from other users down to the row id.
+     */
+    static final class RowsListener {
+        private final RealtimeListener delegate;
+        final Part filtered = new Part(false);
+        final Part deletes = new Part(true);
+        private boolean reportedOpen;
+        private boolean reportedError;
+
+        RowsListener(RealtimeListener delegate) {
+            this.delegate = delegate;
+        }
+
+        private void onPartOpen(Part part) {
+            boolean report;
+            synchronized (this) {
+                part.open = true;
+                report = filtered.open && deletes.open && !reportedOpen;
+                if (report) {
+                    reportedOpen = true;
+                    reportedError = false;
                 }
             }
-            
-            @Override
-            public void onMessage(WebSocket webSocket, String text) {
-                handleMessage(text);
+            if (report) {
+                delegate.onOpen();
+            }
+        }
+
+        private void onPartError(Part part, String error) {
+            boolean report;
+            synchronized (this) {
+                part.open = false;
+                reportedOpen = false;
+                report = !reportedError;
+                reportedError = true;
             }
-            
+            if (report) {
+                delegate.onError(error);
+            }
+        }
+
+        final class Part implements RealtimeListener {
+            private final boolean deleteChannel;
+            private boolean open;
+
+            Part(boolean deleteChannel) {
+                this.deleteChannel = deleteChannel;
+            }
+
             @Override
-            public void onMessage(WebSocket webSocket, ByteString bytes) {
-                // Not expecting binary messages, but handle gracefully
-                handleMessage(bytes.utf8());
+            public void onOpen() {
+                onPartOpen(this);
             }
-            
+
             @Override
-            public void onFailure(WebSocket webSocket, Throwable t, Response response) {
-                Log.e(TAG, "Realtime connection error", t);
-                stopHeartbeat();
-                if (listener != null) {
-                    listener.onError(t.getMessage());
+            public void onChange(JsonObject payload) {
+                if (!deleteChannel) {
+                    delegate.onChange(payload);
+                    return;
+                }
+                JsonObject trimmed = idOnlyDelete(payload);
+                if (trimmed != null) {
+                    delegate.onChange(trimmed);
                 }
             }
-            
+
             @Override
-            public void onClosed(WebSocket webSocket, int code, String reason) {
-                stopHeartbeat();
-            }
-        });
-    }
-    
-    private void handleMessage(String text) {
-        try {
-            JsonObject message = gson.fromJson(text, JsonObject.class);
-            if (message == null || !message.has("event")) {
-                return;
+            public void onError(String error) {
+                onPartError(this, error);
             }
-            
-            String event = message.get("event").getAsString();
-            if ("postgres_changes".equals(event) && listener != null) {
-                JsonObject payload = message.getAsJsonObject("payload");
-                if (payload != null) {
-                    listener.onChange(payload);
-                }
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to parse realtime message: " + text, e);
         }
     }
-    
-    private void sendJoinMessage(String schema, String table) {
-        JsonObject changeConfig = new JsonObject();
-        changeConfig.addProperty("event", "*");
-        changeConfig.addProperty("schema", schema);
-        changeConfig.addProperty("table", table);
-        
-        JsonArray changes = new JsonArray();
-        changes.add(changeConfig);
-        
-        JsonObject config = new JsonObject();
-        config.add("postgres_changes", changes);
-        
-        JsonObject payload = new JsonObject();
-        payload.add("config", config);
-        
-        JsonObject message = new JsonObject();
-        message.addProperty("topic", currentTopic);
-        message.addProperty("event", "phx_join");
-        message.add("payload", payload);
-        message.addProperty("ref", String.valueOf(refCounter.getAndIncrement()));
-        
-        sendMessage(message);
-    }
-    
-    private void sendHeartbeat() {
-        JsonObject message = new JsonObject();
-        message.addProperty("topic", "phoenix");
-        message.addProperty("event", "heartbeat");
-        message.add("payload", new JsonObject());
-        message.addProperty("ref", String.valueOf(refCounter.getAndIncrement()));
-        sendMessage(message);
-    }
-    
-    private void sendMessage(JsonObject message) {
-        if (webSocket != null) {
-            webSocket.send(message.toString());
+
+    /**
+     * A copy of a DELETE payload holding only the event type and old_record's id, or null
+     * when the payload is not a delete with an id.
+     */
+    static JsonObject idOnlyDelete(JsonObject payload) {
+        if (!EVENT_DELETE.equalsIgnoreCase(RealtimePayloadUtil.getEventType(payload))) {
+            return null;
         }
+        JsonObject oldRecord = RealtimePayloadUtil.getOldRecord(payload);
+        if (oldRecord == null || !oldRecord.has("id") || oldRecord.get("id").isJsonNull()) {
+            return null;
+        }
+        JsonObject id = new JsonObject();
+        id.add("id", oldRecord.get("id").deepCopy());
+        JsonObject trimmed = new JsonObject();
+        trimmed.addProperty("eventType", EVENT_DELETE);
+        trimmed.add("old_record", id);
+        return trimmed;
     }
-    
-    private void startHeartbeat() {
-        stopHeartbeat();
-        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor();
-        heartbeatExecutor.scheduleAtFixedRate(
-            this::sendHeartbeat,
-            HEARTBEAT_SECONDS,
-            HEARTBEAT_SECONDS,
-            TimeUnit.SECONDS
-        );
-    }
-    
-    private void stopHeartbeat() {
-        if (heartbeatExecutor != null && !heartbeatExecutor.isShutdown()) {
-            heartbeatExecutor.shutdownNow();
+
+    public void unsubscribeFromTable(String schema, String table) {
+        RealtimeSocket.Subscription subscription;
+        RealtimeSocket.Subscription deletes;
+        synchronized (this) {
+            subscription = subscriptions.remove(schema + ":" + table);
+            deletes = subscriptions.remove(schema + ":" + table + ":" + EVENT_DELETE);
         }
-        heartbeatExecutor = null;
+        socket.unsubscribe(subscription);
+        socket.unsubscribe(deletes);
     }
-    
+
     public void disconnect() {
-        stopHeartbeat();
-        if (webSocket != null) {
-            try {
-                webSocket.close(1000, "Client closing");
-            } catch (Exception e) {
-                Log.w(TAG, "Error closing realtime socket", e);
-            }
+        List<RealtimeSocket.Subscription> toLeave;
+        synchronized (this) {
+            toLeave = new ArrayList<>(subscriptions.values());
+            subscriptions.clear();
+        }
+        for (RealtimeSocket.Subscription subscription : toLeave) {
+            socket.unsubscribe(subscription);
         }
-        webSocket = null;
     }
 }
-
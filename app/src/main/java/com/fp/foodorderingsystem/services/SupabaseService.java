@@ -2,42 +2,161 @@ package com.fp.foodorderingsystem.services;
 
 import android.content.Context;
 import com.fp.foodorderingsystem.config.SupabaseConfig;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import okhttp3.*;
-import android.content.pm.ApplicationInfo;
+import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SupabaseService {
+    private static final String TAG = "SupabaseService";
+    private static final long HTTP_CACHE_SIZE = 10L * 1024 * 1024;
+    private static final int MAX_DECODED_CATALOGS = 32;
+
     private static SupabaseService instance;
     private OkHttpClient client;
+    private Cache httpCache;
+    private TokenAuthenticator tokenAuthenticator;
+    private final ResilienceInterceptor resilience = new ResilienceInterceptor();
     private Gson gson;
     private Context context;
+
+    // Last decoded catalog per URL, reused when the server confirms it has not changed
+    private final Map<String, DecodedCatalog> decodedCatalogs = new ConcurrentHashMap<>();
+    private final AtomicLong catalogHits = new AtomicLong();
+    private final AtomicLong catalogMisses = new AtomicLong();
+    private final AtomicLong catalogDecodesSkipped = new AtomicLong();
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+
+    /**
+     * Counters for the HTTP cache and the catalog decode memo.
+     */
+    public static class CacheStats {
+        public int requestCount;
+        public int networkCount;
+        public int hitCount;
+        public long catalogHits;
+        public long catalogMisses;
+        public long catalogDecodesSkipped;
+        public long cacheSizeBytes;
+
+        @Override
+        public String toString() {
+            return "CacheStats{" +
+                    "requestCount=" + requestCount +
+                    ", networkCount=" + networkCount +
+                    ", hitCount=" + hitCount +
+                    ", catalogHits=" + catalogHits +
+                    ", catalogMisses=" + catalogMisses +
+                    ", catalogDecodesSkipped=" + catalogDecodesSkipped +
+                    ", cacheSizeBytes=" + cacheSizeBytes +
+                    '}';
+        }
+    }
+
+    /**
+     * Counters and latency for access-token refreshes triggered by 401 responses.
+     */
+    public static class TokenRefreshStats {
+        public long refreshCount;
+        public long refreshFailures;
+        public long sharedRefreshes;
+        public long replayedRequests;
+        public long averageRefreshMs;
+        public long maxRefreshMs;
+        public long lastRefreshMs;
+
+        @Override
+        public String toString() {
+            return "TokenRefreshStats{" +
+                    "refreshCount=" + refreshCount +
+                    ", refreshFailures=" + refreshFailures +
+                    ", sharedRefreshes=" + sharedRefreshes +
+                    ", replayedRequests=" + replayedRequests +
+                    ", averageRefreshMs=" + averageRefreshMs +
+                    ", maxRefreshMs=" + maxRefreshMs +
+                    ", lastRefreshMs=" + lastRefreshMs +
+                    '}';
+        }
+    }
+
+    /**
+     * Retry and circuit-breaker state for one endpoint (see {@link RetryPolicy}).
+     */
+    public static class EndpointHealth {
+        public String endpoint;
+        public String circuitState;
+        public int consecutiveFailures;
+        public long requests;
+        public long failures;
+        public long retries;
+        public long shortCircuits;
+        public long circuitOpens;
+
+        @Override
+        public String toString() {
+            return "EndpointHealth{" +
+                    "endpoint='" + endpoint + '\'' +
+                    ", circuitState=" + circuitState +
+                    ", consecutiveFailures=" + consecutiveFailures +
+                    ", requests=" + requests +
+                    ", failures=" + failures +
+                    ", retries=" + retries +
+                    ", shortCircuits=" + shortCircuits +
+                    ", circuitOpens=" + circuitOpens +
+                    '}';
+        }
+    }
+
+    private static class DecodedCatalog {
+        final String etag;
+        final Class<?> type;
+        final List<?> items;
+
+        DecodedCatalog(String etag, Class<?> type, List<?> items) {
+            this.etag = etag;
+            this.type = type;
+            this.items = items;
+        }
+    }
     
     private SupabaseService(Context context) {
         this.context = context.getApplicationContext();
-        okhttp3.OkHttpClient.Builder builder = new OkHttpClient.Builder()
+        // Shares the pool and dispatcher (and the pre-warmed connection) of the app-wide stack
+        okhttp3.OkHttpClient.Builder builder = NetworkStack.get().newClientBuilder()
             .connectTimeout(20, TimeUnit.SECONDS)
             .readTimeout(20, TimeUnit.SECONDS)
             .retryOnConnectionFailure(true);
 
-        // Add HTTP logging in debug builds
-        boolean isDebuggable = (this.context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
-        if (isDebuggable) {
-            okhttp3.logging.HttpLoggingInterceptor logging = new okhttp3.logging.HttpLoggingInterceptor(
-                message -> android.util.Log.d("HTTP", message)
-            );
-            logging.setLevel(okhttp3.logging.HttpLoggingInterceptor.Level.BODY);
-            builder.addInterceptor(logging);
-        }
+        // Retries, backoff and circuit breaking for every call
+        builder.addInterceptor(resilience);
+
+        // Disk cache for catalog reads; CatalogCacheInterceptor supplies the validators
+        httpCache = new Cache(new File(this.context.getCacheDir(), "http"), HTTP_CACHE_SIZE);
+        builder.cache(httpCache)
+            .addNetworkInterceptor(new CatalogCacheInterceptor(NetworkTelemetry.getInstance()));
+
+        // Expired user tokens are refreshed once and the failed requests replayed
+        this.gson = GsonProvider.get();
+        tokenAuthenticator = new TokenAuthenticator(this.context, gson);
+        builder.authenticator(tokenAuthenticator);
+
+        // Per-endpoint latency, bytes and status codes are recorded by NetworkStack's
+        // telemetry interceptor (see NetworkTelemetry) instead of body-level logging
 
         this.client = builder.build();
-        this.gson = new Gson();
+        tokenAuthenticator.attach(client);
     }
     
     public static synchronized SupabaseService getInstance(Context context) {
@@ -60,6 +179,14 @@ public class SupabaseService {
             .addHeader("Authorization", "Bearer " + accessToken);
     }
     
+    public Request.Builder createRequest(PostgrestQuery query) {
+        return query.applyHeaders(createRequest(query.toEndpoint()));
+    }
+    
+    public Request.Builder createAuthenticatedRequest(PostgrestQuery query, String accessToken) {
+        return query.applyHeaders(createAuthenticatedRequest(query.toEndpoint(), accessToken));
+    }
+    
     public Response executeRequest(Request request) throws IOException {
         return client.newCall(request).execute();
     }
@@ -128,10 +255,62 @@ public class SupabaseService {
         return ""; // Will be set by AuthService
     }
     
+    /**
+     * Refresh the access token, sharing any refresh already in progress.
+     * Blocks the calling thread. Returns the new token, or null if the session cannot be renewed.
+     */
+    String refreshAccessToken(String staleToken) {
+        return tokenAuthenticator.refresh(staleToken);
+    }
+    
+    /**
+     * Override the retry policy for an endpoint such as {@code orders} or {@code auth/token}.
+     * Pass null to restore {@link RetryPolicy#DEFAULT}.
+     */
+    public void setRetryPolicy(String endpoint, RetryPolicy policy) {
+        resilience.setPolicy(endpoint, policy);
+    }
+    
+    public List<EndpointHealth> getEndpointHealth() {
+        return resilience.getHealth();
+    }
+    
+    public TokenRefreshStats getTokenRefreshStats() {
+        return tokenAuthenticator.getStats();
+    }
+    
     public Gson getGson() {
         return gson;
     }
     
+    /**
+     * Receives each decoded element of a streamed array as soon as it is read.
+     */
+    public interface ElementCallback<T> {
+        void onElement(T element, int index);
+    }
+    
+    /**
+     * Outcome of {@link #fetchListShared}.
+     */
+    public interface SharedListCallback<T> {
+        void onSuccess(List<T> items);
+
+        /**
+         * @param statusCode HTTP status of an unsuccessful response, or 0 if the call itself failed
+         */
+        void onError(int statusCode, Exception error);
+    }
+    
+    private static class HttpStatusException extends IOException {
+        final int code;
+
+        HttpStatusException(int code) {
+            super("HTTP " + code);
+            this.code = code;
+        }
+    }
+    
     // Helper methods for parsing JSON
     public <T> T parseObject(String json, Class<T> clazz) {
         try {
@@ -144,15 +323,255 @@ public class SupabaseService {
     
     public <T> List<T> parseArray(String json, Class<T> clazz) {
         List<T> list = new ArrayList<>();
+        if (json == null || json.isEmpty()) {
+            return list;
+        }
         try {
-            JsonArray jsonArray = gson.fromJson(json, JsonArray.class);
-            for (JsonElement element : jsonArray) {
-                list.add(gson.fromJson(element, clazz));
-            }
+            readArray(new JsonReader(new StringReader(json)), gson.getAdapter(clazz), list, null);
         } catch (Exception e) {
             e.printStackTrace();
         }
         return list;
     }
+    
+    /**
+     * Decode a PostgREST array straight from the response stream into typed models.
+     * The body is never buffered as a String or JsonArray, and the body is closed on return.
+     */
+    public <T> List<T> decodeArray(ResponseBody body, Class<T> clazz) throws IOException {
+        return decodeArray(body, clazz, null);
+    }
+    
+    /**
+     * Same as {@link #decodeArray(ResponseBody, Class)} but also hands every element to
+     * {@code callback} as it is decoded, so callers can index or render incrementally.
+     */
+    public <T> List<T> decodeArray(ResponseBody body, Class<T> clazz, ElementCallback<T> callback) throws IOException {
+        List<T> list = new ArrayList<>();
+        if (body == null) {
+            return list;
+        }
+        try (JsonReader reader = new JsonReader(body.charStream())) {
+            readArray(reader, gson.getAdapter(clazz), list, callback);
+        }
+        return list;
+    }
+    
+    /**
+     * Decode the first element of a PostgREST array response, or null when it is empty.
+     */
+    public <T> T decodeFirst(ResponseBody body, Class<T> clazz) throws IOException {
+        if (body == null) {
+            return null;
+        }
+        TypeAdapter<T> adapter = gson.getAdapter(clazz);
+        try (JsonReader reader = new JsonReader(body.charStream())) {
+            JsonToken token = reader.peek();
+            if (token == JsonToken.BEGIN_OBJECT) {
+                return adapter.read(reader);
+            }
+            if (token != JsonToken.BEGIN_ARRAY) {
+                return null;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
+                }
+                // Remaining elements are left unread; closing the reader discards them.
+                return adapter.read(reader);
+            }
+            return null;
+        } catch (IllegalStateException | java.io.EOFException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Decode a menu_items or categories response, reusing the previous result when the
+     * response was revalidated (304) against the cached copy for the same URL.
+     * The returned list is a fresh copy; the models inside it are shared with earlier callers.
+     */
+    public <T> List<T> decodeCatalog(Response response, Class<T> clazz) throws IOException {
+        String key = response.request().url().toString();
+        String etag = response.header("ETag");
+
+        if (isNotModified(response)) {
+            catalogHits.incrementAndGet();
+            DecodedCatalog cached = decodedCatalogs.get(key);
+            if (cached != null && cached.type == clazz && etag != null && etag.equals(cached.etag)) {
+                catalogDecodesSkipped.incrementAndGet();
+                response.close();
+                @SuppressWarnings("unchecked")
+                List<T> items = (List<T>) cached.items;
+                return new ArrayList<>(items);
+            }
+        } else {
+            catalogMisses.incrementAndGet();
+        }
+
+        List<T> items = decodeArray(response.body(), clazz);
+        if (etag != null) {
+            if (decodedCatalogs.size() >= MAX_DECODED_CATALOGS && !decodedCatalogs.containsKey(key)) {
+                decodedCatalogs.clear();
+            }
+            decodedCatalogs.put(key, new DecodedCatalog(etag, clazz, Collections.unmodifiableList(new ArrayList<>(items))));
+        }
+        return items;
+    }
+
+    /**
+     * True when the body came from the HTTP cache, either fresh or confirmed by a 304.
+     */
+    public boolean isNotModified(Response response) {
+        if (response.cacheResponse() == null) {
+            return false;
+        }
+        Response network = response.networkResponse();
+        return network == null || network.code() == 304;
+    }
+
+    public CacheStats getCacheStats() {
+        CacheStats stats = new CacheStats();
+        if (httpCache != null) {
+            stats.requestCount = httpCache.requestCount();
+            stats.networkCount = httpCache.networkCount();
+            stats.hitCount = httpCache.hitCount();
+            try {
+                stats.cacheSizeBytes = httpCache.size();
+            } catch (IOException e) {
+                android.util.Log.w(TAG, "Unable to read HTTP cache size", e);
+            }
+        }
+        stats.catalogHits = catalogHits.get();
+        stats.catalogMisses = catalogMisses.get();
+        stats.catalogDecodesSkipped = catalogDecodesSkipped.get();
+        return stats;
+    }
+
+    /**
+     * GET and decode an array response, sharing one network call and one decoded result
+     * with any identical request (same URL, auth, range and model type) already in flight.
+     *
+     * Call from a worker thread: the first caller performs the request on it, later callers
+     * return immediately and are called back when that request completes. Each caller gets
+     * its own list; {@code onElement} streams for the first caller and is replayed for the others.
+     */
+    public <T> void fetchListShared(Request request, Class<T> clazz, ElementCallback<T> onElement, SharedListCallback<T> callback) {
+        RequestCoalescer.Listener<List<T>> listener = new RequestCoalescer.Listener<List<T>>() {
+            @Override
+            public void onResult(List<T> items, boolean leader) {
+                List<T> copy = new ArrayList<>(items);
+                if (!leader && onElement != null) {
+                    for (int i = 0; i < copy.size(); i++) {
+                        onElement.onElement(copy.get(i), i);
+                    }
+                }
+                callback.onSuccess(copy);
+            }
+
+            @Override
+            public void onFailure(Exception error) {
+                int code = error instanceof HttpStatusException ? ((HttpStatusException) error).code : 0;
+                callback.onError(code, error);
+            }
+        };
+
+        String key = coalescingKey(request, clazz);
+        if (key == null) {
+            try {
+                listener.onResult(fetchList(request, clazz, onElement), true);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+            return;
+        }
+        coalescer.execute(key, tableOf(request), () -> fetchList(request, clazz, onElement), listener);
+    }
+    
+    /**
+     * A row in {@code table} changed: later {@link #fetchListShared} calls for it must not join
+     * a request sent before the change (its response could miss it). Called for every realtime
+     * change before listeners react to it.
+     */
+    public void invalidateSharedFetches(String table) {
+        coalescer.invalidate(table);
+    }
+    
+    /**
+     * Number of callers that were served by another caller's in-flight request.
+     */
+    public long getCoalescedRequestCount() {
+        return coalescer.getJoinedCount();
+    }
+    
+    private <T> List<T> fetchList(Request request, Class<T> clazz, ElementCallback<T> onElement) throws IOException {
+        Response response = executeRequest(request);
+        if (!response.isSuccessful()) {
+            int code = response.code();
+            response.close();
+            throw new HttpStatusException(code);
+        }
+        if (!CatalogCacheInterceptor.isCatalogRequest(request)) {
+            return decodeArray(response.body(), clazz, onElement);
+        }
+        List<T> items = decodeCatalog(response, clazz);
+        if (onElement != null) {
+            for (int i = 0; i < items.size(); i++) {
+                onElement.onElement(items.get(i), i);
+            }
+        }
+        return items;
+    }
+    
+    private static String tableOf(Request request) {
+        List<String> segments = request.url().pathSegments();
+        return segments.isEmpty() ? "" : segments.get(segments.size() - 1);
+    }
+    
+    private static String coalescingKey(Request request, Class<?> clazz) {
+        if (!"GET".equals(request.method())) {
+            return null;
+        }
+        return request.url() + "|" + request.header("Authorization") + "|" + request.header("Range") + "|" + clazz.getName();
+    }
+    
+    private <T> void readArray(JsonReader reader, TypeAdapter<T> adapter, List<T> out, ElementCallback<T> callback) throws IOException {
+        JsonToken token;
+        try {
+            token = reader.peek();
+        } catch (java.io.EOFException e) {
+            return; // Empty body (e.g. 204 No Content)
+        }
+        if (token == JsonToken.BEGIN_OBJECT) {
+            // Single-object responses (Accept: application/vnd.pgrst.object)
+            emit(adapter.read(reader), out, callback);
+            return;
+        }
+        if (token != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            emit(adapter.read(reader), out, callback);
+        }
+        reader.endArray();
+    }
+    
+    private <T> void emit(T element, List<T> out, ElementCallback<T> callback) {
+        if (element == null) {
+            return;
+        }
+        out.add(element);
+        if (callback != null) {
+            callback.onElement(element, out.size() - 1);
+        }
+    }
 }
 
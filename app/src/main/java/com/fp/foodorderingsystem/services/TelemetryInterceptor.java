@@ -0,0 +1,174 @@
+package com.fp.foodorderingsystem.services;
+
+import android.util.Log;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Network interceptor feeding {@link NetworkTelemetry}: latency to response headers,
+ * request and response bytes on the wire, and status codes per endpoint. Response bytes
+ * are counted as the caller reads the body; a catalog 200 that
+ * {@link CatalogCacheInterceptor} turns into a 304 is counted there instead.
+ *
+ * Replaces body-level HTTP logging. When logging is enabled (debug builds) it writes one
+ * line per request. Failures are always logged, with at most {@link #MAX_LOGGED_BODY_CHARS}
+ * of the error body. Successes are sampled, and total output is rate limited.
+ */
+final class TelemetryInterceptor implements Interceptor {
+    private static final String TAG = "HTTP";
+    private static final int SUCCESS_SAMPLE_RATE = 10;
+    private static final int MAX_LOG_LINES_PER_SECOND = 5;
+    private static final int MAX_LOGGED_BODY_CHARS = 512;
+
+    private final NetworkTelemetry telemetry;
+    private final AtomicLong successCounter = new AtomicLong();
+    private volatile boolean loggingEnabled;
+
+    // Guarded by this
+    private long logWindowStart;
+    private int logWindowLines;
+
+    TelemetryInterceptor(NetworkTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    void setLoggingEnabled(boolean enabled) {
+        this.loggingEnabled = enabled;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String endpoint = NetworkTelemetry.endpointOf(request.url());
+        long bytesSent = request.body() != null ? Math.max(0, request.body().contentLength()) : 0;
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            telemetry.recordFailure(endpoint, bytesSent);
+            if (loggingEnabled && acquireLogLine()) {
+                Log.w(TAG, request.method() + " " + endpoint + " failed after "
+                    + elapsedMs(start) + "ms: " + e.getClass().getSimpleName() + " " + e.getMessage());
+            }
+            throw e;
+        }
+        long latencyMs = elapsedMs(start);
+        telemetry.recordResponse(endpoint, response.code(), latencyMs, bytesSent);
+
+        if (loggingEnabled) {
+            log(request, endpoint, response, latencyMs);
+        }
+
+        ResponseBody body = response.body();
+        if (body == null || response.code() == 101) {
+            return response; // WebSocket upgrades own the raw stream
+        }
+        return response.newBuilder()
+            .body(new CountingResponseBody(body, endpoint))
+            .build();
+    }
+
+    private void log(Request request, String endpoint, Response response, long latencyMs) throws IOException {
+        boolean failed = !response.isSuccessful() && response.code() != 304;
+        if (!failed && successCounter.incrementAndGet() % SUCCESS_SAMPLE_RATE != 0) {
+            return;
+        }
+        if (!acquireLogLine()) {
+            return;
+        }
+        String line = request.method() + " " + endpoint + " " + response.code() + " " + latencyMs + "ms";
+        if (failed) {
+            String preview = response.peekBody(MAX_LOGGED_BODY_CHARS).string();
+            Log.w(TAG, line + " " + preview);
+        } else {
+            Log.d(TAG, line + " (1/" + SUCCESS_SAMPLE_RATE + " sampled)");
+        }
+    }
+
+    private synchronized boolean acquireLogLine() {
+        long now = System.nanoTime() / 1_000_000L;
+        if (now - logWindowStart >= 1000) {
+            logWindowStart = now;
+            logWindowLines = 0;
+        }
+        if (logWindowLines >= MAX_LOG_LINES_PER_SECOND) {
+            return false;
+        }
+        logWindowLines++;
+        return true;
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    /**
+     * Counts body bytes as the caller reads them and reports the total once, on exhaustion or close.
+     */
+    private final class CountingResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final String endpoint;
+        private BufferedSource source;
+
+        CountingResponseBody(ResponseBody delegate, String endpoint) {
+            this.delegate = delegate;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    private long total;
+                    private boolean reported;
+
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        long read = super.read(sink, byteCount);
+                        if (read == -1) {
+                            report();
+                        } else {
+                            total += read;
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        report();
+                        super.close();
+                    }
+
+                    private void report() {
+                        if (!reported) {
+                            reported = true;
+                            telemetry.recordBytesReceived(endpoint, total);
+                        }
+                    }
+                });
+            }
+            return source;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.fp.foodorderingsystem.services;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+import com.fp.foodorderingsystem.config.SupabaseConfig;
+import com.fp.foodorderingsystem.utils.PreferenceUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Authenticator;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.Route;
+
+/**
+ * Refreshes an expired Supabase access token when a request comes back 401 and replays
+ * the request with the new token.
+ *
+ * Only one refresh runs at a time. Requests that fail while it is running wait for it and
+ * then replay with its result instead of issuing their own refresh POST. A refresh token
+ * that has already been rejected is not retried until the user signs in again.
+ */
+final class TokenAuthenticator implements Authenticator {
+    private static final String TAG = "TokenAuthenticator";
+    private static final String BEARER = "Bearer ";
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private final PreferenceUtil preferenceUtil;
+    private final Gson gson;
+    private final Object refreshLock = new Object();
+    private volatile OkHttpClient client;
+
+    // Guarded by refreshLock
+    private String rejectedRefreshToken;
+
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private final AtomicLong sharedRefreshes = new AtomicLong();
+    private final AtomicLong replayedRequests = new AtomicLong();
+    private final AtomicLong totalRefreshMs = new AtomicLong();
+    private final AtomicLong maxRefreshMs = new AtomicLong();
+    private volatile long lastRefreshMs;
+
+    TokenAuthenticator(Context context, Gson gson) {
+        this.preferenceUtil = new PreferenceUtil(context);
+        this.gson = gson;
+    }
+
+    /**
+     * The refresh POST goes through the same client; it carries no user token, so a 401
+     * on it is never handed back to this authenticator for another refresh.
+     */
+    void attach(OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Request authenticate(Route route, Response response) {
+        Request request = response.request();
+        String failedToken = bearerToken(request);
+        if (failedToken == null || failedToken.equals(SupabaseConfig.SUPABASE_ANON_KEY)) {
+            return null; // Anonymous request; nothing to refresh
+        }
+        if (response.priorResponse() != null) {
+            return null; // Already replayed once with a fresh token
+        }
+
+        String token = refresh(failedToken);
+        if (token == null) {
+            return null;
+        }
+        replayedRequests.incrementAndGet();
+        return request.newBuilder()
+            .header("Authorization", BEARER + token)
+            .build();
+    }
+
+    /**
+     * Obtain a token newer than {@code staleToken}, joining a refresh that is already in
+     * progress or has just completed. Blocks the calling thread; returns null on failure.
+     */
+    String refresh(String staleToken) {
+        synchronized (refreshLock) {
+            String current = preferenceUtil.getAccessToken();
+            if (!TextUtils.isEmpty(current) && !current.equals(staleToken)) {
+                sharedRefreshes.incrementAndGet();
+                return current;
+            }
+
+            String refreshToken = preferenceUtil.getRefreshToken();
+            if (TextUtils.isEmpty(refreshToken) || refreshToken.equals(rejectedRefreshToken)) {
+                return null;
+            }
+
+            OkHttpClient http = client;
+            if (http == null) {
+                return null;
+            }
+
+            long start = SystemClock.elapsedRealtime();
+            try {
+                JsonObject requestBody = new JsonObject();
+                requestBody.addProperty("refresh_token", refreshToken);
+                Request request = new Request.Builder()
+                    .url(SupabaseConfig.SUPABASE_URL + "/auth/v1/token?grant_type=refresh_token")
+                    .post(RequestBody.create(JSON, requestBody.toString()))
+                    .addHeader("apikey", SupabaseConfig.SUPABASE_ANON_KEY)
+                    .addHeader("Content-Type", "application/json")
+                    .build();
+
+                try (Response response = http.newCall(request).execute()) {
+                    String body = response.body() != null ? response.body().string() : "";
+                    if (!response.isSuccessful()) {
+                        Log.e(TAG, "Token refresh failed: " + response.code() + " - " + body);
+                        if (response.code() == 400 || response.code() == 401) {
+                            rejectedRefreshToken = refreshToken;
+                        }
+                        refreshFailures.incrementAndGet();
+                        return null;
+                    }
+
+                    JsonObject json = gson.fromJson(body, JsonObject.class);
+                    if (json == null || !json.has("access_token")) {
+                        refreshFailures.incrementAndGet();
+                        return null;
+                    }
+                    String newAccessToken = json.get("access_token").getAsString();
+                    preferenceUtil.saveAccessToken(newAccessToken);
+                    if (json.has("refresh_token")) {
+                        preferenceUtil.saveRefreshToken(json.get("refresh_token").getAsString());
+                    }
+                    refreshCount.incrementAndGet();
+                    return newAccessToken;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Token refresh error", e);
+                refreshFailures.incrementAndGet();
+                return null;
+            } finally {
+                recordLatency(SystemClock.elapsedRealtime() - start);
+            }
+        }
+    }
+
+    SupabaseService.TokenRefreshStats getStats() {
+        SupabaseService.TokenRefreshStats stats = new SupabaseService.TokenRefreshStats();
+        stats.refreshCount = refreshCount.get();
+        stats.refreshFailures = refreshFailures.get();
+        stats.sharedRefreshes = sharedRefreshes.get();
+        stats.replayedRequests = replayedRequests.get();
+        long attempts = stats.refreshCount + stats.refreshFailures;
+        stats.averageRefreshMs = attempts > 0 ? totalRefreshMs.get() / attempts : 0;
+        stats.maxRefreshMs = maxRefreshMs.get();
+        stats.lastRefreshMs = lastRefreshMs;
+        return stats;
+    }
+
+    private void recordLatency(long elapsedMs) {
+        lastRefreshMs = elapsedMs;
+        totalRefreshMs.addAndGet(elapsedMs);
+        long max;
+        do {
+            max = maxRefreshMs.get();
+        } while (elapsedMs > max && !maxRefreshMs.compareAndSet(max, elapsedMs));
+    }
+
+    private static String bearerToken(Request request) {
+        String header = request.header("Authorization");
+        if (header == null || !header.startsWith(BEARER)) {
+            return null;
+        }
+        return header.substring(BEARER.length());
+    }
+}
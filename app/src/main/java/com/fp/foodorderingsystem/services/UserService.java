@@ -4,6 +4,7 @@ import android.content.Context;
 import android.util.Log;
 import com.fp.foodorderingsystem.models.User;
 import com.fp.foodorderingsystem.utils.NetworkUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import java.util.ArrayList;
@@ -17,13 +18,16 @@ public class UserService {
     private static final String TAG = "UserService";
 
     private final SupabaseService supabaseService;
+
+    private final ServiceExecutor executor;
     private final Context context;
     private final Gson gson;
 
     public UserService(Context context) {
         this.context = context.getApplicationContext();
         this.supabaseService = SupabaseService.getInstance(context);
-        this.gson = new Gson();
+        this.executor = ServiceExecutor.getInstance();
+        this.gson = GsonProvider.get();
     }
 
     public interface UserListCallback {
@@ -60,7 +64,7 @@ public class UserService {
             return;
         }
         
-        new Thread(() -> {
+        executor.read(() -> {
             try {
                 String sanitizedEmail = email.trim().toLowerCase();
                 // URL encode the email for the query parameter
@@ -92,7 +96,7 @@ public class UserService {
                 Log.e(TAG, "Error checking email existence", e);
                 callback.onError("Error checking email: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void getAllUsers(UserListCallback callback) {
@@ -105,9 +109,12 @@ public class UserService {
             return;
         }
 
-        new Thread(() -> {
+        executor.read(() -> {
             try {
-                String endpoint = "users?select=*&order=created_at.desc";
+                String endpoint = PostgrestQuery.from("users")
+                    .select("*")
+                    .order("created_at", false)
+                    .toEndpoint();
                 Log.d(TAG, "Fetching all users from: " + endpoint);
                 
                 Request.Builder requestBuilder;
@@ -177,7 +184,7 @@ public class UserService {
                 Log.e(TAG, "getAllUsers error", e);
                 callback.onError("Error loading users: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     /**
@@ -189,9 +196,13 @@ public class UserService {
             return;
         }
 
-        new Thread(() -> {
+        executor.read(() -> {
             try {
-                String endpoint = "users?user_type=eq.admin&select=*";
+                // Only the id is needed to address notifications
+                String endpoint = PostgrestQuery.from("users")
+                    .select("id,user_type")
+                    .eq("user_type", "admin")
+                    .toEndpoint();
                 Log.d(TAG, "Fetching admin users from: " + endpoint);
                 
                 Request.Builder requestBuilder;
@@ -239,7 +250,7 @@ public class UserService {
                 Log.e(TAG, "getAdminUsers error", e);
                 callback.onError("Error loading admin users: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void updateUserRole(String userId, String role, UserCallback callback) {
@@ -266,9 +277,12 @@ public class UserService {
             return;
         }
 
-        new Thread(() -> {
+        executor.read(() -> {
             try {
-                String endpoint = "users?id=eq." + userId + "&select=*";
+                String endpoint = PostgrestQuery.from("users")
+                    .select("*")
+                    .eqUuid("id", userId)
+                    .toEndpoint();
                 Log.d(TAG, "Fetching user by ID: " + userId);
                 
                 Request.Builder requestBuilder;
@@ -302,7 +316,7 @@ public class UserService {
                 Log.e(TAG, "getUserById error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void updateUserProfile(String userId, String fullName, String phone, String address, String accessToken, UserCallback callback) {
@@ -311,7 +325,7 @@ public class UserService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 if (fullName != null && !fullName.trim().isEmpty()) {
@@ -359,7 +373,7 @@ public class UserService {
                 Log.e(TAG, "updateUserProfile error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void updateProfilePicture(String userId, String profilePicturePath, String accessToken, UserCallback callback) {
@@ -368,7 +382,7 @@ public class UserService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 JsonObject body = new JsonObject();
                 body.addProperty("profile_picture", profilePicturePath);
@@ -414,7 +428,7 @@ public class UserService {
                 Log.e(TAG, "updateProfilePicture error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     private void patchUser(String userId, JsonObject body, UserCallback callback) {
@@ -423,7 +437,7 @@ public class UserService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 Request request = supabaseService.createRequest("users?id=eq." + userId)
                     .patch(RequestBody.create(
@@ -448,7 +462,7 @@ public class UserService {
                 Log.e(TAG, "patchUser error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     /**
@@ -463,7 +477,7 @@ public class UserService {
             return;
         }
 
-        new Thread(() -> {
+        executor.write(() -> {
             try {
                 String endpoint = "users?id=eq." + userId;
                 Log.d(TAG, "Deleting user: " + userId);
@@ -491,7 +505,7 @@ public class UserService {
                 Log.e(TAG, "deleteUser error", e);
                 callback.onError("Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
 }
 
@@ -1,47 +1,227 @@
 package com.fp.foodorderingsystem.utils;
 
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 public class DateUtil {
-    private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
     private static final String DISPLAY_FORMAT = "MMM dd, yyyy 'at' HH:mm";
-    
-    public static String formatDate(String dateString) {
-        try {
-            SimpleDateFormat inputFormat = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault());
-            SimpleDateFormat outputFormat = new SimpleDateFormat(DISPLAY_FORMAT, Locale.getDefault());
-            Date date = inputFormat.parse(dateString);
-            return outputFormat.format(date);
-        } catch (ParseException e) {
-            return dateString;
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    private static final ThreadLocal<SimpleDateFormat> DISPLAY = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat(DISPLAY_FORMAT, Locale.getDefault());
+        }
+    };
+
+    // Relative-time strings by elapsed unit; list rows rebind often and reuse the same few values.
+    // Racing writers store equal strings, so plain arrays are safe to share.
+    private static final String[] MINUTES_AGO = new String[60];
+    private static final String[] HOURS_AGO = new String[24];
+    private static final String[] DAYS_AGO = new String[366];
+
+    /**
+     * Parse a Postgres timestamp ("2024-05-01T10:15:30.123456+08:00", "...Z" or no offset,
+     * which Supabase stores as UTC) into epoch millis. Returns 0 when the value is missing or invalid.
+     *
+     * Accepts 'T' or ' ' as the separator, optional seconds and fraction (truncated to millis),
+     * and offsets as Z, +HH, +HHMM, +HH:MM or +HH:MM:SS. Reads the characters in place, so it
+     * allocates nothing and is safe to call from any thread.
+     */
+    public static long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return 0L;
+        }
+        int length = timestamp.length();
+        if (length < 10 || timestamp.charAt(4) != '-' || timestamp.charAt(7) != '-') {
+            return 0L;
+        }
+        int year = digits(timestamp, 0, 4);
+        int month = digits(timestamp, 5, 2);
+        int day = digits(timestamp, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return 0L;
+        }
+
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millis = 0;
+        int index = 10;
+        if (index < length && (timestamp.charAt(index) == 'T' || timestamp.charAt(index) == ' ')) {
+            if (index + 6 > length || timestamp.charAt(index + 3) != ':') {
+                return 0L;
+            }
+            hour = digits(timestamp, index + 1, 2);
+            minute = digits(timestamp, index + 4, 2);
+            index += 6;
+            if (index < length && timestamp.charAt(index) == ':') {
+                second = digits(timestamp, index + 1, 2);
+                index += 3;
+            }
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+                return 0L;
+            }
+            if (index < length && timestamp.charAt(index) == '.') {
+                int start = ++index;
+                while (index < length && isDigit(timestamp.charAt(index))) {
+                    if (index - start < 3) {
+                        millis = millis * 10 + (timestamp.charAt(index) - '0');
+                    }
+                    index++;
+                }
+                if (index == start) {
+                    return 0L;
+                }
+                for (int scale = index - start; scale < 3; scale++) {
+                    millis *= 10;
+                }
+            }
+        }
+
+        long offsetMillis = 0L;
+        if (index < length) {
+            char sign = timestamp.charAt(index);
+            if (sign == 'Z' || sign == 'z') {
+                index++;
+            } else if (sign == '+' || sign == '-') {
+                int offsetHours = digits(timestamp, index + 1, 2);
+                int offsetMinutes = 0;
+                int offsetSeconds = 0;
+                index += 3;
+                if (index < length) {
+                    if (timestamp.charAt(index) == ':') {
+                        index++;
+                    }
+                    offsetMinutes = digits(timestamp, index, 2);
+                    index += 2;
+                }
+                if (index < length && timestamp.charAt(index) == ':') {
+                    offsetSeconds = digits(timestamp, index + 1, 2);
+                    index += 3;
+                }
+                if (offsetHours < 0 || offsetMinutes < 0 || offsetSeconds < 0) {
+                    return 0L;
+                }
+                offsetMillis = ((offsetHours * 60L + offsetMinutes) * 60L + offsetSeconds) * 1000L;
+                if (sign == '-') {
+                    offsetMillis = -offsetMillis;
+                }
+            } else {
+                return 0L;
+            }
+        }
+        if (index != length) {
+            return 0L;
         }
+
+        long days = daysFromCivil(year, month, day);
+        return days * MILLIS_PER_DAY
+            + ((hour * 60L + minute) * 60L + second) * 1000L
+            + millis
+            - offsetMillis;
     }
-    
+
+    public static String formatDate(String dateString) {
+        long epochMillis = parseTimestamp(dateString);
+        return epochMillis != 0L ? formatDate(epochMillis) : dateString;
+    }
+
+    /**
+     * Format epoch millis for display in the device's time zone.
+     */
+    public static String formatDate(long epochMillis) {
+        SimpleDateFormat format = DISPLAY.get();
+        format.setTimeZone(TimeZone.getDefault());
+        return format.format(new Date(epochMillis));
+    }
+
     public static String getTimeAgo(String dateString) {
-        try {
-            SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault());
-            Date date = format.parse(dateString);
-            long diff = System.currentTimeMillis() - date.getTime();
-            
-            long minutes = TimeUnit.MILLISECONDS.toMinutes(diff);
-            if (minutes < 60) {
-                return minutes + " minutes ago";
-            }
-            
-            long hours = TimeUnit.MILLISECONDS.toHours(diff);
-            if (hours < 24) {
-                return hours + " hours ago";
+        long epochMillis = parseTimestamp(dateString);
+        return epochMillis != 0L ? getTimeAgo(epochMillis, System.currentTimeMillis()) : dateString;
+    }
+
+    /**
+     * Relative time ("5 minutes ago") for an epoch, using cached strings for the common values.
+     */
+    public static String getTimeAgo(long epochMillis, long nowMillis) {
+        long diff = Math.max(0L, nowMillis - epochMillis);
+
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(diff);
+        if (minutes < 60) {
+            return cached(MINUTES_AGO, (int) minutes, " minutes ago");
+        }
+
+        long hours = TimeUnit.MILLISECONDS.toHours(diff);
+        if (hours < 24) {
+            return cached(HOURS_AGO, (int) hours, " hours ago");
+        }
+
+        long days = TimeUnit.MILLISECONDS.toDays(diff);
+        if (days < DAYS_AGO.length) {
+            return cached(DAYS_AGO, (int) days, " days ago");
+        }
+        return days + " days ago";
+    }
+
+    private static String cached(String[] cache, int value, String suffix) {
+        String text = cache[value];
+        if (text == null) {
+            text = value + suffix;
+            cache[value] = text;
+        }
+        return text;
+    }
+
+    /**
+     * Non-negative value of {@code count} ASCII digits at {@code start}, or -1.
+     */
+    private static int digits(String value, int start, int count) {
+        if (start < 0 || start + count > value.length()) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
             }
-            
-            long days = TimeUnit.MILLISECONDS.toDays(diff);
-            return days + " days ago";
-        } catch (ParseException e) {
-            return dateString;
+            result = result * 10 + (c - '0');
         }
+        return result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
-}
 
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date (Howard Hinnant's days_from_civil).
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468L;
+    }
+}
@@ -0,0 +1,31 @@
+package com.fp.foodorderingsystem.utils;
+
+import com.fp.foodorderingsystem.models.CartItem;
+import com.fp.foodorderingsystem.models.Category;
+import com.fp.foodorderingsystem.models.FoodItem;
+import com.fp.foodorderingsystem.models.Notification;
+import com.fp.foodorderingsystem.models.Order;
+import com.fp.foodorderingsystem.models.User;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Single, preconfigured Gson instance shared by all services and screens.
+ * The Supabase models are bound with hand-written TypeAdapters instead of reflection.
+ */
+public final class GsonProvider {
+    private static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapter(Order.class, new Order.GsonAdapter().nullSafe())
+        .registerTypeAdapter(CartItem.class, new CartItem.GsonAdapter().nullSafe())
+        .registerTypeAdapter(FoodItem.class, new FoodItem.GsonAdapter().nullSafe())
+        .registerTypeAdapter(User.class, new User.GsonAdapter().nullSafe())
+        .registerTypeAdapter(Category.class, new Category.GsonAdapter().nullSafe())
+        .registerTypeAdapter(Notification.class, new Notification.GsonAdapter().nullSafe())
+        .create();
+
+    private GsonProvider() {}
+
+    public static Gson get() {
+        return GSON;
+    }
+}
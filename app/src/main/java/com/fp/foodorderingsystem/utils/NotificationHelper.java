@@ -104,9 +104,9 @@ public class NotificationHelper {
     /**
      * Show notification when order is placed
      */
-    public void showOrderPlacedNotification(String orderId, int orderIdInt) {
+    public void showOrderPlacedNotification(String orderId, int orderNumber) {
+        // Only the UUID goes in the intent; compact ids from OrderIdRegistry are process-local
         Intent intent = new Intent(context, OrderDetailActivity.class);
-        intent.putExtra("order_id", orderIdInt);
         intent.putExtra("order_id_string", orderId);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
         PendingIntent pendingIntent = PendingIntent.getActivity(
@@ -133,17 +133,16 @@ public class NotificationHelper {
     /**
      * Show notification for order status changes
      */
-    public void showOrderStatusNotification(String orderId, String status, int orderIdInt) {
+    public void showOrderStatusNotification(String orderId, String status, int orderNumber) {
         String title = getStatusTitle(status);
         String message = getStatusMessage(orderId, status);
 
         Intent intent = new Intent(context, OrderDetailActivity.class);
-        intent.putExtra("order_id", orderIdInt);
         intent.putExtra("order_id_string", orderId);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
         PendingIntent pendingIntent = PendingIntent.getActivity(
             context,
-            NOTIFICATION_ID_STATUS + orderIdInt,
+            NOTIFICATION_ID_STATUS + orderNumber,
             intent,
             PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
         );
@@ -158,7 +157,7 @@ public class NotificationHelper {
             .setAutoCancel(true)
             .setDefaults(NotificationCompat.DEFAULT_SOUND | NotificationCompat.DEFAULT_VIBRATE);
 
-        systemNotificationManager.notify(NOTIFICATION_ID_STATUS + orderIdInt, builder.build());
+        systemNotificationManager.notify(NOTIFICATION_ID_STATUS + orderNumber, builder.build());
     }
 
     /**
@@ -0,0 +1,126 @@
+package com.fp.foodorderingsystem.models;
+
+import com.fp.foodorderingsystem.utils.GsonProvider;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.lang.reflect.Type;
+import java.util.List;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the hand-written model TypeAdapters against Gson's reflective binding, and (with
+ * {@code -Pbenchmarks}) reports how their decode speed compares.
+ */
+public class ModelTypeAdapterTest {
+    private static final int BENCHMARK_ORDERS = 2000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private final Gson reflective = new Gson();
+    private final Gson adapters = GsonProvider.get();
+
+    @Test
+    public void orderAdapter_matchesReflectiveBinding() {
+        String json = buildOrdersJson(3);
+        Order[] expected = reflective.fromJson(json, Order[].class);
+        Order[] actual = adapters.fromJson(json, Order[].class);
+
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getIdString(), actual[i].getIdString());
+            assertEquals(expected[i].getId(), actual[i].getId());
+            assertEquals(expected[i].getCustomerId(), actual[i].getCustomerId());
+            assertEquals(expected[i].getTotalAmount(), actual[i].getTotalAmount(), 0.0001);
+            assertEquals(expected[i].getStatus(), actual[i].getStatus());
+            assertEquals(expected[i].getPaymentMethod(), actual[i].getPaymentMethod());
+            assertEquals(expected[i].getDeliveryAddress(), actual[i].getDeliveryAddress());
+            assertEquals(expected[i].getCreatedAt(), actual[i].getCreatedAt());
+        }
+    }
+
+    @Test
+    public void orderAdapter_precomputesDerivedFields() {
+        Order order = adapters.fromJson(
+            "{\"id\":\"a\",\"status\":\" Completed \",\"created_at\":\"2024-05-01T10:15:30.250+08:00\"}",
+            Order.class);
+
+        assertEquals("completed", order.getNormalizedStatus());
+        assertTrue(order.isCompleted());
+        assertEquals(1714529730250L, order.getCreatedAtEpoch());
+    }
+
+    @Test
+    public void cartItemAdapter_roundTripsEmbeddedMenuItem() {
+        String json = "[{\"id\":\"c1\",\"user_id\":\"u1\",\"menu_item_id\":7,\"quantity\":2,"
+            + "\"unit_price\":45.5,\"total_price\":91.0,"
+            + "\"menu_items\":{\"id\":7,\"category_id\":3,\"name\":\"Adobo\",\"price\":45.5,\"stock\":10}}]";
+        Type listType = new TypeToken<List<CartItem>>() {}.getType();
+        List<CartItem> items = adapters.fromJson(json, listType);
+        List<CartItem> roundTripped = adapters.fromJson(adapters.toJson(items), listType);
+
+        CartItem item = roundTripped.get(0);
+        assertEquals("c1", item.getId());
+        assertEquals(2, item.getQuantity());
+        assertEquals(91.0, item.getTotalPrice(), 0.0001);
+        assertEquals("Adobo", item.getFoodItem().getName());
+        assertEquals(3, item.getFoodItem().getCategoryId());
+    }
+
+    /**
+     * Reports only; timings vary too much between hosts to gate the build on them.
+     */
+    @Test
+    public void benchmark_adapterVersusReflective() {
+        Assume.assumeTrue("Benchmarks run with -Pbenchmarks", Boolean.getBoolean("benchmarks"));
+        String json = buildOrdersJson(BENCHMARK_ORDERS);
+
+        long reflectiveNanos = bestDecodeNanos(reflective, json);
+        long adapterNanos = bestDecodeNanos(adapters, json);
+
+        System.out.println(String.format(java.util.Locale.US,
+            "Decode %d orders: reflective=%.2f ms, adapter=%.2f ms (%.2fx)",
+            BENCHMARK_ORDERS,
+            reflectiveNanos / 1_000_000.0,
+            adapterNanos / 1_000_000.0,
+            (double) reflectiveNanos / Math.max(1, adapterNanos)));
+    }
+
+    private static long bestDecodeNanos(Gson gson, String json) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            gson.fromJson(json, Order[].class);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            Order[] orders = gson.fromJson(json, Order[].class);
+            for (Order order : orders) {
+                // Include the derived-field work the screens do on the reflective path
+                order.getNormalizedStatus();
+                order.getCreatedAtEpoch();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static String buildOrdersJson(int count) {
+        String[] statuses = {"pending", "Confirmed", "preparing", "completed", "cancelled"};
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"id\":\"")
+                .append(String.format(java.util.Locale.US, "%08x-0000-4000-8000-%012x", i, i * 31L))
+                .append("\",\"customer_id\":\"cust-").append(i % 50)
+                .append("\",\"total_amount\":").append(100 + i % 400).append(".50")
+                .append(",\"status\":\"").append(statuses[i % statuses.length])
+                .append("\",\"payment_method\":\"cod\",\"delivery_address\":\"Block ").append(i)
+                .append(" Street\",\"notes\":null,\"created_at\":\"2024-05-")
+                .append(String.format(java.util.Locale.US, "%02d", 1 + i % 28))
+                .append("T10:15:30.123456+00:00\",\"updated_at\":\"2024-05-01T10:15:30+00:00\"}");
+        }
+        return json.append(']').toString();
+    }
+}
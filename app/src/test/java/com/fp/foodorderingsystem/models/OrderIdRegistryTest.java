@@ -0,0 +1,115 @@
+package com.fp.foodorderingsystem.models;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OrderIdRegistryTest {
+    private final OrderIdRegistry registry = new OrderIdRegistry();
+
+    @Test
+    public void sameUuid_getsTheSameId() {
+        String uuid = "7b1f7c1e-2f1a-4d2b-9a57-0c1a2b3c4d5e";
+
+        int id = registry.idFor(uuid);
+
+        assertEquals(OrderIdRegistry.preferredId(uuid), id);
+        assertEquals(id, registry.idFor(uuid));
+        assertEquals(1, registry.size());
+        assertEquals(uuid, registry.uuidFor(id));
+    }
+
+    @Test
+    public void collidingUuid_probesToTheNextFreeId() {
+        String[] pair = collidingPair();
+        int preferred = OrderIdRegistry.preferredId(pair[0]);
+
+        int first = registry.idFor(pair[0]);
+        int second = registry.idFor(pair[1]);
+
+        assertEquals(preferred, first);
+        assertEquals(preferred + 1, second);
+        assertEquals(1, registry.getCollisionCount());
+        assertEquals(pair[0], registry.uuidFor(first));
+        assertEquals(pair[1], registry.uuidFor(second));
+    }
+
+    @Test
+    public void probing_skipsIdsTakenByOtherUuids() {
+        String[] pair = collidingPair();
+        int preferred = OrderIdRegistry.preferredId(pair[0]);
+        String neighbour = uuidPreferring(preferred + 1);
+
+        registry.idFor(neighbour);
+        registry.idFor(pair[0]);
+        int probed = registry.idFor(pair[1]);
+
+        assertEquals(preferred + 2, probed);
+        assertEquals(2, registry.getCollisionCount());
+    }
+
+    @Test
+    public void manyUuids_roundTripAcrossTableGrowth() {
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            String uuid = new UUID(i * 31L, i).toString();
+            int id = registry.idFor(uuid);
+            assertTrue(id > 0);
+            assertTrue(ids.add(id));
+        }
+
+        assertEquals(5_000, registry.size());
+        for (int i = 0; i < 5_000; i++) {
+            String uuid = new UUID(i * 31L, i).toString();
+            assertEquals(uuid, registry.uuidFor(registry.idFor(uuid)));
+        }
+    }
+
+    @Test
+    public void unassignedIds_resolveToNull() {
+        int id = registry.idFor("7b1f7c1e-2f1a-4d2b-9a57-0c1a2b3c4d5e");
+
+        assertNull(registry.uuidFor(0));
+        assertNull(registry.uuidFor(id == 1 ? 2 : id - 1));
+    }
+
+    @Test
+    public void clear_forgetsEveryAssignment() {
+        String uuid = "7b1f7c1e-2f1a-4d2b-9a57-0c1a2b3c4d5e";
+        int id = registry.idFor(uuid);
+
+        registry.clear();
+
+        assertEquals(0, registry.size());
+        assertNull(registry.uuidFor(id));
+        assertEquals(0, registry.getCollisionCount());
+    }
+
+    /**
+     * First two generated UUIDs that want the same compact id.
+     */
+    private static String[] collidingPair() {
+        Map<Integer, String> seen = new HashMap<>();
+        for (long i = 0; ; i++) {
+            String uuid = new UUID(0, i).toString();
+            String previous = seen.put(OrderIdRegistry.preferredId(uuid), uuid);
+            if (previous != null) {
+                return new String[] {previous, uuid};
+            }
+        }
+    }
+
+    private static String uuidPreferring(int id) {
+        for (long i = 0; ; i++) {
+            String uuid = new UUID(1, i).toString();
+            if (OrderIdRegistry.preferredId(uuid) == id) {
+                return uuid;
+            }
+        }
+    }
+}
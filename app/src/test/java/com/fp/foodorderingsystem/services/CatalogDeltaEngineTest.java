@@ -0,0 +1,145 @@
+package com.fp.foodorderingsystem.services;
+
+import com.fp.foodorderingsystem.models.FoodItem;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CatalogDeltaEngineTest {
+    private int selectedCategory; // 0 shows every category
+    private CatalogDeltaEngine<FoodItem> catalog;
+
+    @Before
+    public void setUp() {
+        catalog = new CatalogDeltaEngine<>(FoodItem.class, FoodItem::getId,
+            Comparator.comparing(FoodItem::getName),
+            item -> selectedCategory == 0 || item.getCategoryId() == selectedCategory);
+        catalog.replaceAll(Arrays.asList(item(1, 1, "Adobo"), item(3, 2, "Chicken Inasal")));
+    }
+
+    @Test
+    public void beforeFirstLoad_everyChangeIsAGap() {
+        CatalogDeltaEngine<FoodItem> empty = new CatalogDeltaEngine<>(
+            FoodItem.class, FoodItem::getId, Comparator.comparing(FoodItem::getName), null);
+
+        assertEquals(CatalogDeltaEngine.Change.Type.GAP, empty.apply(change("INSERT", 2, 1, "Bulalo")).type);
+        assertFalse(empty.isLoaded());
+    }
+
+    @Test
+    public void insert_landsAtItsSortedPosition() {
+        CatalogDeltaEngine.Change result = catalog.apply(change("INSERT", 2, 1, "Bulalo"));
+
+        assertChange(CatalogDeltaEngine.Change.Type.INSERTED, -1, 1, result);
+        assertEquals(Arrays.asList("Adobo", "Bulalo", "Chicken Inasal"), names());
+        assertEquals(3, catalog.size());
+    }
+
+    @Test
+    public void update_thatKeepsItsPosition_isAChange() {
+        CatalogDeltaEngine.Change result = catalog.apply(change("UPDATE", 1, 1, "Adobo Special"));
+
+        assertChange(CatalogDeltaEngine.Change.Type.CHANGED, 0, 0, result);
+        assertEquals("Adobo Special", catalog.snapshot().get(0).getName());
+    }
+
+    @Test
+    public void update_thatChangesTheSortKey_isAMove() {
+        CatalogDeltaEngine.Change result = catalog.apply(change("UPDATE", 1, 1, "Sisig"));
+
+        assertChange(CatalogDeltaEngine.Change.Type.MOVED, 0, 1, result);
+        assertEquals(Arrays.asList("Chicken Inasal", "Sisig"), names());
+    }
+
+    @Test
+    public void delete_removesTheRowByIdAlone() {
+        JsonObject oldRecord = new JsonObject();
+        oldRecord.addProperty("id", 3);
+        JsonObject payload = new JsonObject();
+        payload.addProperty("eventType", "DELETE");
+        payload.add("old_record", oldRecord);
+
+        CatalogDeltaEngine.Change result = catalog.apply(payload);
+
+        assertChange(CatalogDeltaEngine.Change.Type.REMOVED, 1, -1, result);
+        assertEquals(Arrays.asList("Adobo"), names());
+        assertEquals(1, catalog.size());
+    }
+
+    @Test
+    public void filteredOutRows_areKeptButNotShown() {
+        selectedCategory = 1;
+        catalog.refilter();
+        assertEquals(Arrays.asList("Adobo"), names());
+
+        assertEquals(CatalogDeltaEngine.Change.Type.NONE,
+            catalog.apply(change("UPDATE", 3, 2, "Chicken BBQ")).type);
+        assertChange(CatalogDeltaEngine.Change.Type.REMOVED, 0, -1,
+            catalog.apply(change("UPDATE", 1, 2, "Adobo")));
+
+        selectedCategory = 2;
+        catalog.refilter();
+        assertEquals(Arrays.asList("Adobo", "Chicken BBQ"), names());
+    }
+
+    @Test
+    public void invalidate_reportsGapsUntilTheNextFullLoad() {
+        catalog.invalidate();
+
+        assertEquals(CatalogDeltaEngine.Change.Type.GAP, catalog.apply(change("INSERT", 2, 1, "Bulalo")).type);
+        catalog.markCurrent();
+        assertChange(CatalogDeltaEngine.Change.Type.INSERTED, -1, 1, catalog.apply(change("INSERT", 2, 1, "Bulalo")));
+
+        catalog.invalidate();
+        catalog.replaceAll(new ArrayList<>());
+        assertFalse(catalog.isStale());
+        assertTrue(catalog.snapshot().isEmpty());
+    }
+
+    @Test
+    public void payloadWithoutARecord_isAGap() {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("eventType", "UPDATE");
+
+        assertEquals(CatalogDeltaEngine.Change.Type.GAP, catalog.apply(payload).type);
+        assertEquals(2, catalog.size());
+    }
+
+    private List<String> names() {
+        List<String> names = new ArrayList<>();
+        for (FoodItem item : catalog.snapshot()) {
+            names.add(item.getName());
+        }
+        return names;
+    }
+
+    private static void assertChange(CatalogDeltaEngine.Change.Type type, int from, int to, CatalogDeltaEngine.Change change) {
+        assertEquals(type, change.type);
+        assertEquals(from, change.fromPosition);
+        assertEquals(to, change.toPosition);
+    }
+
+    private static FoodItem item(int id, int categoryId, String name) {
+        FoodItem item = new FoodItem(name, "", 100.0, categoryId);
+        item.setId(id);
+        return item;
+    }
+
+    private static JsonObject change(String eventType, int id, int categoryId, String name) {
+        JsonObject record = new JsonObject();
+        record.addProperty("id", id);
+        record.addProperty("category_id", categoryId);
+        record.addProperty("name", name);
+        record.addProperty("price", 100.0);
+        JsonObject payload = new JsonObject();
+        payload.addProperty("eventType", eventType);
+        payload.add("record", record);
+        return payload;
+    }
+}
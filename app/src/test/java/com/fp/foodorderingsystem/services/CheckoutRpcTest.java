@@ -0,0 +1,224 @@
+package com.fp.foodorderingsystem.services;
+
+import com.fp.foodorderingsystem.models.CartItem;
+import com.fp.foodorderingsystem.models.Order;
+import com.fp.foodorderingsystem.utils.GsonProvider;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs {@link CheckoutRpc} against an in-process PostgREST stand-in that implements
+ * {@code place_order} with the same all-or-nothing semantics as the SQL function.
+ */
+public class CheckoutRpcTest {
+    private static final String CUSTOMER_ID = "7b1f7c1e-2f1a-4d2b-9a57-0c1a2b3c4d5e";
+
+    private final Gson gson = GsonProvider.get();
+    private final OkHttpClient client = new OkHttpClient();
+    private FakePostgrest server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FakePostgrest(new HashSet<>(Arrays.asList(1, 2, 3)));
+        server.cart.add(CUSTOMER_ID);
+        server.cart.add("someone-else");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop();
+    }
+
+    @Test
+    public void placeOrder_createsOrderItemsAndClearsCartInOneRoundTrip() throws IOException {
+        Order order = new Order(CUSTOMER_ID, 250.0, "cod", "123 Main St");
+        List<CartItem> items = Arrays.asList(cartItem(1, 2, 75.0), cartItem(3, 1, 100.0));
+
+        Order placed = CheckoutRpc.place(client, request(CheckoutRpc.buildPayload(order, items)), gson);
+
+        assertEquals(1, server.requests.get());
+        assertNotNull(placed.getIdString());
+        assertEquals(CUSTOMER_ID, placed.getCustomerId());
+        assertEquals(250.0, placed.getTotalAmount(), 0.0001);
+        assertEquals("pending", placed.getStatus());
+        assertNotNull(placed.getItems());
+        assertEquals(2, placed.getItems().size());
+        assertEquals(1, placed.getItems().get(0).getMenuItemId());
+        assertEquals(2, placed.getItems().get(0).getQuantity());
+
+        assertEquals(1, server.orders.size());
+        assertEquals(2, server.orderItems.size());
+        assertFalse(server.cart.contains(CUSTOMER_ID));
+        assertTrue(server.cart.contains("someone-else"));
+    }
+
+    @Test
+    public void placeOrder_invalidItemPersistsNothing() throws IOException {
+        Order order = new Order(CUSTOMER_ID, 175.0, "cod", "123 Main St");
+        List<CartItem> items = Arrays.asList(cartItem(1, 1, 75.0), cartItem(99, 1, 100.0));
+
+        try {
+            CheckoutRpc.place(client, request(CheckoutRpc.buildPayload(order, items)), gson);
+            fail("Expected the checkout to be rejected");
+        } catch (CheckoutRpc.CheckoutException e) {
+            assertEquals(409, e.statusCode);
+            assertEquals("23503", e.code);
+            assertFalse(e.isMissingFunction());
+        }
+
+        assertTrue(server.orders.isEmpty());
+        assertTrue(server.orderItems.isEmpty());
+        assertTrue(server.cart.contains(CUSTOMER_ID));
+    }
+
+    @Test
+    public void missingFunction_isReportedForFallback() throws IOException {
+        server.functionDeployed = false;
+        Order order = new Order(CUSTOMER_ID, 75.0, "cod", "123 Main St");
+
+        try {
+            CheckoutRpc.place(client, request(CheckoutRpc.buildPayload(order, Arrays.asList(cartItem(1, 1, 75.0)))), gson);
+            fail("Expected PGRST202");
+        } catch (CheckoutRpc.CheckoutException e) {
+            assertTrue(e.isMissingFunction());
+        }
+        assertTrue(server.cart.contains(CUSTOMER_ID));
+    }
+
+    private okhttp3.Request request(JsonObject payload) {
+        return CheckoutRpc.buildRequest(server.baseUrl(), "anon-key", "access-token", payload);
+    }
+
+    private static CartItem cartItem(int menuItemId, int quantity, double unitPrice) {
+        CartItem item = new CartItem();
+        item.setMenuItemId(menuItemId);
+        item.setQuantity(quantity);
+        item.setUnitPrice(unitPrice);
+        item.setTotalPrice(unitPrice * quantity);
+        return item;
+    }
+
+    /**
+     * Minimal PostgREST stand-in: {@code POST /rest/v1/rpc/place_order} over in-memory tables.
+     * Validation happens before any write, mirroring a rolled-back transaction.
+     */
+    private static final class FakePostgrest {
+        final List<JsonObject> orders = new ArrayList<>();
+        final List<JsonObject> orderItems = new ArrayList<>();
+        /** Customer ids with a non-empty cart. */
+        final Set<String> cart = new HashSet<>();
+        final AtomicInteger requests = new AtomicInteger();
+        volatile boolean functionDeployed = true;
+
+        private final Set<Integer> menuItemIds;
+        private final MockWebServer server = new MockWebServer();
+        private int nextItemId = 1;
+
+        FakePostgrest(Set<Integer> menuItemIds) throws IOException {
+            this.menuItemIds = menuItemIds;
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    return handle(request);
+                }
+            });
+            server.start();
+        }
+
+        String baseUrl() {
+            return "http://" + server.getHostName() + ":" + server.getPort();
+        }
+
+        void stop() throws IOException {
+            server.shutdown();
+        }
+
+        private MockResponse handle(RecordedRequest request) {
+            requests.incrementAndGet();
+            String path = request.getRequestUrl().encodedPath();
+            if (!functionDeployed || !path.equals("/rest/v1/rpc/" + CheckoutRpc.FUNCTION)) {
+                return respond(404, error("PGRST202", "Could not find the function in the schema cache"));
+            }
+            if (request.getHeader("Authorization") == null) {
+                return respond(401, error("PGRST301", "JWT required"));
+            }
+            JsonObject args = GsonProvider.get().fromJson(request.getBody().readUtf8(), JsonObject.class);
+            synchronized (this) {
+                return respondToPlaceOrder(args);
+            }
+        }
+
+        private MockResponse respondToPlaceOrder(JsonObject args) {
+            JsonArray items = args.getAsJsonArray("p_items");
+            if (items == null || items.size() == 0) {
+                return respond(400, error("22023", "Order must contain at least one item"));
+            }
+            for (JsonElement element : items) {
+                int menuItemId = element.getAsJsonObject().get("menu_item_id").getAsInt();
+                if (!menuItemIds.contains(menuItemId)) {
+                    return respond(409, error("23503",
+                        "insert or update on table \"order_items\" violates foreign key constraint"));
+                }
+            }
+
+            String customerId = args.get("p_customer_id").getAsString();
+            JsonObject order = new JsonObject();
+            order.addProperty("id", UUID.randomUUID().toString());
+            order.addProperty("customer_id", customerId);
+            order.addProperty("total_amount", args.get("p_total_amount").getAsDouble());
+            order.addProperty("status", args.get("p_status").getAsString());
+            order.addProperty("payment_method", args.get("p_payment_method").getAsString());
+            order.addProperty("delivery_address", args.get("p_delivery_address").getAsString());
+            order.addProperty("created_at", "2026-01-01T00:00:00+00:00");
+            orders.add(order);
+
+            JsonArray created = new JsonArray();
+            for (JsonElement element : items) {
+                JsonObject row = element.getAsJsonObject().deepCopy();
+                row.addProperty("id", nextItemId++);
+                row.addProperty("order_id", order.get("id").getAsString());
+                orderItems.add(row);
+                created.add(row);
+            }
+            cart.remove(customerId);
+
+            JsonObject result = order.deepCopy();
+            result.add("items", created);
+            return respond(200, result.toString());
+        }
+
+        private static String error(String code, String message) {
+            JsonObject error = new JsonObject();
+            error.addProperty("code", code);
+            error.addProperty("message", message);
+            return error.toString();
+        }
+
+        private static MockResponse respond(int status, String body) {
+            return new MockResponse()
+                .setResponseCode(status)
+                .addHeader("Content-Type", "application/json")
+                .setBody(body);
+        }
+    }
+}
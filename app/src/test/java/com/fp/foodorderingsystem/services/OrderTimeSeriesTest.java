@@ -0,0 +1,146 @@
+package com.fp.foodorderingsystem.services;
+
+import com.fp.foodorderingsystem.models.Order;
+import com.fp.foodorderingsystem.utils.DateUtil;
+import com.fp.foodorderingsystem.utils.GsonProvider;
+import com.google.gson.JsonObject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TimeZone;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OrderTimeSeriesTest {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long NOW = DateUtil.parseTimestamp("2026-10-17T12:30:00+00:00");
+
+    private final OrderTimeSeries series = new OrderTimeSeries(UTC);
+
+    @Test
+    public void hourlyOrders_areBucketedByCreationHour() {
+        series.replaceAll(Arrays.asList(
+            order("a", "2026-10-17T10:15:00+00:00", "pending", 100),
+            order("b", "2026-10-17T10:45:00+00:00", "pending", 100),
+            order("c", "2026-10-17T12:05:00+00:00", "pending", 100)));
+
+        assertArrayEquals(new int[] {2, 0, 1}, series.hourlyOrders(3, NOW));
+    }
+
+    @Test
+    public void dailyRevenue_countsCompletedOrdersOnly() {
+        series.replaceAll(Arrays.asList(
+            order("a", "2026-10-17T09:00:00+00:00", "completed", 200),
+            order("b", "2026-10-17T11:00:00+00:00", "pending", 100),
+            order("c", "2026-10-16T20:00:00+00:00", "completed", 50.25)));
+
+        assertArrayEquals(new int[] {1, 2}, series.dailyOrders(2, NOW));
+        double[] revenue = series.dailyRevenue(2, NOW);
+        assertEquals(50.25, revenue[0], 0.001);
+        assertEquals(200.0, revenue[1], 0.001);
+
+        OrderTimeSeries.Totals totals = series.totals();
+        assertEquals(3, totals.orders);
+        assertEquals(1, totals.pendingOrders);
+        assertEquals(2, totals.completedOrders);
+        assertEquals(250.25, totals.completedRevenue, 0.001);
+    }
+
+    @Test
+    public void update_movesTheOrdersContribution() {
+        series.replaceAll(Arrays.asList(
+            order("a", "2026-10-17T09:00:00+00:00", "completed", 200),
+            order("b", "2026-10-17T11:00:00+00:00", "pending", 100)));
+
+        assertTrue(series.apply(change("UPDATE", record("b", "2026-10-17T11:00:00+00:00", "completed", 100))));
+
+        OrderTimeSeries.Totals totals = series.totals();
+        assertEquals(2, totals.orders);
+        assertEquals(0, totals.pendingOrders);
+        assertEquals(2, totals.completedOrders);
+        assertEquals(300.0, totals.completedRevenue, 0.001);
+        assertEquals(300.0, series.dailyRevenue(1, NOW)[0], 0.001);
+        // Still one order per row, not counted again
+        assertArrayEquals(new int[] {2}, series.dailyOrders(1, NOW));
+    }
+
+    @Test
+    public void delete_takesTheOrderBackOut() {
+        series.replaceAll(Arrays.asList(
+            order("a", "2026-10-17T09:00:00+00:00", "completed", 200),
+            order("b", "2026-10-17T11:00:00+00:00", "pending", 100)));
+        JsonObject oldRecord = new JsonObject();
+        oldRecord.addProperty("id", "a");
+        JsonObject delete = new JsonObject();
+        delete.addProperty("eventType", "DELETE");
+        delete.add("old_record", oldRecord);
+
+        assertTrue(series.apply(delete));
+        assertFalse(series.apply(delete));
+
+        assertEquals(1, series.totals().orders);
+        assertEquals(0.0, series.totals().completedRevenue, 0.001);
+        assertArrayEquals(new int[] {1}, series.dailyOrders(1, NOW));
+    }
+
+    @Test
+    public void ordersOutsideTheWindow_countOnlyTowardTheTotals() {
+        series.replaceAll(Collections.singletonList(order("a", "2026-10-17T12:00:00+00:00", "completed", 80)));
+        // Same ring slots as the current hour and day, but a full window earlier
+        series.apply(change("INSERT", record("old-hour", "2026-10-15T12:10:00+00:00", "pending", 10)));
+        series.apply(change("INSERT", record("old-day", "2026-09-16T12:00:00+00:00", "completed", 20)));
+
+        assertEquals(1, series.hourlyOrders(OrderTimeSeries.HOURS, NOW)[OrderTimeSeries.HOURS - 1]);
+        assertEquals(1, series.dailyOrders(OrderTimeSeries.DAYS, NOW)[OrderTimeSeries.DAYS - 1]);
+        assertEquals(80.0, series.dailyRevenue(1, NOW)[0], 0.001);
+        assertEquals(3, series.totals().orders);
+        assertEquals(100.0, series.totals().completedRevenue, 0.001);
+    }
+
+    @Test
+    public void dayBuckets_startAtLocalMidnight() {
+        OrderTimeSeries manila = new OrderTimeSeries(TimeZone.getTimeZone("Asia/Manila"));
+        // 01:00 on the 17th in Manila (UTC+8), still the 16th in UTC
+        Order lateNight = order("a", "2026-10-16T17:00:00+00:00", "pending", 100);
+        long noonInManila = DateUtil.parseTimestamp("2026-10-17T04:00:00+00:00");
+
+        manila.replaceAll(Collections.singletonList(lateNight));
+        series.replaceAll(Collections.singletonList(lateNight));
+
+        assertArrayEquals(new int[] {0, 1}, manila.dailyOrders(2, noonInManila));
+        assertArrayEquals(new int[] {1, 0}, series.dailyOrders(2, noonInManila));
+    }
+
+    @Test
+    public void unparseableCreatedAt_countsOnlyTowardTheTotals() {
+        series.replaceAll(Collections.singletonList(order("a", "not a date", "pending", 100)));
+
+        assertEquals(1, series.totals().orders);
+        assertArrayEquals(new int[] {0}, series.dailyOrders(1, NOW));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void seriesLongerThanTheWindow_isRejected() {
+        series.hourlyOrders(OrderTimeSeries.HOURS + 1, NOW);
+    }
+
+    private static Order order(String id, String createdAt, String status, double total) {
+        return GsonProvider.get().fromJson(record(id, createdAt, status, total), Order.class);
+    }
+
+    private static JsonObject record(String id, String createdAt, String status, double total) {
+        JsonObject record = new JsonObject();
+        record.addProperty("id", id);
+        record.addProperty("created_at", createdAt);
+        record.addProperty("status", status);
+        record.addProperty("total_amount", total);
+        return record;
+    }
+
+    private static JsonObject change(String eventType, JsonObject record) {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("eventType", eventType);
+        payload.add("record", record);
+        return payload;
+    }
+}
@@ -0,0 +1,142 @@
+package com.fp.foodorderingsystem.services;
+
+import com.google.gson.JsonObject;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RealtimeBatcherTest {
+    private static final long LONG_WINDOW_MS = 60_000;
+
+    private final List<List<JsonObject>> batches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstBatch = new CountDownLatch(1);
+    private RealtimeBatcher batcher;
+
+    @After
+    public void tearDown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    @Test
+    public void fullBatch_flushesWithoutWaitingForTheWindow() {
+        batcher = newBatcher(LONG_WINDOW_MS, 3);
+
+        batcher.onChange(change("orders", "UPDATE", 1, "pending"));
+        batcher.onChange(change("orders", "UPDATE", 2, "pending"));
+        assertTrue(batches.isEmpty());
+        batcher.onChange(change("orders", "UPDATE", 3, "pending"));
+
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+        assertEquals(1, batcher.getBatchCount());
+    }
+
+    @Test
+    public void window_flushesWhatArrivedDuringIt() throws InterruptedException {
+        batcher = newBatcher(50, 100);
+
+        batcher.onChange(change("orders", "INSERT", 1, "pending"));
+        batcher.onChange(change("orders", "INSERT", 2, "pending"));
+        assertTrue(batches.isEmpty());
+
+        assertTrue(firstBatch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+    }
+
+    @Test
+    public void newerChange_supersedesThePendingOneForTheSameRow() {
+        batcher = newBatcher(LONG_WINDOW_MS, 10);
+
+        batcher.onChange(change("orders", "INSERT", 1, "pending"));
+        batcher.onChange(change("orders", "UPDATE", 2, "pending"));
+        batcher.onChange(change("orders", "UPDATE", 1, "preparing"));
+        batcher.flush();
+
+        List<JsonObject> batch = batches.get(0);
+        assertEquals(2, batch.size());
+        // Ordered by the arrival of each row's latest change
+        assertEquals(2, idOf(batch.get(0)));
+        assertEquals(1, idOf(batch.get(1)));
+        assertEquals("preparing", batch.get(1).getAsJsonObject("record").get("status").getAsString());
+        assertEquals(3, batcher.getReceivedCount());
+        assertEquals(1, batcher.getSupersededCount());
+    }
+
+    @Test
+    public void sameIdInAnotherTable_isADifferentRow() {
+        batcher = newBatcher(LONG_WINDOW_MS, 10);
+
+        batcher.onChange(change("orders", "UPDATE", 1, "pending"));
+        batcher.onChange(change("order_items", "UPDATE", 1, "pending"));
+        batcher.flush();
+
+        assertEquals(2, batches.get(0).size());
+        assertEquals(0, batcher.getSupersededCount());
+    }
+
+    @Test
+    public void changesWithoutAKey_areAllKept() {
+        batcher = newBatcher(LONG_WINDOW_MS, 10);
+        JsonObject unkeyed = new JsonObject();
+        unkeyed.addProperty("table", "orders");
+        unkeyed.addProperty("eventType", "UPDATE");
+
+        batcher.onChange(unkeyed);
+        batcher.onChange(unkeyed);
+        batcher.flush();
+
+        assertEquals(2, batches.get(0).size());
+    }
+
+    @Test
+    public void close_dropsPendingChanges() {
+        batcher = newBatcher(LONG_WINDOW_MS, 10);
+
+        batcher.onChange(change("orders", "UPDATE", 1, "pending"));
+        batcher.close();
+        batcher.flush();
+        batcher.onChange(change("orders", "UPDATE", 2, "pending"));
+
+        assertTrue(batches.isEmpty());
+        assertEquals(1, batcher.getReceivedCount());
+    }
+
+    private RealtimeBatcher newBatcher(long windowMs, int maxBatch) {
+        return new RealtimeBatcher(windowMs, maxBatch, Runnable::run, new RealtimeBatcher.BatchListener() {
+            @Override
+            public void onOpen() { }
+
+            @Override
+            public void onBatch(List<JsonObject> changes) {
+                batches.add(changes);
+                firstBatch.countDown();
+            }
+
+            @Override
+            public void onError(String error) { }
+        });
+    }
+
+    private static JsonObject change(String table, String eventType, int id, String status) {
+        JsonObject record = new JsonObject();
+        record.addProperty("id", id);
+        record.addProperty("status", status);
+        JsonObject change = new JsonObject();
+        change.addProperty("table", table);
+        change.addProperty("eventType", eventType);
+        change.add("record", record);
+        return change;
+    }
+
+    private static int idOf(JsonObject change) {
+        return change.getAsJsonObject("record").get("id").getAsInt();
+    }
+}
@@ -0,0 +1,410 @@
+package com.fp.foodorderingsystem.services;
+
+import com.fp.foodorderingsystem.utils.GsonProvider;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the realtime path ({@link RealtimeSocket} -> {@link RealtimeDispatcher} ->
+ * {@link SupabaseRealtimeClient} listeners and {@link RealtimeDashboardManager}) from an
+ * in-process server that speaks the Supabase Realtime Phoenix protocol, and reports
+ * throughput, delivery latency and allocation for a synthetic order stream.
+ */
+public class RealtimeLoadHarnessTest {
+    private static final String TOPIC = "realtime:public:orders";
+    private static final int LOAD_EVENTS = 20_000;
+    private static final int LOAD_RATE_PER_SECOND = 10_000;
+    private static final int LOAD_DISTINCT_ORDERS = 500;
+
+    private final Gson gson = GsonProvider.get();
+    private final OkHttpClient client = new OkHttpClient();
+    private final List<SupabaseRealtimeClient> clients = new ArrayList<>();
+    private PhoenixStandIn server;
+    private RealtimeSocket socket;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new PhoenixStandIn();
+        socket = new RealtimeSocket(server.baseUrl(), "test-anon-key", client);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (SupabaseRealtimeClient realtimeClient : clients) {
+            realtimeClient.disconnect();
+        }
+        server.stop();
+        OrderRepository.get().clear();
+    }
+
+    @Test
+    public void recordedStream_updatesDashboardMetrics() throws Exception {
+        List<JsonObject> recording = loadRecording("/realtime/orders_stream.jsonl");
+        RealtimeDashboardManager dashboard = new RealtimeDashboardManager(null, newClient());
+        dashboard.subscribeToChanges();
+        CountDownLatch delivered = new CountDownLatch(recording.size());
+        SupabaseRealtimeClient probe = newClient();
+        probe.subscribeToTable("public", "orders", countingListener(delivered, null));
+
+        assertTrue("join acknowledged", server.awaitJoined(TOPIC, 5, TimeUnit.SECONDS));
+        server.replay(TOPIC, recording, 100);
+        assertTrue("all recorded changes delivered", delivered.await(10, TimeUnit.SECONDS));
+
+        RealtimeDashboardManager.DashboardMetrics metrics = dashboard.getMetrics();
+        assertEquals(3, metrics.totalOrders);
+        assertEquals(2, metrics.completedOrders);
+        assertEquals(1, metrics.cancelledOrders);
+        assertEquals(0, metrics.pendingOrders);
+        assertEquals(350.0, metrics.totalRevenue, 0.001);
+        assertEquals(1, server.joinCount(TOPIC)); // both clients share one channel
+    }
+
+    @Test
+    public void heartbeat_measuresRoundTrip() throws Exception {
+        SupabaseRealtimeClient probe = newClient();
+        probe.subscribeToTable("public", "orders", countingListener(new CountDownLatch(1), null));
+        assertTrue(server.awaitJoined(TOPIC, 5, TimeUnit.SECONDS));
+
+        socket.sendHeartbeat();
+        assertTrue("heartbeat reply matched", awaitHealth(health -> health.rttSamples == 1));
+        RealtimeHealth health = socket.getHealth();
+        assertTrue(health.connected);
+        assertEquals(1, health.joinedChannels);
+        assertEquals(0, health.missedHeartbeats);
+    }
+
+    @Test
+    public void unansweredHeartbeats_dropConnectionAndRejoin() throws Exception {
+        SupabaseRealtimeClient probe = newClient();
+        probe.subscribeToTable("public", "orders", countingListener(new CountDownLatch(1), null));
+        assertTrue(server.awaitJoined(TOPIC, 5, TimeUnit.SECONDS));
+
+        server.answerHeartbeats = false;
+        for (int i = 0; i <= RealtimeSocket.MAX_MISSED_HEARTBEATS; i++) {
+            socket.sendHeartbeat();
+        }
+        assertEquals(1, socket.getHealth().deadConnections);
+        assertTrue("rejoined after reconnect", awaitHealth(health -> health.reconnects == 1 && health.joinedChannels == 1));
+        assertEquals(2, server.joinCount(TOPIC));
+    }
+
+    @Test
+    public void load_syntheticOrderStream() throws Exception {
+        socket.getDispatcher().configure(RealtimeDispatcher.DEFAULT_CAPACITY, RealtimeDispatcher.OverflowPolicy.BLOCK);
+        List<JsonObject> stream = syntheticOrderStream(LOAD_EVENTS, LOAD_DISTINCT_ORDERS);
+
+        RealtimeDashboardManager dashboard = new RealtimeDashboardManager(null, newClient());
+        dashboard.subscribeToChanges();
+        long[] latenciesNanos = new long[LOAD_EVENTS];
+        CountDownLatch delivered = new CountDownLatch(LOAD_EVENTS);
+        SupabaseRealtimeClient probe = newClient();
+        probe.subscribeToTable("public", "orders", countingListener(delivered, latenciesNanos));
+        assertTrue(server.awaitJoined(TOPIC, 5, TimeUnit.SECONDS));
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocatedBefore = allocatedBytes(threads);
+        long started = System.nanoTime();
+        server.replay(TOPIC, stream, LOAD_RATE_PER_SECOND);
+        long sendNanos = System.nanoTime() - started;
+        assertTrue("all changes delivered", delivered.await(60, TimeUnit.SECONDS));
+        long totalNanos = System.nanoTime() - started;
+        long allocatedAfter = allocatedBytes(threads);
+
+        RealtimeDispatcher.Metrics dispatch = socket.getDispatcher().getMetrics();
+        assertEquals(0, dispatch.dropped);
+        assertEquals(LOAD_DISTINCT_ORDERS, dashboard.getMetrics().totalOrders);
+
+        Arrays.sort(latenciesNanos);
+        System.out.println(String.format(Locale.US,
+            "Realtime load: %d events, offered %d/s, sent in %.0f ms, delivered %.0f events/s; "
+                + "latency p50=%.2f ms p95=%.2f ms p99=%.2f ms max=%.2f ms; %s; %s",
+            LOAD_EVENTS, LOAD_RATE_PER_SECOND, sendNanos / 1e6,
+            LOAD_EVENTS / (totalNanos / 1e9),
+            percentileMs(latenciesNanos, 50), percentileMs(latenciesNanos, 95),
+            percentileMs(latenciesNanos, 99), latenciesNanos[latenciesNanos.length - 1] / 1e6,
+            allocatedBefore >= 0 && allocatedAfter >= 0
+                ? String.format(Locale.US, "~%d bytes allocated/event (all threads, incl. server)",
+                    (allocatedAfter - allocatedBefore) / LOAD_EVENTS)
+                : "allocation counters unavailable",
+            dispatch));
+    }
+
+    private SupabaseRealtimeClient newClient() {
+        SupabaseRealtimeClient realtimeClient = new SupabaseRealtimeClient(socket);
+        clients.add(realtimeClient);
+        return realtimeClient;
+    }
+
+    private interface HealthCondition {
+        boolean test(RealtimeHealth health);
+    }
+
+    private boolean awaitHealth(HealthCondition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.test(socket.getHealth())) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private static SupabaseRealtimeClient.RealtimeListener countingListener(CountDownLatch latch, long[] latenciesNanos) {
+        AtomicInteger seen = new AtomicInteger();
+        return new SupabaseRealtimeClient.RealtimeListener() {
+            @Override
+            public void onOpen() { }
+
+            @Override
+            public void onChange(JsonObject payload) {
+                int index = seen.getAndIncrement();
+                if (latenciesNanos != null && index < latenciesNanos.length && payload.has(PhoenixStandIn.SENT_AT)) {
+                    latenciesNanos[index] = System.nanoTime() - payload.get(PhoenixStandIn.SENT_AT).getAsLong();
+                }
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(String error) { }
+        };
+    }
+
+    private List<JsonObject> loadRecording(String resource) throws IOException {
+        List<JsonObject> changes = new ArrayList<>();
+        try (InputStream in = getClass().getResourceAsStream(resource)) {
+            assertNotNull("missing " + resource, in);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            for (String line; (line = reader.readLine()) != null; ) {
+                if (!line.trim().isEmpty()) {
+                    changes.add(gson.fromJson(line, JsonObject.class));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * INSERTs for {@code distinctOrders} orders, then status UPDATEs cycling through them.
+     */
+    private static List<JsonObject> syntheticOrderStream(int events, int distinctOrders) {
+        String[] ids = new String[distinctOrders];
+        for (int i = 0; i < distinctOrders; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+        String[] statuses = {"preparing", "delivering", "completed"};
+        List<JsonObject> changes = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            boolean insert = i < distinctOrders;
+            JsonObject record = new JsonObject();
+            record.addProperty("id", ids[i % distinctOrders]);
+            record.addProperty("customer_id", "7b1f7c1e-2f1a-4d2b-9a57-0c1a2b3c4d5e");
+            record.addProperty("total_amount", 50 + (i % distinctOrders));
+            record.addProperty("status", insert ? "pending" : statuses[(i / distinctOrders) % statuses.length]);
+            record.addProperty("payment_method", "cod");
+            record.addProperty("created_at", "2025-03-14T09:00:00.000000+00:00");
+            record.addProperty("updated_at", String.format(Locale.US, "2025-03-14T10:%02d:%02d.%06d+00:00",
+                (i / 60_000) % 60, (i / 1000) % 60, (i % 1000) * 1000));
+
+            JsonObject change = new JsonObject();
+            change.addProperty("schema", "public");
+            change.addProperty("table", "orders");
+            change.addProperty("commit_timestamp", "2025-03-14T10:00:00Z");
+            change.addProperty("type", insert ? "INSERT" : "UPDATE");
+            change.add("record", record);
+            if (!insert) {
+                JsonObject old = new JsonObject();
+                old.addProperty("id", ids[i % distinctOrders]);
+                change.add("old_record", old);
+            }
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    private static double percentileMs(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(sortedNanos.length * percentile / 100.0) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : hotspot.getThreadAllocatedBytes(hotspot.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    /**
+     * Minimal Supabase Realtime server: acknowledges phx_join/phx_leave and heartbeats, and
+     * pushes postgres_changes frames at a chosen rate. Each pushed change carries the send time
+     * in {@link #SENT_AT} so the client side can compute delivery latency.
+     */
+    static final class PhoenixStandIn {
+        static final String SENT_AT = "harness_sent_nanos";
+
+        private final MockWebServer server = new MockWebServer();
+        private final Gson gson = new Gson();
+        private final Map<String, String> joinRefs = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> joinCounts = new ConcurrentHashMap<>();
+        private volatile WebSocket clientSocket;
+        volatile boolean answerHeartbeats = true;
+
+        PhoenixStandIn() throws IOException {
+            // One upgrade per connection; enough for reconnect tests as well
+            for (int i = 0; i < 4; i++) {
+                server.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+                    @Override
+                    public void onOpen(WebSocket webSocket, Response response) {
+                        clientSocket = webSocket;
+                    }
+
+                    @Override
+                    public void onMessage(WebSocket webSocket, String text) {
+                        handle(webSocket, gson.fromJson(text, JsonObject.class));
+                    }
+                }));
+            }
+            server.start();
+        }
+
+        String baseUrl() {
+            return server.url("/").toString();
+        }
+
+        void stop() throws IOException {
+            server.shutdown();
+        }
+
+        boolean awaitJoined(String topic, long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!joinRefs.containsKey(topic)) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(5);
+            }
+            return true;
+        }
+
+        int joinCount(String topic) {
+            AtomicInteger count = joinCounts.get(topic);
+            return count != null ? count.get() : 0;
+        }
+
+        /**
+         * Push the changes to the joined topic, paced to {@code eventsPerSecond}.
+         */
+        void replay(String topic, List<JsonObject> changes, int eventsPerSecond) {
+            String joinRef = joinRefs.get(topic);
+            long intervalNanos = 1_000_000_000L / eventsPerSecond;
+            long started = System.nanoTime();
+            for (int i = 0; i < changes.size(); i++) {
+                long due = started + i * intervalNanos;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                JsonObject data = changes.get(i).deepCopy();
+                data.addProperty(SENT_AT, System.nanoTime());
+
+                JsonArray ids = new JsonArray();
+                ids.add(1);
+                JsonObject payload = new JsonObject();
+                payload.add("ids", ids);
+                payload.add("data", data);
+                clientSocket.send(message(topic, "postgres_changes", payload, null, joinRef));
+            }
+        }
+
+        private void handle(WebSocket webSocket, JsonObject message) {
+            String topic = message.get("topic").getAsString();
+            String event = message.get("event").getAsString();
+            String ref = message.has("ref") && !message.get("ref").isJsonNull() ? message.get("ref").getAsString() : null;
+            String joinRef = message.has("join_ref") && !message.get("join_ref").isJsonNull()
+                ? message.get("join_ref").getAsString() : null;
+
+            JsonObject response = new JsonObject();
+            switch (event) {
+                case "phx_join":
+                    JsonArray changes = new JsonArray();
+                    JsonObject config = message.getAsJsonObject("payload").getAsJsonObject("config");
+                    for (int i = 0; i < config.getAsJsonArray("postgres_changes").size(); i++) {
+                        JsonObject binding = config.getAsJsonArray("postgres_changes").get(i).getAsJsonObject().deepCopy();
+                        binding.addProperty("id", i + 1);
+                        changes.add(binding);
+                    }
+                    response.add("postgres_changes", changes);
+                    joinCounts.computeIfAbsent(topic, t -> new AtomicInteger()).incrementAndGet();
+                    webSocket.send(reply(topic, ref, joinRef, response));
+                    joinRefs.put(topic, joinRef);
+                    break;
+                case "phx_leave":
+                    joinRefs.remove(topic);
+                    webSocket.send(reply(topic, ref, joinRef, response));
+                    break;
+                case "heartbeat":
+                    if (answerHeartbeats) {
+                        webSocket.send(reply(topic, ref, null, response));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private String reply(String topic, String ref, String joinRef, JsonObject response) {
+            JsonObject payload = new JsonObject();
+            payload.addProperty("status", "ok");
+            payload.add("response", response);
+            return message(topic, "phx_reply", payload, ref, joinRef);
+        }
+
+        private static String message(String topic, String event, JsonObject payload, String ref, String joinRef) {
+            JsonObject message = new JsonObject();
+            message.addProperty("topic", topic);
+            message.addProperty("event", event);
+            message.add("payload", payload);
+            message.addProperty("ref", ref);
+            message.addProperty("join_ref", joinRef);
+            return message.toString();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.fp.foodorderingsystem.services;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RequestCoalescerTest {
+    private static final String KEY = "GET /rest/v1/orders?status=eq.pending";
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Recorder leader = new Recorder();
+    private Thread leaderThread;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        if (leaderThread != null) {
+            leaderThread.join(5000);
+        }
+    }
+
+    @Test
+    public void callerDuringFlight_joinsAndGetsTheLeadersResult() throws Exception {
+        startBlockedLeader("orders");
+        Recorder follower = new Recorder();
+
+        coalescer.execute(KEY, "orders", failingLoader(), follower);
+
+        // The follower registered and returned without running a load of its own
+        assertNull(follower.result);
+        assertEquals(1, coalescer.getJoinedCount());
+
+        finishLeader();
+        assertEquals("rows", leader.result);
+        assertTrue(leader.leader);
+        assertEquals("rows", follower.result);
+        assertFalse(follower.leader);
+        assertEquals(1, coalescer.getFlightCount());
+    }
+
+    @Test
+    public void failure_isDeliveredToEveryCaller() throws Exception {
+        IOException failure = new IOException("timeout");
+        leaderThread = new Thread(() -> coalescer.execute(KEY, "orders", () -> {
+            started.countDown();
+            release.await();
+            throw failure;
+        }, leader));
+        leaderThread.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Recorder follower = new Recorder();
+
+        coalescer.execute(KEY, "orders", failingLoader(), follower);
+        finishLeader();
+
+        assertSame(failure, leader.error);
+        assertSame(failure, follower.error);
+    }
+
+    @Test
+    public void invalidatedScope_startsANewFlight() throws Exception {
+        startBlockedLeader("orders");
+        AtomicInteger loads = new AtomicInteger();
+        Recorder fresh = new Recorder();
+
+        coalescer.invalidate("orders");
+        coalescer.execute(KEY, "orders", () -> {
+            loads.incrementAndGet();
+            return "fresh";
+        }, fresh);
+
+        assertEquals(1, loads.get());
+        assertEquals("fresh", fresh.result);
+        assertTrue(fresh.leader);
+        assertEquals(0, coalescer.getJoinedCount());
+
+        // The stale flight still completes for the caller that started it
+        finishLeader();
+        assertEquals("rows", leader.result);
+        assertEquals(2, coalescer.getFlightCount());
+    }
+
+    @Test
+    public void otherScopeInvalidated_stillJoins() throws Exception {
+        startBlockedLeader("orders");
+        Recorder follower = new Recorder();
+
+        coalescer.invalidate("menu_items");
+        coalescer.execute(KEY, "orders", failingLoader(), follower);
+        finishLeader();
+
+        assertEquals("rows", follower.result);
+        assertEquals(1, coalescer.getJoinedCount());
+        assertEquals(1, coalescer.getFlightCount());
+    }
+
+    @Test
+    public void completedFlight_isNotReused() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+
+        coalescer.execute(KEY, "orders", () -> "first", first);
+        coalescer.execute(KEY, "orders", () -> "second", second);
+
+        assertEquals("first", first.result);
+        assertEquals("second", second.result);
+        assertTrue(second.leader);
+        assertEquals(2, coalescer.getFlightCount());
+    }
+
+    private void startBlockedLeader(String scope) throws InterruptedException {
+        leaderThread = new Thread(() -> coalescer.execute(KEY, scope, () -> {
+            started.countDown();
+            release.await();
+            return "rows";
+        }, leader));
+        leaderThread.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    private void finishLeader() throws InterruptedException {
+        release.countDown();
+        leaderThread.join(5000);
+        assertFalse(leaderThread.isAlive());
+    }
+
+    private static RequestCoalescer.Loader<String> failingLoader() {
+        return () -> {
+            throw new AssertionError("A joining caller must not load");
+        };
+    }
+
+    private static final class Recorder implements RequestCoalescer.Listener<String> {
+        volatile String result;
+        volatile boolean leader;
+        volatile Exception error;
+
+        @Override
+        public void onResult(String result, boolean leader) {
+            this.result = result;
+            this.leader = leader;
+        }
+
+        @Override
+        public void onFailure(Exception error) {
+            this.error = error;
+        }
+    }
+}
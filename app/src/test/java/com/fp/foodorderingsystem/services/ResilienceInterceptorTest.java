@@ -0,0 +1,97 @@
+package com.fp.foodorderingsystem.services;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Breaker and retry budget of {@link ResilienceInterceptor.EndpointState}, driven with
+ * explicit timestamps.
+ */
+public class ResilienceInterceptorTest {
+    private static final long T0 = 100_000;
+    // 3 failures open the circuit for 1 s; retries limited to 10% of requests (at least 3)
+    private final RetryPolicy policy = new RetryPolicy(3, 100, 1000, 0.1, 3, 1000);
+    private final ResilienceInterceptor.EndpointState state = new ResilienceInterceptor.EndpointState();
+
+    @Test
+    public void circuit_opensAfterConsecutiveFailures() {
+        state.onFailure(policy, T0);
+        state.onFailure(policy, T0);
+        assertEquals(0, state.acquirePermit(policy, T0));
+
+        state.onFailure(policy, T0);
+
+        assertEquals(1000, state.acquirePermit(policy, T0));
+        assertEquals(400, state.acquirePermit(policy, T0 + 600));
+        SupabaseService.EndpointHealth health = state.snapshot("orders");
+        assertEquals("OPEN", health.circuitState);
+        assertEquals(1, health.circuitOpens);
+        assertEquals(2, health.shortCircuits);
+    }
+
+    @Test
+    public void success_resetsTheFailureCount() {
+        state.onFailure(policy, T0);
+        state.onFailure(policy, T0);
+        state.onSuccess();
+        state.onFailure(policy, T0);
+        state.onFailure(policy, T0);
+
+        assertEquals(0, state.acquirePermit(policy, T0));
+        assertEquals("CLOSED", state.snapshot("orders").circuitState);
+    }
+
+    @Test
+    public void halfOpen_letsOneProbeThroughAndClosesOnSuccess() {
+        openCircuit();
+
+        assertEquals(0, state.acquirePermit(policy, T0 + 1000));
+        assertEquals("HALF_OPEN", state.snapshot("orders").circuitState);
+        // Only one probe at a time
+        assertTrue(state.acquirePermit(policy, T0 + 1001) > 0);
+
+        state.onSuccess();
+
+        assertEquals("CLOSED", state.snapshot("orders").circuitState);
+        assertEquals(0, state.acquirePermit(policy, T0 + 1002));
+    }
+
+    @Test
+    public void failedProbe_reopensTheCircuit() {
+        openCircuit();
+        assertEquals(0, state.acquirePermit(policy, T0 + 1000));
+
+        state.onFailure(policy, T0 + 1100);
+
+        assertEquals("OPEN", state.snapshot("orders").circuitState);
+        assertEquals(2, state.snapshot("orders").circuitOpens);
+        assertEquals(1000, state.acquirePermit(policy, T0 + 1100));
+    }
+
+    @Test
+    public void retryBudget_isShareOfRequestsWithAFloor() {
+        for (int i = 0; i < 40; i++) {
+            state.onRequest(T0);
+        }
+
+        // 10% of 40 requests
+        for (int i = 0; i < 4; i++) {
+            assertTrue(state.tryAcquireRetry(policy, T0));
+        }
+        assertFalse(state.tryAcquireRetry(policy, T0));
+
+        // A new window starts with the floor of 3
+        for (int i = 0; i < 3; i++) {
+            assertTrue(state.tryAcquireRetry(policy, T0 + 10_000));
+        }
+        assertFalse(state.tryAcquireRetry(policy, T0 + 10_000));
+        assertEquals(7, state.snapshot("orders").retries);
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < policy.failureThreshold; i++) {
+            state.onFailure(policy, T0);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.fp.foodorderingsystem.services;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyTest {
+    private static final double ALMOST_ONE = 0.999;
+
+    @Test
+    public void backoff_doublesFromTheBaseDelay() {
+        RetryPolicy policy = new RetryPolicy(5, 250, 4000, 0.2, 5, 15000);
+
+        assertEquals(249, policy.backoffMs(0, ALMOST_ONE));
+        assertEquals(499, policy.backoffMs(1, ALMOST_ONE));
+        assertEquals(999, policy.backoffMs(2, ALMOST_ONE));
+        assertEquals(1998, policy.backoffMs(3, ALMOST_ONE));
+    }
+
+    @Test
+    public void backoff_isCappedAtMaxDelay() {
+        RetryPolicy policy = new RetryPolicy(5, 250, 4000, 0.2, 5, 15000);
+
+        assertEquals(3996, policy.backoffMs(4, ALMOST_ONE));
+        assertEquals(3996, policy.backoffMs(10, ALMOST_ONE));
+        // Large retry counts must not overflow the shift into a negative or tiny ceiling
+        assertEquals(3996, policy.backoffMs(63, ALMOST_ONE));
+    }
+
+    @Test
+    public void backoff_isFullJitter() {
+        RetryPolicy policy = new RetryPolicy(5, 250, 4000, 0.2, 5, 15000);
+
+        assertEquals(0, policy.backoffMs(3, 0.0));
+        assertEquals(1000, policy.backoffMs(3, 0.5));
+    }
+
+    @Test
+    public void backoff_isZeroWithoutABaseDelay() {
+        assertEquals(0, RetryPolicy.NO_RETRY.backoffMs(0, ALMOST_ONE));
+        assertEquals(0, RetryPolicy.NO_RETRY.backoffMs(5, ALMOST_ONE));
+    }
+
+    @Test
+    public void constructor_clampsInconsistentSettings() {
+        RetryPolicy policy = new RetryPolicy(2, 500, 100, -1, 0, -5);
+
+        assertEquals(500, policy.maxDelayMs);
+        assertEquals(0.0, policy.retryBudgetRatio, 0.0);
+        assertEquals(1, policy.failureThreshold);
+        assertEquals(0, policy.openDurationMs);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsZeroAttempts() {
+        new RetryPolicy(0, 250, 4000, 0.2, 5, 15000);
+    }
+}
@@ -0,0 +1,113 @@
+package com.fp.foodorderingsystem.services;
+
+import java.io.IOException;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs requests through {@link TelemetryInterceptor} and {@link CatalogCacheInterceptor} in the
+ * order the app installs them, and checks what ends up in {@link NetworkTelemetry}.
+ */
+public class TelemetryInterceptorTest {
+    private static final String CATALOG_BODY = "[{\"id\":1,\"name\":\"Adobo\"},{\"id\":2,\"name\":\"Sinigang\"}]";
+
+    @Rule
+    public final TemporaryFolder cacheDir = new TemporaryFolder();
+
+    private final NetworkTelemetry telemetry = NetworkTelemetry.getInstance();
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        telemetry.reset();
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient.Builder()
+            .cache(new Cache(cacheDir.getRoot(), 1024 * 1024))
+            .addNetworkInterceptor(new TelemetryInterceptor(telemetry))
+            .addNetworkInterceptor(new CatalogCacheInterceptor(telemetry))
+            .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        telemetry.reset();
+    }
+
+    @Test
+    public void statusCodes_areCountedPerEndpoint() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+        server.enqueue(new MockResponse().setResponseCode(404).setBody("{}"));
+        server.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+
+        for (int i = 0; i < 3; i++) {
+            execute("/rest/v1/orders").close();
+        }
+
+        NetworkTelemetry.EndpointStats stats = telemetry.getStats("orders");
+        assertNotNull(stats);
+        assertEquals(3, stats.requests);
+        assertEquals(0, stats.failures);
+        assertEquals(1, stats.getStatusCount(200));
+        assertEquals(1, stats.getStatusCount(404));
+        assertEquals(1, stats.getStatusCount(500));
+    }
+
+    @Test
+    public void bytesReceived_areRecordedOnceTheBodyIsRead() throws IOException {
+        String body = "[{\"id\":\"7b1f7c1e-2f1a-4d2b-9a57-0c1a2b3c4d5e\",\"status\":\"pending\"}]";
+        server.enqueue(new MockResponse().setBody(body));
+
+        try (Response response = execute("/rest/v1/orders")) {
+            assertEquals(0, telemetry.getStats("orders").bytesReceived);
+            assertEquals(body, response.body().string());
+        }
+
+        assertEquals(body.length(), telemetry.getStats("orders").bytesReceived);
+    }
+
+    @Test
+    public void syntheticNotModified_countsTheDiscardedBody() throws Exception {
+        // PostgREST sends no ETag; the interceptor derives one and answers the repeat with a 304
+        server.enqueue(new MockResponse().setBody(CATALOG_BODY));
+        server.enqueue(new MockResponse().setBody(CATALOG_BODY));
+
+        try (Response first = execute("/rest/v1/menu_items")) {
+            assertEquals(CATALOG_BODY, first.body().string());
+        }
+        try (Response second = execute("/rest/v1/menu_items")) {
+            assertEquals(304, second.networkResponse().code());
+            assertEquals(CATALOG_BODY, second.body().string());
+        }
+
+        server.takeRequest();
+        RecordedRequest revalidation = server.takeRequest();
+        assertNotNull(revalidation.getHeader("If-None-Match"));
+
+        NetworkTelemetry.EndpointStats stats = telemetry.getStats("menu_items");
+        assertEquals(2, stats.requests);
+        assertEquals(1, stats.getStatusCount(200));
+        assertEquals(1, stats.getStatusCount(304));
+        // Both bodies crossed the wire; the second was dropped by the interceptor, not read
+        assertEquals(2L * CATALOG_BODY.length(), stats.bytesReceived);
+    }
+
+    private Response execute(String path) throws IOException {
+        Request request = new Request.Builder().url(server.url(path)).build();
+        return client.newCall(request).execute();
+    }
+}
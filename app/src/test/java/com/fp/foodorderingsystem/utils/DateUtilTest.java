@@ -0,0 +1,177 @@
+package com.fp.foodorderingsystem.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.Locale;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks DateUtil.parseTimestamp against java.time and SimpleDateFormat for the timestamptz
+ * shapes Postgres and Supabase return, and that it parses without allocating. With
+ * {@code -Pbenchmarks} it also times the parser against SimpleDateFormat, one per call as the
+ * screens used to do and one reused instance.
+ */
+public class DateUtilTest {
+    private static final int TIMESTAMP_COUNT = 10_000;
+    private static final int ALLOCATION_ROUNDS = 20;
+    private static final int BENCHMARK_WARMUP_ROUNDS = 5;
+    private static final int BENCHMARK_ROUNDS = 20;
+    private static final String SIMPLE_PATTERN = "yyyy-MM-dd'T'HH:mm:ssXXX";
+
+    private static final DateTimeFormatter POSTGRES = new DateTimeFormatterBuilder()
+        .appendPattern("yyyy-MM-dd'T'HH:mm:ss")
+        .optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 1, 9, true).optionalEnd()
+        .appendOffset("+HH:mm", "Z")
+        .toFormatter(Locale.US);
+
+    @Test
+    public void parseTimestamp_matchesJavaTime() {
+        String[] samples = {
+            "2024-05-01T10:15:30Z",
+            "2024-05-01T10:15:30+08:00",
+            "2024-05-01T10:15:30.1+08:00",
+            "2024-05-01T10:15:30.123456+00:00",
+            "2024-02-29T23:59:59.999-05:30",
+            "1999-12-31T16:00:00.5+14:00",
+            "2100-03-01T00:00:00-12:00",
+        };
+        for (String sample : samples) {
+            long expected = OffsetDateTime.parse(sample, POSTGRES).toInstant().toEpochMilli();
+            assertEquals(sample, expected, DateUtil.parseTimestamp(sample));
+        }
+    }
+
+    @Test
+    public void parseTimestamp_acceptsPostgresVariants() {
+        long expected = 1714558530000L; // 2024-05-01T10:15:30Z
+        assertEquals(expected, DateUtil.parseTimestamp("2024-05-01 10:15:30+00"));
+        assertEquals(expected, DateUtil.parseTimestamp("2024-05-01T18:15:30+0800"));
+        assertEquals(expected, DateUtil.parseTimestamp("2024-05-01T10:15:30")); // no offset: UTC
+        assertEquals(expected - 30_000L, DateUtil.parseTimestamp("2024-05-01T10:15Z"));
+        assertEquals(expected + 28_000L, DateUtil.parseTimestamp("2024-05-01T16:09:30+05:53:32"));
+        assertEquals(1714521600000L, DateUtil.parseTimestamp("2024-05-01"));
+    }
+
+    @Test
+    public void parseTimestamp_rejectsInvalidValues() {
+        String[] invalid = {
+            null, "", "2024-05", "2024-13-01T00:00:00Z", "2023-02-29T00:00:00Z",
+            "2024-05-01T24:00:00Z", "2024-05-01T10:15:30.Z", "2024-05-01T10:15:30+8",
+            "2024-05-01T10:15:30 UTC", "infinity", "2024-05-01T10:15:30Zjunk",
+        };
+        for (String value : invalid) {
+            assertEquals(String.valueOf(value), 0L, DateUtil.parseTimestamp(value));
+        }
+    }
+
+    @Test
+    public void getTimeAgo_reusesCachedStrings() {
+        long now = 1714558530000L;
+        String first = DateUtil.getTimeAgo(now - 5 * 60_000L, now);
+        assertEquals("5 minutes ago", first);
+        assertSame(first, DateUtil.getTimeAgo(now - 5 * 60_000L - 10_000L, now));
+        assertEquals("3 hours ago", DateUtil.getTimeAgo(now - 3 * 3_600_000L, now));
+        assertEquals("2 days ago", DateUtil.getTimeAgo(now - 2 * 86_400_000L, now));
+        assertEquals("0 minutes ago", DateUtil.getTimeAgo(now + 60_000L, now)); // clock skew
+    }
+
+    @Test
+    public void parseTimestamp_matchesSimpleDateFormatWithoutAllocating() throws ParseException {
+        String[] timestamps = buildTimestamps(TIMESTAMP_COUNT);
+        SimpleDateFormat reused = new SimpleDateFormat(SIMPLE_PATTERN, Locale.US);
+        for (String timestamp : timestamps) {
+            assertEquals(timestamp, reused.parse(timestamp).getTime(), DateUtil.parseTimestamp(timestamp));
+        }
+
+        long allocatedPerParse = allocatedBytesPerParse(timestamps);
+        if (allocatedPerParse >= 0) {
+            assertTrue("Parser allocates " + allocatedPerParse + " bytes/parse", allocatedPerParse < 8);
+        }
+    }
+
+    @Test
+    public void benchmark_parserVersusSimpleDateFormat() throws ParseException {
+        Assume.assumeTrue("Benchmarks run with -Pbenchmarks", Boolean.getBoolean("benchmarks"));
+        String[] timestamps = buildTimestamps(TIMESTAMP_COUNT);
+        SimpleDateFormat reused = new SimpleDateFormat(SIMPLE_PATTERN, Locale.US);
+
+        double parser = nanosPerParse(timestamps, DateUtil::parseTimestamp);
+        double reusedFormat = nanosPerParse(timestamps, timestamp -> reused.parse(timestamp).getTime());
+        double formatPerCall = nanosPerParse(timestamps,
+            timestamp -> new SimpleDateFormat(SIMPLE_PATTERN, Locale.US).parse(timestamp).getTime());
+
+        // No assertion on the numbers: they depend on the host
+        System.out.println(String.format(Locale.US,
+            "ns/parse over %d timestamps: parser=%.0f, reused SimpleDateFormat=%.0f, "
+                + "SimpleDateFormat per call=%.0f",
+            TIMESTAMP_COUNT, parser, reusedFormat, formatPerCall));
+    }
+
+    private interface Parser {
+        long parse(String timestamp) throws ParseException;
+    }
+
+    /**
+     * Best of {@link #BENCHMARK_ROUNDS} passes over all timestamps, after warmup.
+     */
+    private static double nanosPerParse(String[] timestamps, Parser parser) throws ParseException {
+        long best = Long.MAX_VALUE;
+        long sum = 0;
+        for (int round = 0; round < BENCHMARK_WARMUP_ROUNDS + BENCHMARK_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String timestamp : timestamps) {
+                sum += parser.parse(timestamp);
+            }
+            if (round >= BENCHMARK_WARMUP_ROUNDS) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        assertNotEquals(0L, sum);
+        return (double) best / timestamps.length;
+    }
+
+    /**
+     * Bytes this thread allocates per parse, or -1 when the JVM can't tell.
+     */
+    private static long allocatedBytesPerParse(String[] timestamps) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long threadId = Thread.currentThread().getId();
+        long sum = 0;
+        long before = hotspot.getThreadAllocatedBytes(threadId);
+        for (int round = 0; round < ALLOCATION_ROUNDS; round++) {
+            for (String timestamp : timestamps) {
+                sum += DateUtil.parseTimestamp(timestamp);
+            }
+        }
+        long allocated = hotspot.getThreadAllocatedBytes(threadId) - before;
+        assertNotEquals(0L, sum);
+        return allocated / ((long) ALLOCATION_ROUNDS * timestamps.length);
+    }
+
+    private static String[] buildTimestamps(int count) {
+        String[] offsets = {"Z", "+08:00", "-05:30", "+00:00"};
+        String[] timestamps = new String[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = String.format(Locale.US, "20%02d-%02d-%02dT%02d:%02d:%02d%s",
+                20 + i % 10, 1 + i % 12, 1 + i % 28, i % 24, i % 60, (i * 7) % 60,
+                offsets[i % offsets.length]);
+        }
+        return timestamps;
+    }
+}